@@ -2,6 +2,7 @@ package oram;
 
 import oram.block.BlockTrivial;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -13,4 +14,21 @@ public interface AccessStrategy {
     boolean setup(List<BlockTrivial> blocks);
 
     byte[] access(OperationType op, int address, byte[] data, boolean recursiveLookup, boolean lookaheadSetup);
+
+    /**
+     * Does the accesses in the order given. Strategies which can share round trips between the accesses override this,
+     * by default the accesses are done one by one.
+     *
+     * @return the data of each access, in the order of the requests, or null if any of the accesses failed
+     */
+    default List<byte[]> accessBatch(List<Request> requests) {
+        List<byte[]> res = new ArrayList<>(requests.size());
+        for (Request request : requests) {
+            byte[] data = access(request.getOp(), request.getAddress(), request.getData(), false, false);
+            if (data == null)
+                return null;
+            res.add(data);
+        }
+        return res;
+    }
 }
@@ -0,0 +1,204 @@
+package oram;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * Lets many threads share one ORAM client. Requests are queued and a single scheduler thread drives the access
+ * strategy, so the strategy itself is never used concurrently. While an access is in flight new requests gather in the
+ * queue, and the scheduler takes all of them, up to the maximum batch size, as the next batch for
+ * {@link AccessStrategy#accessBatch}. Requests in a batch for the same address are coalesced into one access, a write
+ * if any of them writes. Each future completes with what {@link AccessStrategy#access} would have returned had the
+ * requests been done one by one in the order they were queued, that is the data before the request for a write. A
+ * future completes with null if the access failed, or if it was still queued when the scheduler stopped.
+ */
+
+public class AsyncAccessStrategy implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger("log");
+    private static final PendingRequest SHUTDOWN = new PendingRequest(null);
+    private final AccessStrategy accessStrategy;
+    private final int maxBatchSize;
+    private final BlockingQueue<PendingRequest> queue;
+    private final Thread scheduler;
+    private final AtomicLong requests;
+    private final AtomicLong accesses;
+    //    Guards closed and the queueing of requests, so no request is queued after the scheduler has drained the queue
+    private final Object lock;
+    private boolean closed;
+
+    public AsyncAccessStrategy(AccessStrategy accessStrategy) {
+        this(accessStrategy, Constants.DEFAULT_ASYNC_BATCH_SIZE);
+    }
+
+    public AsyncAccessStrategy(AccessStrategy accessStrategy, int maxBatchSize) {
+        this.accessStrategy = accessStrategy;
+        this.maxBatchSize = maxBatchSize;
+        queue = new LinkedBlockingQueue<>();
+        requests = new AtomicLong();
+        accesses = new AtomicLong();
+        lock = new Object();
+        closed = false;
+        scheduler = new Thread(this::schedule, "oram-access-scheduler");
+        scheduler.setDaemon(true);
+        scheduler.start();
+    }
+
+    public CompletableFuture<byte[]> read(int address) {
+        return submit(Request.read(address));
+    }
+
+    public CompletableFuture<byte[]> write(int address, byte[] data) {
+        return submit(Request.write(address, data));
+    }
+
+    public CompletableFuture<byte[]> submit(Request request) {
+        PendingRequest pendingRequest = new PendingRequest(request);
+        synchronized (lock) {
+            if (!closed) {
+                requests.incrementAndGet();
+                queue.add(pendingRequest);
+                return pendingRequest.future;
+            }
+        }
+        logger.error("Request after the asynchronous access strategy was closed: " + request);
+        pendingRequest.future.complete(null);
+        return pendingRequest.future;
+    }
+
+    /**
+     * @return the number of requests submitted
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * @return the number of accesses done on the access strategy, which is smaller than the number of requests when
+     * requests have been coalesced
+     */
+    public long getAccesses() {
+        return accesses.get();
+    }
+
+    /**
+     * Completes the requests already submitted and stops the scheduler thread
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            if (closed) return;
+            closed = true;
+            queue.add(SHUTDOWN);
+        }
+        try {
+            scheduler.join();
+        } catch (InterruptedException e) {
+            logger.error("Interrupted while waiting for the access scheduler to finish");
+            logger.debug("Stacktrace", e);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void schedule() {
+        List<PendingRequest> batch = new ArrayList<>(maxBatchSize);
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                logger.error("Access scheduler interrupted");
+                logger.debug("Stacktrace", e);
+                break;
+            }
+            queue.drainTo(batch, maxBatchSize - 1);
+
+            if (batch.remove(SHUTDOWN)) {
+                running = false;
+                queue.drainTo(batch);
+                batch.remove(SHUTDOWN);
+            }
+            if (!batch.isEmpty())
+                doBatch(batch);
+            batch.clear();
+        }
+
+//        When interrupted the scheduler stops without a shutdown, so later requests must be refused from here on
+        synchronized (lock) {
+            closed = true;
+        }
+        queue.drainTo(batch);
+        batch.remove(SHUTDOWN);
+        if (!batch.isEmpty())
+            logger.error("Access scheduler stopped with " + batch.size() + " requests left");
+        for (PendingRequest pendingRequest : batch)
+            pendingRequest.future.complete(null);
+    }
+
+    private void doBatch(List<PendingRequest> batch) {
+//        Group the requests by address, keeping the order they were queued in
+        Map<Integer, List<PendingRequest>> requestsByAddress = new LinkedHashMap<>();
+        for (PendingRequest pendingRequest : batch)
+            requestsByAddress.computeIfAbsent(pendingRequest.request.getAddress(), k -> new ArrayList<>())
+                    .add(pendingRequest);
+
+        List<Request> requestsToDo = new ArrayList<>(requestsByAddress.size());
+        for (Map.Entry<Integer, List<PendingRequest>> entry : requestsByAddress.entrySet()) {
+            Request lastWrite = null;
+            for (PendingRequest pendingRequest : entry.getValue())
+                if (pendingRequest.request.getOp() == OperationType.WRITE)
+                    lastWrite = pendingRequest.request;
+            requestsToDo.add(lastWrite != null ? lastWrite : Request.read(entry.getKey()));
+        }
+
+        List<byte[]> results;
+        try {
+            results = accessStrategy.accessBatch(requestsToDo);
+        } catch (RuntimeException e) {
+            logger.error("Batch of " + requestsToDo.size() + " accesses threw an exception");
+            logger.debug("Stacktrace", e);
+            results = null;
+        }
+        accesses.addAndGet(requestsToDo.size());
+        if (results == null) {
+            logger.error("Unable to do batch of " + requestsToDo.size() + " accesses");
+        } else if (results.size() != requestsToDo.size()) {
+            logger.error("Batch of " + requestsToDo.size() + " accesses returned " + results.size() + " results");
+            results = null;
+        }
+
+//        Each request gets the data as it was after the requests before it for the same address
+        int i = 0;
+        for (List<PendingRequest> pendingRequests : requestsByAddress.values()) {
+            byte[] data = results == null ? null : results.get(i);
+            for (PendingRequest pendingRequest : pendingRequests) {
+                pendingRequest.future.complete(data);
+                if (results != null && pendingRequest.request.getOp() == OperationType.WRITE)
+                    data = pendingRequest.request.getData();
+            }
+            i++;
+        }
+    }
+
+    private static class PendingRequest {
+        private final Request request;
+        private final CompletableFuture<byte[]> future;
+
+        private PendingRequest(Request request) {
+            this.request = request;
+            future = new CompletableFuture<>();
+        }
+    }
+}
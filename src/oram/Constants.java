@@ -19,6 +19,10 @@ public class Constants {
     public static final int ENCRYPTED_INTEGER_SIZE = 32;
 
     public static final int DEFAULT_BUCKET_SIZE = 4;
+    public static final int DEFAULT_RING_DUMMIES = 6;
+    public static final int DEFAULT_RING_EVICTION_RATE = 3;
+    public static final int DEFAULT_ASYNC_BATCH_SIZE = 64;
+    public static final int DEFAULT_PARTITION_BUFFER_SIZE = 16;
 
     public static final int DUMMY_POSITION = -42;
 
@@ -1,6 +1,7 @@
 package oram;
 
 import oram.block.BlockTrivial;
+import oram.block.PositionBlock;
 import oram.clientcom.CommunicationStrategy;
 import oram.clientcom.CommunicationStrategyTiming;
 import oram.encryption.EncryptionStrategy;
@@ -38,8 +39,8 @@ class Main {
         List<BlockTrivial> blocks = new ArrayList<>();
         for (int i = 1; i <= numberOfBlocks; i++) {
             int mapBeginning = (i - 1) * Constants.POSITION_BLOCK_SIZE + 1;
-            Map<Integer, Integer> map = Util.getDummyMap(mapBeginning);
-            BlockTrivial block = new BlockTrivial(i, Util.getByteArrayFromMap(map)); // Maps are used in case of recursive ORAMs
+            PositionBlock positionBlock = PositionBlock.getDummyBlock(mapBeginning);
+            BlockTrivial block = new BlockTrivial(i, positionBlock.toByteArray()); // Used in case of recursive ORAMs
             blocks.add(block);
             blockArray[i] = block;
         }
@@ -101,7 +102,8 @@ class Main {
             if (res == null) break;
 
             if (addressesWrittenTo.contains(address)) {
-                if (oramFactories.get(0) instanceof ORAMFactoryPath && res.length == 0)
+                if ((oramFactories.get(0) instanceof ORAMFactoryPath || oramFactories.get(0) instanceof ORAMFactoryRing)
+                        && res.length == 0)
                     break;
                 else { // When something goes south
                     if (!Arrays.equals(res, blockArray[address].getData())) {
@@ -144,10 +146,13 @@ class Main {
 
     private static void finalMessages(List<ORAMFactory> oramFactories, Factory factory,
                                       CommunicationStrategy communicationStrategy, StringBuilder resume) {
-        //        Print stash size, if main ORAM were Path ORAM
-        if (oramFactories.get(0) instanceof ORAMFactoryPath)
+        //        Print stash size, if main ORAM were Path or Ring ORAM
+        if (oramFactories.get(0) instanceof ORAMFactoryPath || oramFactories.get(0) instanceof ORAMFactoryRing)
             Util.logAndPrint(logger, "Max stash size: " + oramFactories.get(0).getMaxStashSize() +
                     ", max stash size between accesses: " + oramFactories.get(0).getMaxStashSizeBetweenAccesses());
+        if (oramFactories.get(0) instanceof ORAMFactoryPath)
+            Util.logAndPrint(logger, "Stash size histogram: " +
+                    ((ORAMFactoryPath) oramFactories.get(0)).getStashSizeHistogram());
 
 //        Print the amount of time used to encrypt and decrypt blocks
         EncryptionStrategy encryptionStrategy = factory.getEncryptionStrategy();
@@ -199,10 +204,10 @@ class Main {
         outer:
         for (int i = 0; i < numberOfORAMS; i++) {
             int levelSize = Util.getLevelSize(i, numberOfORAMS - 1);
-            switch (Util.chooseORAMType("ORAM number " + i + ", choose between Lookahead, Lookahead using Trivial specialised for Lookahead, Path, or Trivial [l/lt/p/t]")) {
+            switch (Util.chooseORAMType("ORAM number " + i + ", choose between Lookahead, Lookahead using Trivial specialised for Lookahead, Path, Ring, or Trivial [l/lt/p/r/t]")) {
                 case "l":
                     factories.add(new ORAMFactoryLookahead(levelSize, offset));
-                    offset += levelSize + 2 * Math.sqrt(levelSize);
+                    offset += factories.get(i).getTotalSize();
                     break;
                 case "lt":
                     factories.add(new ORAMFactoryLookaheadTrivial(levelSize, offset));
@@ -211,6 +216,10 @@ class Main {
                     factories.add(new ORAMFactoryPath(levelSize, offset));
                     offset += (levelSize - 1) * Constants.DEFAULT_BUCKET_SIZE;
                     break;
+                case "r":
+                    factories.add(new ORAMFactoryRing(levelSize, offset));
+                    offset += ORAMFactoryRing.getTotalSize(levelSize - 1);
+                    break;
                 default:
                     factories.add(new ORAMFactoryTrivial(levelSize, offset));
                     break outer;
@@ -222,10 +231,10 @@ class Main {
 
     private static ORAMFactory getSingleOramFactory() {
         Scanner scanner = new Scanner(System.in);
-        Util.logAndPrint(logger, "Choose ORAM, either Lookahead, Path or Trivial [l/p/t]");
+        Util.logAndPrint(logger, "Choose ORAM, either Lookahead, Path, Ring or Trivial [l/p/r/t]");
         String answer = scanner.nextLine();
-        while (!(answer.equals("l") || answer.equals("p") || answer.equals("t"))) {
-            System.out.println("Choose ORAM [l/p/t]");
+        while (!(answer.equals("l") || answer.equals("p") || answer.equals("r") || answer.equals("t"))) {
+            System.out.println("Choose ORAM [l/p/r/t]");
             answer = scanner.nextLine();
         }
         switch (answer) {
@@ -233,6 +242,8 @@ class Main {
                 return new ORAMFactoryLookahead();
             case "p":
                 return new ORAMFactoryPath();
+            case "r":
+                return new ORAMFactoryRing();
             case "t":
                 return new ORAMFactoryTrivial();
             default:
@@ -0,0 +1,49 @@
+package oram;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * A single access in a batch given to {@link AccessStrategy#accessBatch}. The data is only used by writes.
+ */
+
+public class Request {
+    private final OperationType op;
+    private final int address;
+    private final byte[] data;
+
+    public Request(OperationType op, int address, byte[] data) {
+        this.op = op;
+        this.address = address;
+        this.data = data;
+    }
+
+    public static Request read(int address) {
+        return new Request(OperationType.READ, address, null);
+    }
+
+    public static Request write(int address, byte[] data) {
+        return new Request(OperationType.WRITE, address, data);
+    }
+
+    public OperationType getOp() {
+        return op;
+    }
+
+    public int getAddress() {
+        return address;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    @Override
+    public String toString() {
+        return "Request{" +
+                "op=" + op +
+                ", address=" + address +
+                '}';
+    }
+}
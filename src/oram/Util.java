@@ -2,21 +2,22 @@ package oram;
 
 import oram.block.BlockEncrypted;
 import oram.block.BlockPath;
+import oram.block.PositionBlock;
 import oram.blockenc.BlockEncryptionStrategyPath;
 import oram.factory.Factory;
 import oram.lookahead.AccessStrategyDummy;
 import oram.ofactory.ORAMFactory;
 import oram.ofactory.ORAMFactoryLookaheadTrivial;
+import oram.path.PathTree;
+import oram.random.RandomSource;
 import org.apache.commons.lang3.Range;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import javax.crypto.SecretKey;
-import java.io.*;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.security.SecureRandom;
 import java.util.*;
 
 /**
@@ -31,9 +32,8 @@ public class Util {
     public static byte[] getRandomByteArray(int length) {
         if (length <= 0) return new byte[0];
 
-        SecureRandom random = new SecureRandom();
         byte[] res = new byte[length];
-        random.nextBytes(res);
+        RandomSource.getDefault().nextBytes(res);
 
         return res;
     }
@@ -169,62 +169,6 @@ public class Util {
         return Integer.parseInt(answer);
     }
 
-    public static Map<Integer, Integer> getMapFromByteArray(byte[] array) {
-        if (array == null) return null;
-        if (Arrays.equals(array, new byte[0])) return new HashMap<>();
-        Map<Integer, Integer> res = null;
-        ByteArrayInputStream bis = new ByteArrayInputStream(array);
-        try (ObjectInputStream ois = new ObjectInputStream(bis)) {
-            res = (Map<Integer, Integer>) ois.readObject();
-        } catch (IOException | ClassNotFoundException e) {
-            logger.error("Unable to get position map from byte array: " + Arrays.toString(array));
-            logger.error(e);
-            logger.debug("Stacktrace:", e);
-        }
-        return res;
-    }
-
-    public static Map<Integer, Integer> getDummyMap(int addressToInclude) {
-        Integer startAddress;
-        if (addressToInclude == 0) {
-            startAddress = -16;
-        } else {
-            startAddress = null;
-            for (int i = 0; i < Constants.POSITION_BLOCK_SIZE; i++) {
-                int modBlockSize = (addressToInclude - i) % Constants.POSITION_BLOCK_SIZE;
-                if (modBlockSize == 1) {
-                    startAddress = addressToInclude - i;
-                    break;
-                }
-            }
-        }
-
-        if (startAddress == null) {
-            logger.error("Unable to find start address for: " + addressToInclude);
-            return null;
-        }
-
-        Map<Integer, Integer> map = new HashMap<>();
-        for (int i = 0; i < Constants.POSITION_BLOCK_SIZE; i++)
-            map.put(startAddress + i, Constants.DUMMY_POSITION);
-
-        return map;
-    }
-
-    public static byte[] getByteArrayFromMap(Map<Integer, Integer> map) {
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
-            oos.writeObject(map);
-            oos.flush();
-        } catch (IOException e) {
-            logger.error("Unable to create byte array for dummy position array");
-            logger.error(e);
-            logger.debug("Stacktrace:", e);
-            return null;
-        }
-        return bos.toByteArray();
-    }
-
     public static String getEmptyStringOfLength(int length) {
         StringBuilder builder = new StringBuilder();
         for (int i = 0; i < length; i++)
@@ -236,24 +180,26 @@ public class Util {
         Scanner scanner = new Scanner(System.in);
         Util.logAndPrint(logger, string);
         String answer = scanner.nextLine();
-        while (!(answer.equals("l") || answer.equals("p") || answer.equals("t") || answer.equals("lt"))) {
-            System.out.println("Choose ORAM between Lookahead, Path, Trivial, or Lookahead (using Trivial specialised for Lookahead) [l/lt/p/t]");
+        while (!(answer.equals("l") || answer.equals("p") || answer.equals("r") || answer.equals("t") ||
+                answer.equals("lt"))) {
+            System.out.println("Choose ORAM between Lookahead, Path, Ring, Trivial, or Lookahead (using Trivial specialised for Lookahead) [l/lt/p/r/t]");
             answer = scanner.nextLine();
         }
         logger.info(answer);
         return answer;
     }
 
-    static int getLevelSize(int level, int numberOfORAM) {
-        return (int) Math.pow(2, ((numberOfORAM - level) * 4) + 6);
+    public static int getLevelSize(int level, int numberOfORAM) {
+        int positionBlockBits = Integer.numberOfTrailingZeros(Constants.POSITION_BLOCK_SIZE);
+        return (int) Math.pow(2, ((numberOfORAM - level) * positionBlockBits) + 6);
     }
 
-    public static Map<Integer, Integer> getPositionMap(int address, int newPosition, AccessStrategy access) {
+    public static PositionBlock getPositionBlock(int address, int newPosition, AccessStrategy access) {
         byte[] newPositionBytes = leIntToByteArray(newPosition);
-        byte[] positionMapBytes = access.access(OperationType.WRITE, address, newPositionBytes, true,
+        byte[] positionBlockBytes = access.access(OperationType.WRITE, address, newPositionBytes, true,
                 false);
 
-        return getMapFromByteArray(positionMapBytes);
+        return PositionBlock.fromByteArray(positionBlockBytes);
     }
 
     public static List<String> getAddressStrings(int from, int to) {
@@ -283,10 +229,7 @@ public class Util {
 
     static String printTree(BlockEncrypted[] array, int bucketSize, SecretKey secretKey, String prefixString,
                             BlockEncryptionStrategyPath blockEncryptionStrategyPath) {
-        int layers = 0;
-        while ((array.length / bucketSize) >= Math.pow(2, layers)) {
-            layers++;
-        }
+        int layers = PathTree.getLevels(array.length / bucketSize);
 
         List<BlockEncrypted> encrypted = new ArrayList<>(Arrays.asList(array));
 
@@ -303,8 +246,7 @@ public class Util {
             prefix.append("        ");
 
         StringBuilder builder = new StringBuilder();
-        double sizeMinusOne = Math.pow(2, maxLayers - 1) - 1;
-        if (index == sizeMinusOne + 1)
+        if (index == PathTree.getFirstLeafNode(maxLayers) + 1)
             builder.append(prefixString);
 
         for (int i = 0; i < bucketSize; i++) {
@@ -321,19 +263,14 @@ public class Util {
             builder.append("\n").append(prefixString);
         }
 
-        if (index >= sizeMinusOne)
+        if (PathTree.isLeafNode(index, maxLayers))
             return builder.toString();
 
 
-        String rightChild;
-        String leftChild;
-        if (index == 0) {
-            rightChild = printBucket(array, bucketSize, 2, layer + 1, maxLayers, prefixString);
-            leftChild = printBucket(array, bucketSize, 1, layer + 1, maxLayers, prefixString);
-        } else {
-            rightChild = printBucket(array, bucketSize, ((index + 1) * 2), layer + 1, maxLayers, prefixString);
-            leftChild = printBucket(array, bucketSize, ((index + 1) * 2) - 1, layer + 1, maxLayers, prefixString);
-        }
+        String rightChild = printBucket(array, bucketSize, PathTree.getRightChild(index), layer + 1, maxLayers,
+                prefixString);
+        String leftChild = printBucket(array, bucketSize, PathTree.getLeftChild(index), layer + 1, maxLayers,
+                prefixString);
 
         builder.insert(0, rightChild);
         builder.append(leftChild);
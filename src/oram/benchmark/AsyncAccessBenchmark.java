@@ -0,0 +1,83 @@
+package oram.benchmark;
+
+import oram.AccessStrategy;
+import oram.AsyncAccessStrategy;
+import oram.Constants;
+import oram.OperationType;
+import oram.Util;
+import oram.factory.FactoryLocal;
+import oram.ofactory.ORAMFactoryPath;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * Load test of {@link AsyncAccessStrategy} on the stub server with a simulated round trip time. A number of
+ * application threads each do a fixed number of random accesses to one Path ORAM, either by calling access under a
+ * lock or through the asynchronous facade, and the requests served per second are compared.
+ */
+
+public class AsyncAccessBenchmark {
+    private static final int SIZE = 4096;
+    private static final int REQUESTS_PER_THREAD = 200;
+    private static final int[] THREADS = {1, 4, 16, 64};
+
+    public static void main(String[] args) throws Exception {
+        long roundTripTime = args.length > 0 ? Long.parseLong(args[0]) : 500;
+        System.out.println("Path ORAM of size " + SIZE + ", round trip time: " + roundTripTime + " us, " +
+                REQUESTS_PER_THREAD + " requests per thread");
+
+        for (int threads : THREADS) {
+            double locked = run(threads, roundTripTime, false);
+            double async = run(threads, roundTripTime, true);
+            System.out.println(String.format("%3d threads: %8.1f requests/s locked, %8.1f requests/s async", threads,
+                    locked, async));
+        }
+    }
+
+    private static double run(int threads, long roundTripTime, boolean async) throws Exception {
+        ORAMFactoryPath oramFactory = new ORAMFactoryPath(SIZE, 0);
+        FactoryLocal factory = new FactoryLocal(Collections.singletonList(oramFactory), 1);
+        factory.setSimulatedRoundTripTime(roundTripTime);
+        AccessStrategy accessStrategy = oramFactory.getAccessStrategy(Constants.KEY_BYTES, factory, null, 0);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (AsyncAccessStrategy asyncAccessStrategy = new AsyncAccessStrategy(accessStrategy)) {
+            List<Future<?>> futures = new ArrayList<>();
+            long startTime = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                Random random = new Random(t);
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                        int address = random.nextInt(SIZE - 1) + 1;
+                        byte[] data = Util.getRandomByteArray(Constants.BLOCK_SIZE);
+                        if (async) {
+                            CompletableFuture<byte[]> future = asyncAccessStrategy.write(address, data);
+                            future.join();
+                        } else {
+                            synchronized (accessStrategy) {
+                                accessStrategy.access(OperationType.WRITE, address, data, false, false);
+                            }
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures)
+                future.get();
+            long time = System.nanoTime() - startTime;
+            return (double) threads * REQUESTS_PER_THREAD / time * 1000000000;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
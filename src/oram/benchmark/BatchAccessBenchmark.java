@@ -0,0 +1,89 @@
+package oram.benchmark;
+
+import oram.AccessStrategy;
+import oram.Constants;
+import oram.Request;
+import oram.Util;
+import oram.block.BlockTrivial;
+import oram.clientcom.CommunicationStrategyCounting;
+import oram.factory.FactoryLocal;
+import oram.ofactory.ORAMFactory;
+import oram.ofactory.ORAMFactoryLookahead;
+import oram.ofactory.ORAMFactoryPath;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * Measures {@link AccessStrategy#accessBatch} on the stub server for growing batch sizes, by the round trips, the
+ * blocks moved and the time per requested block. Path ORAM reads and writes the union of the paths of a batch, and
+ * Lookahead ORAM sends the write back of each access with the read of the next.
+ */
+
+public class BatchAccessBenchmark {
+    private static final int BLOCKS_PER_RUN = 2048;
+    private static final int[] BATCH_SIZES = {1, 4, 16, 64};
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 4096;
+        System.out.println("ORAMs of size " + size + ", " + BLOCKS_PER_RUN + " blocks per run");
+
+        for (int batchSize : BATCH_SIZES) {
+            ORAMFactory oramFactory = new ORAMFactoryPath(size, 0);
+            FactoryLocal factory = new FactoryLocal(Collections.singletonList(oramFactory), 1);
+            run("Path", oramFactory.getAccessStrategy(Constants.KEY_BYTES, factory, null, 0), factory, size,
+                    batchSize);
+        }
+
+        for (int batchSize : BATCH_SIZES) {
+            ORAMFactory oramFactory = new ORAMFactoryLookahead(size, 0);
+            FactoryLocal factory = new FactoryLocal(Collections.singletonList(oramFactory), 1);
+            AccessStrategy accessStrategy = oramFactory.getAccessStrategy(Constants.KEY_BYTES, factory, null, 0);
+            List<BlockTrivial> blocks = new ArrayList<>();
+            for (int i = 1; i < size; i++)
+                blocks.add(new BlockTrivial(i, Util.getRandomByteArray(Constants.BLOCK_SIZE)));
+            accessStrategy.setup(blocks);
+            run("Lookahead", accessStrategy, factory, size, batchSize);
+        }
+    }
+
+    private static void run(String name, AccessStrategy accessStrategy, FactoryLocal factory, int size,
+                            int batchSize) {
+        CommunicationStrategyCounting communicationStrategy =
+                (CommunicationStrategyCounting) factory.getCommunicationStrategy();
+        Random random = new Random(42);
+        for (int i = 1; i < size; i += batchSize)
+            accessStrategy.accessBatch(getBatch(random, size, batchSize, true));
+
+        communicationStrategy.resetRoundTrips();
+        communicationStrategy.resetBlockSent();
+        communicationStrategy.resetBlocksReceived();
+        long startTime = System.nanoTime();
+        for (int i = 0; i < BLOCKS_PER_RUN; i += batchSize)
+            accessStrategy.accessBatch(getBatch(random, size, batchSize, false));
+        long time = System.nanoTime() - startTime;
+
+        System.out.println(String.format("%-10s batch %3d: %5.2f round trips, %6.1f blocks read, %6.1f blocks " +
+                        "written, %8.1f us per requested block", name, batchSize,
+                (double) communicationStrategy.getRoundTrips() / BLOCKS_PER_RUN,
+                (double) communicationStrategy.getBlocksReceived() / BLOCKS_PER_RUN,
+                (double) communicationStrategy.getBlocksSent() / BLOCKS_PER_RUN,
+                (double) time / BLOCKS_PER_RUN / 1000));
+    }
+
+    private static List<Request> getBatch(Random random, int size, int batchSize, boolean write) {
+        List<Request> res = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            int address = random.nextInt(size - 1) + 1;
+            res.add(write ? Request.write(address, Util.getRandomByteArray(Constants.BLOCK_SIZE)) :
+                    Request.read(address));
+        }
+        return res;
+    }
+}
@@ -0,0 +1,17 @@
+package oram.benchmark;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * Keeps the results of the work measured by the benchmarks, so the JIT compiler can not remove the work as dead code.
+ */
+
+class BenchmarkSink {
+    private static volatile long sink;
+
+    static void consume(long value) {
+        sink = value;
+    }
+}
@@ -0,0 +1,78 @@
+package oram.benchmark;
+
+import oram.AccessStrategy;
+import oram.Constants;
+import oram.OperationType;
+import oram.Util;
+import oram.block.BlockTrivial;
+import oram.blockenc.BlockCryptoPool;
+import oram.factory.FactoryLocal;
+import oram.lookahead.AccessStrategyLookahead;
+import oram.ofactory.ORAMFactoryLookahead;
+import oram.ofactory.ORAMFactoryPath;
+import oram.path.AccessStrategyPath;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * Measures the latency of Path and Lookahead accesses against a local stub server, when the block encryption and
+ * decryption is spread over 1, 2, 4, ... threads, up to the number of cores.
+ */
+
+public class BlockCryptoBenchmark {
+    private static final int WARM_UP_ACCESSES = 200;
+    private static final int ACCESSES = 1000;
+
+    public static void main(String[] args) {
+        int pathLevels = args.length > 0 ? Integer.parseInt(args[0]) : 14;
+        int lookaheadSize = args.length > 1 ? Integer.parseInt(args[1]) : 4096;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        System.out.println("Path ORAM with " + pathLevels + " levels, Lookahead ORAM with " + lookaheadSize +
+                " blocks, " + cores + " cores");
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            BlockCryptoPool pool = BlockCryptoPool.forkJoin(threads);
+
+            FactoryLocal factory = new FactoryLocal(
+                    Collections.singletonList(new ORAMFactoryPath(1 << pathLevels, 0)), 1);
+            factory.setBlockCryptoPool(pool);
+            int pathSize = (1 << pathLevels) - 1;
+            AccessStrategy path = new AccessStrategyPath(pathSize, Constants.DEFAULT_BUCKET_SIZE,
+                    Constants.KEY_BYTES, factory, null, 0, 0);
+            double pathLatency = run(path, pathSize);
+
+            factory = new FactoryLocal(Collections.singletonList(new ORAMFactoryLookahead(lookaheadSize, 0)), 1);
+            factory.setBlockCryptoPool(pool);
+            AccessStrategyLookahead lookahead = new AccessStrategyLookahead(lookaheadSize,
+                    (int) Math.sqrt(lookaheadSize), Constants.KEY_BYTES, factory, 0, null, 0);
+            List<BlockTrivial> blocks = new ArrayList<>();
+            for (int i = 1; i <= lookaheadSize; i++)
+                blocks.add(new BlockTrivial(i, Util.getRandomByteArray(Constants.BLOCK_SIZE)));
+            lookahead.setup(blocks);
+            double lookaheadLatency = run(lookahead, lookaheadSize);
+
+            System.out.println(String.format("%2d threads: Path %8.1f us, Lookahead %8.1f us per access", threads,
+                    pathLatency, lookaheadLatency));
+            pool.shutdown();
+        }
+    }
+
+    private static double run(AccessStrategy accessStrategy, int size) {
+        Random random = new Random(42);
+        byte[] data = Util.getRandomByteArray(Constants.BLOCK_SIZE);
+        for (int i = 0; i < WARM_UP_ACCESSES; i++)
+            accessStrategy.access(OperationType.WRITE, random.nextInt(size) + 1, data, false, false);
+
+        long startTime = System.nanoTime();
+        for (int i = 0; i < ACCESSES; i++)
+            accessStrategy.access(OperationType.READ, random.nextInt(size) + 1, null, false, false);
+        return (double) (System.nanoTime() - startTime) / ACCESSES / 1000;
+    }
+}
@@ -0,0 +1,100 @@
+package oram.benchmark;
+
+import oram.Constants;
+import oram.Util;
+import oram.encryption.EncryptionStrategy;
+import oram.encryption.EncryptionStrategyImpl;
+import org.apache.commons.lang3.ArrayUtils;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.IvParameterSpec;
+import java.security.GeneralSecurityException;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * Compares encrypting and decrypting 512 byte blocks with a new cipher instance per call, as done originally, to the
+ * cached cipher of {@link EncryptionStrategyImpl}, both through the array and the buffer methods.
+ */
+
+public class EncryptionBenchmark {
+    private static final int WARM_UP_ITERATIONS = 20000;
+    private static final int ITERATIONS = 100000;
+
+    public static void main(String[] args) throws GeneralSecurityException {
+        int blockSize = args.length > 0 ? Integer.parseInt(args[0]) : Constants.BLOCK_SIZE;
+        EncryptionStrategy encryptionStrategy = new EncryptionStrategyImpl();
+        SecretKey key = encryptionStrategy.generateSecretKey(Util.getRandomByteArray(Constants.AES_KEY_SIZE));
+        byte[] message = Util.getRandomByteArray(blockSize);
+
+        System.out.println("Block size: " + blockSize + " bytes, " + ITERATIONS + " iterations");
+
+        runNewCipherPerCall(message, key, WARM_UP_ITERATIONS);
+        long time = runNewCipherPerCall(message, key, ITERATIONS);
+        print("New cipher per call", time);
+
+        runArrays(encryptionStrategy, message, key, WARM_UP_ITERATIONS);
+        time = runArrays(encryptionStrategy, message, key, ITERATIONS);
+        print("Cached cipher, arrays", time);
+
+        runBuffers(encryptionStrategy, message, key, WARM_UP_ITERATIONS);
+        time = runBuffers(encryptionStrategy, message, key, ITERATIONS);
+        print("Cached cipher, buffers", time);
+    }
+
+    private static long runNewCipherPerCall(byte[] message, SecretKey key, int iterations)
+            throws GeneralSecurityException {
+        long checksum = 0;
+        long startTime = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+            byte[] iv = Util.getRandomByteArray(Constants.AES_BLOCK_SIZE);
+            cipher.init(Cipher.ENCRYPT_MODE, key, new IvParameterSpec(iv));
+            byte[] cipherText = ArrayUtils.addAll(iv, cipher.doFinal(message));
+
+            cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+            cipher.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(cipherText, 0, Constants.AES_BLOCK_SIZE));
+            checksum += cipher.doFinal(cipherText, Constants.AES_BLOCK_SIZE,
+                    cipherText.length - Constants.AES_BLOCK_SIZE)[0];
+        }
+        long time = System.nanoTime() - startTime;
+        BenchmarkSink.consume(checksum);
+        return time;
+    }
+
+    private static long runArrays(EncryptionStrategy encryptionStrategy, byte[] message, SecretKey key,
+                                  int iterations) {
+        long checksum = 0;
+        long startTime = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            byte[] cipherText = encryptionStrategy.encrypt(message, key);
+            checksum += encryptionStrategy.decrypt(cipherText, key)[0];
+        }
+        long time = System.nanoTime() - startTime;
+        BenchmarkSink.consume(checksum);
+        return time;
+    }
+
+    private static long runBuffers(EncryptionStrategy encryptionStrategy, byte[] message, SecretKey key,
+                                   int iterations) {
+        byte[] cipherText = new byte[encryptionStrategy.getCipherTextLength(message.length)];
+        byte[] plainText = new byte[cipherText.length];
+        long checksum = 0;
+        long startTime = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            int length = encryptionStrategy.encrypt(message, 0, message.length, cipherText, 0, key);
+            checksum += encryptionStrategy.decrypt(cipherText, 0, length, plainText, 0, key);
+        }
+        long time = System.nanoTime() - startTime;
+        BenchmarkSink.consume(checksum);
+        return time;
+    }
+
+    private static void print(String name, long time) {
+        System.out.println(String.format("%-24s %8.2f us per encrypt and decrypt", name,
+                (double) time / ITERATIONS / 1000));
+    }
+}
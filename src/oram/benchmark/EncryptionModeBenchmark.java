@@ -0,0 +1,57 @@
+package oram.benchmark;
+
+import oram.Util;
+import oram.encryption.EncryptionStrategy;
+import oram.encryption.EncryptionStrategyCtr;
+import oram.encryption.EncryptionStrategyGcm;
+import oram.encryption.EncryptionStrategyImpl;
+
+import javax.crypto.SecretKey;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * Compares the throughput of the CBC, CTR and GCM encryption strategies, encrypting and decrypting blocks of 512 bytes
+ * and 4 KiB through the buffer methods.
+ */
+
+public class EncryptionModeBenchmark {
+    private static final int[] BLOCK_SIZES = {512, 4096};
+    private static final int BYTES_PER_RUN = 1 << 28;
+
+    public static void main(String[] args) {
+        EncryptionStrategy[] strategies = {new EncryptionStrategyImpl(), new EncryptionStrategyCtr(),
+                new EncryptionStrategyGcm()};
+        String[] names = {"CBC", "CTR", "GCM"};
+
+        for (int blockSize : BLOCK_SIZES) {
+            System.out.println("Block size: " + blockSize + " bytes");
+            byte[] message = Util.getRandomByteArray(blockSize);
+            int iterations = BYTES_PER_RUN / blockSize;
+            for (int i = 0; i < strategies.length; i++) {
+                SecretKey key = strategies[i].generateSecretKey(Util.getRandomByteArray(16));
+                run(strategies[i], message, key, iterations / 4);
+                long time = run(strategies[i], message, key, iterations);
+                System.out.println(String.format("    %-4s %8.1f MB/s, cipher text overhead %d bytes", names[i],
+                        (double) blockSize * iterations / time * 1000,
+                        strategies[i].getCipherTextLength(blockSize) - blockSize));
+            }
+        }
+    }
+
+    private static long run(EncryptionStrategy encryptionStrategy, byte[] message, SecretKey key, int iterations) {
+        byte[] cipherText = new byte[encryptionStrategy.getCipherTextLength(message.length)];
+        byte[] plainText = new byte[cipherText.length];
+        long checksum = 0;
+        long startTime = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            int length = encryptionStrategy.encrypt(message, 0, message.length, cipherText, 0, key);
+            checksum += encryptionStrategy.decrypt(cipherText, 0, length, plainText, 0, key);
+        }
+        long time = System.nanoTime() - startTime;
+        BenchmarkSink.consume(checksum);
+        return time;
+    }
+}
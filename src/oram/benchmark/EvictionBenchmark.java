@@ -0,0 +1,80 @@
+package oram.benchmark;
+
+import oram.Constants;
+import oram.OperationType;
+import oram.Util;
+import oram.clientcom.CommunicationStrategyCounting;
+import oram.factory.EvictionType;
+import oram.factory.FactoryLocal;
+import oram.ofactory.ORAMFactoryPath;
+import oram.path.AccessStrategyPath;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * Compares the greedy eviction of Path ORAM, writing back the path that was read, to the Circuit ORAM eviction of two
+ * paths in reverse lexicographic order per access, by the stash size after each access and the blocks read and written
+ * per access.
+ */
+
+public class EvictionBenchmark {
+    private static final int WARM_UP_ACCESSES = 500;
+    private static final int ACCESSES = 5000;
+
+    public static void main(String[] args) {
+        int levels = args.length > 0 ? Integer.parseInt(args[0]) : 12;
+        int bucketSize = args.length > 1 ? Integer.parseInt(args[1]) : Constants.DEFAULT_BUCKET_SIZE;
+        int size = 1 << levels;
+        System.out.println("Trees with " + levels + " levels, bucket size: " + bucketSize + ", " + ACCESSES +
+                " accesses");
+
+        for (EvictionType evictionType : EvictionType.values())
+            run(evictionType, size, bucketSize);
+    }
+
+    private static void run(EvictionType evictionType, int size, int bucketSize) {
+        FactoryLocal factory = new FactoryLocal(Collections.singletonList(new ORAMFactoryPath(size, 0)), 1);
+        factory.setEvictionType(evictionType);
+        AccessStrategyPath accessStrategy = new AccessStrategyPath(size - 1, bucketSize, Constants.KEY_BYTES, factory,
+                null, 0, 0);
+        CommunicationStrategyCounting communicationStrategy =
+                (CommunicationStrategyCounting) factory.getCommunicationStrategy();
+
+        Random random = new Random(42);
+        for (int i = 0; i < WARM_UP_ACCESSES; i++)
+            accessStrategy.access(OperationType.WRITE, random.nextInt(size - 1) + 1,
+                    Util.getRandomByteArray(Constants.BLOCK_SIZE), false, false);
+
+        Map<Integer, Integer> warmUpHistogram = accessStrategy.getStashSizeHistogram();
+        communicationStrategy.resetBlockSent();
+        communicationStrategy.resetBlocksReceived();
+        for (int i = 0; i < ACCESSES; i++) {
+            int address = random.nextInt(size - 1) + 1;
+            if (random.nextBoolean())
+                accessStrategy.access(OperationType.READ, address, null, false, false);
+            else
+                accessStrategy.access(OperationType.WRITE, address, Util.getRandomByteArray(Constants.BLOCK_SIZE),
+                        false, false);
+        }
+
+        StringBuilder histogram = new StringBuilder();
+        int maxStashSize = 0;
+        for (Map.Entry<Integer, Integer> entry : accessStrategy.getStashSizeHistogram().entrySet()) {
+            int count = entry.getValue() - warmUpHistogram.getOrDefault(entry.getKey(), 0);
+            if (count == 0) continue;
+            histogram.append(" ").append(entry.getKey()).append(":").append(count);
+            maxStashSize = entry.getKey();
+        }
+
+        System.out.println(String.format("%-8s %6.1f blocks read, %6.1f blocks written, max stash size: %3d",
+                evictionType, (double) communicationStrategy.getBlocksReceived() / ACCESSES,
+                (double) communicationStrategy.getBlocksSent() / ACCESSES, maxStashSize));
+        System.out.println("    stash size histogram:" + histogram);
+    }
+}
@@ -0,0 +1,84 @@
+package oram.benchmark;
+
+import oram.AccessStrategy;
+import oram.Constants;
+import oram.OperationType;
+import oram.Util;
+import oram.block.BlockTrivial;
+import oram.clientcom.CommunicationStrategyCounting;
+import oram.factory.FactoryLocal;
+import oram.ofactory.ORAMFactory;
+import oram.ofactory.ORAMFactoryLookahead;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * Measures the time an application waits for each Lookahead ORAM access on the stub server with a simulated round
+ * trip time, when the application works between the accesses, with and without reading the next maintenance column
+ * ahead. With prefetch the access only waits for the block it accesses, as the column is read while the application
+ * works.
+ */
+
+public class LookaheadPrefetchBenchmark {
+    private static final int ACCESSES = 1024;
+    private static final int WARM_UP_ACCESSES = 256;
+    private static final long[] THINK_TIMES = {0, 500, 2000};
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 4096;
+        long roundTripTime = args.length > 1 ? Long.parseLong(args[1]) : 500;
+        System.out.println("Lookahead ORAM of size " + size + ", round trip time " + roundTripTime + " us, " +
+                ACCESSES + " accesses per run");
+
+        for (long thinkTime : THINK_TIMES) {
+            run(size, roundTripTime, thinkTime, false);
+            run(size, roundTripTime, thinkTime, true);
+        }
+    }
+
+    private static void run(int size, long roundTripTime, long thinkTime, boolean prefetch) {
+        ORAMFactory oramFactory = new ORAMFactoryLookahead(size, 0);
+        FactoryLocal factory = new FactoryLocal(Collections.singletonList(oramFactory), 1);
+        factory.setPrefetch(prefetch);
+        factory.setSimulatedRoundTripTime(roundTripTime);
+        AccessStrategy accessStrategy = oramFactory.getAccessStrategy(Constants.KEY_BYTES, factory, null, 0);
+        List<BlockTrivial> blocks = new ArrayList<>();
+        for (int i = 1; i < size; i++)
+            blocks.add(new BlockTrivial(i, Util.getRandomByteArray(Constants.BLOCK_SIZE)));
+        accessStrategy.setup(blocks);
+
+        Random random = new Random(42);
+        for (int i = 0; i < WARM_UP_ACCESSES; i++)
+            accessStrategy.access(OperationType.READ, random.nextInt(size - 1) + 1, null, false, false);
+        CommunicationStrategyCounting communicationStrategy =
+                (CommunicationStrategyCounting) factory.getCommunicationStrategy();
+        communicationStrategy.resetRoundTrips();
+        communicationStrategy.resetBlocksReceived();
+
+        long waited = 0;
+        long startTime = System.nanoTime();
+        for (int i = 0; i < ACCESSES; i++) {
+            long accessStart = System.nanoTime();
+            accessStrategy.access(OperationType.READ, random.nextInt(size - 1) + 1, null, false, false);
+            waited += System.nanoTime() - accessStart;
+            if (thinkTime > 0)
+                LockSupport.parkNanos(thinkTime * 1000);
+        }
+        long time = System.nanoTime() - startTime;
+        communicationStrategy.sendEndSignal();
+
+        System.out.println(String.format("Think time %5d us, prefetch %-5b: %8.1f us waited per access, %8.1f us " +
+                        "per access in total, %4.2f round trips, %6.1f blocks read", thinkTime, prefetch,
+                (double) waited / ACCESSES / 1000, (double) time / ACCESSES / 1000,
+                (double) communicationStrategy.getRoundTrips() / ACCESSES,
+                (double) communicationStrategy.getBlocksReceived() / ACCESSES));
+    }
+}
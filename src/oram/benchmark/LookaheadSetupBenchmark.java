@@ -0,0 +1,125 @@
+package oram.benchmark;
+
+import oram.AccessStrategy;
+import oram.Constants;
+import oram.Util;
+import oram.block.BlockEncrypted;
+import oram.block.BlockLookahead;
+import oram.block.BlockTrivial;
+import oram.blockenc.BlockEncryptionStrategyLookahead;
+import oram.factory.FactoryLocal;
+import oram.lookahead.LookaheadShape;
+import oram.ofactory.ORAMFactoryLookahead;
+
+import javax.crypto.SecretKey;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * Sets up Lookahead ORAMs of growing sizes on the stub server with a simulated round trip time on each write, from a
+ * list creating the blocks as they are read. Prints the setup time next to the time encrypting the blocks and the
+ * time of the round trips would take alone, and the peak of the heap used during the setup. As the chunks are
+ * encrypted while the one before is written, the setup takes about the larger of the two. The stub server replaces
+ * the blocks it holds, so the peak also counts the blocks replaced before they are collected.
+ */
+
+public class LookaheadSetupBenchmark {
+    private static final int CHUNK_SIZE = 1 << 12;
+    private static final int[] SIZES = {1 << 14, 1 << 16, 1 << 18};
+
+    public static void main(String[] args) {
+        long roundTripTime = args.length > 0 ? Long.parseLong(args[0]) : 20000;
+        System.out.println("Round trip time of " + roundTripTime + " us for each chunk of " + CHUNK_SIZE +
+                " blocks");
+
+        for (int size : SIZES) {
+            LookaheadShape shape = LookaheadShape.tune(size);
+            ORAMFactoryLookahead oramFactory = new ORAMFactoryLookahead(shape, 0);
+            FactoryLocal factory = new FactoryLocal(Collections.singletonList(oramFactory), 1);
+            factory.setSimulatedRoundTripTime(roundTripTime);
+            AccessStrategy accessStrategy = oramFactory.getAccessStrategy(Constants.KEY_BYTES, factory, null, 0);
+            double cryptoTime = getEncryptionTime(factory, shape.getSize());
+            double networkTime = (double) (shape.getSize() + CHUNK_SIZE - 1) / CHUNK_SIZE * roundTripTime / 1000;
+
+            long heapBefore = getUsedHeap();
+            long startTime = System.nanoTime();
+            accessStrategy.setup(getBlocks(shape.getSize() - 1));
+            double time = (System.nanoTime() - startTime) / 1000000.0;
+            long peakHeap = getPeakHeap();
+
+            System.out.println(String.format("Size %8d: setup %8.1f ms, encryption alone %8.1f ms, round trips " +
+                            "alone %8.1f ms, peak heap %6.1f MB over the %6.1f MB before, %6.1f MB held by the stub " +
+                            "server",
+                    shape.getSize(), time, cryptoTime, networkTime, (peakHeap - heapBefore) / 1048576.0,
+                    heapBefore / 1048576.0,
+                    (double) shape.getTotalSize() * getEncryptedBlockSize(factory) / 1048576));
+        }
+    }
+
+    //    The blocks are created as they are read, so the list itself takes no memory
+    private static List<BlockTrivial> getBlocks(int numberOfBlocks) {
+        return new AbstractList<BlockTrivial>() {
+            @Override
+            public BlockTrivial get(int index) {
+                byte[] data = new byte[Constants.BLOCK_SIZE];
+                System.arraycopy(Util.leIntToByteArray(index + 1), 0, data, 0, Integer.BYTES);
+                return new BlockTrivial(index + 1, data);
+            }
+
+            @Override
+            public int size() {
+                return numberOfBlocks;
+            }
+        };
+    }
+
+    private static double getEncryptionTime(FactoryLocal factory, int size) {
+        BlockEncryptionStrategyLookahead blockEncStrategy = factory.getBlockEncryptionStrategyLookahead();
+        SecretKey secretKey = factory.getEncryptionStrategy().generateSecretKey(Constants.KEY_BYTES);
+        List<BlockLookahead> chunk = new ArrayList<>(CHUNK_SIZE);
+        for (int i = 0; i < CHUNK_SIZE; i++)
+            chunk.add(new BlockLookahead(i + 1, new byte[Constants.BLOCK_SIZE], i, 0));
+        blockEncStrategy.encryptBlocks(chunk, secretKey);
+
+        long startTime = System.nanoTime();
+        blockEncStrategy.encryptBlocks(chunk, secretKey);
+        return (double) (System.nanoTime() - startTime) / CHUNK_SIZE * size / 1000000;
+    }
+
+    private static int getEncryptedBlockSize(FactoryLocal factory) {
+        BlockEncryptionStrategyLookahead blockEncStrategy = factory.getBlockEncryptionStrategyLookahead();
+        SecretKey secretKey = factory.getEncryptionStrategy().generateSecretKey(Constants.KEY_BYTES);
+        BlockLookahead block = new BlockLookahead(1, new byte[Constants.BLOCK_SIZE], 0, 0);
+        BlockEncrypted encryptedBlock = blockEncStrategy.encryptBlock(block, secretKey);
+        return encryptedBlock.getAddress().length + encryptedBlock.getData().length;
+    }
+
+    //    Collects the garbage and starts measuring the peak from the heap used now
+    private static long getUsedHeap() {
+        System.gc();
+        long res = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() != MemoryType.HEAP) continue;
+            pool.resetPeakUsage();
+            res += pool.getUsage().getUsed();
+        }
+        return res;
+    }
+
+    private static long getPeakHeap() {
+        long res = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+            if (pool.getType() == MemoryType.HEAP)
+                res += pool.getPeakUsage().getUsed();
+        return res;
+    }
+}
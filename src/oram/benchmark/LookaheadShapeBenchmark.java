@@ -0,0 +1,76 @@
+package oram.benchmark;
+
+import oram.AccessStrategy;
+import oram.Constants;
+import oram.OperationType;
+import oram.Util;
+import oram.block.BlockTrivial;
+import oram.clientcom.CommunicationStrategyCounting;
+import oram.factory.FactoryLocal;
+import oram.lookahead.LookaheadShape;
+import oram.ofactory.ORAMFactory;
+import oram.ofactory.ORAMFactoryLookahead;
+import oram.server.NetworkShaping;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * Runs Lookahead ORAM on the stub server with the square matrix, a wide and a tall matrix and the shape picked by
+ * {@link LookaheadShape#tune(int, NetworkShaping)}, and prints the blocks moved and the time per access, and the
+ * estimated time per access on a 2 ms, 100 Mbit/s link.
+ */
+
+public class LookaheadShapeBenchmark {
+    private static final int ACCESSES = 2048;
+    private static final NetworkShaping LINK = new NetworkShaping(2000, 0, 12500000, 0);
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 14;
+        LookaheadShape square = LookaheadShape.square(size);
+        List<LookaheadShape> shapes = Arrays.asList(square,
+                new LookaheadShape(square.getRows() / 4, square.getColumns() * 4),
+                new LookaheadShape(square.getRows() * 4, square.getColumns() / 4),
+                LookaheadShape.tune(size, LINK));
+        System.out.println("Lookahead ORAM of size " + size + ", " + ACCESSES + " accesses per run");
+
+        for (LookaheadShape shape : shapes)
+            run(shape);
+    }
+
+    private static void run(LookaheadShape shape) {
+        ORAMFactory oramFactory = new ORAMFactoryLookahead(shape, 0);
+        FactoryLocal factory = new FactoryLocal(Collections.singletonList(oramFactory), 1);
+        AccessStrategy accessStrategy = oramFactory.getAccessStrategy(Constants.KEY_BYTES, factory, null, 0);
+        List<BlockTrivial> blocks = new ArrayList<>();
+        for (int i = 1; i < shape.getSize(); i++)
+            blocks.add(new BlockTrivial(i, Util.getRandomByteArray(Constants.BLOCK_SIZE)));
+        accessStrategy.setup(blocks);
+
+        Random random = new Random(42);
+        for (int i = 0; i < ACCESSES; i++)
+            accessStrategy.access(OperationType.READ, random.nextInt(shape.getSize() - 1) + 1, null, false, false);
+        CommunicationStrategyCounting communicationStrategy =
+                (CommunicationStrategyCounting) factory.getCommunicationStrategy();
+        communicationStrategy.resetBlocksReceived();
+        communicationStrategy.resetBlockSent();
+
+        long startTime = System.nanoTime();
+        for (int i = 0; i < ACCESSES; i++)
+            accessStrategy.access(OperationType.READ, random.nextInt(shape.getSize() - 1) + 1, null, false, false);
+        long time = System.nanoTime() - startTime;
+
+        System.out.println(String.format("%4d rows x %4d columns: %6.1f blocks read, %6.1f blocks written, %7.1f us " +
+                        "per access, %7.1f us estimated on the link", shape.getRows(), shape.getColumns(),
+                (double) communicationStrategy.getBlocksReceived() / ACCESSES,
+                (double) communicationStrategy.getBlocksSent() / ACCESSES, (double) time / ACCESSES / 1000,
+                shape.getTimePerAccess(LINK)));
+    }
+}
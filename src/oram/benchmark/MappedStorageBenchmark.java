@@ -0,0 +1,65 @@
+package oram.benchmark;
+
+import oram.AccessStrategy;
+import oram.Constants;
+import oram.OperationType;
+import oram.Util;
+import oram.clientcom.CommunicationStrategyMapped;
+import oram.factory.FactoryLocal;
+import oram.ofactory.ORAMFactory;
+import oram.ofactory.ORAMFactoryPath;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * Runs Path ORAM on blocks kept in a memory mapped file, and prints the time per access and the heap in use, which
+ * stays flat as the number of blocks grows. The arguments are the number of blocks, the number of accesses and the
+ * directory of the file, which is deleted afterwards.
+ */
+
+public class MappedStorageBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 20;
+        int accesses = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        File directory = args.length > 2 ? new File(args[2]) : null;
+
+        File file = File.createTempFile("oram", ".blocks", directory);
+        file.deleteOnExit();
+        List<ORAMFactory> factories = Collections.singletonList(new ORAMFactoryPath(size, 0));
+        FactoryLocal factory = new FactoryLocal(factories, 1);
+        factory.setMappedFile(file);
+        factory.getCommunicationStrategy();
+        CommunicationStrategyMapped communicationStrategy = factory.getCommunicationStrategyMapped();
+        if (communicationStrategy == null) {
+            System.out.println("Unable to map " + file);
+            return;
+        }
+        System.out.println("Path ORAM of size " + size + ", " + communicationStrategy.getSlots() + " slots of " +
+                communicationStrategy.getSlotSize() + " bytes in " + communicationStrategy.getNumberOfSegments() +
+                " segments");
+
+        AccessStrategy accessStrategy = factories.get(0).getAccessStrategy(Constants.KEY_BYTES, factory, null, 0);
+        Random random = new Random(42);
+        long startTime = System.nanoTime();
+        for (int i = 0; i < accesses; i++)
+            accessStrategy.access(OperationType.WRITE, random.nextInt(size - 1) + 1,
+                    Util.getRandomByteArray(Constants.BLOCK_SIZE), false, false);
+        long time = System.nanoTime() - startTime;
+
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        System.out.println(String.format("%8.1f us per access, %d MB heap in use", (double) time / accesses / 1000,
+                (runtime.totalMemory() - runtime.freeMemory()) >> 20));
+        communicationStrategy.close();
+        file.delete();
+    }
+}
@@ -0,0 +1,73 @@
+package oram.benchmark;
+
+import oram.AccessStrategy;
+import oram.Constants;
+import oram.OperationType;
+import oram.Util;
+import oram.clientcom.CommunicationStrategy;
+import oram.factory.CommunicationType;
+import oram.factory.FactoryImpl;
+import oram.ofactory.ORAMFactory;
+import oram.ofactory.ORAMFactoryPath;
+import oram.server.NetworkShaping;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * Runs Path ORAM end to end against the in-process server stand-in on a shaped link, for each transport with and
+ * without deferred writes, so the effect of batching and pipelining on a wide area link can be measured on one
+ * machine. The arguments are the round trip time and jitter in microseconds, the bandwidth in bytes per second and
+ * the processing time per request in microseconds.
+ */
+
+public class NetworkBenchmark {
+    private static final int SIZE = 1024;
+    private static final int ACCESSES = 200;
+
+    public static void main(String[] args) {
+        long roundTripTime = args.length > 0 ? Long.parseLong(args[0]) : 2000;
+        long jitter = args.length > 1 ? Long.parseLong(args[1]) : 200;
+        long bandwidth = args.length > 2 ? Long.parseLong(args[2]) : 12500000;
+        long processingTime = args.length > 3 ? Long.parseLong(args[3]) : 50;
+        NetworkShaping networkShaping = new NetworkShaping(roundTripTime, jitter, bandwidth, processingTime);
+        System.out.println("Path ORAM of size " + SIZE + ", " + ACCESSES + " accesses, " + networkShaping);
+
+        for (CommunicationType communicationType : CommunicationType.values()) {
+            run(networkShaping, communicationType, false);
+            run(networkShaping, communicationType, true);
+        }
+    }
+
+    private static void run(NetworkShaping networkShaping, CommunicationType communicationType, boolean deferWrites) {
+        List<ORAMFactory> factories = Collections.singletonList(new ORAMFactoryPath(SIZE, 0));
+        FactoryImpl factory = new FactoryImpl();
+        factory.setInProcessServer(factories, 1, networkShaping);
+        factory.setCommunicationType(communicationType);
+        factory.setDeferWrites(deferWrites);
+        CommunicationStrategy communicationStrategy = factory.getCommunicationStrategy();
+        if (!communicationStrategy.start("localhost")) {
+            System.out.println("Unable to connect to the in-process server");
+            factory.getInProcessServer().stop();
+            return;
+        }
+
+        AccessStrategy accessStrategy = factories.get(0).getAccessStrategy(Constants.KEY_BYTES, factory, null, 0);
+        Random random = new Random(42);
+        long startTime = System.nanoTime();
+        for (int i = 0; i < ACCESSES; i++)
+            accessStrategy.access(OperationType.WRITE, random.nextInt(SIZE - 1) + 1,
+                    Util.getRandomByteArray(Constants.BLOCK_SIZE), false, false);
+        long time = System.nanoTime() - startTime;
+        communicationStrategy.sendEndSignal();
+        factory.getInProcessServer().stop();
+
+        System.out.println(String.format("%-17s %-8s %8.1f us per access", communicationType,
+                deferWrites ? "deferred" : "", (double) time / ACCESSES / 1000));
+    }
+}
@@ -0,0 +1,84 @@
+package oram.benchmark;
+
+import oram.AccessStrategy;
+import oram.Constants;
+import oram.OperationType;
+import oram.Util;
+import oram.factory.FactoryLocal;
+import oram.ofactory.ORAMFactoryPath;
+import oram.partition.PartitionedAccessStrategy;
+import oram.random.RandomSource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * Measures the throughput of {@link PartitionedAccessStrategy} with a growing number of Path ORAM partitions, each on
+ * its own stub server with a simulated round trip time, when many threads send requests at once. The total number of
+ * blocks is the same for all runs.
+ */
+
+public class PartitionBenchmark {
+    private static final int BLOCKS = 8192;
+    private static final int THREADS = 64;
+    private static final int REQUESTS_PER_THREAD = 50;
+    private static final int[] PARTITIONS = {1, 2, 4, 8};
+
+    public static void main(String[] args) throws Exception {
+        long roundTripTime = args.length > 0 ? Long.parseLong(args[0]) : 500;
+        System.out.println(BLOCKS + " blocks, round trip time: " + roundTripTime + " us, " + THREADS + " threads, " +
+                REQUESTS_PER_THREAD + " requests per thread, " + Runtime.getRuntime().availableProcessors() +
+                " cores");
+
+        for (int partitions : PARTITIONS)
+            run(partitions, roundTripTime);
+    }
+
+    private static void run(int numberOfPartitions, long roundTripTime) throws Exception {
+        int blocksPerPartition = PartitionedAccessStrategy.getBlocksPerPartition(BLOCKS, numberOfPartitions);
+        List<AccessStrategy> partitions = new ArrayList<>();
+        RandomSource randomSource = null;
+        for (int i = 0; i < numberOfPartitions; i++) {
+//            Path ORAM needs a power of 2 as size
+            ORAMFactoryPath oramFactory = new ORAMFactoryPath(Integer.highestOneBit(2 * blocksPerPartition - 1) << 1,
+                    0);
+            FactoryLocal factory = new FactoryLocal(Collections.singletonList(oramFactory), 1);
+            factory.setSimulatedRoundTripTime(roundTripTime);
+            randomSource = factory.getRandomSource();
+            partitions.add(oramFactory.getAccessStrategy(Constants.KEY_BYTES, factory, null, 0));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try (PartitionedAccessStrategy accessStrategy = new PartitionedAccessStrategy(partitions, BLOCKS,
+                randomSource)) {
+            List<Future<?>> futures = new ArrayList<>();
+            long startTime = System.nanoTime();
+            for (int t = 0; t < THREADS; t++) {
+                Random random = new Random(t);
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < REQUESTS_PER_THREAD; i++)
+                        accessStrategy.access(OperationType.WRITE, random.nextInt(BLOCKS) + 1,
+                                Util.getRandomByteArray(Constants.BLOCK_SIZE), false, false);
+                }));
+            }
+            for (Future<?> future : futures)
+                future.get();
+            long time = System.nanoTime() - startTime;
+
+            System.out.println(String.format("%d partitions: %8.1f requests/s, %5.2f requests per round",
+                    numberOfPartitions, (double) THREADS * REQUESTS_PER_THREAD / time * 1000000000,
+                    (double) THREADS * REQUESTS_PER_THREAD / accessStrategy.getRounds()));
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
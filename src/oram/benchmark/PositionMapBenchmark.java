@@ -0,0 +1,87 @@
+package oram.benchmark;
+
+import oram.positionmap.PositionMap;
+import oram.positionmap.PositionMapDense;
+import oram.positionmap.PositionMapOpenAddressing;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * Compares the memory used by, and the latency of a lookup followed by an update in, a boxed hash map and the primitive
+ * position maps, for 1M and 16M addresses. The 16M hash map needs a heap of several gigabytes, run with e.g. -Xmx6g,
+ * or give "nohashmap" as argument to skip it.
+ */
+
+public class PositionMapBenchmark {
+    private static final int[] SIZES = {1 << 20, 1 << 24};
+    private static final int OPERATIONS = 10000000;
+
+    public static void main(String[] args) {
+        boolean includeHashMap = args.length == 0 || !args[0].equals("nohashmap");
+        for (int size : SIZES) {
+            System.out.println("Addresses: " + size);
+            if (includeHashMap)
+                runHashMap(size);
+            run("Dense", () -> new PositionMapDense(size + 1), size);
+            run("Open addressing", () -> new PositionMapOpenAddressing(size), size);
+        }
+    }
+
+    private static void run(String name, Supplier<PositionMap> positionMapSupplier, int size) {
+        long memoryBefore = getUsedMemory();
+        PositionMap positionMap = positionMapSupplier.get();
+        Random random = new Random(42);
+        for (int address = 1; address <= size; address++)
+            positionMap.put(address, random.nextInt(size));
+        long memory = getUsedMemory() - memoryBefore;
+
+        long checksum = 0;
+        long startTime = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            int address = random.nextInt(size) + 1;
+            checksum += positionMap.get(address);
+            positionMap.put(address, i);
+        }
+        long time = System.nanoTime() - startTime;
+        print(name, memory, time, checksum);
+    }
+
+    private static void runHashMap(int size) {
+        long memoryBefore = getUsedMemory();
+        Random random = new Random(42);
+        Map<Integer, Integer> positionMap = new HashMap<>();
+        for (int address = 1; address <= size; address++)
+            positionMap.put(address, random.nextInt(size));
+        long memory = getUsedMemory() - memoryBefore;
+
+        long checksum = 0;
+        long startTime = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            int address = random.nextInt(size) + 1;
+            checksum += positionMap.get(address);
+            positionMap.put(address, i);
+        }
+        long time = System.nanoTime() - startTime;
+        print("HashMap", memory, time, checksum);
+    }
+
+    private static long getUsedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++)
+            System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void print(String name, long memory, long time, long checksum) {
+        BenchmarkSink.consume(checksum);
+        System.out.println(String.format("    %-16s %8.1f MB, %6.1f ns per lookup and update", name,
+                (double) memory / (1 << 20), (double) time / OPERATIONS));
+    }
+}
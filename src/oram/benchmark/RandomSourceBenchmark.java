@@ -0,0 +1,96 @@
+package oram.benchmark;
+
+import oram.AccessStrategy;
+import oram.Constants;
+import oram.OperationType;
+import oram.factory.FactoryLocal;
+import oram.ofactory.ORAMFactory;
+import oram.ofactory.ORAMFactoryPath;
+import oram.random.RandomSource;
+import oram.random.RandomSourceCtr;
+import oram.random.RandomSourceSecure;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * Compares the randomness drawn by a Path ORAM access, a leaf and a shuffle of the blocks of the path, when a new
+ * SecureRandom is created for each call as before, with a SecureRandom per thread and with the AES-CTR generator. It
+ * prints the time of the randomness alone, and of whole Path ORAM accesses against the local stub.
+ */
+
+public class RandomSourceBenchmark {
+    private static final int SIZE = 1 << 12;
+    private static final int ITERATIONS = 20000;
+    private static final int ACCESSES = 2000;
+
+    public static void main(String[] args) {
+        run("New SecureRandom per call", new NewSecureRandomPerCall());
+        run("SecureRandom per thread", new RandomSourceSecure());
+        run("AES-CTR per thread", new RandomSourceCtr());
+    }
+
+    private static void run(String name, RandomSource randomSource) {
+        int levels = 32 - Integer.numberOfLeadingZeros(SIZE);
+        List<Integer> path = new ArrayList<>();
+        for (int i = 0; i < levels * Constants.DEFAULT_BUCKET_SIZE; i++)
+            path.add(i);
+
+        long checksum = drawRandomness(randomSource, path);
+        long startTime = System.nanoTime();
+        checksum += drawRandomness(randomSource, path);
+        long randomTime = System.nanoTime() - startTime;
+
+        List<ORAMFactory> factories = Collections.singletonList(new ORAMFactoryPath(SIZE, 0));
+        FactoryLocal factory = new FactoryLocal(factories, 1);
+        factory.setRandomSource(randomSource);
+        AccessStrategy accessStrategy = factories.get(0).getAccessStrategy(Constants.KEY_BYTES, factory, null, 0);
+        Random random = new Random(42);
+        byte[] data = new byte[Constants.BLOCK_SIZE];
+        startTime = System.nanoTime();
+        for (int i = 0; i < ACCESSES; i++)
+            accessStrategy.access(OperationType.WRITE, random.nextInt(SIZE - 1) + 1, data, false, false);
+        long accessTime = System.nanoTime() - startTime;
+
+        System.out.println(String.format("%-26s %8.2f us randomness per access, %8.1f us per access (%d)", name,
+                (double) randomTime / ITERATIONS / 1000, (double) accessTime / ACCESSES / 1000, checksum % 10));
+    }
+
+    //    Called twice by run, the first call warms up the JIT
+    private static long drawRandomness(RandomSource randomSource, List<Integer> path) {
+        long res = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            res += randomSource.nextInt(SIZE);
+            Collections.shuffle(path, randomSource.asRandom());
+        }
+        return res;
+    }
+
+    //    The behaviour before the random sources, a new generator for each call
+    private static class NewSecureRandomPerCall implements RandomSource {
+
+        @Override
+        public void nextBytes(byte[] bytes, int offset, int length) {
+            byte[] res = new byte[length];
+            new SecureRandom().nextBytes(res);
+            System.arraycopy(res, 0, bytes, offset, length);
+        }
+
+        @Override
+        public int nextInt(int bound) {
+            return new SecureRandom().nextInt(bound);
+        }
+
+        @Override
+        public Random asRandom() {
+            return new SecureRandom();
+        }
+    }
+}
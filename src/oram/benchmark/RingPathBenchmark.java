@@ -0,0 +1,76 @@
+package oram.benchmark;
+
+import oram.AccessStrategy;
+import oram.Constants;
+import oram.OperationType;
+import oram.Util;
+import oram.clientcom.CommunicationStrategyCounting;
+import oram.factory.FactoryLocal;
+import oram.ofactory.ORAMFactory;
+import oram.ofactory.ORAMFactoryPath;
+import oram.ofactory.ORAMFactoryRing;
+import oram.path.AccessStrategyPath;
+import oram.ring.AccessStrategyRing;
+
+import java.util.Collections;
+import java.util.Random;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * Compares Path and Ring ORAM on the stub server for a read heavy workload, 90% reads, by the blocks read and written
+ * per access, including the metadata blocks of Ring ORAM, and the latency of an access.
+ */
+
+public class RingPathBenchmark {
+    private static final int WARM_UP_ACCESSES = 500;
+    private static final int ACCESSES = 2000;
+    private static final double READ_RATIO = 0.9;
+
+    public static void main(String[] args) {
+        int levels = args.length > 0 ? Integer.parseInt(args[0]) : 12;
+        int size = 1 << levels;
+        System.out.println("Trees with " + levels + " levels, " + ACCESSES + " accesses, " + (int) (READ_RATIO * 100) +
+                "% reads");
+
+        FactoryLocal factory = getFactory(new ORAMFactoryPath(size, 0));
+        run("Path", new AccessStrategyPath(size - 1, Constants.DEFAULT_BUCKET_SIZE, Constants.KEY_BYTES, factory,
+                null, 0, 0), factory, size);
+
+        factory = getFactory(new ORAMFactoryRing(size, 0));
+        run("Ring", new AccessStrategyRing(size - 1, Constants.DEFAULT_BUCKET_SIZE, Constants.DEFAULT_RING_DUMMIES,
+                Constants.DEFAULT_RING_EVICTION_RATE, Constants.KEY_BYTES, factory, null, 0, 0), factory, size);
+    }
+
+    private static FactoryLocal getFactory(ORAMFactory oramFactory) {
+        return new FactoryLocal(Collections.singletonList(oramFactory), 1);
+    }
+
+    private static void run(String name, AccessStrategy accessStrategy, FactoryLocal factory, int size) {
+        CommunicationStrategyCounting communicationStrategy =
+                (CommunicationStrategyCounting) factory.getCommunicationStrategy();
+        Random random = new Random(42);
+        for (int i = 0; i < WARM_UP_ACCESSES; i++)
+            accessStrategy.access(OperationType.WRITE, random.nextInt(size - 1) + 1,
+                    Util.getRandomByteArray(Constants.BLOCK_SIZE), false, false);
+
+        communicationStrategy.resetBlockSent();
+        communicationStrategy.resetBlocksReceived();
+        long startTime = System.nanoTime();
+        for (int i = 0; i < ACCESSES; i++) {
+            int address = random.nextInt(size - 1) + 1;
+            if (random.nextDouble() < READ_RATIO)
+                accessStrategy.access(OperationType.READ, address, null, false, false);
+            else
+                accessStrategy.access(OperationType.WRITE, address, Util.getRandomByteArray(Constants.BLOCK_SIZE),
+                        false, false);
+        }
+        long time = System.nanoTime() - startTime;
+
+        System.out.println(String.format("%s: %6.1f blocks read, %6.1f blocks written, %8.1f us per access", name,
+                (double) communicationStrategy.getBlocksReceived() / ACCESSES,
+                (double) communicationStrategy.getBlocksSent() / ACCESSES, (double) time / ACCESSES / 1000));
+    }
+}
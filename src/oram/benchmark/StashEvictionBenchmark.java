@@ -0,0 +1,129 @@
+package oram.benchmark;
+
+import oram.Constants;
+import oram.block.BlockPath;
+import oram.path.StashPath;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * Measures the time it takes to pick the blocks to write back to a path from the stash, for trees of height 10 to 24.
+ * The stash holds the blocks of a full path, with leaves from the part of the tree their node covers, plus some blocks
+ * left from earlier accesses. The bucketed eviction of {@link StashPath} is compared with the linear scans over the
+ * stash and the leaves below each node, the latter is only run up to height {@link #MAX_LINEAR_HEIGHT}, as it grows
+ * with the number of leaves.
+ */
+
+public class StashEvictionBenchmark {
+    private static final int MAX_LINEAR_HEIGHT = 18;
+    private static final int LEFT_IN_STASH = 20;
+    private static final int EVICTIONS = 2000;
+
+    public static void main(String[] args) {
+        int bucketSize = Constants.DEFAULT_BUCKET_SIZE;
+//        Each eviction is timed in all heights before the other, as switching between them makes the JIT compiler
+//        recompile the bucketed eviction while it is timed
+        double[] bucketed = new double[(24 - 10) / 2 + 1];
+        double[] linear = new double[bucketed.length];
+        for (int i = 0; i < 3; i++)
+            for (int height = 10; height <= 24; height += 2)
+                bucketed[(height - 10) / 2] = runBucketed(height, bucketSize);
+        for (int i = 0; i < 2; i++)
+            for (int height = 10; height <= MAX_LINEAR_HEIGHT; height += 2)
+                linear[(height - 10) / 2] = runLinear(height, bucketSize);
+
+        for (int height = 10; height <= 24; height += 2) {
+            String linearTime = height <= MAX_LINEAR_HEIGHT
+                    ? String.format("%10.1f us", linear[(height - 10) / 2])
+                    : String.format("%13s", "-");
+            System.out.println(String.format("Height %2d: bucketed %8.1f us, linear %s per eviction", height,
+                    bucketed[(height - 10) / 2], linearTime));
+        }
+    }
+
+    private static double runBucketed(int levels, int bucketSize) {
+        Random random = new Random(42);
+        long checksum = 0;
+        long time = 0;
+        for (int i = 0; i < EVICTIONS; i++) {
+            int leaf = random.nextInt(1 << (levels - 1));
+            StashPath stash = new StashPath();
+            stash.addAll(getBlocks(random, leaf, levels, bucketSize));
+
+            long startTime = System.nanoTime();
+            checksum += stash.evictPath(leaf, levels, bucketSize).size();
+            time += System.nanoTime() - startTime;
+        }
+        BenchmarkSink.consume(checksum);
+        return (double) time / EVICTIONS / 1000;
+    }
+
+    private static double runLinear(int levels, int bucketSize) {
+        Random random = new Random(42);
+        long checksum = 0;
+        long time = 0;
+        for (int i = 0; i < EVICTIONS; i++) {
+            int leaf = random.nextInt(1 << (levels - 1));
+            List<BlockPath> stash = getBlocks(random, leaf, levels, bucketSize);
+
+            long startTime = System.nanoTime();
+            int node = (1 << (levels - 1)) - 1 + leaf;
+            for (int l = levels - 1; l >= 0; l--) {
+                List<Integer> leaves = getSubTreeLeaves(node, levels);
+                List<BlockPath> blocksToWrite = new ArrayList<>();
+                for (BlockPath block : stash) {
+                    if (blocksToWrite.size() < bucketSize && leaves.contains(block.getIndex()))
+                        blocksToWrite.add(block);
+                }
+                for (int j = stash.size() - 1; j >= 0; j--) {
+                    if (blocksToWrite.contains(stash.get(j)))
+                        stash.remove(j);
+                }
+                checksum += blocksToWrite.size();
+                node = (node - 1) / 2;
+            }
+            time += System.nanoTime() - startTime;
+        }
+        BenchmarkSink.consume(checksum);
+        return (double) time / EVICTIONS / 1000;
+    }
+
+    /**
+     * @return a full path of blocks, each with a leaf below its node, followed by blocks with random leaves
+     */
+    private static List<BlockPath> getBlocks(Random random, int leaf, int levels, int bucketSize) {
+        List<BlockPath> res = new ArrayList<>();
+        int address = 1;
+        for (int l = 0; l < levels; l++) {
+            int leavesBelow = 1 << (levels - 1 - l);
+            int firstLeaf = leaf / leavesBelow * leavesBelow;
+            for (int i = 0; i < bucketSize; i++)
+                res.add(new BlockPath(address++, new byte[0], firstLeaf + random.nextInt(leavesBelow)));
+        }
+        for (int i = 0; i < LEFT_IN_STASH; i++)
+            res.add(new BlockPath(address++, new byte[0], random.nextInt(1 << (levels - 1))));
+        Collections.shuffle(res, random);
+        return res;
+    }
+
+    private static List<Integer> getSubTreeLeaves(int node, int levels) {
+        int firstLeafNode = (1 << (levels - 1)) - 1;
+        int first = node;
+        int last = node;
+        while (first < firstLeafNode) {
+            first = 2 * first + 1;
+            last = 2 * last + 2;
+        }
+        List<Integer> res = new ArrayList<>(last - first + 1);
+        for (int i = first; i <= last; i++)
+            res.add(i - firstLeafNode);
+        return res;
+    }
+}
@@ -0,0 +1,112 @@
+package oram.benchmark;
+
+import oram.block.BlockLookahead;
+import oram.lookahead.FutureSwapPartners;
+import oram.lookahead.Index;
+import oram.random.RandomSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * Compares the bookkeeping of future swap partners in a Lookahead ORAM access, picking a new partner outside the
+ * swap stash and collecting the partners of the maintenance column, with a list of the partners as before and with
+ * {@link FutureSwapPartners}, for matrix heights from 256 to 4096.
+ */
+
+public class SwapPartnerBenchmark {
+    private static final int[] MATRIX_HEIGHTS = {256, 512, 1024, 2048, 4096};
+    private static final int ACCESSES = 20000;
+
+    public static void main(String[] args) {
+        RandomSource randomness = RandomSource.getDefault();
+        for (int matrixHeight : MATRIX_HEIGHTS) {
+            BlockLookahead[] swapStash = new BlockLookahead[matrixHeight];
+            for (int i = 0; i < matrixHeight; i++)
+                swapStash[i] = new BlockLookahead(i + 1, new byte[0], randomness.nextInt(matrixHeight),
+                        randomness.nextInt(matrixHeight));
+
+            long checksum = runList(matrixHeight, swapStash, randomness);
+            long startTime = System.nanoTime();
+            checksum += runList(matrixHeight, swapStash, randomness);
+            long listTime = System.nanoTime() - startTime;
+
+            checksum += runIndexed(matrixHeight, swapStash, randomness);
+            startTime = System.nanoTime();
+            checksum += runIndexed(matrixHeight, swapStash, randomness);
+            long indexedTime = System.nanoTime() - startTime;
+
+            System.out.println(String.format("Matrix height %4d: list %8.2f us, indexed %6.2f us per access (%d)",
+                    matrixHeight, (double) listTime / ACCESSES / 1000, (double) indexedTime / ACCESSES / 1000,
+                    checksum % 10));
+        }
+    }
+
+    private static long runIndexed(int matrixHeight, BlockLookahead[] swapStash, RandomSource randomness) {
+        FutureSwapPartners partners = new FutureSwapPartners(matrixHeight);
+        for (int i = 0; i < matrixHeight; i++)
+            partners.addRandom(randomness, i);
+
+        long res = 0;
+        for (int accessCounter = matrixHeight; accessCounter < matrixHeight + ACCESSES; accessCounter++) {
+            partners.addRandom(randomness, swapStash, accessCounter);
+            res += partners.removeColumn(Math.floorMod(accessCounter, matrixHeight)).size();
+        }
+        return res;
+    }
+
+    //    The list and the searches used before
+    private static long runList(int matrixHeight, BlockLookahead[] swapStash, RandomSource randomness) {
+        List<Partner> partners = new ArrayList<>();
+        for (int i = 0; i < matrixHeight; i++) {
+            Index index = null;
+            boolean indexIsNotUnique = true;
+            while (indexIsNotUnique) {
+                index = new Index(randomness.nextInt(matrixHeight), randomness.nextInt(matrixHeight));
+                Index finalIndex = index;
+                indexIsNotUnique = partners.stream().anyMatch(s -> s.index.equals(finalIndex));
+            }
+            partners.add(new Partner(index, i));
+        }
+
+        long res = 0;
+        for (int accessCounter = matrixHeight; accessCounter < matrixHeight + ACCESSES; accessCounter++) {
+            List<BlockLookahead> swapStashList = Arrays.asList(swapStash);
+            boolean futureSwapsContainsIndex = true;
+            boolean swapStashContains = true;
+            Index index = null;
+            while (futureSwapsContainsIndex || swapStashContains) {
+                index = new Index(randomness.nextInt(matrixHeight), randomness.nextInt(matrixHeight));
+                Index finalIndex = index;
+                futureSwapsContainsIndex = partners.stream().anyMatch(f -> f.index.equals(finalIndex));
+                swapStashContains = swapStashList.stream()
+                        .anyMatch(s -> (s != null && s.getIndex().equals(finalIndex)));
+            }
+            partners.add(new Partner(index, accessCounter));
+
+            int columnIndex = Math.floorMod(accessCounter, matrixHeight);
+            for (int i = partners.size() - 1; i >= 0; i--) {
+                if (partners.get(i).index.getColIndex() == columnIndex) {
+                    partners.remove(i);
+                    res++;
+                }
+            }
+        }
+        return res;
+    }
+
+    private static class Partner {
+        private final Index index;
+        private final int swapNumber;
+
+        Partner(Index index, int swapNumber) {
+            this.index = index;
+            this.swapNumber = swapNumber;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package oram.benchmark;
+
+import oram.path.PathTree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * Compares the floating point and list based tree addressing, which Path ORAM used before, with the integer
+ * arithmetic of {@link PathTree}. For each path it finds every node on the path, and checks for a number of blocks
+ * whether their leaf is below each of the nodes. The list based check builds the leaves below the node, so it is only
+ * run up to height {@link #MAX_LIST_HEIGHT}.
+ */
+
+public class TreeAddressingBenchmark {
+    private static final int MAX_LIST_HEIGHT = 16;
+    private static final int PATHS = 2000;
+    private static final int BLOCKS_PER_PATH = 32;
+
+    public static void main(String[] args) {
+//        Warm up both, so the first heights are not timed while the JIT compiler is still at work
+        for (int i = 0; i < 3; i++) {
+            for (int levels = 10; levels <= 24; levels += 2)
+                runBits(levels);
+            runLists(10);
+        }
+        for (int levels = 10; levels <= 24; levels += 2) {
+            double bits = runBits(levels);
+            String lists = levels <= MAX_LIST_HEIGHT
+                    ? String.format("%10.2f us", runLists(levels))
+                    : String.format("%13s", "-");
+            System.out.println(String.format("Height %2d: bits %8.2f us, lists %s per path", levels, bits, lists));
+        }
+    }
+
+    private static double runBits(int levels) {
+        Random random = new Random(42);
+        long checksum = 0;
+        long startTime = System.nanoTime();
+        for (int i = 0; i < PATHS; i++) {
+            int leaf = random.nextInt(1 << (levels - 1));
+            for (int l = levels - 1; l >= 0; l--) {
+                int node = PathTree.getNode(leaf, l, levels);
+                for (int j = 0; j < BLOCKS_PER_PATH; j++)
+                    if (PathTree.isOnPath(node, leaf ^ j, levels))
+                        checksum++;
+            }
+        }
+        long time = System.nanoTime() - startTime;
+        BenchmarkSink.consume(checksum);
+        return (double) time / PATHS / 1000;
+    }
+
+    private static double runLists(int levels) {
+        Random random = new Random(42);
+        long checksum = 0;
+        long startTime = System.nanoTime();
+        for (int i = 0; i < PATHS; i++) {
+            int leaf = random.nextInt(1 << (levels - 1));
+            for (int l = levels - 1; l >= 0; l--) {
+                int node = getNodeDouble(leaf, l, levels);
+                List<Integer> leaves = getSubTreeNodes(node, levels);
+                for (int j = 0; j < BLOCKS_PER_PATH; j++)
+                    if (leaves.contains(leaf ^ j))
+                        checksum++;
+            }
+        }
+        long time = System.nanoTime() - startTime;
+        BenchmarkSink.consume(checksum);
+        return (double) time / PATHS / 1000;
+    }
+
+    private static int getNodeDouble(int leafNode, int level, int levels) {
+        int res = (int) (Math.pow(2, levels - 1) - 1 + leafNode);
+        for (int i = levels - 1; i > level; i--) {
+            res = (int) Math.floor((res - 1) / 2);
+        }
+        return res;
+    }
+
+    private static List<Integer> getSubTreeNodes(int position, int levels) {
+        List<Integer> res = new ArrayList<>();
+        if (position > Math.pow(2, levels - 1) - 2) {
+            res.add(position - ((int) (Math.pow(2, levels - 1) - 1)));
+            return res;
+        }
+
+        res.addAll(getSubTreeNodes(2 * position + 1, levels));
+        res.addAll(getSubTreeNodes(2 * position + 2, levels));
+        return res;
+    }
+}
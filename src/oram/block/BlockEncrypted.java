@@ -1,5 +1,6 @@
 package oram.block;
 
+import oram.Constants;
 import oram.Util;
 
 import java.io.Serializable;
@@ -20,6 +21,45 @@ public class BlockEncrypted implements Serializable {
         this.data = data;
     }
 
+    /**
+     * Concatenates the cipher texts of a block and splits the result again, such that the address field always has the
+     * length of an encrypted integer in the wire format, whatever encryption scheme made the cipher texts
+     */
+    public static BlockEncrypted fromCipherTexts(byte[]... cipherTexts) {
+        int length = 0;
+        for (byte[] cipherText : cipherTexts)
+            length += cipherText.length;
+
+        int addressLength = Math.min(length, Constants.ENCRYPTED_INTEGER_SIZE);
+        byte[] address = new byte[addressLength];
+        byte[] data = new byte[length - addressLength];
+        int position = 0;
+        for (byte[] cipherText : cipherTexts) {
+            for (int i = 0; i < cipherText.length; ) {
+                int count;
+                if (position < addressLength) {
+                    count = Math.min(cipherText.length - i, addressLength - position);
+                    System.arraycopy(cipherText, i, address, position, count);
+                } else {
+                    count = cipherText.length - i;
+                    System.arraycopy(cipherText, i, data, position - addressLength, count);
+                }
+                i += count;
+                position += count;
+            }
+        }
+        return new BlockEncrypted(address, data);
+    }
+
+    /**
+     * @return the address and data fields concatenated
+     */
+    public byte[] getCipherText() {
+        byte[] res = Arrays.copyOf(address, address.length + data.length);
+        System.arraycopy(data, 0, res, address.length, data.length);
+        return res;
+    }
+
     public byte[] getAddress() {
         return address;
     }
@@ -0,0 +1,127 @@
+package oram.block;
+
+import oram.Constants;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * The data of a block in a recursive position map ORAM. The block holds the positions of the consecutive addresses
+ * from its base address and on, and is stored as the base address followed by the positions, all as little endian
+ * integers. With a block size of 512 bytes there is room for up to {@link #MAX_ENTRIES} positions per block.
+ */
+
+public class PositionBlock {
+    public static final int MAX_ENTRIES = (Constants.BLOCK_SIZE - Integer.BYTES) / Integer.BYTES;
+    private static final Logger logger = LogManager.getLogger("log");
+    private final int baseAddress;
+    private final int[] positions;
+
+    /**
+     * Creates a block with {@link Constants#POSITION_BLOCK_SIZE} entries, all mapped to the dummy position
+     */
+    public PositionBlock(int baseAddress) {
+        this(baseAddress, new int[Constants.POSITION_BLOCK_SIZE]);
+        Arrays.fill(positions, Constants.DUMMY_POSITION);
+    }
+
+    private PositionBlock(int baseAddress, int[] positions) {
+        this.baseAddress = baseAddress;
+        this.positions = positions;
+    }
+
+    /**
+     * @return a block, with only dummy positions, of the addresses the given address is grouped with
+     */
+    public static PositionBlock getDummyBlock(int addressToInclude) {
+        if (addressToInclude == 0)
+            return new PositionBlock(-Constants.POSITION_BLOCK_SIZE);
+        return new PositionBlock(addressToInclude - Math.floorMod(addressToInclude - 1,
+                Constants.POSITION_BLOCK_SIZE));
+    }
+
+    /**
+     * @return the block, or null if the array is not a position block
+     */
+    public static PositionBlock fromByteArray(byte[] array) {
+        if (array == null) return null;
+        int entries = (array.length - Integer.BYTES) / Integer.BYTES;
+        if (array.length < Integer.BYTES || array.length % Integer.BYTES != 0 || entries > MAX_ENTRIES) {
+            logger.error("Unable to get position block from byte array of length: " + array.length);
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(array).order(ByteOrder.LITTLE_ENDIAN);
+        int baseAddress = buffer.getInt();
+        int[] positions = new int[entries];
+        buffer.asIntBuffer().get(positions);
+        return new PositionBlock(baseAddress, positions);
+    }
+
+    public byte[] toByteArray() {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES * (positions.length + 1)).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(baseAddress);
+        buffer.asIntBuffer().put(positions);
+        return buffer.array();
+    }
+
+    public int getBaseAddress() {
+        return baseAddress;
+    }
+
+    public int size() {
+        return positions.length;
+    }
+
+    public boolean contains(int address) {
+        return address - baseAddress >= 0 && address - baseAddress < positions.length;
+    }
+
+    /**
+     * @return the position of the address, or null if the address is not in this block
+     */
+    public Integer getPosition(int address) {
+        if (!contains(address)) return null;
+        return positions[address - baseAddress];
+    }
+
+    /**
+     * @return false if the address is not in this block
+     */
+    public boolean setPosition(int address, int position) {
+        if (!contains(address)) {
+            logger.error("Address " + address + " is not in position block starting at " + baseAddress);
+            return false;
+        }
+        positions[address - baseAddress] = position;
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PositionBlock that = (PositionBlock) o;
+        return baseAddress == that.baseAddress && Arrays.equals(positions, that.positions);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * baseAddress + Arrays.hashCode(positions);
+    }
+
+    @Override
+    public String toString() {
+        return "PositionBlock{" +
+                "baseAddress=" + baseAddress +
+                ", positions=" + Arrays.toString(positions) +
+                '}';
+    }
+}
@@ -4,6 +4,7 @@ import oram.Constants;
 import oram.Util;
 import oram.block.BlockEncrypted;
 import oram.block.BlockLookahead;
+import oram.encryption.EncryptionStrategy;
 import oram.encryption.EncryptionStrategyImpl;
 import oram.lookahead.Index;
 import org.apache.logging.log4j.LogManager;
@@ -21,6 +22,15 @@ import java.util.List;
 
 public class LookaheadBlockCreator implements BlockCreator {
     private static final Logger logger = LogManager.getLogger("log");
+    private final EncryptionStrategy encryptionStrategy;
+
+    public LookaheadBlockCreator() {
+        this(new EncryptionStrategyImpl());
+    }
+
+    public LookaheadBlockCreator(EncryptionStrategy encryptionStrategy) {
+        this.encryptionStrategy = encryptionStrategy;
+    }
 
     @Override
     public List<BlockEncrypted> createBlocks(List<String> addresses) {
@@ -41,7 +51,6 @@ public class LookaheadBlockCreator implements BlockCreator {
 
         Util.logAndPrint(logger, "    " + numberOfFiles + " dummy blocks created");
 
-        EncryptionStrategyImpl encryptionStrategy = new EncryptionStrategyImpl();
         List<BlockEncrypted> encryptedList = encryptBlocks(blocks, encryptionStrategy,
                 encryptionStrategy.generateSecretKey(Constants.KEY_BYTES));
 
@@ -53,7 +62,7 @@ public class LookaheadBlockCreator implements BlockCreator {
     }
 
     private List<BlockEncrypted> encryptBlocks(List<BlockLookahead> blockLookaheads,
-                                               EncryptionStrategyImpl encryptionStrategy, SecretKey secretKey) {
+                                               EncryptionStrategy encryptionStrategy, SecretKey secretKey) {
         List<BlockEncrypted> res = new ArrayList<>();
         for (int i = 0; i < blockLookaheads.size(); i++) {
             BlockLookahead block = blockLookaheads.get(i);
@@ -77,11 +86,7 @@ public class LookaheadBlockCreator implements BlockCreator {
                 return new ArrayList<>();
             }
 
-            byte[] encryptedDataPlus = new byte[encryptedData.length + encryptedIndex.length];
-            System.arraycopy(encryptedData, 0, encryptedDataPlus, 0, encryptedData.length);
-            System.arraycopy(encryptedIndex, 0, encryptedDataPlus, encryptedData.length, encryptedIndex.length);
-
-            res.add(new BlockEncrypted(encryptedAddress, encryptedDataPlus));
+            res.add(BlockEncrypted.fromCipherTexts(encryptedAddress, encryptedData, encryptedIndex));
 
             double percent = ((double) (i + 1) / blockLookaheads.size()) * 100;
             if (percent % 1 == 0)
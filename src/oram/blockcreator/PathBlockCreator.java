@@ -4,6 +4,7 @@ import oram.Constants;
 import oram.Util;
 import oram.block.BlockEncrypted;
 import oram.block.BlockPath;
+import oram.encryption.EncryptionStrategy;
 import oram.encryption.EncryptionStrategyImpl;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -20,6 +21,15 @@ import java.util.List;
 
 public class PathBlockCreator implements BlockCreator {
     private static final Logger logger = LogManager.getLogger("log");
+    private final EncryptionStrategy encryptionStrategy;
+
+    public PathBlockCreator() {
+        this(new EncryptionStrategyImpl());
+    }
+
+    public PathBlockCreator(EncryptionStrategy encryptionStrategy) {
+        this.encryptionStrategy = encryptionStrategy;
+    }
 
     @Override
     public List<BlockEncrypted> createBlocks(List<String> addresses) {
@@ -40,7 +50,6 @@ public class PathBlockCreator implements BlockCreator {
 
         Util.logAndPrint(logger, "    " + numberOfFiles + " dummy blocks created");
 
-        EncryptionStrategyImpl encryptionStrategy = new EncryptionStrategyImpl();
         List<BlockEncrypted> encryptedList = encryptBlocks(blocks, encryptionStrategy,
                 encryptionStrategy.generateSecretKey(Constants.KEY_BYTES));
 
@@ -48,7 +57,7 @@ public class PathBlockCreator implements BlockCreator {
         return encryptedList;
     }
 
-    private List<BlockEncrypted> encryptBlocks(List<BlockPath> blockPaths, EncryptionStrategyImpl encryptionStrategy,
+    private List<BlockEncrypted> encryptBlocks(List<BlockPath> blockPaths, EncryptionStrategy encryptionStrategy,
                                                SecretKey secretKey) {
         List<BlockEncrypted> res = new ArrayList<>();
         for (int i = 0; i < blockPaths.size(); i++) {
@@ -66,11 +75,7 @@ public class PathBlockCreator implements BlockCreator {
                 return new ArrayList<>();
             }
 
-            byte[] encryptedDataPlus = new byte[indexCipher.length + dataCipher.length];
-            System.arraycopy(dataCipher, 0, encryptedDataPlus, 0, dataCipher.length);
-            System.arraycopy(indexCipher, 0, encryptedDataPlus, dataCipher.length, indexCipher.length);
-
-            res.add(new BlockEncrypted(addressCipher, encryptedDataPlus));
+            res.add(BlockEncrypted.fromCipherTexts(addressCipher, dataCipher, indexCipher));
 
             double percent = ((double) (i + 1) / blockPaths.size()) * 100;
             if (percent % 1 == 0)
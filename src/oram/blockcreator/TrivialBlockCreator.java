@@ -3,6 +3,7 @@ package oram.blockcreator;
 import oram.Constants;
 import oram.Util;
 import oram.block.BlockEncrypted;
+import oram.encryption.EncryptionStrategy;
 import oram.encryption.EncryptionStrategyImpl;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -19,6 +20,15 @@ import java.util.List;
 
 public class TrivialBlockCreator implements BlockCreator {
     private static final Logger logger = LogManager.getLogger("log");
+    private final EncryptionStrategy encryptionStrategy;
+
+    public TrivialBlockCreator() {
+        this(new EncryptionStrategyImpl());
+    }
+
+    public TrivialBlockCreator(EncryptionStrategy encryptionStrategy) {
+        this.encryptionStrategy = encryptionStrategy;
+    }
 
     @Override
     public List<BlockEncrypted> createBlocks(List<String> addresses) {
@@ -31,7 +41,6 @@ public class TrivialBlockCreator implements BlockCreator {
             return new ArrayList<>();
         }
 
-        EncryptionStrategyImpl encryptionStrategy = new EncryptionStrategyImpl();
         SecretKey secretKey = encryptionStrategy.generateSecretKey(Constants.KEY_BYTES);
         int numberOfFiles = addresses.size();
         Util.logAndPrint(logger, "Overwriting " + numberOfFiles + " Trivial files, from: " + addresses.get(0) + ", to: "
@@ -49,9 +58,9 @@ public class TrivialBlockCreator implements BlockCreator {
         return res;
     }
 
-    private BlockEncrypted getEncryptedDummy(SecretKey key, EncryptionStrategyImpl encryptionStrategy) {
+    private BlockEncrypted getEncryptedDummy(SecretKey key, EncryptionStrategy encryptionStrategy) {
         byte[] encryptedAddress = encryptionStrategy.encrypt(Util.leIntToByteArray(0), key);
         byte[] encryptedData = encryptionStrategy.encrypt(new byte[Constants.BLOCK_SIZE], key);
-        return new BlockEncrypted(encryptedAddress, encryptedData);
+        return BlockEncrypted.fromCipherTexts(encryptedAddress, encryptedData);
     }
 }
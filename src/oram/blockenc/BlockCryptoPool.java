@@ -0,0 +1,114 @@
+package oram.blockenc;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * Spreads the encryption and decryption of the blocks of a path or a column over several threads. The blocks are split
+ * into consecutive chunks, one per thread, and the caller thread processes the first chunk itself. The results are
+ * returned in the order of the blocks. Lists too short to be worth the hand off are processed on the caller thread.
+ */
+
+public class BlockCryptoPool {
+    public static final BlockCryptoPool SEQUENTIAL = new BlockCryptoPool(null, 1);
+    private static final int MIN_BLOCKS_PER_CHUNK = 4;
+
+    private final Logger logger = LogManager.getLogger("log");
+    private final ExecutorService executor;
+    private final int parallelism;
+
+    private BlockCryptoPool(ExecutorService executor, int parallelism) {
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    public static BlockCryptoPool forkJoin(int parallelism) {
+        if (parallelism <= 1) return SEQUENTIAL;
+        return new BlockCryptoPool(new ForkJoinPool(parallelism - 1), parallelism);
+    }
+
+    public static BlockCryptoPool fixed(int threads) {
+        if (threads <= 1) return SEQUENTIAL;
+        return new BlockCryptoPool(Executors.newFixedThreadPool(threads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "oram-block-crypto");
+            thread.setDaemon(true);
+            return thread;
+        }), threads);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * @return the function applied to each of the items, in the same order, or null if a call on another thread threw
+     */
+    public <T, R> List<R> map(List<T> items, Function<T, R> function) {
+        int chunks = Math.min(parallelism, items.size() / MIN_BLOCKS_PER_CHUNK);
+        if (executor == null || chunks <= 1) {
+            List<R> res = new ArrayList<>(items.size());
+            for (T item : items)
+                res.add(function.apply(item));
+            return res;
+        }
+
+        Object[] res = new Object[items.size()];
+        List<Future<?>> futures = new ArrayList<>(chunks - 1);
+        for (int i = 1; i < chunks; i++) {
+            int from = i * items.size() / chunks;
+            int to = (i + 1) * items.size() / chunks;
+            futures.add(executor.submit(() -> apply(items, function, res, from, to)));
+        }
+
+        boolean successful = true;
+        try {
+            apply(items, function, res, 0, items.size() / chunks);
+        } catch (RuntimeException e) {
+            logger.error("Error happened while processing blocks: " + e);
+            logger.debug("Stacktrace", e);
+            successful = false;
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.error("Interrupted while waiting for blocks to be processed");
+                successful = false;
+            } catch (ExecutionException e) {
+                logger.error("Error happened while processing blocks: " + e.getCause());
+                logger.debug("Stacktrace", e);
+                successful = false;
+            }
+        }
+        if (!successful) return null;
+
+        @SuppressWarnings("unchecked")
+        List<R> resList = (List<R>) Arrays.asList(res);
+        return new ArrayList<>(resList);
+    }
+
+    public void shutdown() {
+        if (executor != null)
+            executor.shutdown();
+    }
+
+    private static <T, R> void apply(List<T> items, Function<T, R> function, Object[] res, int from, int to) {
+        for (int i = from; i < to; i++)
+            res[i] = function.apply(items.get(i));
+    }
+}
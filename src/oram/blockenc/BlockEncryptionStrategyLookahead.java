@@ -1,6 +1,5 @@
 package oram.blockenc;
 
-import oram.Constants;
 import oram.Util;
 import oram.block.BlockEncrypted;
 import oram.block.BlockLookahead;
@@ -12,7 +11,6 @@ import org.apache.logging.log4j.Logger;
 import javax.crypto.SecretKey;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 
 import static oram.Constants.INTEGER_BYTE_ARRAY_SIZE;
@@ -26,89 +24,99 @@ import static oram.Util.byteArrayToLeInt;
 
 public class BlockEncryptionStrategyLookahead {
     private static final Logger logger = LogManager.getLogger("log");
-    private EncryptionStrategy encryptionStrategy;
+    protected EncryptionStrategy encryptionStrategy;
+    protected BlockCryptoPool blockCryptoPool;
 
     public BlockEncryptionStrategyLookahead(EncryptionStrategy encryptionStrategy) {
         this.encryptionStrategy = encryptionStrategy;
+        blockCryptoPool = BlockCryptoPool.SEQUENTIAL;
+    }
+
+    public void setBlockCryptoPool(BlockCryptoPool blockCryptoPool) {
+        this.blockCryptoPool = blockCryptoPool;
     }
 
     public List<BlockEncrypted> encryptBlocks(List<BlockLookahead> blocks, SecretKey secretKey) {
-        List<BlockEncrypted> res = new ArrayList<>();
-        for (BlockLookahead block : blocks) {
-            if (block == null) {
-                res.add(null);
-                continue;
-            }
-            byte[] rowIndexBytes = Util.leIntToByteArray(block.getRowIndex());
-            byte[] colIndexBytes = Util.leIntToByteArray(block.getColIndex());
-            byte[] addressBytes = Util.leIntToByteArray(block.getAddress());
-            byte[] encryptedAddress = encryptionStrategy.encrypt(addressBytes, secretKey);
-            byte[] encryptedData = encryptionStrategy.encrypt(block.getData(), secretKey);
-            byte[] indexBytes = ArrayUtils.addAll(rowIndexBytes, colIndexBytes);
-            byte[] encryptedIndex = encryptionStrategy.encrypt(indexBytes,
-                    secretKey);
-
-            if (encryptedAddress == null || encryptedData == null || encryptedIndex == null) {
-                logger.error("Unable to encrypt block: " + block.toStringShort());
+        List<BlockEncrypted> res = blockCryptoPool.map(blocks, block -> encryptBlock(block, secretKey));
+        if (res == null) return new ArrayList<>();
+        for (int i = 0; i < blocks.size(); i++) {
+            if (res.get(i) == null && blocks.get(i) != null)
                 return new ArrayList<>();
-            }
-
-            byte[] encryptedDataPlus = ArrayUtils.addAll(encryptedData, encryptedIndex);
-
-            res.add(new BlockEncrypted(encryptedAddress, encryptedDataPlus));
         }
         return res;
     }
 
+    /**
+     * @return the encrypted block, or null if the block is null or could not be encrypted
+     */
     public BlockEncrypted encryptBlock(BlockLookahead block, SecretKey secretKey) {
-        List<BlockEncrypted> encrypted = encryptBlocks(Collections.singletonList(block), secretKey);
-        if (encrypted.isEmpty())
+        if (block == null) return null;
+
+        byte[] rowIndexBytes = Util.leIntToByteArray(block.getRowIndex());
+        byte[] colIndexBytes = Util.leIntToByteArray(block.getColIndex());
+        byte[] addressBytes = Util.leIntToByteArray(block.getAddress());
+        byte[] encryptedAddress = encryptionStrategy.encrypt(addressBytes, secretKey);
+        byte[] encryptedData = encryptionStrategy.encrypt(block.getData(), secretKey);
+        byte[] indexBytes = ArrayUtils.addAll(rowIndexBytes, colIndexBytes);
+        byte[] encryptedIndex = encryptionStrategy.encrypt(indexBytes,
+                secretKey);
+
+        if (encryptedAddress == null || encryptedData == null || encryptedIndex == null) {
+            logger.error("Unable to encrypt block: " + block.toStringShort());
             return null;
-        else
-            return encrypted.get(0);
+        }
+
+        return BlockEncrypted.fromCipherTexts(encryptedAddress, encryptedData, encryptedIndex);
     }
 
     public List<BlockLookahead> decryptBlocks(List<BlockEncrypted> blocks, SecretKey secretKey) {
-        List<BlockLookahead> res = new ArrayList<>();
-        for (BlockEncrypted b : blocks) {
-            byte[] encryptedDataFull = b.getData();
-            int encryptedDataFullLength = encryptedDataFull.length;
-            int endOfDataIndex = encryptedDataFullLength - Constants.AES_BLOCK_SIZE * 2;
-            byte[] encryptedData = Arrays.copyOfRange(encryptedDataFull, 0, endOfDataIndex);
-            byte[] encryptedIndex = Arrays.copyOfRange(encryptedDataFull, endOfDataIndex, encryptedDataFullLength);
-            byte[] data = encryptionStrategy.decrypt(encryptedData, secretKey);
-            byte[] indices = encryptionStrategy.decrypt(encryptedIndex, secretKey);
-
-            if (data == null) {
-                logger.info("Tried to turn an encrypted block with value = null into a Lookahead block");
-                return null;
-            }
-
-            byte[] addressBytes = encryptionStrategy.decrypt(b.getAddress(), secretKey);
-
-            int address = byteArrayToLeInt(addressBytes);
-
-            int rowDataIndex = 0;
-            int colDataIndex = INTEGER_BYTE_ARRAY_SIZE;
-            byte[] rowIndexBytes = Arrays.copyOfRange(indices, rowDataIndex, colDataIndex);
-            byte[] colIndexBytes = Arrays.copyOfRange(indices, colDataIndex, INTEGER_BYTE_ARRAY_SIZE * 2);
-
-            BlockLookahead blockLookahead = new BlockLookahead();
-            blockLookahead.setAddress(address);
-            blockLookahead.setData(data);
-            blockLookahead.setRowIndex(byteArrayToLeInt(rowIndexBytes));
-            blockLookahead.setColIndex(byteArrayToLeInt(colIndexBytes));
-
-            res.add(blockLookahead);
-        }
+        List<BlockLookahead> res = blockCryptoPool.map(blocks, block -> decryptBlock(block, secretKey));
+        if (res == null || res.contains(null)) return null;
         return res;
     }
 
+    /**
+     * @return the decrypted block, or null if it could not be decrypted
+     */
     public BlockLookahead decryptBlock(BlockEncrypted block, SecretKey secretKey) {
-        List<BlockLookahead> encrypted = decryptBlocks(Collections.singletonList(block), secretKey);
-        if (encrypted.isEmpty())
+        int addressCipherTextLength = encryptionStrategy.getCipherTextLength(INTEGER_BYTE_ARRAY_SIZE);
+        int indexCipherTextLength = encryptionStrategy.getCipherTextLength(INTEGER_BYTE_ARRAY_SIZE * 2);
+        byte[] cipherText = block.getCipherText();
+        int endOfDataIndex = cipherText.length - indexCipherTextLength;
+        if (endOfDataIndex < addressCipherTextLength) {
+            logger.info("Tried to turn an encrypted block that is too short into a Lookahead block");
+            return null;
+        }
+        byte[] encryptedData = Arrays.copyOfRange(cipherText, addressCipherTextLength, endOfDataIndex);
+        byte[] encryptedIndex = Arrays.copyOfRange(cipherText, endOfDataIndex, cipherText.length);
+        byte[] data = encryptionStrategy.decrypt(encryptedData, secretKey);
+        byte[] indices = encryptionStrategy.decrypt(encryptedIndex, secretKey);
+
+        if (data == null || indices == null) {
+            logger.info("Tried to turn an encrypted block with value = null into a Lookahead block");
             return null;
-        else
-            return encrypted.get(0);
+        }
+
+        byte[] addressBytes = encryptionStrategy.decrypt(Arrays.copyOf(cipherText, addressCipherTextLength),
+                secretKey);
+        if (addressBytes == null) {
+            logger.info("Unable to decrypt the address of a Lookahead block");
+            return null;
+        }
+
+        int address = byteArrayToLeInt(addressBytes);
+
+        int rowDataIndex = 0;
+        int colDataIndex = INTEGER_BYTE_ARRAY_SIZE;
+        byte[] rowIndexBytes = Arrays.copyOfRange(indices, rowDataIndex, colDataIndex);
+        byte[] colIndexBytes = Arrays.copyOfRange(indices, colDataIndex, INTEGER_BYTE_ARRAY_SIZE * 2);
+
+        BlockLookahead blockLookahead = new BlockLookahead();
+        blockLookahead.setAddress(address);
+        blockLookahead.setData(data);
+        blockLookahead.setRowIndex(byteArrayToLeInt(rowIndexBytes));
+        blockLookahead.setColIndex(byteArrayToLeInt(colIndexBytes));
+
+        return blockLookahead;
     }
 }
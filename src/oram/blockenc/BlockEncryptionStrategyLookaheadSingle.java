@@ -0,0 +1,54 @@
+package oram.blockenc;
+
+import oram.block.BlockEncrypted;
+import oram.block.BlockLookahead;
+import oram.encryption.EncryptionStrategy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.crypto.SecretKey;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * Encrypts the address, the row and column index and the data of a Lookahead block as a single cipher text, with one
+ * IV and one padding. Blocks still in the legacy format, like the dummy blocks the server is initialized with, are
+ * decrypted with the legacy codec.
+ */
+
+public class BlockEncryptionStrategyLookaheadSingle extends BlockEncryptionStrategyLookahead {
+    private static final Logger logger = LogManager.getLogger("log");
+    private static final int HEADER_INTEGERS = 3;
+
+    public BlockEncryptionStrategyLookaheadSingle(EncryptionStrategy encryptionStrategy) {
+        super(encryptionStrategy);
+    }
+
+    @Override
+    public BlockEncrypted encryptBlock(BlockLookahead block, SecretKey secretKey) {
+        if (block == null) return null;
+
+        BlockEncrypted encrypted = SingleCipherTextCodec.encrypt(encryptionStrategy, secretKey, block.getData(),
+                block.getAddress(), block.getRowIndex(), block.getColIndex());
+        if (encrypted == null)
+            logger.error("Unable to encrypt block: " + block.toStringShort());
+        return encrypted;
+    }
+
+    @Override
+    public BlockLookahead decryptBlock(BlockEncrypted block, SecretKey secretKey) {
+        byte[] plainText = SingleCipherTextCodec.decrypt(encryptionStrategy, secretKey, block, HEADER_INTEGERS);
+        if (plainText == null)
+            return super.decryptBlock(block, secretKey);
+
+        BlockLookahead blockLookahead = new BlockLookahead();
+        blockLookahead.setAddress(SingleCipherTextCodec.getHeaderInt(plainText, 0));
+        blockLookahead.setData(SingleCipherTextCodec.getData(plainText, HEADER_INTEGERS));
+        blockLookahead.setRowIndex(SingleCipherTextCodec.getHeaderInt(plainText, 1));
+        blockLookahead.setColIndex(SingleCipherTextCodec.getHeaderInt(plainText, 2));
+
+        return blockLookahead;
+    }
+}
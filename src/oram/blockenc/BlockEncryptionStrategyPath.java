@@ -6,7 +6,6 @@ import oram.block.BlockEncrypted;
 import oram.block.BlockPath;
 import oram.encryption.EncryptionStrategy;
 import oram.permutation.PermutationStrategy;
-import org.apache.commons.lang3.ArrayUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -23,65 +22,115 @@ import java.util.List;
 
 public class BlockEncryptionStrategyPath {
     private static final Logger logger = LogManager.getLogger("log");
-    private EncryptionStrategy encryptionStrategy;
-    private PermutationStrategy permutationStrategy;
+    protected static final BlockPath UNDECRYPTABLE_BLOCK = new BlockPath(0, new byte[0], 0);
+    protected EncryptionStrategy encryptionStrategy;
+    protected PermutationStrategy permutationStrategy;
+    protected BlockCryptoPool blockCryptoPool;
 
     public BlockEncryptionStrategyPath(EncryptionStrategy encryptionStrategy, PermutationStrategy permutationStrategy) {
         this.encryptionStrategy = encryptionStrategy;
         this.permutationStrategy = permutationStrategy;
+        blockCryptoPool = BlockCryptoPool.SEQUENTIAL;
+    }
+
+    public void setBlockCryptoPool(BlockCryptoPool blockCryptoPool) {
+        this.blockCryptoPool = blockCryptoPool;
     }
 
     public List<BlockEncrypted> encryptBlocks(List<BlockPath> blocks, SecretKey secretKey) {
-        List<BlockEncrypted> encryptedBlocksToWrite = new ArrayList<>();
-
-        for (BlockPath block : blocks) {
-            byte[] addressCipher = encryptionStrategy.encrypt(Util.leIntToByteArray(block.getAddress()), secretKey);
-            byte[] indexCipher = encryptionStrategy.encrypt(Util.leIntToByteArray(block.getIndex()), secretKey);
-            byte[] dataCipher = encryptionStrategy.encrypt(block.getData(), secretKey);
-            if (addressCipher == null || indexCipher == null || dataCipher == null) {
-                logger.error("Unable to encrypt address: " + block.getAddress() + " or data");
-                return null;
-            }
-            byte[] encryptedDataPlus = ArrayUtils.addAll(dataCipher, indexCipher);
-            encryptedBlocksToWrite.add(new BlockEncrypted(addressCipher, encryptedDataPlus));
-        }
-        encryptedBlocksToWrite = permutationStrategy.permuteEncryptedBlocks(encryptedBlocksToWrite);
+        return encryptBlocks(blocks, secretKey, true);
+    }
+
+    /**
+     * @param permute false if the encrypted blocks must be in the same order as the blocks, when the caller keeps track
+     *                of where each block is stored
+     */
+    public List<BlockEncrypted> encryptBlocks(List<BlockPath> blocks, SecretKey secretKey, boolean permute) {
+        List<BlockEncrypted> encryptedBlocksToWrite = blockCryptoPool.map(blocks,
+                block -> encryptBlock(block, secretKey));
+        if (encryptedBlocksToWrite == null || encryptedBlocksToWrite.contains(null)) return null;
+
+        if (permute)
+            encryptedBlocksToWrite = permutationStrategy.permuteEncryptedBlocks(encryptedBlocksToWrite);
         return encryptedBlocksToWrite;
     }
 
     public List<BlockPath> decryptBlocks(List<BlockEncrypted> blocks, SecretKey secretKey, boolean filterOutDummies) {
-        List<BlockPath> res = new ArrayList<>();
-        for (BlockEncrypted block : blocks) {
-            if (block == null) continue;
-//            Address
-            byte[] addressBytes = encryptionStrategy.decrypt(block.getAddress(), secretKey);
+        List<BlockPath> decrypted = blockCryptoPool.map(blocks,
+                block -> decryptBlock(block, secretKey, filterOutDummies));
+        if (decrypted == null) return null;
 
-            if (addressBytes == null) continue;
-            int addressInt = Util.byteArrayToLeInt(addressBytes);
+        List<BlockPath> res = new ArrayList<>();
+        for (BlockPath block : decrypted) {
+            if (block == UNDECRYPTABLE_BLOCK) return null;
+            if (block != null)
+                res.add(block);
+        }
+        return res;
+    }
 
-            if (filterOutDummies && Util.isDummyAddress(addressInt)) continue;
+    /**
+     * @return the encrypted block, or null if it could not be encrypted
+     */
+    protected BlockEncrypted encryptBlock(BlockPath block, SecretKey secretKey) {
+        byte[] addressCipher = encryptionStrategy.encrypt(Util.leIntToByteArray(block.getAddress()), secretKey);
+        byte[] indexCipher = encryptionStrategy.encrypt(Util.leIntToByteArray(block.getIndex()), secretKey);
+        byte[] dataCipher = encryptionStrategy.encrypt(block.getData(), secretKey);
+        if (addressCipher == null || indexCipher == null || dataCipher == null) {
+            logger.error("Unable to encrypt address: " + block.getAddress() + " or data");
+            return null;
+        }
+        return BlockEncrypted.fromCipherTexts(addressCipher, dataCipher, indexCipher);
+    }
 
-//            Data and index
-            byte[] encryptedDataFull = block.getData();
+    /**
+     * @return the decrypted block, null if the block should be left out, or {@link #UNDECRYPTABLE_BLOCK} if the data
+     * could not be decrypted
+     */
+    protected BlockPath decryptBlock(BlockEncrypted block, SecretKey secretKey, boolean filterOutDummies) {
+        if (block == null) return null;
+        byte[] cipherText = block.getCipherText();
+        if (!hasLegacyShape(cipherText)) {
+            Util.logAndPrint(logger, "Unable to decrypt a Path block");
+            return UNDECRYPTABLE_BLOCK;
+        }
+        int integerCipherTextLength = encryptionStrategy.getCipherTextLength(Constants.INTEGER_BYTE_ARRAY_SIZE);
 
-            int encryptedDataFullLength = encryptedDataFull.length;
-            int endOfDataIndex = encryptedDataFullLength - Constants.AES_BLOCK_SIZE * 2;
+//        Address
+        byte[] addressBytes = encryptionStrategy.decrypt(Arrays.copyOf(cipherText, integerCipherTextLength), secretKey);
 
-            byte[] encryptedData = Arrays.copyOfRange(encryptedDataFull, 0, endOfDataIndex);
-            byte[] encryptedIndex = Arrays.copyOfRange(encryptedDataFull, endOfDataIndex, encryptedDataFullLength);
+        if (addressBytes == null) {
+            Util.logAndPrint(logger, "Unable to decrypt the address of a Path block");
+            return UNDECRYPTABLE_BLOCK;
+        }
+        int addressInt = Util.byteArrayToLeInt(addressBytes);
 
-            byte[] data = encryptionStrategy.decrypt(encryptedData, secretKey);
-            byte[] indexBytes = encryptionStrategy.decrypt(encryptedIndex, secretKey);
+        if (filterOutDummies && Util.isDummyAddress(addressInt)) return null;
 
-            if (data == null || indexBytes == null) {
-                Util.logAndPrint(logger, "Unable to decrypt a Path block");
-                return null;
-            }
+//        Data and index
+        int endOfDataIndex = cipherText.length - integerCipherTextLength;
+        byte[] encryptedData = Arrays.copyOfRange(cipherText, integerCipherTextLength, endOfDataIndex);
+        byte[] encryptedIndex = Arrays.copyOfRange(cipherText, endOfDataIndex, cipherText.length);
 
-            int index = Util.byteArrayToLeInt(indexBytes);
+        byte[] data = encryptionStrategy.decrypt(encryptedData, secretKey);
+        byte[] indexBytes = encryptionStrategy.decrypt(encryptedIndex, secretKey);
 
-            res.add(new BlockPath(addressInt, data, index));
+        if (data == null || indexBytes == null) {
+            Util.logAndPrint(logger, "Unable to decrypt a Path block");
+            return UNDECRYPTABLE_BLOCK;
         }
-        return res;
+
+        int index = Util.byteArrayToLeInt(indexBytes);
+
+        return new BlockPath(addressInt, data, index);
+    }
+
+    /**
+     * @return true if the cipher text is long enough to be the address, the data and the index encrypted separately,
+     * as the legacy codec does
+     */
+    protected boolean hasLegacyShape(byte[] cipherText) {
+        int integerCipherTextLength = encryptionStrategy.getCipherTextLength(Constants.INTEGER_BYTE_ARRAY_SIZE);
+        return cipherText.length >= integerCipherTextLength * 2 + encryptionStrategy.getCipherTextLength(0);
     }
 }
@@ -0,0 +1,60 @@
+package oram.blockenc;
+
+import oram.Util;
+import oram.block.BlockEncrypted;
+import oram.block.BlockPath;
+import oram.encryption.EncryptionStrategy;
+import oram.permutation.PermutationStrategy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.crypto.SecretKey;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * Encrypts the address, the leaf index and the data of a Path block as a single cipher text, with one IV and one
+ * padding. Blocks still in the legacy format, like the dummy blocks the server is initialized with, are decrypted with
+ * the legacy codec. A block that decrypts with neither codec fails the decryption, it is never left out.
+ */
+
+public class BlockEncryptionStrategyPathSingle extends BlockEncryptionStrategyPath {
+    private static final Logger logger = LogManager.getLogger("log");
+    private static final int HEADER_INTEGERS = 2;
+
+    public BlockEncryptionStrategyPathSingle(EncryptionStrategy encryptionStrategy,
+                                             PermutationStrategy permutationStrategy) {
+        super(encryptionStrategy, permutationStrategy);
+    }
+
+    @Override
+    protected BlockEncrypted encryptBlock(BlockPath block, SecretKey secretKey) {
+        BlockEncrypted encrypted = SingleCipherTextCodec.encrypt(encryptionStrategy, secretKey, block.getData(),
+                block.getAddress(), block.getIndex());
+        if (encrypted == null)
+            logger.error("Unable to encrypt address: " + block.getAddress() + " or data");
+        return encrypted;
+    }
+
+    @Override
+    protected BlockPath decryptBlock(BlockEncrypted block, SecretKey secretKey, boolean filterOutDummies) {
+        if (block == null) return null;
+
+        byte[] plainText = SingleCipherTextCodec.decrypt(encryptionStrategy, secretKey, block, HEADER_INTEGERS);
+        if (plainText == null) {
+//            Only a block of the legacy shape is left to the legacy codec, which also fails a block it can not decrypt
+            if (hasLegacyShape(block.getCipherText()))
+                return super.decryptBlock(block, secretKey, filterOutDummies);
+            logger.error("Unable to decrypt a Path block");
+            return UNDECRYPTABLE_BLOCK;
+        }
+
+        int address = SingleCipherTextCodec.getHeaderInt(plainText, 0);
+        if (filterOutDummies && Util.isDummyAddress(address)) return null;
+
+        return new BlockPath(address, SingleCipherTextCodec.getData(plainText, HEADER_INTEGERS),
+                SingleCipherTextCodec.getHeaderInt(plainText, 1));
+    }
+}
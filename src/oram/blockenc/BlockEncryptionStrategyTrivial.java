@@ -1,5 +1,6 @@
 package oram.blockenc;
 
+import oram.Constants;
 import oram.Util;
 import oram.block.BlockEncrypted;
 import oram.block.BlockTrivial;
@@ -9,6 +10,7 @@ import org.apache.logging.log4j.Logger;
 
 import javax.crypto.SecretKey;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -38,16 +40,20 @@ public class BlockEncryptionStrategyTrivial {
                 break;
             }
 
-            res.add(new BlockEncrypted(addressCipher, dataCipher));
+            res.add(BlockEncrypted.fromCipherTexts(addressCipher, dataCipher));
         }
         return res;
     }
 
     public List<BlockTrivial> decryptBlocks(List<BlockEncrypted> blocks, SecretKey secretKey) {
         List<BlockTrivial> res = new ArrayList<>();
+        int addressCipherTextLength = encryptionStrategy.getCipherTextLength(Constants.INTEGER_BYTE_ARRAY_SIZE);
         for (BlockEncrypted b : blocks) {
-            byte[] addressBytes = encryptionStrategy.decrypt(b.getAddress(), secretKey);
-            byte[] data = encryptionStrategy.decrypt(b.getData(), secretKey);
+            byte[] cipherText = b.getCipherText();
+            byte[] addressBytes = encryptionStrategy.decrypt(Arrays.copyOf(cipherText, addressCipherTextLength),
+                    secretKey);
+            byte[] data = encryptionStrategy.decrypt(
+                    Arrays.copyOfRange(cipherText, addressCipherTextLength, cipherText.length), secretKey);
 
             if (addressBytes == null || data == null) {
                 logger.error("Unable to decrypt either address or data");
@@ -0,0 +1,76 @@
+package oram.blockenc;
+
+import oram.Constants;
+import oram.block.BlockEncrypted;
+import oram.encryption.EncryptionStrategy;
+
+import javax.crypto.SecretKey;
+import java.util.Arrays;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * Serializes a block header and its data into one plaintext, encrypted as a single cipher text. The plaintext is a
+ * version marker, the header integers and then the data, all integers little endian. The marker is negative, so it can
+ * never equal the address at the start of a block encrypted with the legacy codec. The cipher text is split into the
+ * address and data fields of the wire format by {@link BlockEncrypted#fromCipherTexts}.
+ */
+
+class SingleCipherTextCodec {
+    static final int VERSION_MARKER = 0x80000002;
+
+    static BlockEncrypted encrypt(EncryptionStrategy encryptionStrategy, SecretKey secretKey, byte[] data,
+                                  int... header) {
+        int headerLength = (header.length + 1) * Constants.INTEGER_BYTE_ARRAY_SIZE;
+        byte[] plainText = new byte[headerLength + data.length];
+        putLeInt(plainText, 0, VERSION_MARKER);
+        for (int i = 0; i < header.length; i++)
+            putLeInt(plainText, (i + 1) * Constants.INTEGER_BYTE_ARRAY_SIZE, header[i]);
+        System.arraycopy(data, 0, plainText, headerLength, data.length);
+
+        byte[] cipherText = new byte[encryptionStrategy.getCipherTextLength(plainText.length)];
+        int length = encryptionStrategy.encrypt(plainText, 0, plainText.length, cipherText, 0, secretKey);
+        if (length != cipherText.length) return null;
+
+        return BlockEncrypted.fromCipherTexts(cipherText);
+    }
+
+    /**
+     * @return the plaintext, or null if the block could not be decrypted or does not start with the version marker
+     */
+    static byte[] decrypt(EncryptionStrategy encryptionStrategy, SecretKey secretKey, BlockEncrypted block,
+                          int headerIntegers) {
+        byte[] cipherText = block.getCipherText();
+        byte[] plainText = new byte[cipherText.length];
+        int length = encryptionStrategy.decrypt(cipherText, 0, cipherText.length, plainText, 0, secretKey);
+        if (length < (headerIntegers + 1) * Constants.INTEGER_BYTE_ARRAY_SIZE) return null;
+        if (getLeInt(plainText, 0) != VERSION_MARKER) return null;
+        return Arrays.copyOf(plainText, length);
+    }
+
+    /**
+     * @param index zero based index of the header integer, not counting the version marker
+     */
+    static int getHeaderInt(byte[] plainText, int index) {
+        return getLeInt(plainText, (index + 1) * Constants.INTEGER_BYTE_ARRAY_SIZE);
+    }
+
+    static byte[] getData(byte[] plainText, int headerIntegers) {
+        return Arrays.copyOfRange(plainText, (headerIntegers + 1) * Constants.INTEGER_BYTE_ARRAY_SIZE,
+                plainText.length);
+    }
+
+    private static void putLeInt(byte[] array, int offset, int value) {
+        array[offset] = (byte) value;
+        array[offset + 1] = (byte) (value >>> 8);
+        array[offset + 2] = (byte) (value >>> 16);
+        array[offset + 3] = (byte) (value >>> 24);
+    }
+
+    private static int getLeInt(byte[] array, int offset) {
+        return (array[offset] & 0xFF) | (array[offset + 1] & 0xFF) << 8 | (array[offset + 2] & 0xFF) << 16 |
+                (array[offset + 3] & 0xFF) << 24;
+    }
+}
@@ -0,0 +1,66 @@
+package oram.clientcom;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * Pool of direct byte buffers, bucketed by power of two capacities, so frames can be written to and read from the
+ * socket without allocating new memory for every message.
+ */
+
+public class BufferPool {
+    private static final int MIN_CAPACITY_BITS = 12;
+    private static final int MAX_CAPACITY_BITS = 30;
+    private static final int MAX_POOLED_PER_SIZE = 16;
+
+    private final ConcurrentLinkedQueue<ByteBuffer>[] pools;
+    private final AtomicIntegerArray pooledCounts;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public BufferPool() {
+        pools = new ConcurrentLinkedQueue[MAX_CAPACITY_BITS + 1];
+        for (int i = 0; i < pools.length; i++)
+            pools[i] = new ConcurrentLinkedQueue<>();
+        pooledCounts = new AtomicIntegerArray(MAX_CAPACITY_BITS + 1);
+    }
+
+    /**
+     * @return a cleared direct buffer with at least the given capacity, and the limit set to the capacity asked for
+     */
+    public ByteBuffer acquire(int capacity) {
+        int bits = getCapacityBits(capacity);
+        ByteBuffer res = pools[bits].poll();
+        if (res == null)
+            res = ByteBuffer.allocateDirect(1 << bits);
+        else
+            pooledCounts.decrementAndGet(bits);
+
+        res.clear();
+        res.limit(capacity);
+        return res;
+    }
+
+    public void release(ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect() || Integer.bitCount(buffer.capacity()) != 1) return;
+
+        int bits = Integer.numberOfTrailingZeros(buffer.capacity());
+        if (bits < MIN_CAPACITY_BITS || bits > MAX_CAPACITY_BITS) return;
+        if (pooledCounts.incrementAndGet(bits) > MAX_POOLED_PER_SIZE) {
+            pooledCounts.decrementAndGet(bits);
+            return;
+        }
+        pools[bits].add(buffer);
+    }
+
+    private int getCapacityBits(int capacity) {
+        int bits = 32 - Integer.numberOfLeadingZeros(Math.max(capacity, 1) - 1);
+        if (bits > MAX_CAPACITY_BITS)
+            throw new IllegalArgumentException("Buffer capacity too large: " + capacity);
+        return Math.max(bits, MIN_CAPACITY_BITS);
+    }
+}
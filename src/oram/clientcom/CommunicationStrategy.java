@@ -21,6 +21,14 @@ public interface CommunicationStrategy {
 
     boolean writeArray(List<Integer> addresses, List<BlockEncrypted> blocks);
 
+    /**
+     * Writes the blocks and then reads the read addresses, in a single round trip when the transport allows it
+     *
+     * @return the blocks read, or null if either the write or the read failed
+     */
+    List<BlockEncrypted> readWriteArray(List<Integer> readAddresses, List<Integer> writeAddresses,
+                                        List<BlockEncrypted> writeBlocks);
+
     boolean sendEndSignal();
 
     long speedTest();
@@ -8,15 +8,22 @@ import java.util.List;
  * <p> ORAM <br>
  * Created by Christoffer S. Jensen on 04-04-2019. <br>
  * Master Thesis 2019 </p>
+ * <p>
+ * The calls are synchronized, so the counts are kept right and the calls reach the server one at a time when the
+ * blocks of the next access are read on another thread, see {@link oram.factory.Factory#isPrefetchEnabled()}.
  */
 
 public class CommunicationStrategyCounting implements CommunicationStrategy {
     private final CommunicationStrategy communicationStrategy;
     private int blocksSent;
+    private int blocksReceived;
+    private int roundTrips;
 
     public CommunicationStrategyCounting(CommunicationStrategy communicationStrategy) {
         this.communicationStrategy = communicationStrategy;
         blocksSent = 0;
+        blocksReceived = 0;
+        roundTrips = 0;
     }
 
     @Override
@@ -25,29 +32,48 @@ public class CommunicationStrategyCounting implements CommunicationStrategy {
     }
 
     @Override
-    public BlockEncrypted read(int address) {
+    public synchronized BlockEncrypted read(int address) {
+        blocksReceived++;
+        roundTrips++;
         return communicationStrategy.read(address);
     }
 
     @Override
-    public boolean write(int address, BlockEncrypted block) {
+    public synchronized boolean write(int address, BlockEncrypted block) {
         boolean write = communicationStrategy.write(address, block);
         blocksSent++;
+        roundTrips++;
         return write;
     }
 
     @Override
-    public List<BlockEncrypted> readArray(List<Integer> addresses) {
+    public synchronized List<BlockEncrypted> readArray(List<Integer> addresses) {
+        blocksReceived += addresses.size();
+        roundTrips++;
         return communicationStrategy.readArray(addresses);
     }
 
     @Override
-    public boolean writeArray(List<Integer> addresses, List<BlockEncrypted> blocks) {
+    public synchronized boolean writeArray(List<Integer> addresses, List<BlockEncrypted> blocks) {
         boolean b = communicationStrategy.writeArray(addresses, blocks);
         blocksSent += addresses.size();
+        roundTrips++;
         return b;
     }
 
+    @Override
+    public synchronized List<BlockEncrypted> readWriteArray(List<Integer> readAddresses,
+                                                            List<Integer> writeAddresses,
+                                                            List<BlockEncrypted> writeBlocks) {
+        List<BlockEncrypted> encryptedList = communicationStrategy.readWriteArray(readAddresses, writeAddresses,
+                writeBlocks);
+        blocksSent += writeAddresses.size();
+        blocksReceived += readAddresses.size();
+        roundTrips++;
+        return encryptedList;
+    }
+
+    //    Not synchronized, the end signal hooks wait for reads on other threads, that need the lock
     @Override
     public boolean sendEndSignal() {
         return communicationStrategy.sendEndSignal();
@@ -58,11 +84,30 @@ public class CommunicationStrategyCounting implements CommunicationStrategy {
         return communicationStrategy.speedTest();
     }
 
-    public int getBlocksSent() {
+    public synchronized int getBlocksSent() {
         return blocksSent;
     }
 
-    public void resetBlockSent() {
+    public synchronized void resetBlockSent() {
         blocksSent = 0;
     }
+
+    public synchronized int getBlocksReceived() {
+        return blocksReceived;
+    }
+
+    public synchronized void resetBlocksReceived() {
+        blocksReceived = 0;
+    }
+
+    /**
+     * @return the number of calls sent to the server, which each take a round trip
+     */
+    public synchronized int getRoundTrips() {
+        return roundTrips;
+    }
+
+    public synchronized void resetRoundTrips() {
+        roundTrips = 0;
+    }
 }
@@ -0,0 +1,104 @@
+package oram.clientcom;
+
+import oram.block.BlockEncrypted;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * Holds back written blocks until the next read, and sends them together with it through
+ * {@link CommunicationStrategy#readWriteArray}. In steady state the write back of one access then shares the round
+ * trip of the read of the next. Buffered blocks are flushed before the end signal and speed tests. A failed deferred
+ * write is reported by the read it is sent with.
+ */
+
+public class CommunicationStrategyDeferred implements CommunicationStrategy {
+    private final Logger logger = LogManager.getLogger("log");
+    private final CommunicationStrategy communicationStrategy;
+    private List<Integer> pendingAddresses;
+    private List<BlockEncrypted> pendingBlocks;
+
+    public CommunicationStrategyDeferred(CommunicationStrategy communicationStrategy) {
+        this.communicationStrategy = communicationStrategy;
+        pendingAddresses = new ArrayList<>();
+        pendingBlocks = new ArrayList<>();
+    }
+
+    @Override
+    public boolean start(String ipAddress) {
+        return communicationStrategy.start(ipAddress);
+    }
+
+    @Override
+    public BlockEncrypted read(int address) {
+        List<BlockEncrypted> res = readArray(Collections.singletonList(address));
+        return res == null ? null : res.get(0);
+    }
+
+    @Override
+    public boolean write(int address, BlockEncrypted block) {
+        return writeArray(Collections.singletonList(address), Collections.singletonList(block));
+    }
+
+    @Override
+    public synchronized List<BlockEncrypted> readArray(List<Integer> addresses) {
+        if (pendingAddresses.isEmpty())
+            return communicationStrategy.readArray(addresses);
+        return readWriteArray(addresses, Collections.emptyList(), Collections.emptyList());
+    }
+
+    @Override
+    public synchronized boolean writeArray(List<Integer> addresses, List<BlockEncrypted> blocks) {
+        if (addresses.size() != blocks.size()) {
+            logger.error("Got " + addresses.size() + " addresses but " + blocks.size() + " blocks");
+            return false;
+        }
+        pendingAddresses.addAll(addresses);
+        pendingBlocks.addAll(blocks);
+        return true;
+    }
+
+    @Override
+    public synchronized List<BlockEncrypted> readWriteArray(List<Integer> readAddresses, List<Integer> writeAddresses,
+                                                            List<BlockEncrypted> writeBlocks) {
+        List<Integer> addresses = pendingAddresses;
+        List<BlockEncrypted> blocks = pendingBlocks;
+        addresses.addAll(writeAddresses);
+        blocks.addAll(writeBlocks);
+        pendingAddresses = new ArrayList<>();
+        pendingBlocks = new ArrayList<>();
+
+        return communicationStrategy.readWriteArray(readAddresses, addresses, blocks);
+    }
+
+    @Override
+    public boolean sendEndSignal() {
+        boolean res = flush();
+        return communicationStrategy.sendEndSignal() && res;
+    }
+
+    @Override
+    public long speedTest() {
+        if (!flush()) return -1;
+        return communicationStrategy.speedTest();
+    }
+
+    /**
+     * Sends the buffered blocks on their own
+     */
+    public synchronized boolean flush() {
+        if (pendingAddresses.isEmpty()) return true;
+
+        boolean res = communicationStrategy.writeArray(pendingAddresses, pendingBlocks);
+        pendingAddresses = new ArrayList<>();
+        pendingBlocks = new ArrayList<>();
+        return res;
+    }
+}
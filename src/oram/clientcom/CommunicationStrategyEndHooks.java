@@ -0,0 +1,89 @@
+package oram.clientcom;
+
+import oram.block.BlockEncrypted;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * Runs the registered hooks before the end signal is sent, so state the client holds back, like the tree top cache of
+ * Path ORAM, can be written to the server through this strategy first. The hooks run in the order they were added.
+ */
+
+public class CommunicationStrategyEndHooks implements CommunicationStrategy {
+    private final Logger logger = LogManager.getLogger("log");
+    private final CommunicationStrategy communicationStrategy;
+    private final List<BooleanSupplier> hooks;
+
+    public CommunicationStrategyEndHooks(CommunicationStrategy communicationStrategy) {
+        this.communicationStrategy = communicationStrategy;
+        hooks = new ArrayList<>();
+    }
+
+    /**
+     * @param hook returns false if it was unsuccessful
+     */
+    public synchronized void addEndHook(BooleanSupplier hook) {
+        hooks.add(hook);
+    }
+
+    @Override
+    public boolean start(String ipAddress) {
+        return communicationStrategy.start(ipAddress);
+    }
+
+    @Override
+    public BlockEncrypted read(int address) {
+        return communicationStrategy.read(address);
+    }
+
+    @Override
+    public boolean write(int address, BlockEncrypted block) {
+        return communicationStrategy.write(address, block);
+    }
+
+    @Override
+    public List<BlockEncrypted> readArray(List<Integer> addresses) {
+        return communicationStrategy.readArray(addresses);
+    }
+
+    @Override
+    public boolean writeArray(List<Integer> addresses, List<BlockEncrypted> blocks) {
+        return communicationStrategy.writeArray(addresses, blocks);
+    }
+
+    @Override
+    public List<BlockEncrypted> readWriteArray(List<Integer> readAddresses, List<Integer> writeAddresses,
+                                               List<BlockEncrypted> writeBlocks) {
+        return communicationStrategy.readWriteArray(readAddresses, writeAddresses, writeBlocks);
+    }
+
+    @Override
+    public boolean sendEndSignal() {
+        boolean res = true;
+        List<BooleanSupplier> hooksToRun;
+        synchronized (this) {
+            hooksToRun = new ArrayList<>(hooks);
+            hooks.clear();
+        }
+        for (BooleanSupplier hook : hooksToRun) {
+            if (!hook.getAsBoolean()) {
+                logger.error("A hook was unsuccessful before sending the end signal");
+                res = false;
+            }
+        }
+        return communicationStrategy.sendEndSignal() && res;
+    }
+
+    @Override
+    public long speedTest() {
+        return communicationStrategy.speedTest();
+    }
+}
@@ -7,34 +7,63 @@ import org.apache.commons.lang3.ArrayUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * <p> ORAM <br>
  * Created by Christoffer S. Jensen on 11-03-2019. <br>
  * Master Thesis 2019 </p>
+ * <p>
+ * Blocking transport. By default it speaks the protocol of the original server, where every integer is sent with its
+ * own length. When version 2 frames are enabled, each message is a single {@link FrameCodec} frame instead, which the
+ * server stand-in understands.
  */
 
 public class CommunicationStrategyImpl implements CommunicationStrategy {
     private final Logger logger = LogManager.getLogger("log");
+    private final int port;
+    private final boolean useFrameV2;
     private Socket socket;
     private DataOutputStream dataOutputStream;
     private DataInputStream dataInputStream;
+    private SocketChannel channel;
+    private ByteBuffer header;
+
+    public CommunicationStrategyImpl() {
+        this(Constants.PORT, false);
+    }
+
+    public CommunicationStrategyImpl(int port, boolean useFrameV2) {
+        this.port = port;
+        this.useFrameV2 = useFrameV2;
+    }
 
     @Override
     public boolean start(String ipAddress) {
+        if (useFrameV2) return setupChannel(ipAddress);
         if (!setupConnection(ipAddress)) return false;
         return initializeStreams();
     }
 
     @Override
     public BlockEncrypted read(int address) {
+        if (useFrameV2) {
+            List<BlockEncrypted> blocks = readArrayV2(Collections.singletonList(address));
+            return blocks == null ? null : blocks.get(0);
+        }
+
         BlockEncrypted res;
         try {
             byte[] operationTypeBytes = Util.leIntToByteArray(0);
@@ -75,6 +104,9 @@ public class CommunicationStrategyImpl implements CommunicationStrategy {
 
     @Override
     public boolean write(int address, BlockEncrypted block) {
+        if (useFrameV2)
+            return writeArrayV2(Collections.singletonList(address), Collections.singletonList(block));
+
         try {
             byte[] operationTypeBytes = Util.leIntToByteArray(1);
             int length = operationTypeBytes.length;
@@ -127,6 +159,7 @@ public class CommunicationStrategyImpl implements CommunicationStrategy {
             logger.error("Cannot read empty array of addresses");
             return null;
         }
+        if (useFrameV2) return readArrayV2(addresses);
 
         int addressSize = addresses.size();
         List<BlockEncrypted> res = new ArrayList<>();
@@ -176,6 +209,8 @@ public class CommunicationStrategyImpl implements CommunicationStrategy {
 
     @Override
     public boolean writeArray(List<Integer> addresses, List<BlockEncrypted> blocks) {
+        if (useFrameV2) return writeArrayV2(addresses, blocks);
+
         boolean res = true;
         try {
 //            Send operation type
@@ -232,8 +267,40 @@ public class CommunicationStrategyImpl implements CommunicationStrategy {
         return res;
     }
 
+    /**
+     * The original server has no combined operation, so this costs two round trips unless version 2 frames are used
+     */
+    @Override
+    public List<BlockEncrypted> readWriteArray(List<Integer> readAddresses, List<Integer> writeAddresses,
+                                               List<BlockEncrypted> writeBlocks) {
+        if (useFrameV2) {
+            FrameCodec.Frame response = exchange(
+                    FrameCodec.encodeReadWriteRequest(0, readAddresses, writeAddresses, writeBlocks));
+            if (response == null || response.getStatus() == 0 ||
+                    response.getBlocks().size() != readAddresses.size()) {
+                logger.error("Unable to write " + writeAddresses.size() + " and read " + readAddresses.size() +
+                        " blocks");
+                return null;
+            }
+            return response.getBlocks();
+        }
+
+        if (!writeAddresses.isEmpty() && !writeArray(writeAddresses, writeBlocks)) return null;
+        if (readAddresses.isEmpty()) return new ArrayList<>();
+        return readArray(readAddresses);
+    }
+
     @Override
     public boolean sendEndSignal() {
+        if (useFrameV2) {
+            FrameCodec.Frame response = exchange(FrameCodec.encodeDataFrame(0, FrameCodec.OP_END, 0, new byte[0]));
+            if (response == null || response.getStatus() == 0) {
+                logger.error("Status bit received (when overwriting blocks) was 0");
+                return false;
+            }
+            return true;
+        }
+
         try {
 //            Send operation type
             byte[] operationTypeBytes = Util.leIntToByteArray(2);
@@ -272,6 +339,15 @@ public class CommunicationStrategyImpl implements CommunicationStrategy {
     public long speedTest() {
         long startTime = System.nanoTime();
         byte[] data = Util.getRandomByteArray((int) Math.pow(2, 20));
+        if (useFrameV2) {
+            FrameCodec.Frame response = exchange(FrameCodec.encodeDataFrame(0, FrameCodec.OP_SPEED_TEST, 0, data));
+            if (response == null || !Arrays.equals(response.getData(), data)) {
+                Util.logAndPrint(logger, "Received data unequal to original data");
+                return -1;
+            }
+            return System.nanoTime() - startTime;
+        }
+
         try {
 //            Send operation type
             byte[] operationTypeBytes = Util.leIntToByteArray(3);
@@ -310,7 +386,7 @@ public class CommunicationStrategyImpl implements CommunicationStrategy {
 
     private boolean setupConnection(String ipAddress) {
         try {
-            socket = new Socket(ipAddress, Constants.PORT);
+            socket = new Socket(ipAddress, port);
             System.out.println("Socket opened, inet address: " + socket.getInetAddress());
             logger.info("Socket opened, inet address: " + socket.getInetAddress());
         } catch (IOException e) {
@@ -323,8 +399,8 @@ public class CommunicationStrategyImpl implements CommunicationStrategy {
 
     private boolean initializeStreams() {
         try {
-            dataOutputStream = new DataOutputStream(socket.getOutputStream());
-            dataInputStream = new DataInputStream(socket.getInputStream());
+            dataOutputStream = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            dataInputStream = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
         } catch (IOException e) {
             logger.error("Error happened while initializing streams: " + e);
             logger.debug("Stacktrace", e);
@@ -332,4 +408,50 @@ public class CommunicationStrategyImpl implements CommunicationStrategy {
         }
         return true;
     }
+
+    private List<BlockEncrypted> readArrayV2(List<Integer> addresses) {
+        FrameCodec.Frame response = exchange(FrameCodec.encodeReadRequest(0, addresses));
+        if (response == null || response.getBlocks().size() != addresses.size()) {
+            logger.error("Unable to read " + addresses.size() + " blocks");
+            return null;
+        }
+        return response.getBlocks();
+    }
+
+    private boolean writeArrayV2(List<Integer> addresses, List<BlockEncrypted> blocks) {
+        FrameCodec.Frame response = exchange(FrameCodec.encodeWriteRequest(0, addresses, blocks));
+        if (response == null || response.getStatus() == 0) {
+            logger.error("Status bit received was 0");
+            return false;
+        }
+        return true;
+    }
+
+    private FrameCodec.Frame exchange(ByteBuffer request) {
+        try {
+            FrameCodec.writeFrame(channel, request);
+            FrameCodec.Frame response = FrameCodec.readFrame(channel, header);
+            if (response == null)
+                logger.error("Received frame with invalid header");
+            return response;
+        } catch (IOException e) {
+            logger.error("Error happened while exchanging frames: " + e);
+            logger.debug("Stacktrace", e);
+            return null;
+        }
+    }
+
+    private boolean setupChannel(String ipAddress) {
+        try {
+            channel = SocketChannel.open(new InetSocketAddress(ipAddress, port));
+            channel.socket().setTcpNoDelay(true);
+            header = ByteBuffer.allocateDirect(FrameCodec.HEADER_SIZE);
+            logger.info("Channel opened, inet address: " + channel.getRemoteAddress());
+        } catch (IOException e) {
+            logger.error("Error happened while opening channel: " + e);
+            logger.debug("Stacktrace", e);
+            return false;
+        }
+        return true;
+    }
 }
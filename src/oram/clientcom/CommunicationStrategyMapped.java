@@ -0,0 +1,243 @@
+package oram.clientcom;
+
+import oram.Constants;
+import oram.block.BlockEncrypted;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * A local stand-in for the server, like {@link CommunicationStrategyStub}, that keeps the encrypted blocks in a memory
+ * mapped file instead of on the heap, so ORAMs of millions of blocks can be run on one machine. Block i is stored in
+ * a slot of fixed size at offset i times the slot size, as the lengths of the address and data fields followed by the
+ * fields. A slot with both lengths 0, which is every slot of a new file, holds no block and is read as null. A mapping
+ * is at most 2 GB, so the file is mapped as a number of segments each holding a whole number of slots.
+ */
+
+public class CommunicationStrategyMapped implements CommunicationStrategy, AutoCloseable {
+    //    Room for the two lengths, the address and the data with the IVs, padding and tags of the encryption schemes
+    public static final int DEFAULT_SLOT_SIZE = 2 * Integer.BYTES + Constants.ENCRYPTED_INTEGER_SIZE +
+            Constants.BLOCK_SIZE + 4 * Constants.AES_BLOCK_SIZE;
+    private static final Logger logger = LogManager.getLogger("log");
+    private final RandomAccessFile file;
+    private final MappedByteBuffer[] segments;
+    private final int slots;
+    private final int slotSize;
+    private final int slotsPerSegment;
+
+    private CommunicationStrategyMapped(RandomAccessFile file, MappedByteBuffer[] segments, int slots, int slotSize,
+                                        int slotsPerSegment) {
+        this.file = file;
+        this.segments = segments;
+        this.slots = slots;
+        this.slotSize = slotSize;
+        this.slotsPerSegment = slotsPerSegment;
+    }
+
+    /**
+     * Maps the file, which is created or extended to hold the slots. Blocks already in the file are kept
+     *
+     * @return the strategy, or null if the file could not be mapped
+     */
+    public static CommunicationStrategyMapped create(File path, int slots, int slotSize) {
+        return create(path, slots, slotSize, Integer.MAX_VALUE / Math.max(slotSize, 1));
+    }
+
+    public static CommunicationStrategyMapped create(File path, int slots) {
+        return create(path, slots, DEFAULT_SLOT_SIZE);
+    }
+
+    static CommunicationStrategyMapped create(File path, int slots, int slotSize, int slotsPerSegment) {
+        if (slots <= 0 || slotSize <= 2 * Integer.BYTES || slotsPerSegment <= 0 ||
+                (long) slotsPerSegment * slotSize > Integer.MAX_VALUE) {
+            logger.error("Unable to map " + slots + " slots of size " + slotSize + ", " + slotsPerSegment +
+                    " per segment");
+            return null;
+        }
+
+        int numberOfSegments = (int) (((long) slots + slotsPerSegment - 1) / slotsPerSegment);
+        RandomAccessFile file = null;
+        try {
+            file = new RandomAccessFile(path, "rw");
+            long length = (long) slots * slotSize;
+            if (file.length() < length)
+                file.setLength(length);
+
+            FileChannel channel = file.getChannel();
+            MappedByteBuffer[] segments = new MappedByteBuffer[numberOfSegments];
+            for (int i = 0; i < numberOfSegments; i++) {
+                long position = (long) i * slotsPerSegment * slotSize;
+                segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, position,
+                        Math.min(length - position, (long) slotsPerSegment * slotSize));
+            }
+            return new CommunicationStrategyMapped(file, segments, slots, slotSize, slotsPerSegment);
+        } catch (IOException e) {
+            logger.error("Unable to map file: " + path + ", " + e);
+            logger.debug("Stacktrace", e);
+            if (file != null) {
+                try {
+                    file.close();
+                } catch (IOException ignored) {
+                }
+            }
+            return null;
+        }
+    }
+
+    public int getSlots() {
+        return slots;
+    }
+
+    public int getSlotSize() {
+        return slotSize;
+    }
+
+    public int getNumberOfSegments() {
+        return segments.length;
+    }
+
+    @Override
+    public boolean start(String ipAddress) {
+        return true;
+    }
+
+    @Override
+    public BlockEncrypted read(int address) {
+        if (address < 0 || address >= slots) {
+            logger.error("Unable to read slot: " + address + ", of " + slots);
+            return null;
+        }
+        return readSlot(address);
+    }
+
+    @Override
+    public boolean write(int address, BlockEncrypted block) {
+        return writeSlot(address, block);
+    }
+
+    @Override
+    public List<BlockEncrypted> readArray(List<Integer> addresses) {
+        List<BlockEncrypted> res = new ArrayList<>(addresses.size());
+        for (Integer address : addresses) {
+            if (address < 0 || address >= slots) {
+                logger.error("Unable to read slot: " + address + ", of " + slots);
+                return null;
+            }
+            res.add(readSlot(address));
+        }
+        return res;
+    }
+
+    @Override
+    public boolean writeArray(List<Integer> addresses, List<BlockEncrypted> blocks) {
+        if (addresses.size() != blocks.size()) {
+            logger.error("Unable to write " + blocks.size() + " blocks to " + addresses.size() + " slots");
+            return false;
+        }
+        for (int i = 0; i < addresses.size(); i++)
+            if (!writeSlot(addresses.get(i), blocks.get(i)))
+                return false;
+        return true;
+    }
+
+    @Override
+    public List<BlockEncrypted> readWriteArray(List<Integer> readAddresses, List<Integer> writeAddresses,
+                                               List<BlockEncrypted> writeBlocks) {
+        if (!writeArray(writeAddresses, writeBlocks)) return null;
+        return readArray(readAddresses);
+    }
+
+    @Override
+    public boolean sendEndSignal() {
+        return true;
+    }
+
+    @Override
+    public long speedTest() {
+        return 0;
+    }
+
+    /**
+     * Writes the mapped segments to the file
+     */
+    public void force() {
+        for (MappedByteBuffer segment : segments)
+            segment.force();
+    }
+
+    /**
+     * Closes the file. The segments are unmapped when they are garbage collected, so the strategy must not be used
+     * after this
+     */
+    @Override
+    public void close() {
+        try {
+            file.close();
+        } catch (IOException e) {
+            logger.error("Unable to close the mapped file: " + e);
+            logger.debug("Stacktrace", e);
+        }
+    }
+
+    //    A view of the slot with its own position, so calls from more threads do not share the position of a segment
+    private ByteBuffer getSlot(int address) {
+        ByteBuffer res = segments[address / slotsPerSegment].duplicate();
+        int position = (address % slotsPerSegment) * slotSize;
+        res.limit(position + slotSize);
+        res.position(position);
+        return res;
+    }
+
+    private BlockEncrypted readSlot(int address) {
+        ByteBuffer slot = getSlot(address);
+        int addressLength = slot.getInt();
+        int dataLength = slot.getInt();
+        if (addressLength == 0 && dataLength == 0) return null;
+        if (addressLength < 0 || dataLength < 0 || addressLength + dataLength > slot.remaining()) {
+            logger.error("Slot " + address + " is corrupt, address length: " + addressLength + ", data length: " +
+                    dataLength);
+            return null;
+        }
+
+        byte[] addressBytes = new byte[addressLength];
+        byte[] data = new byte[dataLength];
+        slot.get(addressBytes);
+        slot.get(data);
+        return new BlockEncrypted(addressBytes, data);
+    }
+
+    private boolean writeSlot(int address, BlockEncrypted block) {
+        if (address < 0 || address >= slots) {
+            logger.error("Unable to write slot: " + address + ", of " + slots);
+            return false;
+        }
+
+        ByteBuffer slot = getSlot(address);
+        if (block == null) {
+            slot.putInt(0).putInt(0);
+            return true;
+        }
+
+        byte[] addressBytes = block.getAddress();
+        byte[] data = block.getData();
+        if (2 * Integer.BYTES + addressBytes.length + data.length > slotSize) {
+            logger.error("Block of " + (addressBytes.length + data.length) + " bytes does not fit slot size: " +
+                    slotSize);
+            return false;
+        }
+        slot.putInt(addressBytes.length).putInt(data.length).put(addressBytes).put(data);
+        return true;
+    }
+}
@@ -0,0 +1,314 @@
+package oram.clientcom;
+
+import oram.Constants;
+import oram.Util;
+import oram.block.BlockEncrypted;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * Non-blocking transport, where a single selector thread does all socket I/O. Requests are tagged with an id, so
+ * several can be in flight at once and responses are matched to them when they arrive. Writes are pipelined: the
+ * acknowledgement is collected later, so the write back of one access overlaps the read of the next. A failed write is
+ * reported by the following call.
+ */
+
+public class CommunicationStrategyNio implements CommunicationStrategy {
+    private static final int MAX_WRITES_IN_FLIGHT = 8;
+
+    private final Logger logger = LogManager.getLogger("log");
+    private final int port;
+    private final Map<Integer, CompletableFuture<FrameCodec.Frame>> pendingRequests;
+    private final Queue<ByteBuffer> outgoingFrames;
+    private final Deque<CompletableFuture<FrameCodec.Frame>> writesInFlight;
+    private final AtomicInteger requestIdCounter;
+    private SocketChannel channel;
+    private Selector selector;
+    private volatile boolean running;
+
+    public CommunicationStrategyNio() {
+        this(Constants.PORT);
+    }
+
+    public CommunicationStrategyNio(int port) {
+        this.port = port;
+        pendingRequests = new ConcurrentHashMap<>();
+        outgoingFrames = new ConcurrentLinkedQueue<>();
+        writesInFlight = new ConcurrentLinkedDeque<>();
+        requestIdCounter = new AtomicInteger();
+    }
+
+    @Override
+    public boolean start(String ipAddress) {
+        try {
+            channel = SocketChannel.open(new InetSocketAddress(ipAddress, port));
+            channel.socket().setTcpNoDelay(true);
+            channel.configureBlocking(false);
+            selector = Selector.open();
+            channel.register(selector, SelectionKey.OP_READ);
+            logger.info("Channel opened, inet address: " + channel.getRemoteAddress());
+        } catch (IOException e) {
+            logger.error("Error happened while opening channel: " + e);
+            logger.debug("Stacktrace", e);
+            return false;
+        }
+
+        running = true;
+        Thread ioThread = new Thread(this::runSelectorLoop, "oram-nio");
+        ioThread.setDaemon(true);
+        ioThread.start();
+        return true;
+    }
+
+    @Override
+    public BlockEncrypted read(int address) {
+        List<BlockEncrypted> res = readArray(Collections.singletonList(address));
+        return res == null ? null : res.get(0);
+    }
+
+    @Override
+    public boolean write(int address, BlockEncrypted block) {
+        return writeArray(Collections.singletonList(address), Collections.singletonList(block));
+    }
+
+    @Override
+    public List<BlockEncrypted> readArray(List<Integer> addresses) {
+        if (addresses == null || addresses.isEmpty()) {
+            logger.error("Cannot read empty array of addresses");
+            return null;
+        }
+        if (!collectFinishedWrites()) return null;
+
+        int requestId = requestIdCounter.incrementAndGet();
+        FrameCodec.Frame response = await(send(requestId, FrameCodec.encodeReadRequest(requestId, addresses)));
+        if (response == null || response.getBlocks().size() != addresses.size()) {
+            logger.error("Unable to read " + addresses.size() + " blocks");
+            return null;
+        }
+        return response.getBlocks();
+    }
+
+    @Override
+    public boolean writeArray(List<Integer> addresses, List<BlockEncrypted> blocks) {
+        if (!collectFinishedWrites()) return false;
+
+        int requestId = requestIdCounter.incrementAndGet();
+        writesInFlight.addLast(send(requestId, FrameCodec.encodeWriteRequest(requestId, addresses, blocks)));
+
+        while (writesInFlight.size() > MAX_WRITES_IN_FLIGHT) {
+            if (!isSuccessful(await(writesInFlight.pollFirst()))) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public List<BlockEncrypted> readWriteArray(List<Integer> readAddresses, List<Integer> writeAddresses,
+                                               List<BlockEncrypted> writeBlocks) {
+        if (!collectFinishedWrites()) return null;
+
+        int requestId = requestIdCounter.incrementAndGet();
+        FrameCodec.Frame response = await(send(requestId,
+                FrameCodec.encodeReadWriteRequest(requestId, readAddresses, writeAddresses, writeBlocks)));
+        if (!isSuccessful(response) || response.getBlocks().size() != readAddresses.size()) {
+            logger.error("Unable to write " + writeAddresses.size() + " and read " + readAddresses.size() +
+                    " blocks");
+            return null;
+        }
+        return response.getBlocks();
+    }
+
+    @Override
+    public boolean sendEndSignal() {
+        boolean res = drainWrites();
+
+        int requestId = requestIdCounter.incrementAndGet();
+        FrameCodec.Frame response = await(send(requestId,
+                FrameCodec.encodeDataFrame(requestId, FrameCodec.OP_END, 0, new byte[0])));
+        if (!isSuccessful(response)) {
+            logger.error("Status bit received (when overwriting blocks) was 0");
+            res = false;
+        }
+
+        close();
+        return res;
+    }
+
+    @Override
+    public long speedTest() {
+        if (!drainWrites()) return -1;
+
+        long startTime = System.nanoTime();
+        byte[] data = Util.getRandomByteArray((int) Math.pow(2, 20));
+
+        int requestId = requestIdCounter.incrementAndGet();
+        FrameCodec.Frame response = await(send(requestId,
+                FrameCodec.encodeDataFrame(requestId, FrameCodec.OP_SPEED_TEST, 0, data)));
+        if (response == null || !Arrays.equals(response.getData(), data)) {
+            Util.logAndPrint(logger, "Received data unequal to original data");
+            return -1;
+        }
+        return System.nanoTime() - startTime;
+    }
+
+    private CompletableFuture<FrameCodec.Frame> send(int requestId, ByteBuffer frame) {
+        CompletableFuture<FrameCodec.Frame> future = new CompletableFuture<>();
+        if (!running) {
+            FrameCodec.release(frame);
+            future.completeExceptionally(new IOException("Channel is not open"));
+            return future;
+        }
+
+        pendingRequests.put(requestId, future);
+//        The selector loop may have stopped and failed the pending requests after the check above, then nothing else
+//        completes this one. The loop clears running before it fails the requests, so one of the two sees the other
+        if (!running) {
+            pendingRequests.remove(requestId);
+            FrameCodec.release(frame);
+            future.completeExceptionally(new IOException("Channel is not open"));
+            return future;
+        }
+        outgoingFrames.add(frame);
+        selector.wakeup();
+        return future;
+    }
+
+    private FrameCodec.Frame await(CompletableFuture<FrameCodec.Frame> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Interrupted while waiting for response");
+        } catch (ExecutionException e) {
+            logger.error("Error happened while waiting for response: " + e.getCause());
+            logger.debug("Stacktrace", e);
+        }
+        return null;
+    }
+
+    private boolean isSuccessful(FrameCodec.Frame response) {
+        return response != null && response.getStatus() != 0;
+    }
+
+    /**
+     * Removes the acknowledged writes from the head of the in flight queue, without waiting for the rest
+     *
+     * @return false if any of the removed writes failed
+     */
+    private boolean collectFinishedWrites() {
+        CompletableFuture<FrameCodec.Frame> future;
+        while ((future = writesInFlight.peekFirst()) != null && future.isDone()) {
+            writesInFlight.pollFirst();
+            if (!isSuccessful(await(future))) {
+                logger.error("Pipelined write was not acknowledged");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean drainWrites() {
+        boolean res = true;
+        CompletableFuture<FrameCodec.Frame> future;
+        while ((future = writesInFlight.pollFirst()) != null) {
+            if (!isSuccessful(await(future))) {
+                logger.error("Pipelined write was not acknowledged");
+                res = false;
+            }
+        }
+        return res;
+    }
+
+    private void runSelectorLoop() {
+        ByteBuffer header = ByteBuffer.allocate(FrameCodec.HEADER_SIZE);
+        ByteBuffer payload = null;
+        try {
+            while (running) {
+                selector.select();
+                selector.selectedKeys().clear();
+                SelectionKey key = channel.keyFor(selector);
+
+//                Write as many of the queued frames as the socket accepts
+                ByteBuffer frame;
+                while ((frame = outgoingFrames.peek()) != null) {
+                    channel.write(frame);
+                    if (frame.hasRemaining()) break;
+                    FrameCodec.release(outgoingFrames.poll());
+                }
+                key.interestOps(outgoingFrames.isEmpty() ?
+                        SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+
+//                Read whatever has arrived, completing a request for every full frame
+                while (true) {
+                    ByteBuffer target = payload == null ? header : payload;
+                    int read = channel.read(target);
+                    if (read < 0) throw new IOException("Channel closed by server");
+                    if (target.hasRemaining()) break;
+
+                    if (payload == null) {
+                        if (!FrameCodec.isValidHeader(header))
+                            throw new IOException("Received frame with invalid header");
+                        payload = FrameCodec.acquireBuffer(FrameCodec.getPayloadLength(header));
+                        if (payload.hasRemaining()) continue;
+                    }
+
+                    payload.flip();
+                    FrameCodec.Frame response = FrameCodec.decode(header, payload);
+                    FrameCodec.release(payload);
+                    CompletableFuture<FrameCodec.Frame> future = pendingRequests.remove(response.getRequestId());
+                    if (future != null)
+                        future.complete(response);
+                    else
+                        logger.error("Received response to unknown request: " + response.getRequestId());
+                    header.clear();
+                    payload = null;
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+//            The selector is closed under the loop when the end signal has been answered
+            if (running) {
+                logger.error("Error happened in selector loop: " + e);
+                logger.debug("Stacktrace", e);
+            }
+        }
+        running = false;
+        for (CompletableFuture<FrameCodec.Frame> future : pendingRequests.values())
+            future.completeExceptionally(new IOException("Channel closed"));
+        pendingRequests.clear();
+    }
+
+    private void close() {
+        running = false;
+        try {
+            selector.wakeup();
+            channel.close();
+            selector.close();
+        } catch (IOException e) {
+            logger.error("Error happened while closing channel: " + e);
+            logger.debug("Stacktrace", e);
+        }
+    }
+}
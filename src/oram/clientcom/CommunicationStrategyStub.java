@@ -8,12 +8,17 @@ import oram.blockcreator.LookaheadBlockCreator;
 import oram.blockcreator.PathBlockCreator;
 import oram.blockcreator.TrivialBlockCreator;
 import oram.blockenc.BlockEncryptionStrategyLookahead;
+import oram.encryption.EncryptionStrategy;
+import oram.encryption.EncryptionStrategyImpl;
 import oram.ofactory.ORAMFactory;
+import oram.ofactory.ORAMFactoryRing;
+import oram.path.PathTree;
 import org.apache.commons.lang3.StringUtils;
 
 import javax.crypto.SecretKey;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * <p> ORAM <br>
@@ -24,6 +29,7 @@ import java.util.List;
 public class CommunicationStrategyStub implements CommunicationStrategy {
     private BlockEncrypted[] blocks;
     private int bucketSize; // Matrix height (+2) when using Lookahead ORAM
+    private long roundTripTime; // In nano seconds
 
     public CommunicationStrategyStub(int size, int bucketSize) {
         this.bucketSize = bucketSize;
@@ -31,6 +37,14 @@ public class CommunicationStrategyStub implements CommunicationStrategy {
     }
 
     public CommunicationStrategyStub(List<ORAMFactory> factories, int numberOfORAMLayers) {
+        this(factories, numberOfORAMLayers, new EncryptionStrategyImpl());
+    }
+
+    /**
+     * @param encryptionStrategy used to encrypt the initial dummy blocks, like the server does
+     */
+    public CommunicationStrategyStub(List<ORAMFactory> factories, int numberOfORAMLayers,
+                                     EncryptionStrategy encryptionStrategy) {
         List<String> addresses;
         if (factories.size() == 1) {
             ORAMFactory oramFactory = factories.get(0);
@@ -39,14 +53,18 @@ public class CommunicationStrategyStub implements CommunicationStrategy {
                 case "ORAMFactoryLookahead":
                 case "ORAMFactoryLookaheadMult":
                 case "ORAMFactoryLookaheadTrivial":
-                    blocks = new LookaheadBlockCreator().createBlocks(addresses).toArray(new BlockEncrypted[0]);
+                    blocks = new LookaheadBlockCreator(encryptionStrategy).createBlocks(addresses)
+                            .toArray(new BlockEncrypted[0]);
                     return;
                 case "ORAMFactoryPath":
                 case "ORAMFactoryPathMult":
-                    blocks = new PathBlockCreator().createBlocks(addresses).toArray(new BlockEncrypted[0]);
+                case "ORAMFactoryRing":
+                    blocks = new PathBlockCreator(encryptionStrategy).createBlocks(addresses)
+                            .toArray(new BlockEncrypted[0]);
                     return;
                 default:
-                    blocks = new TrivialBlockCreator().createBlocks(addresses).toArray(new BlockEncrypted[0]);
+                    blocks = new TrivialBlockCreator(encryptionStrategy).createBlocks(addresses)
+                            .toArray(new BlockEncrypted[0]);
                     return;
             }
         }
@@ -59,14 +77,14 @@ public class CommunicationStrategyStub implements CommunicationStrategy {
 
         outer:
         for (int i = 0; i < factories.size(); i++) {
-            int levelSize = (int) Math.pow(2, (((numberOfORAMLayers - 1) - i) * 4) + 6);
+            int levelSize = Util.getLevelSize(i, numberOfORAMLayers - 1);
             switch (factories.get(i).getClass().getSimpleName()) {
                 case "ORAMFactoryLookahead":
-                    newOffset = offset + levelSize + (int) (2 * Math.sqrt(levelSize));
+                    newOffset = offset + factories.get(i).getTotalSize();
                     addresses = Util.getAddressStrings(offset, newOffset);
                     offset = newOffset;
 
-                    blocksTmp = new LookaheadBlockCreator().createBlocks(addresses);
+                    blocksTmp = new LookaheadBlockCreator(encryptionStrategy).createBlocks(addresses);
                     blocksList.addAll(blocksTmp);
                     break;
                 case "ORAMFactoryLookaheadTrivial":
@@ -74,7 +92,7 @@ public class CommunicationStrategyStub implements CommunicationStrategy {
                     addresses = Util.getAddressStrings(offset, newOffset);
                     offset = newOffset;
 
-                    blocksTmp = new LookaheadBlockCreator().createBlocks(addresses);
+                    blocksTmp = new LookaheadBlockCreator(encryptionStrategy).createBlocks(addresses);
                     blocksList.addAll(blocksTmp);
                     break;
                 case "ORAMFactoryPath":
@@ -82,14 +100,22 @@ public class CommunicationStrategyStub implements CommunicationStrategy {
                     addresses = Util.getAddressStrings(offset, newOffset);
                     offset = newOffset;
 
-                    blocksTmp = new PathBlockCreator().createBlocks(addresses);
+                    blocksTmp = new PathBlockCreator(encryptionStrategy).createBlocks(addresses);
+                    blocksList.addAll(blocksTmp);
+                    break;
+                case "ORAMFactoryRing":
+                    newOffset = offset + ORAMFactoryRing.getTotalSize(levelSize - 1);
+                    addresses = Util.getAddressStrings(offset, newOffset);
+                    offset = newOffset;
+
+                    blocksTmp = new PathBlockCreator(encryptionStrategy).createBlocks(addresses);
                     blocksList.addAll(blocksTmp);
                     break;
                 default:
                     newOffset = offset + levelSize + 1;
                     addresses = Util.getAddressStrings(offset, newOffset);
 
-                    blocksTmp = new TrivialBlockCreator().createBlocks(addresses);
+                    blocksTmp = new TrivialBlockCreator(encryptionStrategy).createBlocks(addresses);
                     blocksList.addAll(blocksTmp);
                     break outer;
             }
@@ -98,10 +124,7 @@ public class CommunicationStrategyStub implements CommunicationStrategy {
     }
 
     public static String printTreeEncrypted(BlockEncrypted[] array, int bucketSize) {
-        int layers = 0;
-        while ((array.length / bucketSize) >= Math.pow(2, layers)) {
-            layers++;
-        }
+        int layers = PathTree.getLevels(array.length / bucketSize);
 
         return printBucketEncrypted(array, bucketSize, 0, 1, layers);
     }
@@ -126,19 +149,12 @@ public class CommunicationStrategyStub implements CommunicationStrategy {
             builder.append("\n");
         }
 
-        if (index >= Math.pow(2, maxLayers - 1) - 1)
+        if (PathTree.isLeafNode(index, maxLayers))
             return builder.toString();
 
 
-        String rightChild;
-        String leftChild;
-        if (index == 0) {
-            rightChild = printBucketEncrypted(array, bucketSize, 2, layer + 1, maxLayers);
-            leftChild = printBucketEncrypted(array, bucketSize, 1, layer + 1, maxLayers);
-        } else {
-            rightChild = printBucketEncrypted(array, bucketSize, ((index + 1) * 2), layer + 1, maxLayers);
-            leftChild = printBucketEncrypted(array, bucketSize, ((index + 1) * 2) - 1, layer + 1, maxLayers);
-        }
+        String rightChild = printBucketEncrypted(array, bucketSize, PathTree.getRightChild(index), layer + 1, maxLayers);
+        String leftChild = printBucketEncrypted(array, bucketSize, PathTree.getLeftChild(index), layer + 1, maxLayers);
 
         builder.insert(0, rightChild);
         builder.append(leftChild);
@@ -151,13 +167,22 @@ public class CommunicationStrategyStub implements CommunicationStrategy {
         return true;
     }
 
+    /**
+     * Makes every call wait the time before it returns, like a server at the other end of a network link
+     */
+    public void setSimulatedRoundTripTime(long microseconds) {
+        roundTripTime = microseconds * 1000;
+    }
+
     @Override
     public BlockEncrypted read(int address) {
+        simulateRoundTrip();
         return blocks[address];
     }
 
     @Override
     public boolean write(int address, BlockEncrypted block) {
+        simulateRoundTrip();
         if (address >= blocks.length)
             return true;
 
@@ -167,6 +192,26 @@ public class CommunicationStrategyStub implements CommunicationStrategy {
 
     @Override
     public List<BlockEncrypted> readArray(List<Integer> addresses) {
+        simulateRoundTrip();
+        return readBlocks(addresses);
+    }
+
+    @Override
+    public boolean writeArray(List<Integer> addresses, List<BlockEncrypted> blocks) {
+        simulateRoundTrip();
+        writeBlocks(addresses, blocks);
+        return true;
+    }
+
+    @Override
+    public List<BlockEncrypted> readWriteArray(List<Integer> readAddresses, List<Integer> writeAddresses,
+                                               List<BlockEncrypted> writeBlocks) {
+        simulateRoundTrip();
+        writeBlocks(writeAddresses, writeBlocks);
+        return readBlocks(readAddresses);
+    }
+
+    private List<BlockEncrypted> readBlocks(List<Integer> addresses) {
         List<BlockEncrypted> res = new ArrayList<>();
         for (Integer i : addresses) {
             res.add(blocks[i]);
@@ -174,12 +219,17 @@ public class CommunicationStrategyStub implements CommunicationStrategy {
         return res;
     }
 
-    @Override
-    public boolean writeArray(List<Integer> addresses, List<BlockEncrypted> blocks) {
+    private void writeBlocks(List<Integer> addresses, List<BlockEncrypted> blocks) {
         for (int i = 0; i < addresses.size(); i++) {
             this.blocks[addresses.get(i)] = blocks.get(i);
         }
-        return true;
+    }
+
+    private void simulateRoundTrip() {
+        if (roundTripTime <= 0) return;
+        long end = System.nanoTime() + roundTripTime;
+        for (long left = roundTripTime; left > 0; left = end - System.nanoTime())
+            LockSupport.parkNanos(left);
     }
 
     @Override
@@ -8,6 +8,9 @@ import java.util.List;
  * <p> ORAM <br>
  * Created by Christoffer S. Jensen on 04-04-2019. <br>
  * Master Thesis 2019 </p>
+ * <p>
+ * The calls are synchronized, so the time is kept right and the calls reach the server one at a time when the
+ * blocks of the next access are read on another thread, see {@link oram.factory.Factory#isPrefetchEnabled()}.
  */
 
 public class CommunicationStrategyTiming implements CommunicationStrategy {
@@ -25,7 +28,7 @@ public class CommunicationStrategyTiming implements CommunicationStrategy {
     }
 
     @Override
-    public BlockEncrypted read(int address) {
+    public synchronized BlockEncrypted read(int address) {
         long startTime = System.nanoTime();
         BlockEncrypted read = communicationStrategy.read(address);
         time += System.nanoTime() - startTime;
@@ -33,7 +36,7 @@ public class CommunicationStrategyTiming implements CommunicationStrategy {
     }
 
     @Override
-    public boolean write(int address, BlockEncrypted block) {
+    public synchronized boolean write(int address, BlockEncrypted block) {
         long startTime = System.nanoTime();
         boolean write = communicationStrategy.write(address, block);
         time += System.nanoTime() - startTime;
@@ -41,7 +44,7 @@ public class CommunicationStrategyTiming implements CommunicationStrategy {
     }
 
     @Override
-    public List<BlockEncrypted> readArray(List<Integer> addresses) {
+    public synchronized List<BlockEncrypted> readArray(List<Integer> addresses) {
         long startTime = System.nanoTime();
         List<BlockEncrypted> encryptedList = communicationStrategy.readArray(addresses);
         time += System.nanoTime() - startTime;
@@ -49,13 +52,25 @@ public class CommunicationStrategyTiming implements CommunicationStrategy {
     }
 
     @Override
-    public boolean writeArray(List<Integer> addresses, List<BlockEncrypted> blocks) {
+    public synchronized boolean writeArray(List<Integer> addresses, List<BlockEncrypted> blocks) {
         long startTime = System.nanoTime();
         boolean b = communicationStrategy.writeArray(addresses, blocks);
         time += System.nanoTime() - startTime;
         return b;
     }
 
+    @Override
+    public synchronized List<BlockEncrypted> readWriteArray(List<Integer> readAddresses,
+                                                            List<Integer> writeAddresses,
+                                                            List<BlockEncrypted> writeBlocks) {
+        long startTime = System.nanoTime();
+        List<BlockEncrypted> encryptedList = communicationStrategy.readWriteArray(readAddresses, writeAddresses,
+                writeBlocks);
+        time += System.nanoTime() - startTime;
+        return encryptedList;
+    }
+
+    //    Not synchronized, the end signal hooks wait for reads on other threads, that need the lock
     @Override
     public boolean sendEndSignal() {
         return communicationStrategy.sendEndSignal();
@@ -66,7 +81,7 @@ public class CommunicationStrategyTiming implements CommunicationStrategy {
         return communicationStrategy.speedTest();
     }
 
-    public long getTime() {
+    public synchronized long getTime() {
         return time;
     }
 }
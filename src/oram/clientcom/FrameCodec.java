@@ -0,0 +1,290 @@
+package oram.clientcom;
+
+import oram.block.BlockEncrypted;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * Encodes and decodes version 2 frames. A frame is a single header (magic, version and operation, request id, status,
+ * number of addresses, number of blocks, address stride, data stride, payload length) followed by a packed vector of
+ * addresses, the blocks, and any raw data. When all blocks have the same size they are written with a fixed stride,
+ * otherwise the strides are 0 and a vector of lengths precedes the blocks.
+ * <p>
+ * Frames are encoded into pooled direct buffers, which are given back to the pool by {@link #writeFrame}.
+ */
+
+public class FrameCodec {
+    public static final int MAGIC = 0x4F52414D; // "ORAM"
+    public static final int VERSION = 2;
+    public static final int HEADER_SIZE = 9 * Integer.BYTES;
+
+    public static final int OP_READ = 0;
+    public static final int OP_WRITE = 1;
+    public static final int OP_END = 2;
+    public static final int OP_SPEED_TEST = 3;
+    public static final int OP_READ_WRITE = 4;
+
+    private static final int NULL_BLOCK = -1;
+    private static final BufferPool BUFFER_POOL = new BufferPool();
+
+    public static ByteBuffer encodeReadRequest(int requestId, List<Integer> addresses) {
+        return encode(requestId, OP_READ, 0, addresses, Collections.emptyList(), null);
+    }
+
+    public static ByteBuffer encodeWriteRequest(int requestId, List<Integer> addresses, List<BlockEncrypted> blocks) {
+        return encode(requestId, OP_WRITE, 0, addresses, blocks, null);
+    }
+
+    /**
+     * The addresses of the frame are the write addresses followed by the read addresses
+     */
+    public static ByteBuffer encodeReadWriteRequest(int requestId, List<Integer> readAddresses,
+                                                    List<Integer> writeAddresses, List<BlockEncrypted> writeBlocks) {
+        List<Integer> addresses = new ArrayList<>(writeAddresses.size() + readAddresses.size());
+        addresses.addAll(writeAddresses);
+        addresses.addAll(readAddresses);
+        return encode(requestId, OP_READ_WRITE, 0, addresses, writeBlocks, null);
+    }
+
+    public static ByteBuffer encodeDataFrame(int requestId, int op, int status, byte[] data) {
+        return encode(requestId, op, status, Collections.emptyList(), Collections.emptyList(), data);
+    }
+
+    public static ByteBuffer encodeBlocksResponse(int requestId, int op, List<BlockEncrypted> blocks) {
+        return encode(requestId, op, 1, Collections.emptyList(), blocks, null);
+    }
+
+    public static boolean isValidHeader(ByteBuffer header) {
+        return header.getInt(0) == MAGIC && header.getInt(Integer.BYTES) >>> 16 == VERSION;
+    }
+
+    public static int getPayloadLength(ByteBuffer header) {
+        return header.getInt(8 * Integer.BYTES);
+    }
+
+    public static ByteBuffer acquireBuffer(int length) {
+        return BUFFER_POOL.acquire(length);
+    }
+
+    public static void release(ByteBuffer buffer) {
+        BUFFER_POOL.release(buffer);
+    }
+
+    /**
+     * Copies the content of the frame out of the buffers, which can be released afterwards
+     *
+     * @param payload flipped buffer holding the payload
+     * @return the decoded frame, or null if the header is not a version 2 header
+     */
+    public static Frame decode(ByteBuffer header, ByteBuffer payload) {
+        if (!isValidHeader(header)) return null;
+
+        int op = header.getInt(Integer.BYTES) & 0xFFFF;
+        int requestId = header.getInt(2 * Integer.BYTES);
+        int status = header.getInt(3 * Integer.BYTES);
+        int addressCount = header.getInt(4 * Integer.BYTES);
+        int blockCount = header.getInt(5 * Integer.BYTES);
+        int addressStride = header.getInt(6 * Integer.BYTES);
+        int dataStride = header.getInt(7 * Integer.BYTES);
+
+        List<Integer> addresses = new ArrayList<>(addressCount);
+        for (int i = 0; i < addressCount; i++)
+            addresses.add(payload.getInt());
+
+        List<BlockEncrypted> blocks = new ArrayList<>(blockCount);
+        if (addressStride > 0) {
+            for (int i = 0; i < blockCount; i++)
+                blocks.add(getBlock(payload, addressStride, dataStride));
+        } else {
+            int[] lengths = new int[2 * blockCount];
+            for (int i = 0; i < lengths.length; i++)
+                lengths[i] = payload.getInt();
+            for (int i = 0; i < blockCount; i++) {
+                if (lengths[2 * i] == NULL_BLOCK)
+                    blocks.add(null);
+                else
+                    blocks.add(getBlock(payload, lengths[2 * i], lengths[2 * i + 1]));
+            }
+        }
+
+        byte[] data = new byte[payload.remaining()];
+        payload.get(data);
+        return new Frame(requestId, op, status, addresses, blocks, data);
+    }
+
+    /**
+     * Reads a full frame from a blocking channel
+     *
+     * @param header buffer of at least {@link #HEADER_SIZE} bytes, reused between frames
+     * @return the frame, or null if the header is not a version 2 header
+     */
+    public static Frame readFrame(ReadableByteChannel channel, ByteBuffer header) throws IOException {
+        header.clear();
+        return readFrameRest(channel, header);
+    }
+
+    /**
+     * Reads the rest of a frame, of which the first bytes of the header are already in the header buffer
+     */
+    public static Frame readFrameRest(ReadableByteChannel channel, ByteBuffer header) throws IOException {
+        header.limit(HEADER_SIZE);
+        readFully(channel, header);
+        if (!isValidHeader(header)) return null;
+
+        ByteBuffer payload = acquireBuffer(getPayloadLength(header));
+        try {
+            readFully(channel, payload);
+            payload.flip();
+            return decode(header, payload);
+        } finally {
+            release(payload);
+        }
+    }
+
+    /**
+     * Writes the frame to a blocking channel and gives the buffer back to the pool
+     */
+    public static void writeFrame(WritableByteChannel channel, ByteBuffer frame) throws IOException {
+        try {
+            while (frame.hasRemaining())
+                channel.write(frame);
+        } finally {
+            release(frame);
+        }
+    }
+
+    private static ByteBuffer encode(int requestId, int op, int status, List<Integer> addresses,
+                                     List<BlockEncrypted> blocks, byte[] data) {
+        int addressStride = 0;
+        int dataStride = 0;
+        boolean fixedStride = !blocks.isEmpty();
+        for (BlockEncrypted block : blocks) {
+            if (block == null) {
+                fixedStride = false;
+                break;
+            }
+            if (addressStride == 0) {
+                addressStride = block.getAddress().length;
+                dataStride = block.getData().length;
+            } else if (block.getAddress().length != addressStride || block.getData().length != dataStride) {
+                fixedStride = false;
+                break;
+            }
+        }
+        if (!fixedStride || addressStride == 0) {
+            fixedStride = false;
+            addressStride = 0;
+            dataStride = 0;
+        }
+
+        int payloadLength = addresses.size() * Integer.BYTES + (data == null ? 0 : data.length);
+        if (fixedStride)
+            payloadLength += blocks.size() * (addressStride + dataStride);
+        else {
+            payloadLength += blocks.size() * 2 * Integer.BYTES;
+            for (BlockEncrypted block : blocks) {
+                if (block != null)
+                    payloadLength += block.getAddress().length + block.getData().length;
+            }
+        }
+
+        ByteBuffer buffer = acquireBuffer(HEADER_SIZE + payloadLength);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION << 16 | op);
+        buffer.putInt(requestId);
+        buffer.putInt(status);
+        buffer.putInt(addresses.size());
+        buffer.putInt(blocks.size());
+        buffer.putInt(addressStride);
+        buffer.putInt(dataStride);
+        buffer.putInt(payloadLength);
+
+        for (int address : addresses)
+            buffer.putInt(address);
+
+        if (!fixedStride) {
+            for (BlockEncrypted block : blocks) {
+                buffer.putInt(block == null ? NULL_BLOCK : block.getAddress().length);
+                buffer.putInt(block == null ? 0 : block.getData().length);
+            }
+        }
+        for (BlockEncrypted block : blocks) {
+            if (block == null) continue;
+            buffer.put(block.getAddress());
+            buffer.put(block.getData());
+        }
+
+        if (data != null)
+            buffer.put(data);
+        buffer.flip();
+        return buffer;
+    }
+
+    private static BlockEncrypted getBlock(ByteBuffer payload, int addressLength, int dataLength) {
+        byte[] address = new byte[addressLength];
+        byte[] data = new byte[dataLength];
+        payload.get(address);
+        payload.get(data);
+        return new BlockEncrypted(address, data);
+    }
+
+    private static void readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0)
+                throw new EOFException();
+        }
+    }
+
+    public static class Frame {
+        private final int requestId;
+        private final int op;
+        private final int status;
+        private final List<Integer> addresses;
+        private final List<BlockEncrypted> blocks;
+        private final byte[] data;
+
+        Frame(int requestId, int op, int status, List<Integer> addresses, List<BlockEncrypted> blocks, byte[] data) {
+            this.requestId = requestId;
+            this.op = op;
+            this.status = status;
+            this.addresses = addresses;
+            this.blocks = blocks;
+            this.data = data;
+        }
+
+        public int getRequestId() {
+            return requestId;
+        }
+
+        public int getOp() {
+            return op;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public List<Integer> getAddresses() {
+            return addresses;
+        }
+
+        public List<BlockEncrypted> getBlocks() {
+            return blocks;
+        }
+
+        public byte[] getData() {
+            return data;
+        }
+    }
+}
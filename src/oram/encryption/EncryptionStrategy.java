@@ -14,4 +14,24 @@ public interface EncryptionStrategy {
     byte[] encrypt(byte[] message, SecretKey key);
 
     byte[] decrypt(byte[] cipherText, SecretKey key);
+
+    /**
+     * @return the length of the cipher text of a message of the given length
+     */
+    int getCipherTextLength(int messageLength);
+
+    /**
+     * Encrypts into a buffer provided by the caller, which must have room for
+     * {@link #getCipherTextLength(int)} bytes from the offset
+     *
+     * @return the number of bytes written, or -1 if the encryption failed
+     */
+    int encrypt(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset, SecretKey key);
+
+    /**
+     * Decrypts into a buffer provided by the caller, which must have room for inputLength bytes from the offset
+     *
+     * @return the number of bytes written, or -1 if the decryption failed
+     */
+    int decrypt(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset, SecretKey key);
 }
@@ -1,6 +1,7 @@
 package oram.encryption;
 
 import javax.crypto.SecretKey;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * <p> ORAM <br>
@@ -10,11 +11,11 @@ import javax.crypto.SecretKey;
 
 public class EncryptionStrategyCounting implements EncryptionStrategy {
     private final EncryptionStrategy encryptionStrategy;
-    private int blocksEncrypted;
+    private final AtomicInteger blocksEncrypted;
 
     public EncryptionStrategyCounting(EncryptionStrategy encryptionStrategy) {
         this.encryptionStrategy = encryptionStrategy;
-        blocksEncrypted = 0;
+        blocksEncrypted = new AtomicInteger();
     }
 
     @Override
@@ -25,7 +26,7 @@ public class EncryptionStrategyCounting implements EncryptionStrategy {
     @Override
     public byte[] encrypt(byte[] message, SecretKey key) {
         byte[] encrypt = encryptionStrategy.encrypt(message, key);
-        blocksEncrypted++;
+        blocksEncrypted.incrementAndGet();
         return encrypt;
     }
 
@@ -34,7 +35,26 @@ public class EncryptionStrategyCounting implements EncryptionStrategy {
         return encryptionStrategy.decrypt(cipherText, key);
     }
 
+    @Override
+    public int getCipherTextLength(int messageLength) {
+        return encryptionStrategy.getCipherTextLength(messageLength);
+    }
+
+    @Override
+    public int encrypt(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset,
+                       SecretKey key) {
+        int res = encryptionStrategy.encrypt(input, inputOffset, inputLength, output, outputOffset, key);
+        blocksEncrypted.incrementAndGet();
+        return res;
+    }
+
+    @Override
+    public int decrypt(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset,
+                       SecretKey key) {
+        return encryptionStrategy.decrypt(input, inputOffset, inputLength, output, outputOffset, key);
+    }
+
     public int getBlocksEncrypted() {
-        return blocksEncrypted;
+        return blocksEncrypted.get();
     }
 }
@@ -0,0 +1,110 @@
+package oram.encryption;
+
+import oram.Constants;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.crypto.BadPaddingException;
+import javax.crypto.Cipher;
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.NoSuchPaddingException;
+import javax.crypto.SecretKey;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.IvParameterSpec;
+import java.nio.ByteBuffer;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * AES in CTR mode, so there is no padding and every block of the key stream can be computed independently. The IV is
+ * a random nonce, chosen once per instance, followed by a counter. The counter is advanced by the number of AES blocks
+ * each message uses, so no two messages share key stream. The IV is prepended to the cipher text.
+ */
+
+public class EncryptionStrategyCtr extends EncryptionStrategyImpl {
+    private static final ThreadLocal<Cipher> CIPHER = ThreadLocal.withInitial(EncryptionStrategyCtr::createCipher);
+    private static final int NONCE_SIZE = 8;
+    private final Logger logger = LogManager.getLogger("log");
+    private final byte[] nonce;
+    private final AtomicLong counter;
+
+    public EncryptionStrategyCtr() {
+        nonce = new byte[NONCE_SIZE];
+        new SecureRandom().nextBytes(nonce);
+        counter = new AtomicLong();
+    }
+
+    @Override
+    public byte[] decrypt(byte[] cipherText, SecretKey key) {
+        if (cipherText == null || cipherText.length < Constants.AES_BLOCK_SIZE) return null;
+
+        byte[] res = new byte[cipherText.length - Constants.AES_BLOCK_SIZE];
+        if (decrypt(cipherText, 0, cipherText.length, res, 0, key) < 0) return null;
+        return res;
+    }
+
+    @Override
+    public int getCipherTextLength(int messageLength) {
+        return Constants.AES_BLOCK_SIZE + messageLength;
+    }
+
+    @Override
+    public int encrypt(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset,
+                       SecretKey key) {
+        long blocks = (inputLength + Constants.AES_BLOCK_SIZE - 1) / Constants.AES_BLOCK_SIZE;
+        byte[] iv = ByteBuffer.allocate(Constants.AES_BLOCK_SIZE)
+                .put(nonce)
+                .putLong(counter.getAndAdd(Math.max(blocks, 1)))
+                .array();
+        try {
+            Cipher cipher = CIPHER.get();
+            cipher.init(Cipher.ENCRYPT_MODE, key, new IvParameterSpec(iv));
+
+            int length = cipher.doFinal(input, inputOffset, inputLength, output,
+                    outputOffset + Constants.AES_BLOCK_SIZE);
+            System.arraycopy(iv, 0, output, outputOffset, Constants.AES_BLOCK_SIZE);
+            return Constants.AES_BLOCK_SIZE + length;
+        } catch (InvalidKeyException | IllegalBlockSizeException | BadPaddingException | ShortBufferException |
+                InvalidAlgorithmParameterException e) {
+            logger.error("Error happened while encrypting");
+            logger.error(e);
+            logger.debug("Stacktrace", e);
+        }
+        return -1;
+    }
+
+    @Override
+    public int decrypt(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset,
+                       SecretKey key) {
+        try {
+            Cipher cipher = CIPHER.get();
+            byte[] iv = Arrays.copyOfRange(input, inputOffset, inputOffset + Constants.AES_BLOCK_SIZE);
+            cipher.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(iv));
+
+            return cipher.doFinal(input, inputOffset + Constants.AES_BLOCK_SIZE,
+                    inputLength - Constants.AES_BLOCK_SIZE, output, outputOffset);
+        } catch (InvalidKeyException | IllegalBlockSizeException | BadPaddingException | ShortBufferException |
+                InvalidAlgorithmParameterException | IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            logger.error("Error happened while decrypting");
+            logger.error(e);
+            logger.debug("Stacktrace", e);
+        }
+        return -1;
+    }
+
+    private static Cipher createCipher() {
+        try {
+            return Cipher.getInstance("AES/CTR/NoPadding");
+        } catch (NoSuchAlgorithmException | NoSuchPaddingException e) {
+            throw new IllegalStateException("AES/CTR/NoPadding is not available", e);
+        }
+    }
+}
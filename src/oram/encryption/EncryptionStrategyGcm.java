@@ -0,0 +1,94 @@
+package oram.encryption;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.crypto.BadPaddingException;
+import javax.crypto.Cipher;
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.NoSuchPaddingException;
+import javax.crypto.SecretKey;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.GCMParameterSpec;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * AES in GCM mode. The cipher text is authenticated, so a block altered by the server fails to decrypt instead of
+ * decrypting to something else. The cipher text is a random 12 byte IV, the encrypted message and a 16 byte tag.
+ */
+
+public class EncryptionStrategyGcm extends EncryptionStrategyImpl {
+    private static final ThreadLocal<Cipher> CIPHER = ThreadLocal.withInitial(EncryptionStrategyGcm::createCipher);
+    private static final ThreadLocal<SecureRandom> RANDOMNESS = ThreadLocal.withInitial(SecureRandom::new);
+    private static final int IV_SIZE = 12;
+    private static final int TAG_SIZE = 16;
+    private final Logger logger = LogManager.getLogger("log");
+
+    @Override
+    public byte[] decrypt(byte[] cipherText, SecretKey key) {
+        if (cipherText == null || cipherText.length < IV_SIZE + TAG_SIZE) return null;
+
+        byte[] res = new byte[cipherText.length - IV_SIZE - TAG_SIZE];
+        if (decrypt(cipherText, 0, cipherText.length, res, 0, key) < 0) return null;
+        return res;
+    }
+
+    @Override
+    public int getCipherTextLength(int messageLength) {
+        return IV_SIZE + messageLength + TAG_SIZE;
+    }
+
+    @Override
+    public int encrypt(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset,
+                       SecretKey key) {
+        try {
+            Cipher cipher = CIPHER.get();
+            byte[] iv = new byte[IV_SIZE];
+            RANDOMNESS.get().nextBytes(iv);
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_SIZE * 8, iv));
+
+            int length = cipher.doFinal(input, inputOffset, inputLength, output, outputOffset + IV_SIZE);
+            System.arraycopy(iv, 0, output, outputOffset, IV_SIZE);
+            return IV_SIZE + length;
+        } catch (InvalidKeyException | IllegalBlockSizeException | BadPaddingException | ShortBufferException |
+                InvalidAlgorithmParameterException e) {
+            logger.error("Error happened while encrypting");
+            logger.error(e);
+            logger.debug("Stacktrace", e);
+        }
+        return -1;
+    }
+
+    /**
+     * Also fails if the cipher text has been altered
+     */
+    @Override
+    public int decrypt(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset,
+                       SecretKey key) {
+        try {
+            Cipher cipher = CIPHER.get();
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_SIZE * 8, input, inputOffset, IV_SIZE));
+
+            return cipher.doFinal(input, inputOffset + IV_SIZE, inputLength - IV_SIZE, output, outputOffset);
+        } catch (InvalidKeyException | IllegalBlockSizeException | BadPaddingException | ShortBufferException |
+                InvalidAlgorithmParameterException | IllegalArgumentException e) {
+            logger.debug("Error happened while decrypting: " + e);
+        }
+        return -1;
+    }
+
+    private static Cipher createCipher() {
+        try {
+            return Cipher.getInstance("AES/GCM/NoPadding");
+        } catch (NoSuchAlgorithmException | NoSuchPaddingException e) {
+            throw new IllegalStateException("AES/GCM/NoPadding is not available", e);
+        }
+    }
+}
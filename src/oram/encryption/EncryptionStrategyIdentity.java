@@ -42,4 +42,25 @@ public class EncryptionStrategyIdentity implements EncryptionStrategy {
     public byte[] decrypt(byte[] cipherText, SecretKey key) {
         return cipherText;
     }
+
+    @Override
+    public int getCipherTextLength(int messageLength) {
+        return Math.max(messageLength, 32);
+    }
+
+    @Override
+    public int encrypt(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset,
+                       SecretKey key) {
+        int length = getCipherTextLength(inputLength);
+        System.arraycopy(input, inputOffset, output, outputOffset, inputLength);
+        Arrays.fill(output, outputOffset + inputLength, outputOffset + length, (byte) 0);
+        return length;
+    }
+
+    @Override
+    public int decrypt(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset,
+                       SecretKey key) {
+        System.arraycopy(input, inputOffset, output, outputOffset, inputLength);
+        return inputLength;
+    }
 }
@@ -1,8 +1,6 @@
 package oram.encryption;
 
 import oram.Constants;
-import oram.Util;
-import org.apache.commons.lang3.ArrayUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -13,15 +11,21 @@ import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.util.Arrays;
 
 /**
  * <p> ORAM <br>
  * Created by Christoffer S. Jensen on 12-03-2019. <br>
  * Master Thesis 2019 </p>
+ * <p>
+ * AES in CBC mode with PKCS5 padding, where the random IV is prepended to the cipher text. Each thread keeps its own
+ * cipher instance, as getting a new one is expensive compared to encrypting a single block.
  */
 
 public class EncryptionStrategyImpl implements EncryptionStrategy {
+    private static final ThreadLocal<Cipher> CIPHER = ThreadLocal.withInitial(EncryptionStrategyImpl::createCipher);
+    private static final ThreadLocal<SecureRandom> RANDOMNESS = ThreadLocal.withInitial(SecureRandom::new);
     private final Logger logger = LogManager.getLogger("log");
 
     @Override
@@ -43,15 +47,21 @@ public class EncryptionStrategyImpl implements EncryptionStrategy {
 
     @Override
     public byte[] encrypt(byte[] message, SecretKey key) {
+        byte[] res = new byte[getCipherTextLength(message.length)];
+        if (encrypt(message, 0, message.length, res, 0, key) < 0) return null;
+        return res;
+    }
+
+    @Override
+    public byte[] decrypt(byte[] cipherText, SecretKey key) {
         try {
-            Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
-            byte[] iv = Util.getRandomByteArray(Constants.AES_BLOCK_SIZE);
-            cipher.init(Cipher.ENCRYPT_MODE, key, new IvParameterSpec(iv));
+            Cipher cipher = CIPHER.get();
+            cipher.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(cipherText, 0, Constants.AES_BLOCK_SIZE));
 
-            return ArrayUtils.addAll(iv, cipher.doFinal(message));
-        } catch (NoSuchAlgorithmException | NoSuchPaddingException | InvalidKeyException | IllegalBlockSizeException |
-                BadPaddingException | InvalidAlgorithmParameterException e) {
-            logger.error("Error happened while encrypting");
+            return cipher.doFinal(cipherText, Constants.AES_BLOCK_SIZE, cipherText.length - Constants.AES_BLOCK_SIZE);
+        } catch (InvalidKeyException | IllegalBlockSizeException | BadPaddingException |
+                InvalidAlgorithmParameterException | IllegalArgumentException e) {
+            logger.error("Error happened while decrypting");
             logger.error(e);
             logger.debug("Stacktrace", e);
         }
@@ -59,22 +69,55 @@ public class EncryptionStrategyImpl implements EncryptionStrategy {
     }
 
     @Override
-    public byte[] decrypt(byte[] cipherText, SecretKey key) {
+    public int getCipherTextLength(int messageLength) {
+        return Constants.AES_BLOCK_SIZE + (messageLength / Constants.AES_BLOCK_SIZE + 1) * Constants.AES_BLOCK_SIZE;
+    }
+
+    @Override
+    public int encrypt(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset,
+                       SecretKey key) {
         try {
-            byte[] iv = Arrays.copyOf(cipherText, Constants.AES_BLOCK_SIZE);
-            byte[] valueCipher = Arrays.copyOfRange(cipherText, Constants.AES_BLOCK_SIZE, cipherText.length);
+            Cipher cipher = CIPHER.get();
+            byte[] iv = new byte[Constants.AES_BLOCK_SIZE];
+            RANDOMNESS.get().nextBytes(iv);
+            cipher.init(Cipher.ENCRYPT_MODE, key, new IvParameterSpec(iv));
 
-            Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
-            cipher.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(iv));
+            int length = cipher.doFinal(input, inputOffset, inputLength, output,
+                    outputOffset + Constants.AES_BLOCK_SIZE);
+            System.arraycopy(iv, 0, output, outputOffset, Constants.AES_BLOCK_SIZE);
+            return Constants.AES_BLOCK_SIZE + length;
+        } catch (InvalidKeyException | IllegalBlockSizeException | BadPaddingException | ShortBufferException |
+                InvalidAlgorithmParameterException e) {
+            logger.error("Error happened while encrypting");
+            logger.error(e);
+            logger.debug("Stacktrace", e);
+        }
+        return -1;
+    }
+
+    @Override
+    public int decrypt(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset,
+                       SecretKey key) {
+        try {
+            Cipher cipher = CIPHER.get();
+            cipher.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(input, inputOffset, Constants.AES_BLOCK_SIZE));
 
-            return cipher.doFinal(valueCipher);
-        } catch (NoSuchAlgorithmException | NoSuchPaddingException | InvalidKeyException | IllegalBlockSizeException |
-                BadPaddingException | InvalidAlgorithmParameterException e) {
+            return cipher.doFinal(input, inputOffset + Constants.AES_BLOCK_SIZE,
+                    inputLength - Constants.AES_BLOCK_SIZE, output, outputOffset);
+        } catch (InvalidKeyException | IllegalBlockSizeException | BadPaddingException | ShortBufferException |
+                InvalidAlgorithmParameterException | IllegalArgumentException e) {
             logger.error("Error happened while decrypting");
             logger.error(e);
             logger.debug("Stacktrace", e);
         }
-        return null;
+        return -1;
+    }
 
+    private static Cipher createCipher() {
+        try {
+            return Cipher.getInstance("AES/CBC/PKCS5Padding");
+        } catch (NoSuchAlgorithmException | NoSuchPaddingException e) {
+            throw new IllegalStateException("AES/CBC/PKCS5Padding is not available", e);
+        }
     }
 }
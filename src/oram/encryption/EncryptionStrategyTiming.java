@@ -1,6 +1,7 @@
 package oram.encryption;
 
 import javax.crypto.SecretKey;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * <p> ORAM <br>
@@ -10,18 +11,18 @@ import javax.crypto.SecretKey;
 
 public class EncryptionStrategyTiming implements EncryptionStrategy {
     private final EncryptionStrategy encryptionStrategy;
-    private long time;
+    private final AtomicLong time;
 
     public EncryptionStrategyTiming(EncryptionStrategy encryptionStrategy) {
         this.encryptionStrategy = encryptionStrategy;
-        time = 0;
+        time = new AtomicLong();
     }
 
     @Override
     public SecretKey generateSecretKey(byte[] randomBytes) {
         long startTime = System.nanoTime();
         SecretKey secretKey = encryptionStrategy.generateSecretKey(randomBytes);
-        time += System.nanoTime() - startTime;
+        time.addAndGet(System.nanoTime() - startTime);
         return secretKey;
     }
 
@@ -29,7 +30,7 @@ public class EncryptionStrategyTiming implements EncryptionStrategy {
     public byte[] encrypt(byte[] message, SecretKey key) {
         long startTime = System.nanoTime();
         byte[] encrypt = encryptionStrategy.encrypt(message, key);
-        time += System.nanoTime() - startTime;
+        time.addAndGet(System.nanoTime() - startTime);
         return encrypt;
     }
 
@@ -37,11 +38,34 @@ public class EncryptionStrategyTiming implements EncryptionStrategy {
     public byte[] decrypt(byte[] cipherText, SecretKey key) {
         long startTime = System.nanoTime();
         byte[] decrypt = encryptionStrategy.decrypt(cipherText, key);
-        time += System.nanoTime() - startTime;
+        time.addAndGet(System.nanoTime() - startTime);
         return decrypt;
     }
 
+    @Override
+    public int getCipherTextLength(int messageLength) {
+        return encryptionStrategy.getCipherTextLength(messageLength);
+    }
+
+    @Override
+    public int encrypt(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset,
+                       SecretKey key) {
+        long startTime = System.nanoTime();
+        int res = encryptionStrategy.encrypt(input, inputOffset, inputLength, output, outputOffset, key);
+        time.addAndGet(System.nanoTime() - startTime);
+        return res;
+    }
+
+    @Override
+    public int decrypt(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset,
+                       SecretKey key) {
+        long startTime = System.nanoTime();
+        int res = encryptionStrategy.decrypt(input, inputOffset, inputLength, output, outputOffset, key);
+        time.addAndGet(System.nanoTime() - startTime);
+        return res;
+    }
+
     public long getTime() {
-        return time;
+        return time.get();
     }
 }
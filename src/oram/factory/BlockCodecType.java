@@ -0,0 +1,14 @@
+package oram.factory;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * The block codecs the factory can create for Path and Lookahead blocks. LEGACY encrypts the address, index and data
+ * separately, SINGLE_CIPHER_TEXT encrypts them together as one cipher text.
+ */
+
+public enum BlockCodecType {
+    LEGACY, SINGLE_CIPHER_TEXT
+}
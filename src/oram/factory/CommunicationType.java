@@ -0,0 +1,14 @@
+package oram.factory;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * The transports the factory can create. BLOCKING speaks the protocol of the original server, BLOCKING_FRAME_V2 sends
+ * the same requests as version 2 frames, and NIO pipelines tagged version 2 frames over a single channel.
+ */
+
+public enum CommunicationType {
+    BLOCKING, BLOCKING_FRAME_V2, NIO
+}
@@ -0,0 +1,14 @@
+package oram.factory;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * The AES modes the factory can create encryption strategies for. CBC is the original mode, CTR has no padding, and
+ * GCM authenticates the cipher texts.
+ */
+
+public enum EncryptionType {
+    CBC, CTR, GCM
+}
@@ -0,0 +1,15 @@
+package oram.factory;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * How Path ORAM moves blocks from the stash to the tree. GREEDY writes back the path read with as many stash blocks as
+ * fit, CIRCUIT takes only the wanted block off the path and evicts two fixed paths per access, Circuit ORAM style,
+ * which keeps the stash small.
+ */
+
+public enum EvictionType {
+    GREEDY, CIRCUIT
+}
@@ -6,6 +6,10 @@ import oram.blockenc.BlockEncryptionStrategyTrivial;
 import oram.clientcom.CommunicationStrategy;
 import oram.encryption.EncryptionStrategy;
 import oram.permutation.PermutationStrategy;
+import oram.positionmap.PositionMap;
+import oram.random.RandomSource;
+
+import java.util.function.BooleanSupplier;
 
 /**
  * <p> ORAM <br>
@@ -25,4 +29,36 @@ public interface Factory {
     BlockEncryptionStrategyLookahead getBlockEncryptionStrategyLookahead();
 
     BlockEncryptionStrategyTrivial getBlockEncryptionStrategyTrivial();
+
+    /**
+     * @param size the number of addresses the map must hold, starting from 0
+     * @return a new, empty, local position map
+     */
+    PositionMap getPositionMap(int size);
+
+    /**
+     * @return the number of top levels of a Path ORAM tree with the given shape, the client keeps in memory
+     */
+    int getTreeTopCacheLevels(int levels, int bucketSize);
+
+    /**
+     * @return how Path ORAM evicts blocks from its stash
+     */
+    EvictionType getEvictionType();
+
+    /**
+     * @return the randomness for leaves, swap partners and permutations, safe to share between threads
+     */
+    RandomSource getRandomSource();
+
+    /**
+     * @return true if Lookahead ORAM reads the maintenance column of the next access on another thread, between the
+     * accesses
+     */
+    boolean isPrefetchEnabled();
+
+    /**
+     * The hook is run before the end signal is sent through the communication strategy
+     */
+    void addEndSignalHook(BooleanSupplier hook);
 }
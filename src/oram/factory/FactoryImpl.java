@@ -1,16 +1,39 @@
 package oram.factory;
 
+import oram.Constants;
+import oram.blockenc.BlockCryptoPool;
 import oram.blockenc.BlockEncryptionStrategyLookahead;
+import oram.blockenc.BlockEncryptionStrategyLookaheadSingle;
 import oram.blockenc.BlockEncryptionStrategyPath;
+import oram.blockenc.BlockEncryptionStrategyPathSingle;
 import oram.blockenc.BlockEncryptionStrategyTrivial;
 import oram.clientcom.CommunicationStrategy;
+import oram.clientcom.CommunicationStrategyDeferred;
+import oram.clientcom.CommunicationStrategyEndHooks;
 import oram.clientcom.CommunicationStrategyImpl;
+import oram.clientcom.CommunicationStrategyNio;
+import oram.clientcom.CommunicationStrategyStub;
 import oram.clientcom.CommunicationStrategyTiming;
 import oram.encryption.EncryptionStrategy;
+import oram.encryption.EncryptionStrategyCtr;
+import oram.encryption.EncryptionStrategyGcm;
 import oram.encryption.EncryptionStrategyImpl;
 import oram.encryption.EncryptionStrategyTiming;
+import oram.ofactory.ORAMFactory;
+import oram.path.TreeTopCache;
 import oram.permutation.PermutationStrategy;
 import oram.permutation.PermutationStrategyImpl;
+import oram.positionmap.PositionMap;
+import oram.positionmap.PositionMapDense;
+import oram.positionmap.PositionMapOpenAddressing;
+import oram.random.RandomSource;
+import oram.server.NetworkShaping;
+import oram.server.ServerStandIn;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.function.BooleanSupplier;
 
 /**
  * <p> ORAM <br>
@@ -19,16 +42,32 @@ import oram.permutation.PermutationStrategyImpl;
  */
 
 public class FactoryImpl implements Factory {
+    private final Logger logger = LogManager.getLogger("log");
     private EncryptionStrategyImpl encryptionStrategy;
     private EncryptionStrategyTiming encryptionStrategyTiming;
-    private CommunicationStrategyImpl communicationStrategyImpl;
+    private CommunicationStrategy communicationStrategy;
+    private CommunicationStrategyEndHooks communicationStrategyEndHooks;
     private CommunicationStrategyTiming communicationStrategyTiming;
     private PermutationStrategyImpl permutationStrategy;
+    private CommunicationType communicationType = CommunicationType.BLOCKING;
+    private boolean deferWrites;
+    private BlockCodecType blockCodecType = BlockCodecType.SINGLE_CIPHER_TEXT;
+    private EncryptionType encryptionType = EncryptionType.CBC;
+    private BlockCryptoPool blockCryptoPool = BlockCryptoPool.SEQUENTIAL;
+    private PositionMapType positionMapType = PositionMapType.DENSE;
+    private long treeTopCacheBudget;
+    private EvictionType evictionType = EvictionType.GREEDY;
+    private RandomSource randomSource = RandomSource.getDefault();
+    private boolean prefetch;
+    private List<ORAMFactory> inProcessServerFactories;
+    private int inProcessServerLayers;
+    private NetworkShaping networkShaping = NetworkShaping.NONE;
+    private ServerStandIn inProcessServer;
 
     @Override
     public EncryptionStrategy getEncryptionStrategy() {
         if (encryptionStrategy == null) {
-            encryptionStrategy = new EncryptionStrategyImpl();
+            encryptionStrategy = createEncryptionStrategy();
             encryptionStrategyTiming = new EncryptionStrategyTiming(encryptionStrategy);
         }
         return encryptionStrategyTiming;
@@ -36,9 +75,23 @@ public class FactoryImpl implements Factory {
 
     @Override
     public CommunicationStrategy getCommunicationStrategy() {
-        if (communicationStrategyImpl == null) {
-            communicationStrategyImpl = new CommunicationStrategyImpl();
-            communicationStrategyTiming = new CommunicationStrategyTiming(communicationStrategyImpl);
+        if (communicationStrategy == null) {
+            if (inProcessServerFactories != null)
+                startInProcessServer();
+            switch (communicationType) {
+                case NIO:
+                    communicationStrategy = new CommunicationStrategyNio();
+                    break;
+                case BLOCKING_FRAME_V2:
+                    communicationStrategy = new CommunicationStrategyImpl(Constants.PORT, true);
+                    break;
+                default:
+                    communicationStrategy = new CommunicationStrategyImpl();
+            }
+            if (deferWrites)
+                communicationStrategy = new CommunicationStrategyDeferred(communicationStrategy);
+            communicationStrategyEndHooks = new CommunicationStrategyEndHooks(communicationStrategy);
+            communicationStrategyTiming = new CommunicationStrategyTiming(communicationStrategyEndHooks);
         }
         return communicationStrategyTiming;
     }
@@ -46,22 +99,168 @@ public class FactoryImpl implements Factory {
     @Override
     public PermutationStrategy getPermutationStrategy() {
         if (permutationStrategy == null)
-            permutationStrategy = new PermutationStrategyImpl();
+            permutationStrategy = new PermutationStrategyImpl(randomSource);
         return permutationStrategy;
     }
 
     @Override
     public BlockEncryptionStrategyPath getBlockEncryptionStrategyPath() {
-        return new BlockEncryptionStrategyPath(getEncryptionStrategy(),getPermutationStrategy());
+        BlockEncryptionStrategyPath res;
+        if (blockCodecType == BlockCodecType.SINGLE_CIPHER_TEXT)
+            res = new BlockEncryptionStrategyPathSingle(getEncryptionStrategy(), getPermutationStrategy());
+        else
+            res = new BlockEncryptionStrategyPath(getEncryptionStrategy(), getPermutationStrategy());
+        res.setBlockCryptoPool(blockCryptoPool);
+        return res;
     }
 
     @Override
     public BlockEncryptionStrategyLookahead getBlockEncryptionStrategyLookahead() {
-        return new BlockEncryptionStrategyLookahead(getEncryptionStrategy());
+        BlockEncryptionStrategyLookahead res;
+        if (blockCodecType == BlockCodecType.SINGLE_CIPHER_TEXT)
+            res = new BlockEncryptionStrategyLookaheadSingle(getEncryptionStrategy());
+        else
+            res = new BlockEncryptionStrategyLookahead(getEncryptionStrategy());
+        res.setBlockCryptoPool(blockCryptoPool);
+        return res;
     }
 
     @Override
     public BlockEncryptionStrategyTrivial getBlockEncryptionStrategyTrivial() {
         return new BlockEncryptionStrategyTrivial(getEncryptionStrategy());
     }
+
+    @Override
+    public PositionMap getPositionMap(int size) {
+        if (positionMapType == PositionMapType.OPEN_ADDRESSING)
+            return new PositionMapOpenAddressing(size);
+        return new PositionMapDense(size + 1);
+    }
+
+    @Override
+    public int getTreeTopCacheLevels(int levels, int bucketSize) {
+        return TreeTopCache.getLevelsForBudget(treeTopCacheBudget, levels, bucketSize);
+    }
+
+    @Override
+    public EvictionType getEvictionType() {
+        return evictionType;
+    }
+
+    @Override
+    public RandomSource getRandomSource() {
+        return randomSource;
+    }
+
+    @Override
+    public boolean isPrefetchEnabled() {
+        return prefetch;
+    }
+
+    @Override
+    public void addEndSignalHook(BooleanSupplier hook) {
+        getCommunicationStrategy();
+        communicationStrategyEndHooks.addEndHook(hook);
+    }
+
+    /**
+     * Must be called before the communication strategy is first requested
+     */
+    public void setCommunicationType(CommunicationType communicationType) {
+        this.communicationType = communicationType;
+    }
+
+    /**
+     * Must be called before the communication strategy is first requested
+     */
+    public void setDeferWrites(boolean deferWrites) {
+        this.deferWrites = deferWrites;
+    }
+
+    public void setBlockCodecType(BlockCodecType blockCodecType) {
+        this.blockCodecType = blockCodecType;
+    }
+
+    /**
+     * Must be called before the encryption strategy is first requested
+     */
+    public void setEncryptionType(EncryptionType encryptionType) {
+        this.encryptionType = encryptionType;
+    }
+
+    /**
+     * The pool the Path and Lookahead block codecs spread the encryption and decryption of blocks over, see
+     * {@link BlockCryptoPool#forkJoin(int)} and {@link BlockCryptoPool#fixed(int)}
+     */
+    public void setBlockCryptoPool(BlockCryptoPool blockCryptoPool) {
+        this.blockCryptoPool = blockCryptoPool;
+    }
+
+    public void setPositionMapType(PositionMapType positionMapType) {
+        this.positionMapType = positionMapType;
+    }
+
+    /**
+     * The number of bytes each Path ORAM may use to keep the top levels of its tree in memory, 0 disables the cache
+     */
+    public void setTreeTopCacheBudget(long treeTopCacheBudget) {
+        this.treeTopCacheBudget = treeTopCacheBudget;
+    }
+
+    public void setEvictionType(EvictionType evictionType) {
+        this.evictionType = evictionType;
+    }
+
+    /**
+     * Must be called before the permutation strategy and the ORAMs are created
+     */
+    public void setRandomSource(RandomSource randomSource) {
+        this.randomSource = randomSource;
+    }
+
+    /**
+     * Must be called before the ORAMs are created
+     */
+    public void setPrefetch(boolean prefetch) {
+        this.prefetch = prefetch;
+    }
+
+    /**
+     * Starts a server stand-in in this process on {@link Constants#PORT}, when the communication strategy is first
+     * requested, holding the blocks of the ORAMs in memory. The client then connects to it on localhost through the
+     * chosen transport, so everything but the real server can be measured end to end on one machine.
+     */
+    public void setInProcessServer(List<ORAMFactory> oramFactories, int numberOfORAMLayers,
+                                   NetworkShaping networkShaping) {
+        inProcessServerFactories = oramFactories;
+        inProcessServerLayers = numberOfORAMLayers;
+        this.networkShaping = networkShaping;
+    }
+
+    public ServerStandIn getInProcessServer() {
+        return inProcessServer;
+    }
+
+    private void startInProcessServer() {
+        getEncryptionStrategy();
+        CommunicationStrategyStub storage = new CommunicationStrategyStub(inProcessServerFactories,
+                inProcessServerLayers, encryptionStrategy);
+        inProcessServer = new ServerStandIn(storage, Constants.PORT);
+        inProcessServer.setNetworkShaping(networkShaping);
+        if (inProcessServer.start())
+            logger.info("Started in-process server on port " + Constants.PORT + ", " + networkShaping);
+        else
+            logger.error("Unable to start in-process server on port " + Constants.PORT);
+    }
+
+    private EncryptionStrategyImpl createEncryptionStrategy() {
+        switch (encryptionType) {
+            case CTR:
+                return new EncryptionStrategyCtr();
+            case GCM:
+                return new EncryptionStrategyGcm();
+            default:
+                return new EncryptionStrategyImpl();
+        }
+    }
 }
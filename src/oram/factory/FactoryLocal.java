@@ -1,19 +1,36 @@
 package oram.factory;
 
+import oram.blockenc.BlockCryptoPool;
 import oram.blockenc.BlockEncryptionStrategyLookahead;
+import oram.blockenc.BlockEncryptionStrategyLookaheadSingle;
 import oram.blockenc.BlockEncryptionStrategyPath;
+import oram.blockenc.BlockEncryptionStrategyPathSingle;
 import oram.blockenc.BlockEncryptionStrategyTrivial;
 import oram.clientcom.CommunicationStrategy;
 import oram.clientcom.CommunicationStrategyCounting;
+import oram.clientcom.CommunicationStrategyDeferred;
+import oram.clientcom.CommunicationStrategyEndHooks;
+import oram.clientcom.CommunicationStrategyMapped;
 import oram.clientcom.CommunicationStrategyStub;
 import oram.encryption.EncryptionStrategy;
 import oram.encryption.EncryptionStrategyCounting;
+import oram.encryption.EncryptionStrategyCtr;
+import oram.encryption.EncryptionStrategyGcm;
 import oram.encryption.EncryptionStrategyImpl;
 import oram.ofactory.ORAMFactory;
+import oram.path.TreeTopCache;
 import oram.permutation.PermutationStrategy;
 import oram.permutation.PermutationStrategyImpl;
+import oram.positionmap.PositionMap;
+import oram.positionmap.PositionMapDense;
+import oram.positionmap.PositionMapOpenAddressing;
+import oram.random.RandomSource;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
+import java.io.File;
 import java.util.List;
+import java.util.function.BooleanSupplier;
 
 /**
  * <p> ORAM <br>
@@ -22,13 +39,27 @@ import java.util.List;
  */
 
 public class FactoryLocal implements Factory {
+    private final Logger logger = LogManager.getLogger("log");
     private final List<ORAMFactory> oramFactories;
     private final int numberOfORAMLayers;
     private EncryptionStrategyImpl encryptionStrategy;
     private EncryptionStrategyCounting encryptionStrategyCounting;
     private CommunicationStrategyStub communicationStrategyStub;
+    private CommunicationStrategyEndHooks communicationStrategyEndHooks;
     private CommunicationStrategyCounting communicationStrategyCounting;
     private PermutationStrategyImpl permutationStrategy;
+    private boolean deferWrites;
+    private BlockCodecType blockCodecType = BlockCodecType.SINGLE_CIPHER_TEXT;
+    private EncryptionType encryptionType = EncryptionType.CBC;
+    private BlockCryptoPool blockCryptoPool = BlockCryptoPool.SEQUENTIAL;
+    private PositionMapType positionMapType = PositionMapType.DENSE;
+    private long treeTopCacheBudget;
+    private EvictionType evictionType = EvictionType.GREEDY;
+    private RandomSource randomSource = RandomSource.getDefault();
+    private boolean prefetch;
+    private long simulatedRoundTripTime;
+    private File mappedFile;
+    private CommunicationStrategyMapped communicationStrategyMapped;
 
     public FactoryLocal(List<ORAMFactory> oramFactories, int numberOfORAMLayers) {
         this.oramFactories = oramFactories;
@@ -38,7 +69,7 @@ public class FactoryLocal implements Factory {
     @Override
     public EncryptionStrategy getEncryptionStrategy() {
         if (encryptionStrategy == null) {
-            encryptionStrategy = new EncryptionStrategyImpl();
+            encryptionStrategy = createEncryptionStrategy();
             encryptionStrategyCounting = new EncryptionStrategyCounting(encryptionStrategy);
         }
         return encryptionStrategyCounting;
@@ -46,9 +77,19 @@ public class FactoryLocal implements Factory {
 
     @Override
     public CommunicationStrategy getCommunicationStrategy() {
-        if (communicationStrategyStub == null) {
-            communicationStrategyStub = new CommunicationStrategyStub(oramFactories, numberOfORAMLayers);
-            communicationStrategyCounting = new CommunicationStrategyCounting(communicationStrategyStub);
+        if (communicationStrategyCounting == null) {
+            getEncryptionStrategy();
+            CommunicationStrategy communicationStrategy = createMappedStrategy();
+            if (communicationStrategy == null) {
+                communicationStrategyStub = new CommunicationStrategyStub(oramFactories, numberOfORAMLayers,
+                        encryptionStrategy);
+                communicationStrategyStub.setSimulatedRoundTripTime(simulatedRoundTripTime);
+                communicationStrategy = communicationStrategyStub;
+            }
+            if (deferWrites)
+                communicationStrategy = new CommunicationStrategyDeferred(communicationStrategy);
+            communicationStrategyEndHooks = new CommunicationStrategyEndHooks(communicationStrategy);
+            communicationStrategyCounting = new CommunicationStrategyCounting(communicationStrategyEndHooks);
         }
         return communicationStrategyCounting;
     }
@@ -56,22 +97,174 @@ public class FactoryLocal implements Factory {
     @Override
     public PermutationStrategy getPermutationStrategy() {
         if (permutationStrategy == null)
-            permutationStrategy = new PermutationStrategyImpl();
+            permutationStrategy = new PermutationStrategyImpl(randomSource);
         return permutationStrategy;
     }
 
     @Override
     public BlockEncryptionStrategyPath getBlockEncryptionStrategyPath() {
-        return new BlockEncryptionStrategyPath(getEncryptionStrategy(), getPermutationStrategy());
+        BlockEncryptionStrategyPath res;
+        if (blockCodecType == BlockCodecType.SINGLE_CIPHER_TEXT)
+            res = new BlockEncryptionStrategyPathSingle(getEncryptionStrategy(), getPermutationStrategy());
+        else
+            res = new BlockEncryptionStrategyPath(getEncryptionStrategy(), getPermutationStrategy());
+        res.setBlockCryptoPool(blockCryptoPool);
+        return res;
     }
 
     @Override
     public BlockEncryptionStrategyLookahead getBlockEncryptionStrategyLookahead() {
-        return new BlockEncryptionStrategyLookahead(getEncryptionStrategy());
+        BlockEncryptionStrategyLookahead res;
+        if (blockCodecType == BlockCodecType.SINGLE_CIPHER_TEXT)
+            res = new BlockEncryptionStrategyLookaheadSingle(getEncryptionStrategy());
+        else
+            res = new BlockEncryptionStrategyLookahead(getEncryptionStrategy());
+        res.setBlockCryptoPool(blockCryptoPool);
+        return res;
     }
 
     @Override
     public BlockEncryptionStrategyTrivial getBlockEncryptionStrategyTrivial() {
         return new BlockEncryptionStrategyTrivial(getEncryptionStrategy());
     }
+
+    @Override
+    public PositionMap getPositionMap(int size) {
+        if (positionMapType == PositionMapType.OPEN_ADDRESSING)
+            return new PositionMapOpenAddressing(size);
+        return new PositionMapDense(size + 1);
+    }
+
+    @Override
+    public int getTreeTopCacheLevels(int levels, int bucketSize) {
+        return TreeTopCache.getLevelsForBudget(treeTopCacheBudget, levels, bucketSize);
+    }
+
+    @Override
+    public EvictionType getEvictionType() {
+        return evictionType;
+    }
+
+    @Override
+    public RandomSource getRandomSource() {
+        return randomSource;
+    }
+
+    @Override
+    public boolean isPrefetchEnabled() {
+        return prefetch;
+    }
+
+    @Override
+    public void addEndSignalHook(BooleanSupplier hook) {
+        getCommunicationStrategy();
+        communicationStrategyEndHooks.addEndHook(hook);
+    }
+
+    /**
+     * Must be called before the communication strategy is first requested
+     */
+    public void setDeferWrites(boolean deferWrites) {
+        this.deferWrites = deferWrites;
+    }
+
+    public void setBlockCodecType(BlockCodecType blockCodecType) {
+        this.blockCodecType = blockCodecType;
+    }
+
+    /**
+     * Must be called before the encryption strategy is first requested
+     */
+    public void setEncryptionType(EncryptionType encryptionType) {
+        this.encryptionType = encryptionType;
+    }
+
+    /**
+     * The pool the Path and Lookahead block codecs spread the encryption and decryption of blocks over, see
+     * {@link BlockCryptoPool#forkJoin(int)} and {@link BlockCryptoPool#fixed(int)}
+     */
+    public void setBlockCryptoPool(BlockCryptoPool blockCryptoPool) {
+        this.blockCryptoPool = blockCryptoPool;
+    }
+
+    public void setPositionMapType(PositionMapType positionMapType) {
+        this.positionMapType = positionMapType;
+    }
+
+    /**
+     * The number of bytes each Path ORAM may use to keep the top levels of its tree in memory, 0 disables the cache
+     */
+    public void setTreeTopCacheBudget(long treeTopCacheBudget) {
+        this.treeTopCacheBudget = treeTopCacheBudget;
+    }
+
+    public void setEvictionType(EvictionType evictionType) {
+        this.evictionType = evictionType;
+    }
+
+    /**
+     * Must be called before the permutation strategy and the ORAMs are created
+     */
+    public void setRandomSource(RandomSource randomSource) {
+        this.randomSource = randomSource;
+    }
+
+    /**
+     * Must be called before the ORAMs are created
+     */
+    public void setPrefetch(boolean prefetch) {
+        this.prefetch = prefetch;
+    }
+
+    /**
+     * The time in microseconds each call to the stub server takes. Must be called before the communication strategy
+     * is first requested
+     */
+    public void setSimulatedRoundTripTime(long simulatedRoundTripTime) {
+        this.simulatedRoundTripTime = simulatedRoundTripTime;
+    }
+
+    /**
+     * Keeps the blocks in the file through {@link CommunicationStrategyMapped} instead of on the heap. The slots of a
+     * new file are empty, which Path ORAM reads as empty buckets, so this is meant for Path ORAM. Must be called before
+     * the communication strategy is first requested
+     */
+    public void setMappedFile(File mappedFile) {
+        this.mappedFile = mappedFile;
+    }
+
+    /**
+     * @return the mapped strategy, or null if no file was set or the communication strategy is not yet requested
+     */
+    public CommunicationStrategyMapped getCommunicationStrategyMapped() {
+        return communicationStrategyMapped;
+    }
+
+    private CommunicationStrategy createMappedStrategy() {
+        if (mappedFile == null) return null;
+
+        long slots = 0;
+        for (ORAMFactory oramFactory : oramFactories)
+            slots += oramFactory.getTotalSize();
+        if (slots > Integer.MAX_VALUE) {
+            logger.error("Unable to map " + slots + " slots, using the stub server instead");
+            return null;
+        }
+
+        communicationStrategyMapped = CommunicationStrategyMapped.create(mappedFile, (int) slots);
+        if (communicationStrategyMapped == null)
+            logger.error("Unable to map file: " + mappedFile + ", using the stub server instead");
+        return communicationStrategyMapped;
+    }
+
+    private EncryptionStrategyImpl createEncryptionStrategy() {
+        switch (encryptionType) {
+            case CTR:
+                return new EncryptionStrategyCtr();
+            case GCM:
+                return new EncryptionStrategyGcm();
+            default:
+                return new EncryptionStrategyImpl();
+        }
+    }
 }
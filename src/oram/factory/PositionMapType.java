@@ -0,0 +1,14 @@
+package oram.factory;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * The local position maps the factory can create. DENSE is an array indexed by the address, OPEN_ADDRESSING is a hash
+ * table for sparse address spaces.
+ */
+
+public enum PositionMapType {
+    DENSE, OPEN_ADDRESSING
+}
@@ -0,0 +1,164 @@
+package oram.lookahead;
+
+import oram.Util;
+import oram.block.BlockLookahead;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * The access stash of Lookahead ORAM, the blocks that are accessed but not yet moved back into the matrix, each kept
+ * under the place in the matrix it is moved to. The blocks are kept in a fixed number of slots, and the slots of a
+ * column are linked from the head of the column, all in primitive arrays, so the stash can be refilled on every access
+ * without allocating, and the blocks of a column are found without looking at the other columns.
+ */
+
+class AccessStash {
+    private static final int NONE = -1;
+    private final BlockLookahead[] blocks;
+    private final int[] rows;
+    private final int[] cols;
+    private final int[] next;
+    private final int[] columnHeads;
+    private int freeHead;
+    private int size;
+
+    /**
+     * @param capacity    the number of blocks the stash can hold
+     * @param matrixWidth the number of columns in the matrix
+     */
+    AccessStash(int capacity, int matrixWidth) {
+        blocks = new BlockLookahead[capacity];
+        rows = new int[capacity];
+        cols = new int[capacity];
+        next = new int[capacity];
+        columnHeads = new int[matrixWidth];
+        clear();
+    }
+
+    void clear() {
+        Arrays.fill(blocks, null);
+        Arrays.fill(columnHeads, NONE);
+        for (int i = 0; i < next.length; i++)
+            next[i] = i + 1 < next.length ? i + 1 : NONE;
+        freeHead = next.length > 0 ? 0 : NONE;
+        size = 0;
+    }
+
+    /**
+     * Clears the stash and adds the real blocks from the begin index, inclusive, to the end index, exclusive
+     *
+     * @return false if there were more real blocks than the capacity
+     */
+    boolean load(List<BlockLookahead> blockList, int beginIndex, int endIndex) {
+        clear();
+        for (int i = beginIndex; i < endIndex; i++)
+            if (!add(blockList.get(i)))
+                return false;
+        return true;
+    }
+
+    /**
+     * Adds the block under its index, replacing any block already there. Dummy blocks are not added
+     *
+     * @return false if the stash is full
+     */
+    boolean add(BlockLookahead block) {
+        if (Util.isDummyAddress(block.getAddress())) return true;
+
+        int rowIndex = block.getRowIndex();
+        int colIndex = block.getColIndex();
+        int slot = findSlot(rowIndex, colIndex);
+        if (slot != NONE) {
+            blocks[slot] = block;
+            return true;
+        }
+        if (freeHead == NONE) return false;
+
+        slot = freeHead;
+        freeHead = next[slot];
+        blocks[slot] = block;
+        rows[slot] = rowIndex;
+        cols[slot] = colIndex;
+        next[slot] = columnHeads[colIndex];
+        columnHeads[colIndex] = slot;
+        size++;
+        return true;
+    }
+
+    /**
+     * @return the real block under the index, or null if there is none
+     */
+    BlockLookahead find(int rowIndex, int colIndex) {
+        int slot = findSlot(rowIndex, colIndex);
+        if (slot == NONE || Util.isDummyAddress(blocks[slot].getAddress())) return null;
+        return blocks[slot];
+    }
+
+    void remove(int rowIndex, int colIndex) {
+        int previous = NONE;
+        for (int slot = columnHeads[colIndex]; slot != NONE; slot = next[slot]) {
+            if (rows[slot] == rowIndex) {
+                if (previous == NONE)
+                    columnHeads[colIndex] = next[slot];
+                else
+                    next[previous] = next[slot];
+                freeSlot(slot);
+                return;
+            }
+            previous = slot;
+        }
+    }
+
+    /**
+     * Moves the blocks under the column into their rows of the column, and removes them from the stash
+     *
+     * @return the row of a block, which place in the column was not filled with a dummy block, or -1 if all blocks
+     * were moved
+     */
+    int moveColumn(int colIndex, List<BlockLookahead> column) {
+        for (int slot = columnHeads[colIndex]; slot != NONE; ) {
+            int rowIndex = rows[slot];
+            if (!Util.isDummyAddress(column.get(rowIndex).getAddress()))
+                return rowIndex;
+            column.set(rowIndex, blocks[slot]);
+
+            int nextSlot = next[slot];
+            columnHeads[colIndex] = nextSlot;
+            freeSlot(slot);
+            slot = nextSlot;
+        }
+        return NONE;
+    }
+
+    /**
+     * Adds the blocks of the stash to the list
+     */
+    void addBlocksTo(List<BlockLookahead> res) {
+        for (BlockLookahead block : blocks)
+            if (block != null)
+                res.add(block);
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int findSlot(int rowIndex, int colIndex) {
+        for (int slot = columnHeads[colIndex]; slot != NONE; slot = next[slot])
+            if (rows[slot] == rowIndex)
+                return slot;
+        return NONE;
+    }
+
+    private void freeSlot(int slot) {
+        blocks[slot] = null;
+        next[slot] = freeHead;
+        freeHead = slot;
+        size--;
+    }
+}
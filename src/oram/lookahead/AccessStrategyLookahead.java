@@ -4,14 +4,19 @@ package oram.lookahead;
 import oram.AccessStrategy;
 import oram.Constants;
 import oram.OperationType;
+import oram.Request;
 import oram.Util;
 import oram.block.BlockEncrypted;
 import oram.block.BlockLookahead;
 import oram.block.BlockTrivial;
+import oram.block.PositionBlock;
 import oram.blockenc.BlockEncryptionStrategyLookahead;
 import oram.clientcom.CommunicationStrategy;
 import oram.factory.Factory;
+import oram.permutation.IndexPermutation;
 import oram.permutation.PermutationStrategy;
+import oram.positionmap.PositionMap;
+import oram.random.RandomSource;
 import oram.trivial.AccessStrategyTrivial;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
@@ -19,8 +24,11 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import javax.crypto.SecretKey;
-import java.security.SecureRandom;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -33,77 +41,87 @@ import java.util.stream.IntStream;
  */
 
 public class AccessStrategyLookahead implements AccessStrategy {
+    private static final int SETUP_CHUNK_SIZE = 1 << 12;
     private final Logger logger = LogManager.getLogger("log");
     private final SecretKey secretKey;
     private final int size;
-    private final int matrixHeight; // Assumed to be equal to matrix width
+    private final int matrixHeight;
+    private final int matrixWidth;
     private final CommunicationStrategy communicationStrategy;
     private final PermutationStrategy permutationStrategy;
+    private final RandomSource randomness;
     private final BlockEncryptionStrategyLookahead blockEncStrategy;
-    private Map<Integer, Integer> positionMap;
+    private PositionMap positionMap;
     private int accessCounter;
-    private List<SwapPartnerData> futureSwapPartners;
+    private final FutureSwapPartners futureSwapPartners;
+    private final AccessStash accessStash;
     private AccessStrategy accessStrategy;
     private int offset;
     private String prefix;
+    private boolean pipelineWrites;
+    private List<Integer> pendingAddresses;
+    private List<BlockEncrypted> pendingBlocks;
+    private final boolean prefetch;
+    private ExecutorService prefetchExecutor;
+    private Future<List<BlockLookahead>> prefetchedBlocks;
 
     public AccessStrategyLookahead(int size, int matrixHeight, byte[] key, Factory factory, int offset,
                                    AccessStrategy accessStrategy, int prefixSize) {
+        this(size, matrixHeight, matrixHeight, key, factory, offset, accessStrategy, prefixSize);
+    }
+
+    /**
+     * The access and swap stashes hold a block for each column, see {@link LookaheadShape}
+     */
+    public AccessStrategyLookahead(int size, int matrixHeight, int matrixWidth, byte[] key, Factory factory,
+                                   int offset, AccessStrategy accessStrategy, int prefixSize) {
         this.size = size;
         this.matrixHeight = matrixHeight;
+        this.matrixWidth = matrixWidth;
         communicationStrategy = factory.getCommunicationStrategy();
         secretKey = factory.getEncryptionStrategy().generateSecretKey(key);
         permutationStrategy = factory.getPermutationStrategy();
+        randomness = factory.getRandomSource();
         blockEncStrategy = factory.getBlockEncryptionStrategyLookahead();
         prefix = Util.getEmptyStringOfLength(prefixSize);
         this.offset = offset;
-        if (!(size == matrixHeight * matrixHeight))
+        if (!(size == matrixHeight * matrixWidth))
             logger.error("Size of matrix is wrong");
         accessCounter = 0;
-        futureSwapPartners = new ArrayList<>();
-        positionMap = new HashMap<>();
+        futureSwapPartners = new FutureSwapPartners(matrixHeight, matrixWidth);
+        accessStash = new AccessStash(matrixWidth + 1, matrixWidth);
+        positionMap = factory.getPositionMap(size);
 
         if (accessStrategy != null)
             this.accessStrategy = accessStrategy;
 
+        prefetch = factory.isPrefetchEnabled();
+        if (prefetch)
+            factory.addEndSignalHook(this::stopPrefetching);
+
         logger.info("######### Initialized Lookahead ORAM strategy #########");
         logger.debug("######### Initialized Lookahead ORAM strategy #########");
     }
 
+    /**
+     * Writes the blocks to the matrix in the order of a permutation of the flat array, a chunk at a time. The blocks
+     * are only read from the list by their index, so the list may create them as they are read, and a chunk is
+     * encrypted while the chunk before it is written to the server, so the memory used does not grow with the size
+     */
     @Override
     public boolean setup(List<BlockTrivial> blocksGiven) {
-        List<BlockTrivial> blocks = new ArrayList<>(blocksGiven);
         Util.logAndPrint(logger, prefix + "Starting setup");
-//        Fill with dummy blocks
-        for (int i = blocks.size(); i < size; i++) {
-            blocks.add(new BlockTrivial(0, new byte[0]));
-        }
-
-        for (int i = blocks.size(); i > size; i--) {
-            blocks.remove(i - 1);
-        }
-
-        Util.logAndPrint(logger, prefix + "    Created dummy blocks");
-
-//        Shuffle and convert
-        blocks = permutationStrategy.permuteTrivialBlocks(blocks);
-        List<BlockLookahead> blockLookaheads = trivialToLookaheadBlocksForSetup(blocks);
+        int numberOfBlocks = Math.min(blocksGiven.size(), size);
+        IndexPermutation permutation = permutationStrategy.getIndexPermutation(size);
 
 //        Pick swap partners
-        SecureRandom randomness = new SecureRandom();
         List<BlockLookahead> swapPartners = new ArrayList<>();
-        for (int i = 0; i < matrixHeight; i++) {
-            Index index = null;
-            boolean indexIsNotUnique = true;
-            while (indexIsNotUnique) {
-                index = new Index(randomness.nextInt(matrixHeight), randomness.nextInt(matrixHeight));
-                Index finalIndex = index;
-                indexIsNotUnique = futureSwapPartners.stream().anyMatch(s -> s.getIndex().equals(finalIndex));
-            }
-            futureSwapPartners.add(new SwapPartnerData(index, accessCounter));
+        for (int i = 0; i < matrixWidth; i++) {
+            int flatArrayIndex = futureSwapPartners.addRandom(randomness, accessCounter);
             accessCounter++;
 
-            BlockLookahead block = blockLookaheads.get(getFlatArrayIndex(index));
+            BlockLookahead block = getBlockForSetup(blocksGiven, numberOfBlocks, permutation.invert(flatArrayIndex),
+                    flatArrayIndex);
             if (Util.isDummyAddress(block.getAddress()))
                 block.setData(Util.getRandomByteArray(Constants.BLOCK_SIZE));
             swapPartners.add(block);
@@ -111,48 +129,54 @@ public class AccessStrategyLookahead implements AccessStrategy {
 
         Util.logAndPrint(logger, prefix + "    Swap partners picked");
 
-        List<Integer> addresses = new ArrayList<>();
-
-//        Add blocks to the right place in the flattened array
-//        First the matrix
-        List<BlockLookahead> res = new ArrayList<>();
-        for (int i = 0; i < size; i++) {
-            BlockLookahead block = blockLookaheads.get(i);
-            Index index = block.getIndex();
-            boolean isSwapPartner = futureSwapPartners.stream().anyMatch(s -> s.getIndex().equals(index));
-            if (!isSwapPartner) {
-//                There are added dummy blocks for the permutation, they should not be written to the database
-                if (!Util.isDummyAddress(block.getAddress())) {
-                    res.add(block);
-                    addresses.add(i + offset);
+        ExecutorService uploader = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "oram-lookahead-setup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+//            First the matrix, the chunks of the flattened array
+            Future<Boolean> upload = null;
+            int[] permutedIndices = new int[SETUP_CHUNK_SIZE];
+            for (int beginIndex = 0; beginIndex < size; beginIndex += SETUP_CHUNK_SIZE) {
+                int length = Math.min(SETUP_CHUNK_SIZE, size - beginIndex);
+                for (int i = 0; i < length; i++)
+                    permutedIndices[i] = beginIndex + i;
+                permutation.invert(permutedIndices, length);
+
+                List<BlockLookahead> chunk = new ArrayList<>();
+                List<Integer> addresses = new ArrayList<>();
+                for (int i = 0; i < length; i++) {
+                    int flatArrayIndex = beginIndex + i;
+                    Index index = getIndexFromFlatArrayIndex(flatArrayIndex);
+                    if (futureSwapPartners.contains(index.getRowIndex(), index.getColIndex())) continue;
+
+//                    There are added dummy blocks for the permutation, they should not be written to the database
+                    BlockLookahead block = getBlockForSetup(blocksGiven, numberOfBlocks, permutedIndices[i],
+                            flatArrayIndex);
+                    if (!Util.isDummyAddress(block.getAddress())) {
+                        chunk.add(block);
+                        addresses.add(flatArrayIndex + offset);
+                    }
                 }
-            }
-        }
-        futureSwapPartners = new ArrayList<>();
+                if (chunk.isEmpty()) continue;
 
-//        At last the swap stash
-        for (int i = (size + matrixHeight); i < (size + matrixHeight * 2); i++) {
-            BlockLookahead swapPartner = swapPartners.get(i - (size + matrixHeight));
-            res.add(swapPartner);
-            addresses.add(i + offset);
-        }
-
-        Util.logAndPrint(logger, prefix + "    Blocks added to final list");
+                upload = encryptAndUpload(uploader, upload, chunk, addresses);
+                if (upload == null) return false;
+            }
+            futureSwapPartners.clear();
 
-//        Encrypt and write blocks to server
-        List<BlockEncrypted> encryptedList = blockEncStrategy.encryptBlocks(res, secretKey);
-//        List<BlockEncrypted> encryptedList = encryptBlocks(res);
-        if (encryptedList.isEmpty()) {
-            logger.error(prefix + "Unable to decrypt when initializing the ORAM");
-            return false;
+//            At last the swap stash
+            List<Integer> addresses = new ArrayList<>();
+            for (int i = (size + matrixWidth); i < (size + matrixWidth * 2); i++)
+                addresses.add(i + offset);
+            upload = encryptAndUpload(uploader, upload, swapPartners, addresses);
+            if (upload == null || !awaitUpload(upload)) return false;
+        } finally {
+            uploader.shutdown();
         }
 
-        Util.logAndPrint(logger, prefix + "    Blocks encrypted");
-
-        if (!communicationStrategy.writeArray(addresses, encryptedList)) {
-            logger.error(prefix + "Writing blocks were unsuccessful when initializing the ORAM");
-            return false;
-        }
+        Util.logAndPrint(logger, prefix + "    Blocks encrypted and written in chunks");
 
         if (accessStrategy != null) {
             if (!writePositionMap())
@@ -167,25 +191,70 @@ public class AccessStrategyLookahead implements AccessStrategy {
         return true;
     }
 
-    private boolean writePositionMap() {
-        List<Map.Entry<Integer, Integer>> entries = new ArrayList<>(positionMap.entrySet());
-        entries.sort(Comparator.comparing(Map.Entry::getKey));
+    /**
+     * @return the block given at the permuted index, or a dummy block if there is none, with the index of the flat
+     * array index. The position of a real block is added to the position map
+     */
+    private BlockLookahead getBlockForSetup(List<BlockTrivial> blocksGiven, int numberOfBlocks, int permutedIndex,
+                                            int flatArrayIndex) {
+        Index index = getIndexFromFlatArrayIndex(flatArrayIndex);
+        if (permutedIndex >= numberOfBlocks)
+            return new BlockLookahead(0, new byte[0], index.getRowIndex(), index.getColIndex());
+
+        BlockTrivial blockTrivial = blocksGiven.get(permutedIndex);
+        if (blockTrivial.getAddress() != 0)
+            positionMap.put(blockTrivial.getAddress(), flatArrayIndex);
+        return new BlockLookahead(blockTrivial.getAddress(), blockTrivial.getData(), index.getRowIndex(),
+                index.getColIndex());
+    }
+
+    /**
+     * Encrypts the blocks, waits for the upload before, and starts uploading the blocks
+     *
+     * @return the upload, or null if the blocks could not be encrypted or the upload before failed
+     */
+    private Future<Boolean> encryptAndUpload(ExecutorService uploader, Future<Boolean> previousUpload,
+                                             List<BlockLookahead> blocks, List<Integer> addresses) {
+        List<BlockEncrypted> encryptedBlocks = blockEncStrategy.encryptBlocks(blocks, secretKey);
+        if (encryptedBlocks.isEmpty()) {
+            logger.error(prefix + "Unable to encrypt when initializing the ORAM");
+            return null;
+        }
+        if (!awaitUpload(previousUpload)) return null;
+
+        return uploader.submit(() -> communicationStrategy.writeArray(addresses, encryptedBlocks));
+    }
 
-        int positionMapBlocks = (int) Math.ceil((double) entries.size() / Constants.POSITION_BLOCK_SIZE);
+    private boolean awaitUpload(Future<Boolean> upload) {
+        if (upload == null) return true;
+        try {
+            if (upload.get()) return true;
+            logger.error(prefix + "Writing blocks were unsuccessful when initializing the ORAM");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error(prefix + "Interrupted while writing blocks when initializing the ORAM");
+        } catch (ExecutionException e) {
+            logger.error(prefix + "Writing blocks failed when initializing the ORAM: " + e.getCause());
+            logger.debug("Stacktrace", e);
+        }
+        return false;
+    }
+
+    private boolean writePositionMap() {
+        int positionMapBlocks = (int) Math.ceil((double) positionMap.size() / Constants.POSITION_BLOCK_SIZE);
         for (int i = 0; i <= positionMapBlocks; i++) {
-            Map<Integer, Integer> map = new HashMap<>();
             if (i == 0 && !(accessStrategy instanceof AccessStrategyTrivial)) // Set a dummy block for Trivial ORAM only
                 continue;
-            for (int j = 0; j < Constants.POSITION_BLOCK_SIZE; j++) {
-                int index = (i - 1) * Constants.POSITION_BLOCK_SIZE + j;
-
-                if (i != 0 && entries.size() > index)
-                    map.put(entries.get(index).getKey(), entries.get(index).getValue());
-                else
-                    map.put(index + 1, -42);
+            PositionBlock positionBlock = PositionBlock.getDummyBlock((i - 1) * Constants.POSITION_BLOCK_SIZE + 1);
+            if (i != 0) {
+                for (int j = 0; j < Constants.POSITION_BLOCK_SIZE; j++) {
+                    int address = positionBlock.getBaseAddress() + j;
+                    int position = positionMap.get(address);
+                    if (position != PositionMap.NO_POSITION)
+                        positionBlock.setPosition(address, position);
+                }
             }
-            byte[] byteArrayForMap = Util.getByteArrayFromMap(map);
-            if (accessStrategy.access(OperationType.WRITE, i, byteArrayForMap, false, true) == null) {
+            if (accessStrategy.access(OperationType.WRITE, i, positionBlock.toByteArray(), false, true) == null) {
                 return false;
             }
         }
@@ -200,26 +269,28 @@ public class AccessStrategyLookahead implements AccessStrategy {
 
         Integer position;
         if (positionMap == null) {
-            Map<Integer, Integer> map = Util.getPositionMap(addressToLookUp, -42, accessStrategy);
-            if (map == null)
+            PositionBlock positionBlock = Util.getPositionBlock(addressToLookUp, -42, accessStrategy);
+            if (positionBlock == null)
                 return null;
 
-            Integer flatArrayIndex = map.getOrDefault(addressToLookUp, null);
+            Integer flatArrayIndex = positionBlock.getPosition(addressToLookUp);
 
             if (flatArrayIndex == null) {
                 logger.error(prefix + "Unable to look up address: " + addressToLookUp);
                 return null;
             }
             position = flatArrayIndex;
-        } else
-            position = positionMap.getOrDefault(addressToLookUp, null);
+        } else if (positionMap.containsKey(addressToLookUp))
+            position = positionMap.get(addressToLookUp);
+        else
+            position = null;
 
         if (position == null) {
             logger.error(prefix + "Unable to look up position for address: " + addressToLookUp);
             return null;
         }
         Index indexOfCurrentAddress = getIndexFromFlatArrayIndex(position);
-        int maintenanceColumnIndex = Math.floorMod(accessCounter, matrixHeight);
+        int maintenanceColumnIndex = Math.floorMod(accessCounter, matrixWidth);
 
         logger.info(prefix + "Access op: " + op.toString() + ", address: " + addressToLookUp + ", index: ("
                 + indexOfCurrentAddress.getRowIndex() + ", " + indexOfCurrentAddress.getColIndex() +
@@ -235,7 +306,8 @@ public class AccessStrategyLookahead implements AccessStrategy {
         }
 
 //        If the block is found in the column, we fetch one less
-        int numberOfBlocksToFetch = blockInColumn ? matrixHeight * 3 : matrixHeight * 3 + 1;
+        int numberOfBlocksToFetch = matrixHeight + matrixWidth * 2;
+        if (!blockInColumn) numberOfBlocksToFetch++;
         if (blocks.size() != numberOfBlocksToFetch) {
             logger.error(prefix + "The number of blocks read from the server: " + blocks.size() + " should be: "
                     + numberOfBlocksToFetch);
@@ -243,7 +315,10 @@ public class AccessStrategyLookahead implements AccessStrategy {
 
 //        Fetch column and stashes from fetched blocks
         List<BlockLookahead> column = getColumn(blocks, blockInColumn, maintenanceColumnIndex);
-        Map<Integer, Map<Integer, BlockLookahead>> accessStash = getAccessStash(blocks, blockInColumn);
+        if (getAccessStash(blocks, blockInColumn) == null) {
+            logger.error(prefix + "More blocks in the access stash than it can hold");
+            return null;
+        }
         BlockLookahead[] swapStash = getSwapStash(blocks, blockInColumn);
 
 //        Fetch block from either matrix, access stash or swap stash
@@ -258,7 +333,7 @@ public class AccessStrategyLookahead implements AccessStrategy {
         int swapCount = 0;
         if (Util.isDummyAddress(block.getAddress())) {
             blockFoundInMatrix = false;
-            block = findBlockInAccessStash(accessStash, indexOfCurrentAddress);
+            block = accessStash.find(indexOfCurrentAddress.getRowIndex(), indexOfCurrentAddress.getColIndex());
             if (block == null) {
                 blockFoundInAccessStash = false;
                 Pair<BlockLookahead, Integer> pair = findBlockInSwapStash(swapStash, addressToLookUp);
@@ -283,7 +358,10 @@ public class AccessStrategyLookahead implements AccessStrategy {
 
 //        Set index to index of swap partner and add to access stash
         block.setIndex(swapPartner.getIndex());
-        accessStash = addToAccessStashMap(accessStash, block);
+        if (!accessStash.add(block)) {
+            logger.error(prefix + "Unable to add block to the full access stash: " + block.toStringShort());
+            return null;
+        }
 
 //        Update swap partner index and encrypt it
         swapPartner.setIndex(indexOfCurrentAddress);
@@ -297,9 +375,10 @@ public class AccessStrategyLookahead implements AccessStrategy {
         byte[] res = block.getData();
         if (op.equals(OperationType.WRITE)) {
             if (recursiveLookup && !lookaheadSetup) {
-                Map<Integer, Integer> map = Util.getMapFromByteArray(res);
-                map.put(address, Util.byteArrayToLeInt(data));
-                block.setData(Util.getByteArrayFromMap(map));
+                PositionBlock positionBlock = PositionBlock.fromByteArray(res);
+                if (positionBlock == null || !positionBlock.setPosition(address, Util.byteArrayToLeInt(data)))
+                    return null;
+                block.setData(positionBlock.toByteArray());
             } else
                 block.setData(data);
         }
@@ -311,7 +390,7 @@ public class AccessStrategyLookahead implements AccessStrategy {
         else if (blockFoundInAccessStash) {
             blockToWriteBackToMatrix = swapPartner;
 //            Remove old version of block
-            accessStash = removeFromAccessStash(accessStash, indexOfCurrentAddress);
+            accessStash.remove(indexOfCurrentAddress.getRowIndex(), indexOfCurrentAddress.getColIndex());
         } else {
             blockToWriteBackToMatrix = getLookaheadDummyBlock();
             BlockLookahead swapReplacement = new BlockLookahead(swapPartner.getAddress(), swapPartner.getData());
@@ -333,7 +412,7 @@ public class AccessStrategyLookahead implements AccessStrategy {
             column.set(indexOfCurrentAddress.getRowIndex(), blockToWriteBackToMatrix);
 
         pickNewFutureSwapPartner(swapStash);
-        List<BlockLookahead> blocksFromMaintenance = maintenanceJob(column, accessStash, swapStash);
+        List<BlockLookahead> blocksFromMaintenance = maintenanceJob(column, swapStash);
         if (blocksFromMaintenance == null) {
             logger.error(prefix + "Failed doing maintenance");
             return null;
@@ -345,12 +424,12 @@ public class AccessStrategyLookahead implements AccessStrategy {
             addresses.add(getFlatArrayIndex(new Index(i, maintenanceColumnIndex)) + offset);
 
 //        Add addresses for access stash
-        for (int i = 0; i < matrixHeight; i++)
+        for (int i = 0; i < matrixWidth; i++)
             addresses.add(size + i + offset);
 
 //        Add addresses for swap stash
-        for (int i = 0; i < matrixHeight; i++)
-            addresses.add(size + matrixHeight + i + offset);
+        for (int i = 0; i < matrixWidth; i++)
+            addresses.add(size + matrixWidth + i + offset);
 
         if (!blockInColumn) {
             blocksFromMaintenance.add(blockToWriteBackToMatrix);
@@ -364,7 +443,14 @@ public class AccessStrategyLookahead implements AccessStrategy {
             return null;
         }
 
-        boolean writeStatus = communicationStrategy.writeArray(addresses, encryptedBlocks);
+//        In a batch the blocks are written together with the read of the next access
+        boolean writeStatus;
+        if (pipelineWrites) {
+            pendingAddresses = addresses;
+            pendingBlocks = encryptedBlocks;
+            writeStatus = true;
+        } else
+            writeStatus = communicationStrategy.writeArray(addresses, encryptedBlocks);
         if (!writeStatus) {
             logger.error(prefix + "Unable to write blocks to server");
             return null;
@@ -372,10 +458,49 @@ public class AccessStrategyLookahead implements AccessStrategy {
 
         accessCounter++;
 
+//        In a batch the write back is not sent yet, so the blocks on the server are not ready to be read ahead
+        if (prefetch && !pipelineWrites)
+            startPrefetch();
+
+        return res;
+    }
+
+    /**
+     * Pipelines the accesses, the write back of each access is sent with the read of the next in one round trip, and
+     * the write back of the last is sent on its own.
+     */
+    @Override
+    public List<byte[]> accessBatch(List<Request> requests) {
+        pipelineWrites = true;
+        List<byte[]> res = AccessStrategy.super.accessBatch(requests);
+        pipelineWrites = false;
+
+        if (pendingAddresses != null) {
+            boolean writeStatus = communicationStrategy.writeArray(pendingAddresses, pendingBlocks);
+            pendingAddresses = null;
+            pendingBlocks = null;
+            if (!writeStatus) {
+                logger.error(prefix + "Unable to write blocks to server");
+                return null;
+            }
+        }
         return res;
     }
 
     private List<BlockLookahead> readBlocks(Index indexOfCurrentAddress, int maintenanceColumn, boolean blockInColumn) {
+        List<BlockLookahead> prefetched = prefetchedBlocks == null ? null : takePrefetchedBlocks();
+        if (prefetched != null) {
+            if (blockInColumn) return prefetched;
+
+            List<BlockLookahead> block = readAndDecrypt(
+                    Collections.singletonList(getFlatArrayIndex(indexOfCurrentAddress) + offset));
+            if (block == null) return null;
+            List<BlockLookahead> res = new ArrayList<>(prefetched.size() + 1);
+            res.add(block.get(0));
+            res.addAll(prefetched);
+            return res;
+        }
+
         List<Integer> indices = new ArrayList<>();
 
         if (!blockInColumn)
@@ -387,7 +512,17 @@ public class AccessStrategyLookahead implements AccessStrategy {
         indices.addAll(getIndicesForAccessStash());
         indices.addAll(getIndicesForSwapStash());
 
-        List<BlockEncrypted> encryptedBlocks = communicationStrategy.readArray(indices);
+        return readAndDecrypt(indices);
+    }
+
+    private List<BlockLookahead> readAndDecrypt(List<Integer> indices) {
+        List<BlockEncrypted> encryptedBlocks;
+        if (pendingAddresses != null) {
+            encryptedBlocks = communicationStrategy.readWriteArray(indices, pendingAddresses, pendingBlocks);
+            pendingAddresses = null;
+            pendingBlocks = null;
+        } else
+            encryptedBlocks = communicationStrategy.readArray(indices);
         if (encryptedBlocks == null) {
             logger.error(prefix + "Unable to read blocks");
             return null;
@@ -402,42 +537,87 @@ public class AccessStrategyLookahead implements AccessStrategy {
         return blocks;
     }
 
-    private List<BlockLookahead> maintenanceJob(List<BlockLookahead> column,
-                                                Map<Integer, Map<Integer, BlockLookahead>> accessStash,
-                                                BlockLookahead[] swapStash) {
-        int columnIndex = Math.floorMod(accessCounter, matrixHeight);
+    /**
+     * Reads and decrypts the maintenance column of the next access and the stashes on another thread, while the
+     * application works. The next access then only reads the block it accesses, unless the block is in the column
+     */
+    private void startPrefetch() {
+        int maintenanceColumn = Math.floorMod(accessCounter, matrixWidth);
+        List<Integer> indices = new ArrayList<>(matrixHeight + matrixWidth * 2);
+        for (int i = 0; i < matrixHeight; i++)
+            indices.add(getFlatArrayIndex(new Index(i, maintenanceColumn)) + offset);
+        indices.addAll(getIndicesForAccessStash());
+        indices.addAll(getIndicesForSwapStash());
 
-//        Move blocks from access stash to column
-        Map<Integer, BlockLookahead> map = accessStash.getOrDefault(columnIndex, new HashMap<>());
-        for (Map.Entry<Integer, BlockLookahead> entry : map.entrySet()) {
-            BlockLookahead blockLookahead = column.get(entry.getKey());
-            int address = blockLookahead.getAddress();
-            if (!Util.isDummyAddress(address)) {
-                logger.error(prefix + "Was suppose to add accessed block to stash at index (" + entry.getKey() + ", " +
-                        columnIndex + "), but place were not filled with dummy block");
-                return null;
-            }
-            column.set(entry.getKey(), entry.getValue());
+        if (prefetchExecutor == null)
+            prefetchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "oram-lookahead-prefetch");
+                thread.setDaemon(true);
+                return thread;
+            });
+        prefetchedBlocks = prefetchExecutor.submit(() -> {
+            List<BlockEncrypted> encryptedBlocks = communicationStrategy.readArray(indices);
+            if (encryptedBlocks == null) return null;
+            return blockEncStrategy.decryptBlocks(encryptedBlocks, secretKey);
+        });
+    }
+
+    /**
+     * @return the blocks read ahead, or null if they could not be read, then they are read again by the access
+     */
+    private List<BlockLookahead> takePrefetchedBlocks() {
+        Future<List<BlockLookahead>> future = prefetchedBlocks;
+        prefetchedBlocks = null;
+        try {
+            List<BlockLookahead> res = future.get();
+            if (res == null)
+                logger.error(prefix + "Unable to read the maintenance column ahead, reading it again");
+            return res;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error(prefix + "Interrupted while waiting for the maintenance column read ahead");
+            return null;
+        } catch (ExecutionException e) {
+            logger.error(prefix + "Unable to read the maintenance column ahead: " + e.getCause());
+            logger.debug("Stacktrace", e);
+            return null;
         }
+    }
 
-        accessStash.remove(columnIndex);
+    //    Waits for the blocks read ahead, so no read is in flight when the end signal is sent
+    private boolean stopPrefetching() {
+        if (prefetchedBlocks != null)
+            takePrefetchedBlocks();
+        if (prefetchExecutor != null) {
+            prefetchExecutor.shutdown();
+            prefetchExecutor = null;
+        }
+        return true;
+    }
+
+    private List<BlockLookahead> maintenanceJob(List<BlockLookahead> column, BlockLookahead[] swapStash) {
+        int columnIndex = Math.floorMod(accessCounter, matrixWidth);
+
+//        Move blocks from access stash to column
+        int filledRowIndex = accessStash.moveColumn(columnIndex, column);
+        if (filledRowIndex >= 0) {
+            logger.error(prefix + "Was suppose to add accessed block to stash at index (" + filledRowIndex + ", " +
+                    columnIndex + "), but place were not filled with dummy block");
+            return null;
+        }
 
 //        Move blocks from column to swap stash
-        for (int i = futureSwapPartners.size() - 1; i >= 0; i--) {
-            SwapPartnerData swap = futureSwapPartners.get(i);
-            if (swap.getIndex().getColIndex() == columnIndex) {
-                int rowIndex = swap.getIndex().getRowIndex();
-                BlockLookahead swapPartner = column.get(rowIndex);
-//                This test could actually be applied if #blocks = size
-//                if (Util.isDummyAddress(swapPartner.getAddress())) {
-//                    logger.error("Trying to set a dummy block as swap partner with swap data: " + swap);
-//                    return null;
-//                }
-
-                swapStash[Math.floorMod(swap.getSwapNumber(), matrixHeight)] = swapPartner;
-                futureSwapPartners.remove(i);
-                column.set(rowIndex, getLookaheadDummyBlock());
-            }
+        for (SwapPartnerData swap : futureSwapPartners.removeColumn(columnIndex)) {
+            int rowIndex = swap.getIndex().getRowIndex();
+            BlockLookahead swapPartner = column.get(rowIndex);
+//            This test could actually be applied if #blocks = size
+//            if (Util.isDummyAddress(swapPartner.getAddress())) {
+//                logger.error("Trying to set a dummy block as swap partner with swap data: " + swap);
+//                return null;
+//            }
+
+            swapStash[Math.floorMod(swap.getSwapNumber(), matrixWidth)] = swapPartner;
+            column.set(rowIndex, getLookaheadDummyBlock());
         }
 
 //        Putting the blocks back into a result list
@@ -447,14 +627,10 @@ public class AccessStrategyLookahead implements AccessStrategy {
         res = column;
 
 //        Access stash
-        List<BlockLookahead> accessStashList = new ArrayList<>();
-        for (Map.Entry<Integer, Map<Integer, BlockLookahead>> innerMap : accessStash.entrySet()) {
-            for (Map.Entry<Integer, BlockLookahead> entry : innerMap.getValue().entrySet()) {
-                accessStashList.add(entry.getValue());
-            }
-        }
+        List<BlockLookahead> accessStashList = new ArrayList<>(matrixWidth);
+        accessStash.addBlocksTo(accessStashList);
 
-        for (int i = 0; i < matrixHeight; i++)
+        for (int i = 0; i < matrixWidth; i++)
             if (accessStashList.size() <= i)
                 accessStashList.add(getLookaheadDummyBlock());
 
@@ -485,61 +661,33 @@ public class AccessStrategyLookahead implements AccessStrategy {
         return false;
     }
 
-    Map<Integer, Map<Integer, BlockLookahead>> getAccessStash(List<BlockLookahead> blocks, boolean blockInColumn) {
+    /**
+     * Fills the access stash with the blocks read from the server
+     *
+     * @return the access stash, or null if it could not hold the blocks
+     */
+    AccessStash getAccessStash(List<BlockLookahead> blocks, boolean blockInColumn) {
         int beginIndex = matrixHeight;
         if (!blockInColumn) beginIndex++;
-        int endIndex = beginIndex + matrixHeight;
 
-        Map<Integer, Map<Integer, BlockLookahead>> res = new HashMap<>();
-        for (int i = beginIndex; i < endIndex; i++) {
-            res = addToAccessStashMap(res, blocks.get(i));
-        }
-
-        return res;
-    }
-
-    Map<Integer, Map<Integer, BlockLookahead>> addToAccessStashMap
-            (Map<Integer, Map<Integer, BlockLookahead>> map,
-             BlockLookahead block) {
-        if (block.getAddress() == 0)
-            return map;
-        int rowIndex = block.getRowIndex();
-        int colIndex = block.getColIndex();
-        if (map.containsKey(colIndex)) {
-            map.get(colIndex).put(rowIndex, block);
-        } else {
-            map.put(colIndex, new HashMap<>());
-            map.get(colIndex).put(rowIndex, block);
-        }
-        return map;
+        if (!accessStash.load(blocks, beginIndex, beginIndex + matrixWidth)) return null;
+        return accessStash;
     }
 
     private List<Integer> getIndicesForAccessStash() {
         int beginIndex = size + offset;
-        int endIndex = beginIndex + matrixHeight;
+        int endIndex = beginIndex + matrixWidth;
 
         return IntStream.range(beginIndex, endIndex).boxed().collect(Collectors.toList());
     }
 
     private List<Integer> getIndicesForSwapStash() {
-        Integer beginIndex = size + matrixHeight + offset;
-        Integer endIndex = beginIndex + matrixHeight;
+        Integer beginIndex = size + matrixWidth + offset;
+        Integer endIndex = beginIndex + matrixWidth;
 
         return IntStream.range(beginIndex, endIndex).boxed().collect(Collectors.toList());
     }
 
-    private Map<Integer, Map<Integer, BlockLookahead>> removeFromAccessStash
-            (Map<Integer, Map<Integer, BlockLookahead>> stash,
-             Index index) {
-        if (stash.containsKey(index.getColIndex())) {
-            Map<Integer, BlockLookahead> map = stash.get(index.getColIndex());
-            map.remove(index.getRowIndex());
-            if (map.isEmpty())
-                stash.remove(index.getColIndex());
-        }
-        return stash;
-    }
-
     private List<BlockLookahead> getColumn(List<BlockLookahead> blocks, boolean blockInColumn, int maintenanceColumn) {
         int beginIndex = 0;
         if (!blockInColumn) beginIndex++;
@@ -555,28 +703,16 @@ public class AccessStrategyLookahead implements AccessStrategy {
     }
 
     BlockLookahead[] getSwapStash(List<BlockLookahead> blocks, boolean blockInColumn) {
-        int beginIndex = matrixHeight * 2;
+        int beginIndex = matrixHeight + matrixWidth;
         if (!blockInColumn) beginIndex++;
 
-        BlockLookahead[] res = new BlockLookahead[matrixHeight];
-        for (int i = 0; i < matrixHeight; i++) {
+        BlockLookahead[] res = new BlockLookahead[matrixWidth];
+        for (int i = 0; i < matrixWidth; i++) {
             res[i] = blocks.get(beginIndex + i);
         }
         return res;
     }
 
-    BlockLookahead findBlockInAccessStash(Map<Integer, Map<Integer, BlockLookahead>> stash, Index index) {
-        int colIndex = index.getColIndex();
-        int rowIndex = index.getRowIndex();
-        if (stash.containsKey(colIndex)) {
-            Map<Integer, BlockLookahead> columnMap = stash.get(colIndex);
-            BlockLookahead res = columnMap.getOrDefault(rowIndex, null);
-            if (res == null || Util.isDummyAddress(res.getAddress())) return null;
-            return res;
-        }
-        return null;
-    }
-
     private Pair<BlockLookahead, Integer> findBlockInSwapStash(BlockLookahead[] stash, int address) {
         for (int i = 0; i < stash.length; i++) {
             BlockLookahead block = stash[i];
@@ -587,20 +723,7 @@ public class AccessStrategyLookahead implements AccessStrategy {
     }
 
     private void pickNewFutureSwapPartner(BlockLookahead[] swapStash) {
-        List<BlockLookahead> swapStashList = Arrays.asList(swapStash);
-
-
-        SecureRandom randomness = new SecureRandom();
-        boolean futureSwapsContainsIndex = true;
-        boolean swapStashContains = true;
-        Index index = null;
-        while (futureSwapsContainsIndex || swapStashContains) {
-            index = new Index(randomness.nextInt(matrixHeight), randomness.nextInt(matrixHeight));
-            Index finalIndex = index;
-            futureSwapsContainsIndex = futureSwapPartners.stream().anyMatch(f -> f.getIndex().equals(finalIndex));
-            swapStashContains = swapStashList.stream().anyMatch(s -> (s != null && s.getIndex().equals(finalIndex)));
-        }
-        futureSwapPartners.add(new SwapPartnerData(index, accessCounter));
+        futureSwapPartners.addRandom(randomness, swapStash, accessCounter);
     }
 
     int getFlatArrayIndex(Index index) {
@@ -617,7 +740,7 @@ public class AccessStrategyLookahead implements AccessStrategy {
 
     List<BlockLookahead> trivialToLookaheadBlocksForSetup(List<BlockTrivial> blocks) {
         List<BlockLookahead> res = new ArrayList<>();
-        for (int i = 0; i < matrixHeight; i++) { // Columns
+        for (int i = 0; i < matrixWidth; i++) { // Columns
             for (int j = 0; j < matrixHeight; j++) { // Rows
                 Index index = new Index(j, i);
                 BlockTrivial blockTrivial = blocks.get(getFlatArrayIndex(index));
@@ -8,18 +8,20 @@ import oram.Util;
 import oram.block.BlockEncrypted;
 import oram.block.BlockLookahead;
 import oram.block.BlockTrivial;
+import oram.block.PositionBlock;
 import oram.blockenc.BlockEncryptionStrategyLookahead;
 import oram.clientcom.CommunicationStrategy;
 import oram.encryption.EncryptionStrategy;
 import oram.factory.Factory;
 import oram.permutation.PermutationStrategy;
+import oram.positionmap.PositionMap;
+import oram.random.RandomSource;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import javax.crypto.SecretKey;
-import java.security.SecureRandom;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -40,10 +42,13 @@ public class AccessStrategyLookaheadTrivial implements AccessStrategy {
     private final CommunicationStrategy communicationStrategy;
     private final EncryptionStrategy encryptionStrategy;
     private final PermutationStrategy permutationStrategy;
+    private final RandomSource randomness;
     private final BlockEncryptionStrategyLookahead blockEncStrategy;
-    private Map<Integer, Integer> positionMap;
+    private final Factory factory;
+    private PositionMap positionMap;
     private int accessCounter;
-    private List<SwapPartnerData> futureSwapPartners;
+    private final FutureSwapPartners futureSwapPartners;
+    private final AccessStash accessStash;
     private int offset;
     private String prefix;
     private int positionMapOffSet;
@@ -53,10 +58,12 @@ public class AccessStrategyLookaheadTrivial implements AccessStrategy {
                                           AccessStrategy accessStrategy, int prefixSize) {
         this.size = size;
         this.matrixHeight = matrixHeight;
+        this.factory = factory;
         this.communicationStrategy = factory.getCommunicationStrategy();
         this.encryptionStrategy = factory.getEncryptionStrategy();
         this.secretKey = encryptionStrategy.generateSecretKey(key);
         this.permutationStrategy = factory.getPermutationStrategy();
+        this.randomness = factory.getRandomSource();
         blockEncStrategy = factory.getBlockEncryptionStrategyLookahead();
         this.offset = offset;
         this.prefix = Util.getEmptyStringOfLength(prefixSize);
@@ -64,8 +71,9 @@ public class AccessStrategyLookaheadTrivial implements AccessStrategy {
         if (!(size == matrixHeight * matrixHeight))
             logger.error("Size of matrix is wrong");
         accessCounter = 0;
-        futureSwapPartners = new ArrayList<>();
-        positionMap = new HashMap<>();
+        futureSwapPartners = new FutureSwapPartners(matrixHeight);
+        accessStash = new AccessStash(matrixHeight + 1, matrixHeight);
+        positionMap = factory.getPositionMap(size);
 
         if (accessStrategy != null)
             uploadPositionMap = true;
@@ -94,20 +102,12 @@ public class AccessStrategyLookaheadTrivial implements AccessStrategy {
         List<BlockLookahead> blockLookaheads = trivialToLookaheadBlocksForSetup(blocks);
 
 //        Pick swap partners
-        SecureRandom randomness = new SecureRandom();
         List<BlockLookahead> swapPartners = new ArrayList<>();
         for (int i = 0; i < matrixHeight; i++) {
-            Index index = null;
-            boolean indexIsNotUnique = true;
-            while (indexIsNotUnique) {
-                index = new Index(randomness.nextInt(matrixHeight), randomness.nextInt(matrixHeight));
-                Index finalIndex = index;
-                indexIsNotUnique = futureSwapPartners.stream().anyMatch(s -> s.getIndex().equals(finalIndex));
-            }
-            futureSwapPartners.add(new SwapPartnerData(index, accessCounter));
+            int flatArrayIndex = futureSwapPartners.addRandom(randomness, accessCounter);
             accessCounter++;
 
-            BlockLookahead block = blockLookaheads.get(getFlatArrayIndex(index));
+            BlockLookahead block = blockLookaheads.get(flatArrayIndex);
             if (Util.isDummyAddress(block.getAddress()))
                 block.setData(Util.getRandomByteArray(Constants.BLOCK_SIZE));
             swapPartners.add(block);
@@ -123,7 +123,7 @@ public class AccessStrategyLookaheadTrivial implements AccessStrategy {
         for (int i = 0; i < size; i++) {
             BlockLookahead block = blockLookaheads.get(i);
             Index index = block.getIndex();
-            boolean isSwapPartner = futureSwapPartners.stream().anyMatch(s -> s.getIndex().equals(index));
+            boolean isSwapPartner = futureSwapPartners.contains(index.getRowIndex(), index.getColIndex());
             if (!isSwapPartner) {
 //                There are added dummy blocks for the permutation, they should not be written to the database
                 if (!Util.isDummyAddress(block.getAddress())) {
@@ -132,7 +132,7 @@ public class AccessStrategyLookaheadTrivial implements AccessStrategy {
                 }
             }
         }
-        futureSwapPartners = new ArrayList<>();
+        futureSwapPartners.clear();
 
 //        At last the swap stash
         for (int i = (size + matrixHeight); i < (size + matrixHeight * 2); i++) {
@@ -171,25 +171,20 @@ public class AccessStrategyLookaheadTrivial implements AccessStrategy {
     }
 
     private boolean writePositionMapFailed() {
-        List<Map.Entry<Integer, Integer>> entries = new ArrayList<>(positionMap.entrySet());
-        entries.sort(Comparator.comparing(Map.Entry::getKey));
-
         List<Integer> addresses = new ArrayList<>();
         List<BlockEncrypted> encryptedBlocks = new ArrayList<>();
 
         int positionMapBlocks = (int) Math.ceil((double) size / Constants.POSITION_BLOCK_SIZE);
         for (int i = 0; i < positionMapBlocks; i++) {
-            Map<Integer, Integer> map = new HashMap<>();
-            for (int j = 0; j < Constants.POSITION_BLOCK_SIZE; j++) {
-                int index = i * Constants.POSITION_BLOCK_SIZE + j;
-
-                if (entries.size() > index) // Fill the rest with dummy mappings
-                    map.put(entries.get(index).getKey(), entries.get(index).getValue());
-                else
-                    map.put(index + 1, -42);
+            PositionBlock positionBlock = PositionBlock.getDummyBlock(i * Constants.POSITION_BLOCK_SIZE + 1);
+            for (int j = 0; j < Constants.POSITION_BLOCK_SIZE; j++) { // The rest is left as dummy mappings
+                int address = positionBlock.getBaseAddress() + j;
+                int position = positionMap.get(address);
+                if (position != PositionMap.NO_POSITION)
+                    positionBlock.setPosition(address, position);
             }
             addresses.add(positionMapOffSet + i);
-            byte[] encryptedData = encryptionStrategy.encrypt(Util.getByteArrayFromMap(map), secretKey);
+            byte[] encryptedData = encryptionStrategy.encrypt(positionBlock.toByteArray(), secretKey);
             byte[] addressBytes = Util.getRandomByteArray(Constants.ENCRYPTED_INTEGER_SIZE);
             encryptedBlocks.add(new BlockEncrypted(addressBytes, encryptedData));
         }
@@ -206,19 +201,22 @@ public class AccessStrategyLookaheadTrivial implements AccessStrategy {
             return false;
         }
 
-        positionMap = new HashMap<>();
+        positionMap = factory.getPositionMap(size);
         for (int i = 0; i < positionMapBlocks; i++) {
             byte[] bytes = encryptionStrategy.decrypt(encryptedBlocks.get(i).getData(), secretKey);
             if (bytes == null) {
                 logger.error("Unable to decrypt bytes for array (index: " + i + ")");
                 return false;
             }
-            Map<Integer, Integer> tmp = Util.getMapFromByteArray(bytes);
-            if (tmp == null) {
-                logger.error("Unable to get map from byte array");
+            PositionBlock positionBlock = PositionBlock.fromByteArray(bytes);
+            if (positionBlock == null) {
+                logger.error("Unable to get position block from byte array");
                 return false;
             }
-            positionMap.putAll(tmp);
+            for (int j = 0; j < positionBlock.size(); j++) {
+                int address = positionBlock.getBaseAddress() + j;
+                positionMap.put(address, positionBlock.getPosition(address));
+            }
         }
         return true;
     }
@@ -236,15 +234,15 @@ public class AccessStrategyLookaheadTrivial implements AccessStrategy {
                 return null;
             }
 
-            Integer flatArrayIndex = positionMap.getOrDefault(addressToLookUp, null);
-
-            if (flatArrayIndex == null) {
+            if (!positionMap.containsKey(addressToLookUp)) {
                 logger.error(prefix + "Unable to look up address: " + addressToLookUp);
                 return null;
             }
-            position = flatArrayIndex;
-        } else
-            position = positionMap.getOrDefault(addressToLookUp, null);
+            position = positionMap.get(addressToLookUp);
+        } else if (positionMap.containsKey(addressToLookUp))
+            position = positionMap.get(addressToLookUp);
+        else
+            position = null;
 
         if (position == null) {
             logger.error(prefix + "Unable to look up position for address: " + addressToLookUp);
@@ -275,7 +273,10 @@ public class AccessStrategyLookaheadTrivial implements AccessStrategy {
 
 //        Fetch column and stashes from fetched blocks
         List<BlockLookahead> column = getColumn(blocks, blockInColumn, maintenanceColumnIndex);
-        Map<Integer, Map<Integer, BlockLookahead>> accessStash = getAccessStash(blocks, blockInColumn);
+        if (getAccessStash(blocks, blockInColumn) == null) {
+            logger.error(prefix + "More blocks in the access stash than it can hold");
+            return null;
+        }
         BlockLookahead[] swapStash = getSwapStash(blocks, blockInColumn);
 
 //        Fetch block from either matrix, access stash or swap stash
@@ -290,7 +291,7 @@ public class AccessStrategyLookaheadTrivial implements AccessStrategy {
         int swapCount = 0;
         if (Util.isDummyAddress(block.getAddress())) {
             blockFoundInMatrix = false;
-            block = findBlockInAccessStash(accessStash, indexOfCurrentAddress);
+            block = accessStash.find(indexOfCurrentAddress.getRowIndex(), indexOfCurrentAddress.getColIndex());
             if (block == null) {
                 blockFoundInAccessStash = false;
                 Pair<BlockLookahead, Integer> pair = findBlockInSwapStash(swapStash, addressToLookUp);
@@ -315,7 +316,10 @@ public class AccessStrategyLookaheadTrivial implements AccessStrategy {
 
 //        Set index to index of swap partner and add to access stash
         block.setIndex(swapPartner.getIndex());
-        accessStash = addToAccessStashMap(accessStash, block);
+        if (!accessStash.add(block)) {
+            logger.error(prefix + "Unable to add block to the full access stash: " + block.toStringShort());
+            return null;
+        }
 
 //        Update swap partner index and encrypt it
         swapPartner.setIndex(indexOfCurrentAddress);
@@ -329,9 +333,10 @@ public class AccessStrategyLookaheadTrivial implements AccessStrategy {
         byte[] res = block.getData();
         if (op.equals(OperationType.WRITE)) {
             if (recursiveLookup && !lookaheadSetup) {
-                Map<Integer, Integer> map = Util.getMapFromByteArray(res);
-                map.put(address, Util.byteArrayToLeInt(data));
-                block.setData(Util.getByteArrayFromMap(map));
+                PositionBlock positionBlock = PositionBlock.fromByteArray(res);
+                if (positionBlock == null || !positionBlock.setPosition(address, Util.byteArrayToLeInt(data)))
+                    return null;
+                block.setData(positionBlock.toByteArray());
             } else
                 block.setData(data);
         }
@@ -343,7 +348,7 @@ public class AccessStrategyLookaheadTrivial implements AccessStrategy {
         else if (blockFoundInAccessStash) {
             blockToWriteBackToMatrix = swapPartner;
 //            Remove old version of block
-            accessStash = removeFromAccessStash(accessStash, indexOfCurrentAddress);
+            accessStash.remove(indexOfCurrentAddress.getRowIndex(), indexOfCurrentAddress.getColIndex());
         } else {
             blockToWriteBackToMatrix = getLookaheadDummyBlock();
             BlockLookahead swapReplacement = new BlockLookahead(swapPartner.getAddress(), swapPartner.getData());
@@ -360,7 +365,7 @@ public class AccessStrategyLookaheadTrivial implements AccessStrategy {
             column.set(indexOfCurrentAddress.getRowIndex(), blockToWriteBackToMatrix);
 
         pickNewFutureSwapPartner(swapStash);
-        List<BlockLookahead> blocksFromMaintenance = maintenanceJob(column, accessStash, swapStash);
+        List<BlockLookahead> blocksFromMaintenance = maintenanceJob(column, swapStash);
         if (blocksFromMaintenance == null) {
             logger.error(prefix + "Failed doing maintenance");
             return null;
@@ -433,42 +438,29 @@ public class AccessStrategyLookaheadTrivial implements AccessStrategy {
         return blocks;
     }
 
-    private List<BlockLookahead> maintenanceJob(List<BlockLookahead> column,
-                                                Map<Integer, Map<Integer, BlockLookahead>> accessStash,
-                                                BlockLookahead[] swapStash) {
+    private List<BlockLookahead> maintenanceJob(List<BlockLookahead> column, BlockLookahead[] swapStash) {
         int columnIndex = Math.floorMod(accessCounter, matrixHeight);
 
 //        Move blocks from access stash to column
-        Map<Integer, BlockLookahead> map = accessStash.getOrDefault(columnIndex, new HashMap<>());
-        for (Map.Entry<Integer, BlockLookahead> entry : map.entrySet()) {
-            BlockLookahead blockLookahead = column.get(entry.getKey());
-            int address = blockLookahead.getAddress();
-            if (!Util.isDummyAddress(address)) {
-                logger.error(prefix + "Was suppose to add accessed block to stash at index (" + entry.getKey() + ", " +
-                        columnIndex + "), but place were not filled with dummy block");
-                return null;
-            }
-            column.set(entry.getKey(), entry.getValue());
+        int filledRowIndex = accessStash.moveColumn(columnIndex, column);
+        if (filledRowIndex >= 0) {
+            logger.error(prefix + "Was suppose to add accessed block to stash at index (" + filledRowIndex + ", " +
+                    columnIndex + "), but place were not filled with dummy block");
+            return null;
         }
 
-        accessStash.remove(columnIndex);
-
 //        Move blocks from column to swap stash
-        for (int i = futureSwapPartners.size() - 1; i >= 0; i--) {
-            SwapPartnerData swap = futureSwapPartners.get(i);
-            if (swap.getIndex().getColIndex() == columnIndex) {
-                int rowIndex = swap.getIndex().getRowIndex();
-                BlockLookahead swapPartner = column.get(rowIndex);
-//                This test could actually be applied if #blocks = size, test that
-//                if (Util.isDummyAddress(swapPartner.getAddress())) {
-//                    logger.error("Trying to set a dummy block as swap partner with swap data: " + swap);
-//                    return null;
-//                }
-
-                swapStash[Math.floorMod(swap.getSwapNumber(), matrixHeight)] = swapPartner;
-                futureSwapPartners.remove(i);
-                column.set(rowIndex, getLookaheadDummyBlock());
-            }
+        for (SwapPartnerData swap : futureSwapPartners.removeColumn(columnIndex)) {
+            int rowIndex = swap.getIndex().getRowIndex();
+            BlockLookahead swapPartner = column.get(rowIndex);
+//            This test could actually be applied if #blocks = size, test that
+//            if (Util.isDummyAddress(swapPartner.getAddress())) {
+//                logger.error("Trying to set a dummy block as swap partner with swap data: " + swap);
+//                return null;
+//            }
+
+            swapStash[Math.floorMod(swap.getSwapNumber(), matrixHeight)] = swapPartner;
+            column.set(rowIndex, getLookaheadDummyBlock());
         }
 
 //        Putting the blocks back into a result list
@@ -478,12 +470,8 @@ public class AccessStrategyLookaheadTrivial implements AccessStrategy {
         res = column;
 
 //        Access stash
-        List<BlockLookahead> accessStashList = new ArrayList<>();
-        for (Map.Entry<Integer, Map<Integer, BlockLookahead>> innerMap : accessStash.entrySet()) {
-            for (Map.Entry<Integer, BlockLookahead> entry : innerMap.getValue().entrySet()) {
-                accessStashList.add(entry.getValue());
-            }
-        }
+        List<BlockLookahead> accessStashList = new ArrayList<>(matrixHeight);
+        accessStash.addBlocksTo(accessStashList);
 
         for (int i = 0; i < matrixHeight; i++)
             if (accessStashList.size() <= i)
@@ -509,33 +497,17 @@ public class AccessStrategyLookaheadTrivial implements AccessStrategy {
         positionMap.put(key, value);
     }
 
-    private Map<Integer, Map<Integer, BlockLookahead>> getAccessStash(List<BlockLookahead> blocks, boolean blockInColumn) {
+    /**
+     * Fills the access stash with the blocks read from the server
+     *
+     * @return the access stash, or null if it could not hold the blocks
+     */
+    private AccessStash getAccessStash(List<BlockLookahead> blocks, boolean blockInColumn) {
         int beginIndex = matrixHeight;
         if (!blockInColumn) beginIndex++;
-        int endIndex = beginIndex + matrixHeight;
-
-        Map<Integer, Map<Integer, BlockLookahead>> res = new HashMap<>();
-        for (int i = beginIndex; i < endIndex; i++) {
-            res = addToAccessStashMap(res, blocks.get(i));
-        }
 
-        return res;
-    }
-
-    private Map<Integer, Map<Integer, BlockLookahead>> addToAccessStashMap
-            (Map<Integer, Map<Integer, BlockLookahead>> map,
-             BlockLookahead block) {
-        if (block.getAddress() == 0)
-            return map;
-        int rowIndex = block.getRowIndex();
-        int colIndex = block.getColIndex();
-        if (map.containsKey(colIndex)) {
-            map.get(colIndex).put(rowIndex, block);
-        } else {
-            map.put(colIndex, new HashMap<>());
-            map.get(colIndex).put(rowIndex, block);
-        }
-        return map;
+        if (!accessStash.load(blocks, beginIndex, beginIndex + matrixHeight)) return null;
+        return accessStash;
     }
 
     private List<Integer> getIndicesForAccessStash() {
@@ -552,18 +524,6 @@ public class AccessStrategyLookaheadTrivial implements AccessStrategy {
         return IntStream.range(beginIndex, endIndex).boxed().collect(Collectors.toList());
     }
 
-    private Map<Integer, Map<Integer, BlockLookahead>> removeFromAccessStash
-            (Map<Integer, Map<Integer, BlockLookahead>> stash,
-             Index index) {
-        if (stash.containsKey(index.getColIndex())) {
-            Map<Integer, BlockLookahead> map = stash.get(index.getColIndex());
-            map.remove(index.getRowIndex());
-            if (map.isEmpty())
-                stash.remove(index.getColIndex());
-        }
-        return stash;
-    }
-
     private List<BlockLookahead> getColumn(List<BlockLookahead> blocks, boolean blockInColumn, int maintenanceColumn) {
         int beginIndex = 0;
         if (!blockInColumn) beginIndex++;
@@ -589,18 +549,6 @@ public class AccessStrategyLookaheadTrivial implements AccessStrategy {
         return res;
     }
 
-    private BlockLookahead findBlockInAccessStash(Map<Integer, Map<Integer, BlockLookahead>> stash, Index index) {
-        int colIndex = index.getColIndex();
-        int rowIndex = index.getRowIndex();
-        if (stash.containsKey(colIndex)) {
-            Map<Integer, BlockLookahead> columnMap = stash.get(colIndex);
-            BlockLookahead res = columnMap.getOrDefault(rowIndex, null);
-            if (res == null || Util.isDummyAddress(res.getAddress())) return null;
-            return res;
-        }
-        return null;
-    }
-
     private Pair<BlockLookahead, Integer> findBlockInSwapStash(BlockLookahead[] stash, int address) {
         for (int i = 0; i < stash.length; i++) {
             BlockLookahead block = stash[i];
@@ -611,20 +559,7 @@ public class AccessStrategyLookaheadTrivial implements AccessStrategy {
     }
 
     private void pickNewFutureSwapPartner(BlockLookahead[] swapStash) {
-        List<BlockLookahead> swapStashList = Arrays.asList(swapStash);
-
-
-        SecureRandom randomness = new SecureRandom();
-        boolean futureSwapsContainsIndex = true;
-        boolean swapStashContains = true;
-        Index index = null;
-        while (futureSwapsContainsIndex || swapStashContains) {
-            index = new Index(randomness.nextInt(matrixHeight), randomness.nextInt(matrixHeight));
-            Index finalIndex = index;
-            futureSwapsContainsIndex = futureSwapPartners.stream().anyMatch(f -> f.getIndex().equals(finalIndex));
-            swapStashContains = swapStashList.stream().anyMatch(s -> (s != null && s.getIndex().equals(finalIndex)));
-        }
-        futureSwapPartners.add(new SwapPartnerData(index, accessCounter));
+        futureSwapPartners.addRandom(randomness, swapStash, accessCounter);
     }
 
     private int getFlatArrayIndex(Index index) {
@@ -0,0 +1,124 @@
+package oram.lookahead;
+
+import oram.block.BlockLookahead;
+import oram.random.RandomSource;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * The future swap partners of Lookahead ORAM, indexed both by the flat array index of their place in the matrix, in a
+ * bit set, and by column, in a queue per column. Checking whether a place is taken is constant time, and collecting
+ * the partners of the column in maintenance is linear in their number. With a list of the partners both took time
+ * linear in the number of partners, about the square root of the size.
+ */
+
+public class FutureSwapPartners {
+    private static final BlockLookahead[] NO_BLOCKS = new BlockLookahead[0];
+    private final int matrixHeight;
+    private final int matrixWidth;
+    private final BitSet taken;
+    private final List<ArrayDeque<SwapPartnerData>> columns;
+    private int size;
+
+    public FutureSwapPartners(int matrixHeight) {
+        this(matrixHeight, matrixHeight);
+    }
+
+    public FutureSwapPartners(int matrixHeight, int matrixWidth) {
+        this.matrixHeight = matrixHeight;
+        this.matrixWidth = matrixWidth;
+        taken = new BitSet(matrixHeight * matrixWidth);
+        columns = new ArrayList<>(matrixWidth);
+        for (int i = 0; i < matrixWidth; i++)
+            columns.add(new ArrayDeque<>());
+        size = 0;
+    }
+
+    /**
+     * @return true if a future swap partner is at the place in the matrix
+     */
+    public boolean contains(int rowIndex, int colIndex) {
+        return taken.get(rowIndex + colIndex * matrixHeight);
+    }
+
+    public void add(int rowIndex, int colIndex, int swapNumber) {
+        taken.set(rowIndex + colIndex * matrixHeight);
+        columns.get(colIndex).addLast(new SwapPartnerData(new Index(rowIndex, colIndex), swapNumber));
+        size++;
+    }
+
+    /**
+     * Adds a future swap partner at a random place not taken by another partner
+     *
+     * @return the flat array index of the place
+     */
+    public int addRandom(RandomSource randomness, int swapNumber) {
+        return addRandom(randomness, NO_BLOCKS, swapNumber);
+    }
+
+    /**
+     * Adds a future swap partner at a random place, which is neither taken by another partner nor the place the
+     * blocks in the swap stash were taken from
+     *
+     * @return the flat array index of the place
+     */
+    public int addRandom(RandomSource randomness, BlockLookahead[] swapStash, int swapNumber) {
+        int rowIndex;
+        int colIndex;
+        do {
+            rowIndex = randomness.nextInt(matrixHeight);
+            colIndex = randomness.nextInt(matrixWidth);
+        } while (contains(rowIndex, colIndex) || isInSwapStash(swapStash, rowIndex, colIndex));
+
+        add(rowIndex, colIndex, swapNumber);
+        return rowIndex + colIndex * matrixHeight;
+    }
+
+    /**
+     * Removes the future swap partners in the column
+     *
+     * @return the partners of the column, the latest added first
+     */
+    public List<SwapPartnerData> removeColumn(int colIndex) {
+        ArrayDeque<SwapPartnerData> column = columns.get(colIndex);
+        List<SwapPartnerData> res = new ArrayList<>(column.size());
+        for (Iterator<SwapPartnerData> iterator = column.descendingIterator(); iterator.hasNext(); ) {
+            SwapPartnerData swap = iterator.next();
+            taken.clear(swap.getIndex().getRowIndex() + colIndex * matrixHeight);
+            res.add(swap);
+        }
+        size -= column.size();
+        column.clear();
+        return res;
+    }
+
+    public void clear() {
+        taken.clear();
+        for (ArrayDeque<SwapPartnerData> column : columns)
+            column.clear();
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    //    Only checked for places that are not taken, which are almost all, so a scan beats building an index
+    private boolean isInSwapStash(BlockLookahead[] swapStash, int rowIndex, int colIndex) {
+        for (BlockLookahead block : swapStash) {
+            if (block == null) continue;
+            Index index = block.getIndex();
+            if (index.getRowIndex() == rowIndex && index.getColIndex() == colIndex)
+                return true;
+        }
+        return false;
+    }
+}
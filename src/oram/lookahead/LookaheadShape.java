@@ -0,0 +1,126 @@
+package oram.lookahead;
+
+import oram.Constants;
+import oram.server.NetworkShaping;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * The number of rows and columns of the Lookahead ORAM matrix. An access reads and writes back a column, the access
+ * stash and the swap stash, and both stashes hold a block for each column, so an access moves rows + 2 * columns
+ * blocks, plus the block accessed if it is not in the column, each way. A square matrix of size n moves 3 * sqrt(n)
+ * blocks, and the fewest blocks are moved with twice as many rows as columns, 2 * sqrt(2 * n) blocks.
+ * <p>
+ * The round trips of an access do not depend on the shape, so the shape is picked by the bytes on the link, the
+ * estimated time only tells how much the round trip time adds.
+ */
+
+public class LookaheadShape {
+    //    About the size of an encrypted block on the link, the encrypted address and the block with IV and padding
+    private static final int BLOCK_BYTES = Constants.ENCRYPTED_INTEGER_SIZE + Constants.BLOCK_SIZE +
+            2 * Constants.AES_BLOCK_SIZE;
+    //    Up to a swap partner and a block in the swap stash per column take a place a new swap partner can not be
+    //    picked at, so a matrix of fewer rows would run out of places
+    private static final int MIN_ROWS = 3;
+    private final int rows;
+    private final int columns;
+
+    public LookaheadShape(int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    /**
+     * @return the square matrix of the size, or if the size is not a square number, the matrix with as many rows as
+     * the square root and the columns needed to hold the size
+     */
+    public static LookaheadShape square(int size) {
+        int rows = Math.max((int) Math.sqrt(size), 1);
+        return new LookaheadShape(rows, (size + rows - 1) / rows);
+    }
+
+    /**
+     * @return the shape holding the size, which moves the fewest blocks per access
+     */
+    public static LookaheadShape tune(int size) {
+        return tune(size, NetworkShaping.NONE);
+    }
+
+    /**
+     * Picks the shape with the lowest estimated time per access on the link, of at least 3 rows. Shapes with the same
+     * time are compared by the blocks per access, and then by the blocks stored on the server, so the shape of a size
+     * that is not a product of the rows and columns is padded as little as possible
+     *
+     * @return the shape holding the size
+     */
+    public static LookaheadShape tune(int size, NetworkShaping link) {
+        LookaheadShape res = null;
+        for (int columns = 1; columns <= size; columns++) {
+            LookaheadShape shape = new LookaheadShape((size + columns - 1) / columns, columns);
+//            A shape with more columns than this moves more blocks on the stashes alone, or has too few rows
+            if (res != null && (2 * columns > res.getBlocksPerAccess() || shape.rows < MIN_ROWS)) break;
+            if (res == null || shape.isBetterThan(res, link))
+                res = shape;
+        }
+        return res;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return the number of blocks in the matrix
+     */
+    public int getSize() {
+        return rows * columns;
+    }
+
+    /**
+     * @return the number of blocks on the server, the matrix, the access stash and the swap stash
+     */
+    public int getTotalSize() {
+        return getSize() + 2 * columns;
+    }
+
+    /**
+     * @return the most blocks read by an access, which are also written back
+     */
+    public int getBlocksPerAccess() {
+        return rows + 2 * columns + 1;
+    }
+
+    /**
+     * @return the estimated time of an access on the link in microseconds, the two round trips and the blocks read
+     * and written
+     */
+    public double getTimePerAccess(NetworkShaping link) {
+        double res = 2 * (link.getRoundTripTime() + link.getProcessingTime());
+        if (link.getBandwidth() > 0)
+            res += 2.0 * getBlocksPerAccess() * BLOCK_BYTES * 1000000 / link.getBandwidth();
+        return res;
+    }
+
+    private boolean isBetterThan(LookaheadShape other, NetworkShaping link) {
+        int compare = Double.compare(getTimePerAccess(link), other.getTimePerAccess(link));
+        if (compare == 0)
+            compare = Integer.compare(getBlocksPerAccess(), other.getBlocksPerAccess());
+        if (compare == 0)
+            compare = Integer.compare(getTotalSize(), other.getTotalSize());
+        return compare < 0;
+    }
+
+    @Override
+    public String toString() {
+        return "LookaheadShape{" +
+                "rows=" + rows +
+                ", columns=" + columns +
+                '}';
+    }
+}
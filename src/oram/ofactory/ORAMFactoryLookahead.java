@@ -5,6 +5,7 @@ import oram.Constants;
 import oram.Util;
 import oram.factory.Factory;
 import oram.lookahead.AccessStrategyLookahead;
+import oram.lookahead.LookaheadShape;
 
 /**
  * <p> ORAM <br>
@@ -23,22 +24,32 @@ public class ORAMFactoryLookahead implements ORAMFactory {
 
     //    For recursive ORAM
     public ORAMFactoryLookahead(int size, int offSet) {
-        this.size = size;
+        this(LookaheadShape.square(size), offSet);
+    }
+
+    /**
+     * The size is the number of blocks in the matrix of the shape, see {@link LookaheadShape#tune(int)} for the shape
+     * moving the fewest blocks per access
+     */
+    public ORAMFactoryLookahead(LookaheadShape shape, int offSet) {
         this.offset = offSet;
-        numberOfBlocks = Math.min(size, 1000);
-        rows = (int) Math.sqrt(size);
-        columns = rows + 2;
-        totalSize = (int) (size + 2 * Math.sqrt(size));
+        setShape(shape);
     }
 
     //    For local position map ORAM
     public ORAMFactoryLookahead() {
-        size = Util.getInteger("size, must be a square number");
-        numberOfBlocks = Math.min(size, 1000);
+        int size = Util.getInteger("size");
+        int rows = Util.getInteger("number of rows, 0 for the shape moving the fewest blocks per access");
+        setShape(rows > 0 ? new LookaheadShape(rows, (size + rows - 1) / rows) : LookaheadShape.tune(size));
         numberOfRounds = Util.getInteger("number of rounds");
-        rows = (int) Math.sqrt(size);
-        columns = rows + 2;
-        totalSize = (int) (size + 2 * Math.sqrt(size));
+    }
+
+    private void setShape(LookaheadShape shape) {
+        size = shape.getSize();
+        numberOfBlocks = Math.min(size, 1000);
+        rows = shape.getRows();
+        columns = shape.getColumns();
+        totalSize = shape.getTotalSize();
     }
 
     @Override
@@ -49,7 +60,8 @@ public class ORAMFactoryLookahead implements ORAMFactory {
     @Override
     public AccessStrategy getAccessStrategy(byte[] secretKey, Factory factory, AccessStrategy accessStrategy,
                                             int prefixSize) {
-        return new AccessStrategyLookahead(size, rows, secretKey, factory, offset, accessStrategy, prefixSize);
+        return new AccessStrategyLookahead(size, rows, columns, secretKey, factory, offset, accessStrategy,
+                prefixSize);
     }
 
     @Override
@@ -6,6 +6,8 @@ import oram.Util;
 import oram.factory.Factory;
 import oram.path.AccessStrategyPath;
 
+import java.util.Map;
+
 import static oram.Constants.DEFAULT_BUCKET_SIZE;
 
 /**
@@ -63,8 +65,12 @@ public class ORAMFactoryPath implements ORAMFactory {
 
     @Override
     public String getInitString() {
-        return "Path, size: " + size + ", bucket size: " + bucketSize + ", with number of blocks: " + numberOfBlocks +
-                ", rounds: " + numberOfRounds + ", block size: " + Constants.BLOCK_SIZE;
+        String res = "Path, size: " + size + ", bucket size: " + bucketSize + ", with number of blocks: " +
+                numberOfBlocks + ", rounds: " + numberOfRounds + ", block size: " + Constants.BLOCK_SIZE;
+        if (accessStrategy != null)
+            res += ", stash size: " + accessStrategy.getStashSize() + ", tree top cache levels: " +
+                    accessStrategy.getTreeTopCacheLevels() + ", cached blocks: " + accessStrategy.getTreeTopCacheSize();
+        return res;
     }
 
     @Override
@@ -77,6 +83,13 @@ public class ORAMFactoryPath implements ORAMFactory {
         return accessStrategy.getMaxStashSizeBetweenAccesses();
     }
 
+    /**
+     * @return the number of accesses, which have ended with each stash size
+     */
+    public Map<Integer, Integer> getStashSizeHistogram() {
+        return accessStrategy.getStashSizeHistogram();
+    }
+
     @Override
     public int getTotalSize() {
         return totalSize;
@@ -0,0 +1,113 @@
+package oram.ofactory;
+
+import oram.AccessStrategy;
+import oram.Constants;
+import oram.Util;
+import oram.factory.Factory;
+import oram.ring.AccessStrategyRing;
+
+import static oram.Constants.DEFAULT_BUCKET_SIZE;
+import static oram.Constants.DEFAULT_RING_DUMMIES;
+import static oram.Constants.DEFAULT_RING_EVICTION_RATE;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ */
+
+public class ORAMFactoryRing implements ORAMFactory {
+    private AccessStrategyRing accessStrategy;
+    private int size;
+    private int bucketSize;
+    private int dummies;
+    private int evictionRate;
+    private int numberOfBlocks;
+    private int numberOfRounds;
+    private int offset;
+    private int totalSize;
+
+    //    For recursive ORAM
+    public ORAMFactoryRing(int size, int offset) {
+        this.offset = offset;
+        numberOfBlocks = Math.min(size, 1000);
+        this.size = size - 1;
+        bucketSize = DEFAULT_BUCKET_SIZE;
+        dummies = DEFAULT_RING_DUMMIES;
+        evictionRate = DEFAULT_RING_EVICTION_RATE;
+        totalSize = getTotalSize(this.size);
+    }
+
+    //    For local position map ORAM
+    public ORAMFactoryRing() {
+        size = Util.getInteger("size, must be a power of 2");
+        numberOfBlocks = Math.min(size, 1000);
+        bucketSize = Util.getInteger("bucket size");
+        dummies = Util.getInteger("number of dummy blocks per bucket");
+        evictionRate = Util.getInteger("number of accesses between evictions");
+        numberOfRounds = Util.getInteger("number of rounds");
+        offset = 0;
+        totalSize = size * (bucketSize + dummies + 1);
+    }
+
+    /**
+     * @return the number of blocks on the server for a tree of the number of nodes, with the default parameters
+     */
+    public static int getTotalSize(int nodes) {
+        return nodes * (DEFAULT_BUCKET_SIZE + DEFAULT_RING_DUMMIES + 1);
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public AccessStrategy getAccessStrategy(byte[] secretKey, Factory factory, AccessStrategy accessStrategy,
+                                            int prefixSize) {
+        if (this.accessStrategy == null)
+            this.accessStrategy = new AccessStrategyRing(size, bucketSize, dummies, evictionRate, secretKey, factory,
+                    accessStrategy, offset, prefixSize);
+        return this.accessStrategy;
+    }
+
+    @Override
+    public int getNumberOfBlocks() {
+        return numberOfBlocks;
+    }
+
+    @Override
+    public String getInitString() {
+        String res = "Ring, size: " + size + ", bucket size: " + bucketSize + ", dummies: " + dummies +
+                ", eviction rate: " + evictionRate + ", with number of blocks: " + numberOfBlocks + ", rounds: " +
+                numberOfRounds + ", block size: " + Constants.BLOCK_SIZE;
+        if (accessStrategy != null)
+            res += ", stash size: " + accessStrategy.getStashSize();
+        return res;
+    }
+
+    @Override
+    public int getMaxStashSize() {
+        return accessStrategy.getMaxStashSize();
+    }
+
+    @Override
+    public int getMaxStashSizeBetweenAccesses() {
+        return accessStrategy.getMaxStashSizeBetweenAccesses();
+    }
+
+    @Override
+    public int getTotalSize() {
+        return totalSize;
+    }
+
+    @Override
+    public int getNumberOfRounds() {
+        return numberOfRounds;
+    }
+
+    @Override
+    public void setNumberOfRounds(int numberOfRounds) {
+        this.numberOfRounds = numberOfRounds;
+    }
+}
@@ -0,0 +1,465 @@
+package oram.partition;
+
+import oram.AccessStrategy;
+import oram.Constants;
+import oram.OperationType;
+import oram.Request;
+import oram.block.BlockTrivial;
+import oram.random.RandomSource;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * Spreads the blocks over a number of independent ORAMs, each with its own offset range and connection, which are
+ * accessed in parallel on a thread each. As in partition ORAM, every block is stored at a place in a random partition,
+ * and when it is read it is kept in a client side cache and given a new random partition, which it is evicted to later.
+ * The partitions hold a few more places than blocks, so the new partition is picked from almost all of them.
+ * <p>
+ * The requests waiting when the dispatcher thread is ready are done together. Each gets a partition to read from: the
+ * partition of its block, or a random partition if the block is in the cache or read by an earlier request, in which
+ * case a random place is read. The partitions read from are thus random and independent of the addresses. The requests
+ * are done in rounds, in which every partition does exactly two accesses, a read for a request or of a random place,
+ * and an eviction of a cached block or a read of a random place. The server sees the same accesses to all partitions in
+ * every round, and the number of rounds only depends on the number of requests and the random partitions. When many
+ * requests arrive concurrently the rounds are full, and the throughput grows with the number of partitions.
+ */
+
+public class PartitionedAccessStrategy implements AccessStrategy, AutoCloseable {
+    private static final Logger logger = LogManager.getLogger("log");
+    private final List<AccessStrategy> partitions;
+    private final int size;
+    private final int blocksPerPartition;
+    private final int maxRequestsPerRound;
+    private final Deque<PendingAccess> pendingAccesses;
+    private final ExecutorService executor;
+    private final Thread dispatcher;
+    private final RandomSource randomness;
+    private final Object lock;
+    //    The partition and place of each block, or -1 as partition when the block is in the cache. Only used by the
+    //    dispatcher thread, after the constructor
+    private final int[] partitionOfBlock;
+    private final int[] placeOfBlock;
+    private final Map<Integer, byte[]> cache;
+    private final List<Deque<Integer>> freePlaces;
+    private final List<Deque<Integer>> blocksToEvict;
+    //    The free places of each partition, which cached blocks are going to be evicted to
+    private final int[] reservedPlaces;
+    private long rounds;
+    private boolean closed;
+
+    /**
+     * @param partitions the ORAMs, which must each hold {@link #getBlocksPerPartition(int, int)} blocks
+     * @param size       the number of addresses
+     * @param randomness the source of the partitions and places of the blocks, usually
+     *                   {@link oram.factory.Factory#getRandomSource()}
+     */
+    public PartitionedAccessStrategy(List<AccessStrategy> partitions, int size, RandomSource randomness) {
+        this(partitions, size, getBlocksPerPartition(size, partitions.size()),
+                Constants.DEFAULT_PARTITION_BUFFER_SIZE, randomness);
+    }
+
+    /**
+     * @param blocksPerPartition the number of places in each partition, together at least the size
+     * @param bufferSize         the number of requests for each partition which may wait, before more requests are
+     *                           blocked
+     */
+    public PartitionedAccessStrategy(List<AccessStrategy> partitions, int size, int blocksPerPartition,
+                                     int bufferSize, RandomSource randomness) {
+        if ((long) partitions.size() * blocksPerPartition < size)
+            throw new IllegalArgumentException("The partitions hold " + partitions.size() * blocksPerPartition +
+                    " blocks, which is less than the size: " + size);
+        this.partitions = partitions;
+        this.size = size;
+        this.blocksPerPartition = blocksPerPartition;
+        maxRequestsPerRound = bufferSize * partitions.size();
+        pendingAccesses = new ArrayDeque<>(maxRequestsPerRound);
+        executor = Executors.newFixedThreadPool(partitions.size());
+        this.randomness = randomness;
+        lock = new Object();
+        rounds = 0;
+        closed = false;
+
+        partitionOfBlock = new int[size + 1];
+        placeOfBlock = new int[size + 1];
+        cache = new HashMap<>();
+        freePlaces = new ArrayList<>(partitions.size());
+        blocksToEvict = new ArrayList<>(partitions.size());
+        reservedPlaces = new int[partitions.size()];
+        for (int i = 0; i < partitions.size(); i++) {
+            List<Integer> places = new ArrayList<>(blocksPerPartition);
+            for (int place = 1; place <= blocksPerPartition; place++)
+                places.add(place);
+            Collections.shuffle(places, randomness.asRandom());
+            freePlaces.add(new ArrayDeque<>(places));
+            blocksToEvict.add(new ArrayDeque<>());
+        }
+        for (int address = 1; address <= size; address++) {
+            int partition = getRandomPartitionWithRoom();
+            partitionOfBlock[address] = partition;
+            placeOfBlock[address] = freePlaces.get(partition).pop();
+        }
+
+        dispatcher = new Thread(this::dispatch, "oram-partition-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    /**
+     * @return the number of places each partition needs for the size, a quarter more than the blocks of a partition
+     */
+    public static int getBlocksPerPartition(int size, int numberOfPartitions) {
+        int blocks = (size + numberOfPartitions - 1) / numberOfPartitions;
+        return blocks + Math.max(blocks / 4, 4);
+    }
+
+    /**
+     * Sets up every place of the partitions, with the blocks at the places of their addresses and zeroes at the rest,
+     * so all the places can be read from. Partitions which can only read the addresses they were set up with, like
+     * Lookahead ORAM, need this before the first access, as a read of a random place must reach the server as well.
+     */
+    @Override
+    public boolean setup(List<BlockTrivial> blocks) {
+        List<List<BlockTrivial>> blocksForPartitions = new ArrayList<>(partitions.size());
+        for (int i = 0; i < partitions.size(); i++) {
+            List<BlockTrivial> blocksForPartition = new ArrayList<>(blocksPerPartition);
+            for (int place = 1; place <= blocksPerPartition; place++)
+                blocksForPartition.add(new BlockTrivial(place, new byte[Constants.BLOCK_SIZE]));
+            blocksForPartitions.add(blocksForPartition);
+        }
+        for (BlockTrivial block : blocks) {
+            int address = block.getAddress();
+            if (address < 1 || address > size) {
+                logger.error("Address out of range of the partitions: " + address);
+                return false;
+            }
+            blocksForPartitions.get(partitionOfBlock[address]).set(placeOfBlock[address] - 1,
+                    new BlockTrivial(placeOfBlock[address], block.getData()));
+        }
+
+        for (int i = 0; i < partitions.size(); i++) {
+            if (!partitions.get(i).setup(blocksForPartitions.get(i))) {
+                logger.error("Unable to set up partition: " + i);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Blocks until the access is done. Recursive lookups are done by each partition on its own, so they are not
+     * supported here.
+     */
+    @Override
+    public byte[] access(OperationType op, int address, byte[] data, boolean recursiveLookup, boolean lookaheadSetup) {
+        if (recursiveLookup || lookaheadSetup) {
+            logger.error("Partitioned ORAM does not support recursive lookups");
+            return null;
+        }
+        CompletableFuture<byte[]> future = submit(new Request(op, address, data));
+        return future == null ? null : future.join();
+    }
+
+    /**
+     * Queues all the requests before waiting for any of them, so they are spread over the partitions and rounds
+     */
+    @Override
+    public List<byte[]> accessBatch(List<Request> requests) {
+        List<CompletableFuture<byte[]>> futures = new ArrayList<>(requests.size());
+        for (Request request : requests) {
+            CompletableFuture<byte[]> future = submit(request);
+            if (future == null)
+                return null;
+            futures.add(future);
+        }
+
+        List<byte[]> res = new ArrayList<>(requests.size());
+        for (CompletableFuture<byte[]> future : futures) {
+            byte[] data = future.join();
+            if (data == null)
+                return null;
+            res.add(data);
+        }
+        return res;
+    }
+
+    public int getNumberOfPartitions() {
+        return partitions.size();
+    }
+
+    /**
+     * @return the number of rounds done, each doing two accesses on every partition
+     */
+    public long getRounds() {
+        synchronized (lock) {
+            return rounds;
+        }
+    }
+
+    /**
+     * Completes the requests already submitted and stops the threads
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            if (closed) return;
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            dispatcher.join();
+        } catch (InterruptedException e) {
+            logger.error("Interrupted while waiting for the partition dispatcher to finish");
+            logger.debug("Stacktrace", e);
+            Thread.currentThread().interrupt();
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * @return the future of the access, or null if the address is out of range or the strategy is closed
+     */
+    private CompletableFuture<byte[]> submit(Request request) {
+        int address = request.getAddress();
+        if (address < 1 || address > size) {
+            logger.error("Address out of range of the partitions: " + address);
+            return null;
+        }
+
+        PendingAccess pendingAccess = new PendingAccess(request);
+        synchronized (lock) {
+            while (!closed && pendingAccesses.size() >= maxRequestsPerRound) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    logger.error("Interrupted while waiting for room in the buffer of the partitions");
+                    logger.debug("Stacktrace", e);
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }
+            if (closed) {
+                logger.error("Access after the partitioned ORAM was closed, address: " + address);
+                return null;
+            }
+            pendingAccesses.addLast(pendingAccess);
+            lock.notifyAll();
+        }
+        return pendingAccess.future;
+    }
+
+    private void dispatch() {
+        while (true) {
+            List<PendingAccess> requests;
+            synchronized (lock) {
+                while (!closed && pendingAccesses.isEmpty()) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        logger.error("Partition dispatcher interrupted");
+                        logger.debug("Stacktrace", e);
+                        return;
+                    }
+                }
+                if (pendingAccesses.isEmpty()) return;
+
+                requests = new ArrayList<>(pendingAccesses);
+                pendingAccesses.clear();
+                lock.notifyAll();
+            }
+            doRequests(requests);
+        }
+    }
+
+    private void doRequests(List<PendingAccess> requests) {
+//        Reads the blocks of the requests, each from its partition or a random partition
+        List<Deque<PartitionAccess>> reads = new ArrayList<>(partitions.size());
+        for (int i = 0; i < partitions.size(); i++)
+            reads.add(new ArrayDeque<>());
+        Set<Integer> addresses = new HashSet<>();
+        for (PendingAccess pendingAccess : requests) {
+            int address = pendingAccess.request.getAddress();
+            if (addresses.add(address) && partitionOfBlock[address] >= 0)
+                reads.get(partitionOfBlock[address]).add(new PartitionAccess(OperationType.READ, address,
+                        placeOfBlock[address], null));
+            else
+                reads.get(randomness.nextInt(partitions.size())).add(getDummyAccess());
+        }
+
+        Set<Integer> failedAddresses = new HashSet<>();
+        Set<Integer> addressesRead = new HashSet<>();
+        while (reads.stream().anyMatch(r -> !r.isEmpty())) {
+            PartitionAccess[] roundReads = new PartitionAccess[partitions.size()];
+            PartitionAccess[] roundEvictions = new PartitionAccess[partitions.size()];
+            for (int i = 0; i < partitions.size(); i++) {
+                roundReads[i] = reads.get(i).isEmpty() ? getDummyAccess() : reads.get(i).poll();
+                roundEvictions[i] = getEviction(i, addresses);
+            }
+            byte[][][] results = doRound(roundReads, roundEvictions);
+
+            for (int i = 0; i < partitions.size(); i++) {
+                PartitionAccess read = roundReads[i];
+                if (read.address > 0) {
+                    if (results[i][0] == null) {
+                        logger.error("Unable to read address: " + read.address + " from partition: " + i);
+                        failedAddresses.add(read.address);
+                    } else {
+                        cache.put(read.address, results[i][0]);
+                        partitionOfBlock[read.address] = -1;
+                        freePlaces.get(i).push(read.place);
+                        addressesRead.add(read.address);
+                    }
+                }
+
+                PartitionAccess eviction = roundEvictions[i];
+                if (eviction.address > 0) {
+                    if (results[i][1] == null) {
+                        logger.error("Unable to evict address: " + eviction.address + " to partition: " + i);
+                        freePlaces.get(i).push(eviction.place);
+                        blocksToEvict.get(i).addFirst(eviction.address);
+                    } else {
+                        cache.remove(eviction.address);
+                        partitionOfBlock[eviction.address] = i;
+                        placeOfBlock[eviction.address] = eviction.place;
+                        reservedPlaces[i]--;
+                    }
+                }
+            }
+        }
+
+//        All the blocks are in the cache, so the requests are done there in the order they came
+        for (PendingAccess pendingAccess : requests) {
+            Request request = pendingAccess.request;
+            int address = request.getAddress();
+            if (failedAddresses.contains(address)) {
+                pendingAccess.future.complete(null);
+                continue;
+            }
+            byte[] res = cache.get(address);
+            if (request.getOp().equals(OperationType.WRITE))
+                cache.put(address, request.getData());
+            pendingAccess.future.complete(res);
+        }
+
+        for (int address : addressesRead) {
+            int partition = getRandomPartitionWithRoom();
+            reservedPlaces[partition]++;
+            blocksToEvict.get(partition).addLast(address);
+        }
+    }
+
+    /**
+     * @return a write of the first cached block for the partition, which is not used by the current requests, or a
+     * read of a random place
+     */
+    private PartitionAccess getEviction(int partition, Set<Integer> addressesInUse) {
+        Iterator<Integer> iterator = blocksToEvict.get(partition).iterator();
+        while (iterator.hasNext()) {
+            int address = iterator.next();
+            if (addressesInUse.contains(address)) continue;
+
+            iterator.remove();
+            return new PartitionAccess(OperationType.WRITE, address, freePlaces.get(partition).pop(),
+                    cache.get(address));
+        }
+        return getDummyAccess();
+    }
+
+    private PartitionAccess getDummyAccess() {
+        return new PartitionAccess(OperationType.READ, 0, randomness.nextInt(blocksPerPartition) + 1, null);
+    }
+
+    //    The free places not reserved are together at least one, as the size is at most the places of all partitions
+    private int getRandomPartitionWithRoom() {
+        int partition;
+        do {
+            partition = randomness.nextInt(partitions.size());
+        } while (freePlaces.get(partition).size() <= reservedPlaces[partition]);
+        return partition;
+    }
+
+    /**
+     * @return the results of the read and the eviction of each partition, null for the accesses that failed
+     */
+    private byte[][][] doRound(PartitionAccess[] roundReads, PartitionAccess[] roundEvictions) {
+        List<Callable<byte[][]>> tasks = new ArrayList<>(partitions.size());
+        for (int i = 0; i < partitions.size(); i++) {
+            AccessStrategy partition = partitions.get(i);
+            PartitionAccess read = roundReads[i];
+            PartitionAccess eviction = roundEvictions[i];
+            tasks.add(() -> new byte[][]{
+                    partition.access(read.op, read.place, read.data, false, false),
+                    partition.access(eviction.op, eviction.place, eviction.data, false, false)});
+        }
+
+        List<Future<byte[][]>> futures;
+        try {
+            futures = executor.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            logger.error("Interrupted while accessing the partitions");
+            logger.debug("Stacktrace", e);
+            futures = null;
+        }
+        synchronized (lock) {
+            rounds++;
+        }
+
+        byte[][][] res = new byte[partitions.size()][][];
+        for (int i = 0; i < partitions.size(); i++) {
+            res[i] = new byte[2][];
+            try {
+                if (futures != null)
+                    res[i] = futures.get(i).get();
+            } catch (InterruptedException | ExecutionException e) {
+                logger.error("Access to partition " + i + " failed");
+                logger.debug("Stacktrace", e);
+            }
+        }
+        return res;
+    }
+
+    private static class PendingAccess {
+        private final Request request;
+        private final CompletableFuture<byte[]> future;
+
+        private PendingAccess(Request request) {
+            this.request = request;
+            future = new CompletableFuture<>();
+        }
+    }
+
+    //    An access to a place of a partition, for the block with the address, or 0 for a read of a random place
+    private static class PartitionAccess {
+        private final OperationType op;
+        private final int address;
+        private final int place;
+        private final byte[] data;
+
+        private PartitionAccess(OperationType op, int address, int place, byte[] data) {
+            this.op = op;
+            this.address = address;
+            this.place = place;
+            this.data = data;
+        }
+    }
+}
@@ -3,19 +3,23 @@ package oram.path;
 import oram.AccessStrategy;
 import oram.Constants;
 import oram.OperationType;
+import oram.Request;
 import oram.Util;
 import oram.block.BlockEncrypted;
 import oram.block.BlockPath;
 import oram.block.BlockTrivial;
+import oram.block.PositionBlock;
 import oram.blockenc.BlockEncryptionStrategyPath;
 import oram.clientcom.CommunicationStrategy;
+import oram.factory.EvictionType;
 import oram.factory.Factory;
 import oram.permutation.PermutationStrategy;
+import oram.positionmap.PositionMap;
+import oram.random.RandomSource;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import javax.crypto.SecretKey;
-import java.security.SecureRandom;
 import java.util.*;
 
 import static oram.Constants.DUMMY_POSITION;
@@ -28,16 +32,26 @@ import static oram.Constants.DUMMY_POSITION;
 public class AccessStrategyPath implements AccessStrategy {
     private static final Logger logger = LogManager.getLogger("log");
     private final int L;
+    private final int leafCount;
     private final int bucketSize;
     private final int offset;
     private final SecretKey secretKey;
     private final CommunicationStrategy communicationStrategy;
     private final PermutationStrategy permutationStrategy;
+    private final RandomSource randomness;
     private final BlockEncryptionStrategyPath blockEncStrategy;
+    private final Factory factory;
+    private final int size;
+    private final byte[] dummyData;
+    private final TreeTopCache treeTopCache;
+    private boolean treeTopCacheLoaded;
+    private final EvictionType evictionType;
+    private final Map<Integer, Integer> stashSizeHistogram;
+    private int evictionCounter;
     private int maxStashSize;
     private int maxStashSizeBetweenAccesses;
-    private List<BlockPath> stash;
-    private Map<Integer, Integer> positionMap;
+    private StashPath stash;
+    private PositionMap positionMap;
     private AccessStrategy accessStrategy;
     private String prefixString;
 
@@ -45,33 +59,48 @@ public class AccessStrategyPath implements AccessStrategy {
                               int offset, int prefixSize) {
         this.bucketSize = bucketSize;
         this.offset = offset;
-        stash = new ArrayList<>();
+        this.factory = factory;
+        this.size = size;
+        stash = new StashPath();
+        dummyData = new byte[Constants.BLOCK_SIZE];
         L = (int) Math.ceil(Math.log(size) / Math.log(2));
+        leafCount = PathTree.getLeafCount(0, L);
         communicationStrategy = factory.getCommunicationStrategy();
         secretKey = factory.getEncryptionStrategy().generateSecretKey(key);
         permutationStrategy = factory.getPermutationStrategy();
+        randomness = factory.getRandomSource();
         blockEncStrategy = factory.getBlockEncryptionStrategyPath();
         maxStashSize = 0;
         maxStashSizeBetweenAccesses = 0;
+        evictionType = factory.getEvictionType();
+        stashSizeHistogram = new TreeMap<>();
+        evictionCounter = 0;
 
         prefixString = Util.getEmptyStringOfLength(prefixSize);
 
         if (accessStrategy != null)
             this.accessStrategy = accessStrategy;
         else
-            positionMap = new HashMap<>();
+            positionMap = factory.getPositionMap(size);
+
+        int treeTopLevels = factory.getTreeTopCacheLevels(L, bucketSize);
+        if (treeTopLevels > 0) {
+            treeTopCache = new TreeTopCache(treeTopLevels);
+            factory.addEndSignalHook(this::flushTreeTopCache);
+            logger.info(prefixString + "Caching the top " + treeTopLevels + " of " + L + " levels");
+        } else
+            treeTopCache = null;
 
         logger.info("######### Initialized Path ORAM strategy #########");
         logger.debug("######### Initialized Path ORAM strategy #########");
     }
 
     public void setup() { // For tests only
-        double numberOfLeaves = Math.pow(2, L - 1);
-        for (int i = 0; i < numberOfLeaves; i++) {
+        for (int i = 0; i < leafCount; i++) {
             positionMap.put(0, i);
             access(OperationType.WRITE, 0, new byte[Constants.BLOCK_SIZE], false, false);
         }
-        positionMap = new HashMap<>();
+        positionMap = factory.getPositionMap(size);
     }
 
     @Override
@@ -89,39 +118,22 @@ public class AccessStrategyPath implements AccessStrategy {
         if (recursiveLookup)
             addressToLookUp = (int) Math.ceil((double) address / Constants.POSITION_BLOCK_SIZE);
 
-        SecureRandom randomness = new SecureRandom();
-
 //        Line 1 and 2 in pseudo code.
 //        Return a random position if the block does not have one already
-        Integer leafNodeIndex;
-        Integer newLeafNodeIndex = randomness.nextInt((int) (Math.pow(2, L - 1)));
-        if (positionMap == null) {
-            Map<Integer, Integer> positionMap = Util.getPositionMap(addressToLookUp, newLeafNodeIndex, accessStrategy);
-            if (positionMap == null)
-                return null;
-
-            leafNodeIndex = positionMap.getOrDefault(addressToLookUp, null);
-
-            if (leafNodeIndex == null) {
-                logger.error(prefixString + "Unable to look up address: " + addressToLookUp);
-                return null;
-            } else if (leafNodeIndex == DUMMY_POSITION)
-                leafNodeIndex = randomness.nextInt((int) Math.pow(2, L - 1));
-
-        } else {
-            if (positionMap.containsKey(addressToLookUp))
-                leafNodeIndex = positionMap.get(addressToLookUp);
-            else
-                leafNodeIndex = randomness.nextInt((int) (Math.pow(2, L - 1)));
-
-            positionMap.put(addressToLookUp, newLeafNodeIndex);
-        }
+        Integer newLeafNodeIndex = randomness.nextInt(leafCount);
+        Integer leafNodeIndex = lookUpLeaf(addressToLookUp, newLeafNodeIndex);
+        if (leafNodeIndex == null)
+            return null;
 
         logger.info(prefixString + "Access op: " + op.toString() + ", address: " + addressToLookUp +
                 ", leaf node: " + leafNodeIndex + " -> " + newLeafNodeIndex);
 
 //        Line 3 to 5 in pseudo code.
-        boolean readPath = readPathToStash(leafNodeIndex);
+        boolean readPath;
+        if (evictionType == EvictionType.CIRCUIT)
+            readPath = readAndRemoveFromPath(leafNodeIndex, addressToLookUp);
+        else
+            readPath = readPathToStash(leafNodeIndex);
         if (!readPath) {
             logger.error(prefixString + "Unable to read path doing access");
             return null;
@@ -136,17 +148,22 @@ public class AccessStrategyPath implements AccessStrategy {
         if (Arrays.equals(res, new byte[0])) {
             logger.error(prefixString + "Unable to retrieve data from address: " + addressToLookUp + (recursiveLookup ? ", create dummy lookup map" : ""));
             if (recursiveLookup)
-                res = Util.getByteArrayFromMap(Util.getDummyMap(address));
+                res = PositionBlock.getDummyBlock(address).toByteArray();
         }
 
 
 //        Line 10 to 15 in pseudo code.
-        boolean writeBack = writeBackPath(leafNodeIndex);
+        boolean writeBack;
+        if (evictionType == EvictionType.CIRCUIT)
+            writeBack = evictPathCircuit(getNextEvictionLeaf()) && evictPathCircuit(getNextEvictionLeaf());
+        else
+            writeBack = writeBackPath(leafNodeIndex);
         if (!writeBack) {
             logger.error(prefixString + "Unable to write back path with doing access");
             return null;
         }
 
+        stashSizeHistogram.merge(stash.size(), 1, Integer::sum);
         if (stash.size() > maxStashSizeBetweenAccesses) {
             maxStashSizeBetweenAccesses = stash.size();
             logger.info(prefixString + "Max stash size between accesses: " + maxStashSizeBetweenAccesses);
@@ -155,10 +172,178 @@ public class AccessStrategyPath implements AccessStrategy {
         return res;
     }
 
+    /**
+     * Finds the leaf of the address and maps it to the new leaf, a random leaf is used if the address has none yet
+     *
+     * @return the leaf, or null if the recursive lookup failed
+     */
+    private Integer lookUpLeaf(int addressToLookUp, int newLeafNodeIndex) {
+        Integer leafNodeIndex;
+        if (positionMap == null) {
+            PositionBlock positionBlock = Util.getPositionBlock(addressToLookUp, newLeafNodeIndex, accessStrategy);
+            if (positionBlock == null)
+                return null;
+
+            leafNodeIndex = positionBlock.getPosition(addressToLookUp);
+
+            if (leafNodeIndex == null) {
+                logger.error(prefixString + "Unable to look up address: " + addressToLookUp);
+                return null;
+            } else if (leafNodeIndex == DUMMY_POSITION)
+                leafNodeIndex = randomness.nextInt(leafCount);
+
+        } else {
+            int position = positionMap.get(addressToLookUp);
+            if (position != PositionMap.NO_POSITION)
+                leafNodeIndex = position;
+            else
+                leafNodeIndex = randomness.nextInt(leafCount);
+
+            positionMap.put(addressToLookUp, newLeafNodeIndex);
+        }
+        return leafNodeIndex;
+    }
+
+    /**
+     * Reads the union of the paths of all the requests in one round trip and writes them back in another. Blocks are
+     * evicted to the nodes of the union from the leaves and up. With Circuit eviction the requests are done one by one.
+     */
+    @Override
+    public List<byte[]> accessBatch(List<Request> requests) {
+        if (evictionType == EvictionType.CIRCUIT)
+            return AccessStrategy.super.accessBatch(requests);
+
+        Set<Integer> leaves = new LinkedHashSet<>();
+        int[] newLeaves = new int[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            Request request = requests.get(i);
+            newLeaves[i] = randomness.nextInt(leafCount);
+            Integer leafNodeIndex = lookUpLeaf(request.getAddress(), newLeaves[i]);
+            if (leafNodeIndex == null)
+                return null;
+            leaves.add(leafNodeIndex);
+            logger.info(prefixString + "Batch access op: " + request.getOp().toString() + ", address: " +
+                    request.getAddress() + ", leaf node: " + leafNodeIndex + " -> " + newLeaves[i]);
+        }
+
+        TreeSet<Integer> nodes = new TreeSet<>();
+        for (int leaf : leaves)
+            for (int l = 0; l < L; l++)
+                nodes.add(getNode(leaf, l));
+
+        if (!readNodesToStash(nodes)) {
+            logger.error(prefixString + "Unable to read paths doing batch access");
+            return null;
+        }
+
+        List<byte[]> res = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            Request request = requests.get(i);
+            byte[] data = retrieveDataOverwriteBlock(request.getAddress(), request.getOp(), request.getData(),
+                    newLeaves[i], false, request.getAddress());
+            if (data == null) {
+                logger.error(prefixString + "Something went wrong, when getting data from the block with address: " +
+                        request.getAddress());
+                return null;
+            }
+            if (data.length == 0)
+                logger.error(prefixString + "Unable to retrieve data from address: " + request.getAddress());
+            res.add(data);
+        }
+
+        if (!writeBackNodes(nodes)) {
+            logger.error(prefixString + "Unable to write back paths doing batch access");
+            return null;
+        }
+
+        stashSizeHistogram.merge(stash.size(), 1, Integer::sum);
+        if (stash.size() > maxStashSizeBetweenAccesses) {
+            maxStashSizeBetweenAccesses = stash.size();
+            logger.info(prefixString + "Max stash size between accesses: " + maxStashSizeBetweenAccesses);
+        }
+        return res;
+    }
+
+    private boolean readNodesToStash(NavigableSet<Integer> nodes) {
+        if (treeTopCache != null && !treeTopCacheLoaded && !loadTreeTopCache())
+            return false;
+
+        List<Integer> positionsToRead = new ArrayList<>(nodes.size() * bucketSize);
+        for (int node : nodes) {
+            if (treeTopCache != null && treeTopCache.contains(node))
+                stash.addAll(treeTopCache.removeBlocks(node));
+            else
+                for (int i = 0; i < bucketSize; i++)
+                    positionsToRead.add(node * bucketSize + i + offset);
+        }
+
+        List<BlockEncrypted> encryptedBlocks = positionsToRead.isEmpty() ? new ArrayList<>() :
+                communicationStrategy.readArray(positionsToRead);
+        if (encryptedBlocks == null || positionsToRead.size() != encryptedBlocks.size()) {
+            logger.error(prefixString + "Did not fetch the right amount of blocks");
+            return false;
+        }
+        List<BlockPath> blocksDecrypted = blockEncStrategy.decryptBlocks(encryptedBlocks, secretKey, true);
+        if (blocksDecrypted == null) {
+            logger.error(prefixString + "Unable to decrypt paths of blocks");
+            return false;
+        }
+        stash.addAll(blocksDecrypted);
+        if (stash.size() > maxStashSize) {
+            maxStashSize = stash.size();
+            logger.info(prefixString + "Max stash size: " + maxStashSize);
+        }
+        return true;
+    }
+
+    /**
+     * Fills the nodes from the stash, the deepest first. In the heap numbering a node is never deeper than a node
+     * with a larger number, so the nodes are taken in descending order.
+     */
+    private boolean writeBackNodes(NavigableSet<Integer> nodes) {
+        List<Integer> addressesToWrite = new ArrayList<>(nodes.size() * bucketSize);
+        List<BlockEncrypted> encryptedBlocksToWrite = new ArrayList<>(nodes.size() * bucketSize);
+        Iterator<Integer> iterator = nodes.descendingIterator();
+        while (iterator.hasNext()) {
+            int node = iterator.next();
+            List<BlockPath> blocks = stash.evictNode(node, L, bucketSize);
+            if (treeTopCache != null && treeTopCache.contains(node)) {
+                treeTopCache.setBlocks(node, blocks);
+                continue;
+            }
+
+            List<BlockPath> blocksToWrite = permutationStrategy.permutePathBlocks(fillWithDummy(blocks));
+            List<BlockEncrypted> encryptedBlocks = blockEncStrategy.encryptBlocks(blocksToWrite, secretKey);
+            if (encryptedBlocks == null) {
+                logger.error(prefixString + "Returned null when trying to encrypt blocks");
+                return false;
+            }
+            for (int i = 0; i < blocksToWrite.size(); i++) {
+                addressesToWrite.add(node * bucketSize + i + offset);
+                encryptedBlocksToWrite.add(encryptedBlocks.get(i));
+            }
+        }
+
+        if (!addressesToWrite.isEmpty() &&
+                !communicationStrategy.writeArray(addressesToWrite, encryptedBlocksToWrite)) {
+            logger.error(prefixString + "Writing returned unsuccessful");
+            return false;
+        }
+        return true;
+    }
+
     private boolean readPathToStash(int leafNodeIndex) {
+        if (treeTopCache != null && !treeTopCacheLoaded && !loadTreeTopCache())
+            return false;
+
+//        The cached nodes of the path are moved directly to the stash
+        int cachedLevels = getTreeTopCacheLevels();
+        for (int l = 0; l < cachedLevels; l++)
+            stash.addAll(treeTopCache.removeBlocks(getNode(leafNodeIndex, l)));
+
         boolean res = true;
-        List<Integer> positionsToRead = new ArrayList<>();
-        for (int l = 0; l < L; l++) {
+        List<Integer> positionsToRead = new ArrayList<>((L - cachedLevels) * bucketSize);
+        for (int l = cachedLevels; l < L; l++) {
             int nodeNumber = getNode(leafNodeIndex, l);
             int position = nodeNumber * bucketSize;
 
@@ -166,9 +351,10 @@ public class AccessStrategyPath implements AccessStrategy {
                 positionsToRead.add(position + i + offset);
         }
 
-        List<BlockEncrypted> encryptedBlocks = communicationStrategy.readArray(positionsToRead);
+        List<BlockEncrypted> encryptedBlocks = positionsToRead.isEmpty() ? new ArrayList<>() :
+                communicationStrategy.readArray(positionsToRead);
 
-        if (encryptedBlocks == null || bucketSize * L != encryptedBlocks.size()) {
+        if (encryptedBlocks == null || positionsToRead.size() != encryptedBlocks.size()) {
             logger.error(prefixString + "Did not fetch the right amount of blocks");
             res = false;
         } else {
@@ -188,6 +374,63 @@ public class AccessStrategyPath implements AccessStrategy {
         return res;
     }
 
+    /**
+     * Reads the nodes of the cached levels from the server, their blocks are put in the stash and are placed in the
+     * cache as paths are written back
+     */
+    private boolean loadTreeTopCache() {
+        List<Integer> positionsToRead = new ArrayList<>(treeTopCache.getNumberOfNodes() * bucketSize);
+        for (int i = 0; i < treeTopCache.getNumberOfNodes() * bucketSize; i++)
+            positionsToRead.add(i + offset);
+
+        List<BlockEncrypted> encryptedBlocks = communicationStrategy.readArray(positionsToRead);
+        if (encryptedBlocks == null || positionsToRead.size() != encryptedBlocks.size()) {
+            logger.error(prefixString + "Did not fetch the right amount of blocks for the tree top cache");
+            return false;
+        }
+        List<BlockPath> blocksDecrypted = blockEncStrategy.decryptBlocks(encryptedBlocks, secretKey, true);
+        if (blocksDecrypted == null) {
+            logger.error(prefixString + "Unable to decrypt the blocks for the tree top cache");
+            return false;
+        }
+        stash.addAll(blocksDecrypted);
+        treeTopCacheLoaded = true;
+        return true;
+    }
+
+    /**
+     * Writes the cached nodes back to the server, after which they are read again by the next access
+     *
+     * @return true if there was nothing to write, or the nodes were written successfully
+     */
+    public boolean flushTreeTopCache() {
+        if (treeTopCache == null || !treeTopCacheLoaded) return true;
+
+        List<Integer> addressesToWrite = new ArrayList<>(treeTopCache.getNumberOfNodes() * bucketSize);
+        List<BlockEncrypted> encryptedBlocksToWrite = new ArrayList<>(treeTopCache.getNumberOfNodes() * bucketSize);
+        for (int node = 0; node < treeTopCache.getNumberOfNodes(); node++) {
+            List<BlockPath> blocksToWrite = fillWithDummy(new ArrayList<>(treeTopCache.removeBlocks(node)));
+            blocksToWrite = permutationStrategy.permutePathBlocks(blocksToWrite);
+
+            List<BlockEncrypted> encryptedBlocks = blockEncStrategy.encryptBlocks(blocksToWrite, secretKey);
+            if (encryptedBlocks == null) {
+                logger.error(prefixString + "Returned null when trying to encrypt the tree top cache");
+                return false;
+            }
+            for (int i = 0; i < blocksToWrite.size(); i++) {
+                addressesToWrite.add(node * bucketSize + i + offset);
+                encryptedBlocksToWrite.add(encryptedBlocks.get(i));
+            }
+        }
+        treeTopCacheLoaded = false;
+
+        if (!communicationStrategy.writeArray(addressesToWrite, encryptedBlocksToWrite)) {
+            logger.error(prefixString + "Writing the tree top cache returned unsuccessful");
+            return false;
+        }
+        return true;
+    }
+
     /**
      * As their might not be a block to overwrite, we keep track of whether or not any block has been overwritten
      *
@@ -198,38 +441,33 @@ public class AccessStrategyPath implements AccessStrategy {
                                               boolean recursiveLookup, int addressToLookUp) {
         boolean hasOverwrittenBlock = false;
         byte[] endData = new byte[0];
-        for (int i = 0; i < stash.size(); i++) {
-            if (stash.get(i).getAddress() == addressToLookUp) {
-                endData = stash.get(i).getData();
-                if (op.equals(OperationType.WRITE)) {
-                    if (recursiveLookup) {
-                        Map<Integer, Integer> map = Util.getMapFromByteArray(endData);
-
-                        if (map == null)
-                            return null;
-                        map.put(address, Util.byteArrayToLeInt(data));
-                        stash.set(i, new BlockPath(addressToLookUp, Util.getByteArrayFromMap(map), newLeafNodeIndex));
-                    } else {
-                        stash.set(i, new BlockPath(addressToLookUp, data, newLeafNodeIndex));
-                    }
-                    hasOverwrittenBlock = true;
-                } else
-                    stash.get(i).setIndex(newLeafNodeIndex); // Update leaf node index, even for op = READ
-                break;
-            }
+        BlockPath block = stash.get(addressToLookUp);
+        if (block != null) {
+            endData = block.getData();
+            if (op.equals(OperationType.WRITE)) {
+                if (recursiveLookup) {
+                    PositionBlock positionBlock = PositionBlock.fromByteArray(endData);
+
+                    if (positionBlock == null || !positionBlock.setPosition(address, Util.byteArrayToLeInt(data)))
+                        return null;
+                    stash.put(new BlockPath(addressToLookUp, positionBlock.toByteArray(), newLeafNodeIndex));
+                } else {
+                    stash.put(new BlockPath(addressToLookUp, data, newLeafNodeIndex));
+                }
+                hasOverwrittenBlock = true;
+            } else
+                block.setIndex(newLeafNodeIndex); // Update leaf node index, even for op = READ
         }
 
         if (op.equals(OperationType.WRITE) && !hasOverwrittenBlock) {
             if (recursiveLookup) {
-//                Create new dummy map
-                Map<Integer, Integer> map = Util.getDummyMap(address);
-//                Add the map to the block, which is added to the stash
-                if (map == null)
-                    return null;
-                map.put(address, Util.byteArrayToLeInt(data));
-                stash.add(new BlockPath(addressToLookUp, Util.getByteArrayFromMap(map), newLeafNodeIndex));
+//                Create new dummy position block
+                PositionBlock positionBlock = PositionBlock.getDummyBlock(address);
+//                Add the positions to the block, which is added to the stash
+                positionBlock.setPosition(address, Util.byteArrayToLeInt(data));
+                stash.put(new BlockPath(addressToLookUp, positionBlock.toByteArray(), newLeafNodeIndex));
             } else
-                stash.add(new BlockPath(addressToLookUp, data, newLeafNodeIndex));
+                stash.put(new BlockPath(addressToLookUp, data, newLeafNodeIndex));
         }
         if (stash.size() > maxStashSize) {
             maxStashSize = stash.size();
@@ -240,22 +478,156 @@ public class AccessStrategyPath implements AccessStrategy {
     }
 
     private boolean writeBackPath(int leafNode) {
-        List<Integer> addressesToWrite = new ArrayList<>();
-        List<BlockEncrypted> encryptedBlocksToWrite = new ArrayList<>();
-        for (int l = L - 1; l >= 0; l--) {
+//        Pick the blocks from the stash for each node on the path, and remove them from the stash
+        return writePathBuckets(leafNode, stash.evictPath(leafNode, L, bucketSize));
+    }
+
+    /**
+     * Takes the block with the address off the path, if it is there, and puts it in the stash. The rest of the path is
+     * written back as it was, Circuit ORAM style.
+     */
+    private boolean readAndRemoveFromPath(int leafNodeIndex, int address) {
+        List<List<BlockPath>> blocksForPath = readPathBuckets(leafNodeIndex);
+        if (blocksForPath == null) return false;
+
+        outer:
+        for (List<BlockPath> blocks : blocksForPath) {
+            for (int i = 0; i < blocks.size(); i++) {
+                if (blocks.get(i).getAddress() == address) {
+                    stash.put(blocks.remove(i));
+                    break outer;
+                }
+            }
+        }
+        if (stash.size() > maxStashSize) {
+            maxStashSize = stash.size();
+            logger.info(prefixString + "Max stash size: " + maxStashSize);
+        }
+        return writePathBuckets(leafNodeIndex, blocksForPath);
+    }
+
+    /**
+     * Moves blocks down the path of the leaf in a single pass from the stash to the leaf, holding at most one block at
+     * a time, as in Circuit ORAM. A pre-scan of the leaves of the blocks finds, for each level, the level of the block
+     * that can go deepest from above it, and from the leaf and up, which of those blocks to move and where to drop
+     * them. Index 0 of the arrays is the stash and index i is level i - 1 of the path.
+     */
+    private boolean evictPathCircuit(int leafNode) {
+        List<List<BlockPath>> blocksForPath = readPathBuckets(leafNode);
+        if (blocksForPath == null) return false;
+
+        int[] deepest = new int[L + 1];
+        int[] target = new int[L + 1];
+        Arrays.fill(deepest, -1);
+        Arrays.fill(target, -1);
+
+        int source = -1;
+        int goal = -1;
+        if (stash.size() > 0) {
+            source = 0;
+            goal = stash.getDeepestLevel(leafNode, L) + 1;
+        }
+        for (int i = 1; i <= L; i++) {
+            if (goal >= i)
+                deepest[i] = source;
+            int level = getDeepestLevel(blocksForPath.get(i - 1), leafNode) + 1;
+            if (level > goal) {
+                goal = level;
+                source = i;
+            }
+        }
+
+        int destination = -1;
+        source = -1;
+        for (int i = L; i >= 0; i--) {
+            if (i == source) {
+                target[i] = destination;
+                destination = -1;
+                source = -1;
+            }
+            boolean hasEmptySlot = i > 0 && blocksForPath.get(i - 1).size() < bucketSize;
+            if (((destination == -1 && hasEmptySlot) || target[i] != -1) && deepest[i] != -1) {
+                source = deepest[i];
+                destination = i;
+            }
+        }
+
+        BlockPath hold = null;
+        destination = -1;
+        for (int i = 0; i <= L; i++) {
+            BlockPath blockToWrite = null;
+            if (hold != null && i == destination) {
+                blockToWrite = hold;
+                hold = null;
+                destination = -1;
+            }
+            if (target[i] != -1) {
+                hold = i == 0 ? stash.removeDeepest(leafNode, L) : removeDeepest(blocksForPath.get(i - 1), leafNode);
+                destination = target[i];
+            }
+            if (blockToWrite != null)
+                blocksForPath.get(i - 1).add(blockToWrite);
+        }
+
+        return writePathBuckets(leafNode, blocksForPath);
+    }
+
+    /**
+     * @return the real blocks of each node on the path, the root at index 0, or null if the path could not be read
+     */
+    private List<List<BlockPath>> readPathBuckets(int leafNodeIndex) {
+        if (treeTopCache != null && !treeTopCacheLoaded && !loadTreeTopCache())
+            return null;
+
+        int cachedLevels = getTreeTopCacheLevels();
+        List<Integer> positionsToRead = new ArrayList<>((L - cachedLevels) * bucketSize);
+        for (int l = cachedLevels; l < L; l++) {
+            int position = getNode(leafNodeIndex, l) * bucketSize;
+            for (int i = 0; i < bucketSize; i++)
+                positionsToRead.add(position + i + offset);
+        }
+
+        List<BlockEncrypted> encryptedBlocks = positionsToRead.isEmpty() ? new ArrayList<>() :
+                communicationStrategy.readArray(positionsToRead);
+        if (encryptedBlocks == null || positionsToRead.size() != encryptedBlocks.size()) {
+            logger.error(prefixString + "Did not fetch the right amount of blocks");
+            return null;
+        }
+
+        List<List<BlockPath>> res = new ArrayList<>(L);
+        for (int l = 0; l < cachedLevels; l++)
+            res.add(new ArrayList<>(treeTopCache.removeBlocks(getNode(leafNodeIndex, l))));
+        for (int l = cachedLevels; l < L; l++) {
+            int from = (l - cachedLevels) * bucketSize;
+            List<BlockPath> blocks = blockEncStrategy.decryptBlocks(encryptedBlocks.subList(from, from + bucketSize),
+                    secretKey, true);
+            if (blocks == null) {
+                logger.error(prefixString + "Unable to decrypt path of blocks");
+                return null;
+            }
+            res.add(new ArrayList<>(blocks));
+        }
+        return res;
+    }
+
+    /**
+     * Writes the blocks to the nodes of the path, filled up with dummy blocks
+     */
+    private boolean writePathBuckets(int leafNode, List<List<BlockPath>> blocksForPath) {
+        int cachedLevels = getTreeTopCacheLevels();
+        for (int l = 0; l < cachedLevels; l++)
+            treeTopCache.setBlocks(getNode(leafNode, l), blocksForPath.get(l));
+
+        List<Integer> addressesToWrite = new ArrayList<>((L - cachedLevels) * bucketSize);
+        List<BlockEncrypted> encryptedBlocksToWrite = new ArrayList<>((L - cachedLevels) * bucketSize);
+        for (int l = L - 1; l >= cachedLevels; l--) {
             int nodeNumber = getNode(leafNode, l);
             int arrayPosition = nodeNumber * bucketSize;
 
-//            Pick all the blocks from the stash which can be written to the current node
-            List<BlockPath> blocksToWrite = getBlocksForNode(nodeNumber);
-
 //            Make sure there are exactly Z blocks to write to the node
-            blocksToWrite = fillBucketWithDummyBlocks(blocksToWrite);
+            List<BlockPath> blocksToWrite = fillWithDummy(blocksForPath.get(l));
             blocksToWrite = permutationStrategy.permutePathBlocks(blocksToWrite);
 
-//            Remove the blocks from the stash, before they are written to the node
-            removeBlocksFromStash(blocksToWrite);
-
 //            Encrypts all pairs
             List<BlockEncrypted> encryptedBlocksToWriteTmp = blockEncStrategy.encryptBlocks(blocksToWrite, secretKey);
 //            List<BlockEncrypted> encryptedBlocksToWriteTmp = encryptBucketOfBlocks(blocksToWrite);
@@ -269,67 +641,58 @@ public class AccessStrategyPath implements AccessStrategy {
             }
         }
 
-        if (!communicationStrategy.writeArray(addressesToWrite, encryptedBlocksToWrite)) {
+        if (!addressesToWrite.isEmpty() &&
+                !communicationStrategy.writeArray(addressesToWrite, encryptedBlocksToWrite)) {
             logger.error(prefixString + "Writing returned unsuccessful");
             return false;
         }
         return true;
     }
 
-    private List<BlockPath> getBlocksForNode(int nodeIndex) {
-        List<Integer> indices = getSubTreeNodes(nodeIndex);
-        List<BlockPath> res = new ArrayList<>();
-        for (BlockPath s : stash) {
-            for (Integer i : indices) {
-                if (i.equals(s.getIndex())) {
-                    res.add(s);
-                    break;
-                }
-            }
-        }
+    private int getDeepestLevel(List<BlockPath> blocks, int leafNode) {
+        int res = -1;
+        for (BlockPath block : blocks)
+            res = Math.max(res, PathTree.getDeepestCommonLevel(block.getIndex(), leafNode, L));
         return res;
     }
 
-    private List<BlockPath> fillBucketWithDummyBlocks(List<BlockPath> blocksToWrite) {
-        List<BlockPath> res = new ArrayList<>(blocksToWrite);
-        if (blocksToWrite.size() > bucketSize) {
-            res = removeOverflowingBlocks(res);
-        } else if (blocksToWrite.size() < bucketSize) {
-            res = fillWithDummy(res);
+    private BlockPath removeDeepest(List<BlockPath> blocks, int leafNode) {
+        int deepestIndex = -1;
+        int deepestLevel = -1;
+        for (int i = 0; i < blocks.size(); i++) {
+            int level = PathTree.getDeepestCommonLevel(blocks.get(i).getIndex(), leafNode, L);
+            if (level > deepestLevel) {
+                deepestIndex = i;
+                deepestLevel = level;
+            }
         }
-        return res;
+        return deepestIndex < 0 ? null : blocks.remove(deepestIndex);
     }
 
-    private List<BlockPath> removeOverflowingBlocks(List<BlockPath> blocksToWrite) {
-        List<BlockPath> res = new ArrayList<>(blocksToWrite);
-        for (int i = blocksToWrite.size(); i > bucketSize; i--)
-            res.remove(i - 1);
+    /**
+     * @return the leaf of the next path to evict in Circuit ORAM mode, the leaves are taken in reverse lexicographic
+     * order
+     */
+    private int getNextEvictionLeaf() {
+        int res = PathTree.getReverseLexicographicLeaf(evictionCounter, L);
+        evictionCounter = (evictionCounter + 1) % leafCount;
         return res;
     }
 
-    private void removeBlocksFromStash(List<BlockPath> blocksToWrite) {
-        for (int i = stash.size() - 1; i >= 0; i--) {
-            if (blocksToWrite.contains(stash.get(i)))
-                stash.remove(i);
-        }
-    }
-
     private List<BlockPath> fillWithDummy(List<BlockPath> temp) {
         for (int i = temp.size(); i < bucketSize; i++) {
-            temp.add(new BlockPath(Constants.DUMMY_BLOCK_ADDRESS, new byte[Constants.BLOCK_SIZE], 0));
+            temp.add(new BlockPath(Constants.DUMMY_BLOCK_ADDRESS, dummyData, 0));
         }
         return temp;
     }
 
     //    Package private for tests
     List<Integer> getSubTreeNodes(int position) {
-        if (position > Math.pow(2, L - 1) - 2)
-            return Collections.singletonList(position - ((int) (Math.pow(2, L - 1) - 1)));
-
-        List<Integer> res = new ArrayList<>();
-        res.addAll(getSubTreeNodes(2 * position + 1));
-        res.addAll(getSubTreeNodes(2 * position + 2));
-
+        int firstLeaf = PathTree.getFirstLeaf(position, L);
+        int leaves = PathTree.getLeafCount(position, L);
+        List<Integer> res = new ArrayList<>(leaves);
+        for (int i = 0; i < leaves; i++)
+            res.add(firstLeaf + i);
         return res;
     }
 
@@ -339,11 +702,7 @@ public class AccessStrategyPath implements AccessStrategy {
      * @return position of first block in bucket in the flattened tree
      */
     int getNode(int leafNode, int level) {
-        int res = (int) (Math.pow(2, L - 1) - 1 + leafNode);
-        for (int i = L - 1; i > level; i--) {
-            res = (int) Math.floor((res - 1) / 2);
-        }
-        return res;
+        return PathTree.getNode(leafNode, level, L);
     }
 
     public int getMaxStashSize() {
@@ -353,4 +712,26 @@ public class AccessStrategyPath implements AccessStrategy {
     public int getMaxStashSizeBetweenAccesses() {
         return maxStashSizeBetweenAccesses;
     }
+
+    public int getStashSize() {
+        return stash.size();
+    }
+
+    /**
+     * @return the number of accesses, which have ended with each stash size
+     */
+    public Map<Integer, Integer> getStashSizeHistogram() {
+        return Collections.unmodifiableMap(new TreeMap<>(stashSizeHistogram));
+    }
+
+    public int getTreeTopCacheLevels() {
+        return treeTopCache == null ? 0 : treeTopCache.getLevels();
+    }
+
+    /**
+     * @return the number of real blocks in the tree top cache
+     */
+    public int getTreeTopCacheSize() {
+        return treeTopCache == null ? 0 : treeTopCache.size();
+    }
 }
@@ -0,0 +1,95 @@
+package oram.path;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * Integer arithmetic on the flattened Path ORAM tree. The nodes are numbered as a heap, with the root as node 0 and
+ * the children of node n as 2n + 1 and 2n + 2, and the leaves are numbered from 0 at the leftmost leaf node. In the one
+ * based numbering node + 1, the leaf node of leaf x is 2^(levels - 1) + x and the ancestor at level l is found by
+ * shifting away the lowest levels - 1 - l bits, so a block with leaf x can be stored in node n exactly when that prefix
+ * of the leaf node is n + 1.
+ */
+
+public class PathTree {
+
+    /**
+     * @return the number of full levels in a tree of the number of nodes
+     */
+    public static int getLevels(int nodes) {
+        return 32 - Integer.numberOfLeadingZeros(nodes);
+    }
+
+    /**
+     * @return the level of the node, with the root at level 0
+     */
+    public static int getLevel(int node) {
+        return 31 - Integer.numberOfLeadingZeros(node + 1);
+    }
+
+    public static int getFirstLeafNode(int levels) {
+        return (1 << Math.max(levels - 1, 0)) - 1;
+    }
+
+    public static boolean isLeafNode(int node, int levels) {
+        return node >= getFirstLeafNode(levels);
+    }
+
+    /**
+     * @return the node at the level on the path from the root to the leaf
+     */
+    public static int getNode(int leaf, int level, int levels) {
+        return ((getFirstLeafNode(levels) + 1 + leaf) >>> (levels - 1 - level)) - 1;
+    }
+
+    public static int getParent(int node) {
+        return (node - 1) >> 1;
+    }
+
+    public static int getLeftChild(int node) {
+        return 2 * node + 1;
+    }
+
+    public static int getRightChild(int node) {
+        return 2 * node + 2;
+    }
+
+    /**
+     * @return the leftmost leaf below the node
+     */
+    public static int getFirstLeaf(int node, int levels) {
+        return ((node + 1) << (levels - 1 - getLevel(node))) - getFirstLeafNode(levels) - 1;
+    }
+
+    /**
+     * @return the number of leaves below the node
+     */
+    public static int getLeafCount(int node, int levels) {
+        return 1 << (levels - 1 - getLevel(node));
+    }
+
+    /**
+     * @return true if a block with the leaf can be stored in the node
+     */
+    public static boolean isOnPath(int node, int leaf, int levels) {
+        return getNode(leaf, getLevel(node), levels) == node;
+    }
+
+    /**
+     * @return the deepest level, counting the root as level 0, where the paths to the two leaves meet
+     */
+    public static int getDeepestCommonLevel(int leaf, int otherLeaf, int levels) {
+        int differentBits = 32 - Integer.numberOfLeadingZeros(leaf ^ otherLeaf);
+        return Math.max(levels - 1 - differentBits, 0);
+    }
+
+    /**
+     * @return the leaf with the reversed bits of the counter, counting through the leaves this way spreads consecutive
+     * leaves over the tree
+     */
+    public static int getReverseLexicographicLeaf(int counter, int levels) {
+        if (levels <= 1) return 0;
+        return Integer.reverse(counter) >>> (33 - levels);
+    }
+}
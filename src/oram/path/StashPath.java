@@ -0,0 +1,143 @@
+package oram.path;
+
+import oram.block.BlockPath;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * The stash of a Path ORAM, indexed by address. When a path is written back, each block is put in a bucket by the
+ * deepest level at which its leaf and the leaf of the path share an ancestor, which is found from the bits the two
+ * leaves have in common. The path is then filled from the leaf and up, each node taking the deepest blocks that may be
+ * placed there, so eviction takes time linear in the size of the stash plus the number of blocks on the path.
+ */
+
+public class StashPath {
+    private final Map<Integer, BlockPath> blocks;
+    private final Deque<BlockPath> candidates;
+    private final List<Deque<BlockPath>> blocksByLevel;
+    private final List<List<BlockPath>> buckets;
+
+    public StashPath() {
+        blocks = new LinkedHashMap<>();
+        candidates = new ArrayDeque<>();
+        blocksByLevel = new ArrayList<>();
+        buckets = new ArrayList<>();
+    }
+
+    /**
+     * @return the block with the address, or null if it is not in the stash
+     */
+    public BlockPath get(int address) {
+        return blocks.get(address);
+    }
+
+    /**
+     * Adds the block, replacing any block in the stash with the same address
+     */
+    public void put(BlockPath block) {
+        blocks.put(block.getAddress(), block);
+    }
+
+    public void addAll(List<BlockPath> blocksToAdd) {
+        for (BlockPath block : blocksToAdd)
+            put(block);
+    }
+
+    public int size() {
+        return blocks.size();
+    }
+
+    /**
+     * Removes the blocks to write to the path of the leaf from the stash. The lists are reused by the next call.
+     *
+     * @param levels     the number of levels in the tree
+     * @param bucketSize the maximum number of blocks in each node
+     * @return the blocks for each node on the path, the root at index 0 and the leaf at index levels - 1
+     */
+    public List<List<BlockPath>> evictPath(int leaf, int levels, int bucketSize) {
+        while (blocksByLevel.size() < levels) {
+            blocksByLevel.add(new ArrayDeque<>());
+            buckets.add(new ArrayList<>(bucketSize));
+        }
+        for (BlockPath block : blocks.values())
+            blocksByLevel.get(PathTree.getDeepestCommonLevel(block.getIndex(), leaf, levels)).add(block);
+
+//        Blocks that do not fit at their deepest level are moved up, and are placed before the ones from above
+        candidates.clear();
+        for (int l = levels - 1; l >= 0; l--) {
+            Deque<BlockPath> blocksAtLevel = blocksByLevel.get(l);
+            candidates.addAll(blocksAtLevel);
+            blocksAtLevel.clear();
+
+            List<BlockPath> bucket = buckets.get(l);
+            bucket.clear();
+            while (bucket.size() < bucketSize && !candidates.isEmpty()) {
+                BlockPath block = candidates.pollFirst();
+                blocks.remove(block.getAddress());
+                bucket.add(block);
+            }
+        }
+        candidates.clear();
+        return buckets.subList(0, levels);
+    }
+
+    /**
+     * Removes up to bucket size blocks which can be placed in the node. When several paths are written back at once,
+     * the nodes should be filled from the leaves and up, so the blocks are placed as deep as possible.
+     *
+     * @param levels the number of levels in the tree
+     * @return the blocks for the node
+     */
+    public List<BlockPath> evictNode(int node, int levels, int bucketSize) {
+        List<BlockPath> res = new ArrayList<>(bucketSize);
+        Iterator<BlockPath> iterator = blocks.values().iterator();
+        while (res.size() < bucketSize && iterator.hasNext()) {
+            BlockPath block = iterator.next();
+            if (PathTree.isOnPath(node, block.getIndex(), levels)) {
+                res.add(block);
+                iterator.remove();
+            }
+        }
+        return res;
+    }
+
+    /**
+     * @return the deepest level on the path of the leaf any block in the stash can be placed at, or -1 if it is empty
+     */
+    public int getDeepestLevel(int leaf, int levels) {
+        int res = -1;
+        for (BlockPath block : blocks.values())
+            res = Math.max(res, PathTree.getDeepestCommonLevel(block.getIndex(), leaf, levels));
+        return res;
+    }
+
+    /**
+     * Removes the block which can be placed deepest on the path of the leaf
+     *
+     * @return the block, or null if the stash is empty
+     */
+    public BlockPath removeDeepest(int leaf, int levels) {
+        BlockPath res = null;
+        int deepestLevel = -1;
+        for (BlockPath block : blocks.values()) {
+            int level = PathTree.getDeepestCommonLevel(block.getIndex(), leaf, levels);
+            if (level > deepestLevel) {
+                res = block;
+                deepestLevel = level;
+            }
+        }
+        if (res != null)
+            blocks.remove(res.getAddress());
+        return res;
+    }
+}
@@ -0,0 +1,87 @@
+package oram.path;
+
+import oram.Constants;
+import oram.block.BlockPath;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * The decrypted content of the top levels of a Path ORAM tree, kept by the client between accesses. Every path goes
+ * through these nodes, so with k of the L levels cached, only L - k buckets of each path are read, decrypted, encrypted
+ * and written. Only the real blocks of a node are kept, the dummy blocks are added when the node is written to the
+ * server.
+ */
+
+public class TreeTopCache {
+    //    An estimate of the heap used by a cached block besides its data
+    static final int BLOCK_OVERHEAD = 48;
+    private final int levels;
+    private final List<List<BlockPath>> nodes;
+    private int size;
+
+    public TreeTopCache(int levels) {
+        this.levels = levels;
+        int numberOfNodes = PathTree.getFirstLeafNode(levels + 1);
+        nodes = new ArrayList<>(numberOfNodes);
+        for (int i = 0; i < numberOfNodes; i++)
+            nodes.add(new ArrayList<>());
+        size = 0;
+    }
+
+    /**
+     * @param memoryBudget the number of bytes the cached blocks may use
+     * @return the number of levels, at most the levels of the tree, that fit within the budget when all nodes are full
+     */
+    public static int getLevelsForBudget(long memoryBudget, int treeLevels, int bucketSize) {
+        long bytesPerNode = (long) bucketSize * (Constants.BLOCK_SIZE + BLOCK_OVERHEAD);
+        int res = 0;
+        while (res < treeLevels && ((1L << (res + 1)) - 1) * bytesPerNode <= memoryBudget)
+            res++;
+        return res;
+    }
+
+    public int getLevels() {
+        return levels;
+    }
+
+    public int getNumberOfNodes() {
+        return nodes.size();
+    }
+
+    public boolean contains(int node) {
+        return node < nodes.size();
+    }
+
+    /**
+     * Removes the blocks of the node from the cache
+     *
+     * @return the real blocks of the node
+     */
+    public List<BlockPath> removeBlocks(int node) {
+        List<BlockPath> res = nodes.get(node);
+        nodes.set(node, new ArrayList<>());
+        size -= res.size();
+        return res;
+    }
+
+    /**
+     * Replaces the blocks of the node, the list is copied
+     */
+    public void setBlocks(int node, List<BlockPath> blocks) {
+        size -= nodes.get(node).size();
+        nodes.set(node, new ArrayList<>(blocks));
+        size += blocks.size();
+    }
+
+    /**
+     * @return the number of real blocks in the cache
+     */
+    public int size() {
+        return size;
+    }
+}
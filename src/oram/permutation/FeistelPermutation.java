@@ -0,0 +1,160 @@
+package oram.permutation;
+
+import oram.Constants;
+import oram.random.RandomSource;
+
+import javax.crypto.Cipher;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * A pseudo random permutation of the indices below the size, from a balanced Feistel network of 4 rounds with AES
+ * under a random key as round function. The network permutes the smallest domain of an even number of bits holding
+ * the size, at most 4 times the size, and an index mapped outside the size is mapped again until it lands inside, so
+ * the indices below the size are permuted among themselves. Only the key is kept, the permutation of an index is
+ * computed when needed.
+ * <p>
+ * The batch inversion runs each round over all the indices with one call to the cipher, which keeps the cost of an
+ * index at a few AES blocks.
+ */
+
+public class FeistelPermutation implements IndexPermutation {
+    private static final int ROUNDS = 4;
+    private final int size;
+    private final int halfBits;
+    private final long halfMask;
+    private final SecretKeySpec key;
+    private final ThreadLocal<Cipher> cipher = ThreadLocal.withInitial(this::createCipher);
+    private final ThreadLocal<byte[]> buffer = ThreadLocal.withInitial(() -> new byte[0]);
+
+    public FeistelPermutation(int size, RandomSource randomSource) {
+        if (size <= 0) throw new IllegalArgumentException("size must be positive");
+        this.size = size;
+        int bits = 64 - Long.numberOfLeadingZeros(Math.max(size - 1, 1));
+        halfBits = (bits + 1) / 2;
+        halfMask = (1L << halfBits) - 1;
+        byte[] keyBytes = new byte[Constants.AES_KEY_SIZE];
+        randomSource.nextBytes(keyBytes);
+        key = new SecretKeySpec(keyBytes, "AES");
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int permute(int index) {
+        int[] indices = {index};
+        walk(indices, 1, true);
+        return indices[0];
+    }
+
+    @Override
+    public int invert(int index) {
+        int[] indices = {index};
+        walk(indices, 1, false);
+        return indices[0];
+    }
+
+    @Override
+    public void invert(int[] indices, int length) {
+        walk(indices, length, false);
+    }
+
+    //    Runs the network over the indices, and again over those that left the size, until all are inside
+    private void walk(int[] indices, int length, boolean forward) {
+        for (int i = 0; i < length; i++)
+            if (indices[i] < 0 || indices[i] >= size)
+                throw new IndexOutOfBoundsException("Index: " + indices[i] + ", size: " + size);
+
+        long[] values = new long[length];
+        int[] pending = new int[length];
+        int pendingCount = length;
+        for (int i = 0; i < length; i++) {
+            values[i] = indices[i];
+            pending[i] = i;
+        }
+
+        long[] left = new long[length];
+        long[] right = new long[length];
+        long[] round = new long[length];
+        while (pendingCount > 0) {
+            for (int i = 0; i < pendingCount; i++) {
+                left[i] = values[pending[i]] >>> halfBits;
+                right[i] = values[pending[i]] & halfMask;
+            }
+            for (int r = 0; r < ROUNDS; r++) {
+//                Forward (L, R) -> (R, L ^ F(R)), backward (L, R) -> (R ^ F(L), L) with the rounds in reverse
+                long[] input = forward ? right : left;
+                roundFunction(forward ? r : ROUNDS - 1 - r, input, round, pendingCount);
+                long[] output = forward ? left : right;
+                for (int i = 0; i < pendingCount; i++)
+                    output[i] ^= round[i];
+                long[] tmp = left;
+                left = right;
+                right = tmp;
+            }
+
+            int stillPending = 0;
+            for (int i = 0; i < pendingCount; i++) {
+                long value = left[i] << halfBits | right[i];
+                values[pending[i]] = value;
+                if (value >= size)
+                    pending[stillPending++] = pending[i];
+            }
+            pendingCount = stillPending;
+        }
+
+        for (int i = 0; i < length; i++)
+            indices[i] = (int) values[i];
+    }
+
+    //    Encrypts the round number and each value as an AES block in one call, and keeps the low bits of each block
+    private void roundFunction(int round, long[] input, long[] output, int length) {
+        int bytes = length * Constants.AES_BLOCK_SIZE;
+        byte[] blocks = buffer.get();
+        if (blocks.length < bytes) {
+            blocks = new byte[bytes];
+            buffer.set(blocks);
+        } else
+            Arrays.fill(blocks, 0, bytes, (byte) 0);
+
+        for (int i = 0; i < length; i++) {
+            int offset = i * Constants.AES_BLOCK_SIZE;
+            long value = input[i];
+            blocks[offset] = (byte) round;
+            blocks[offset + 1] = (byte) value;
+            blocks[offset + 2] = (byte) (value >>> 8);
+            blocks[offset + 3] = (byte) (value >>> 16);
+            blocks[offset + 4] = (byte) (value >>> 24);
+        }
+        try {
+            cipher.get().update(blocks, 0, bytes, blocks, 0);
+        } catch (ShortBufferException e) {
+            throw new IllegalStateException("Unable to compute the Feistel round function", e);
+        }
+        for (int i = 0; i < length; i++) {
+            int offset = i * Constants.AES_BLOCK_SIZE;
+            long value = (blocks[offset] & 0xFFL) | (blocks[offset + 1] & 0xFFL) << 8 |
+                    (blocks[offset + 2] & 0xFFL) << 16 | (blocks[offset + 3] & 0xFFL) << 24;
+            output[i] = value & halfMask;
+        }
+    }
+
+    private Cipher createCipher() {
+        try {
+            Cipher res = Cipher.getInstance("AES/ECB/NoPadding");
+            res.init(Cipher.ENCRYPT_MODE, key);
+            return res;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to create the AES round function", e);
+        }
+    }
+}
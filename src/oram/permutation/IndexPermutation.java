@@ -0,0 +1,52 @@
+package oram.permutation;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * A permutation of the indices from 0, inclusive, to the size, exclusive, computed index by index, so more blocks
+ * than fit in memory can be shuffled by reading them in the order of the permutation.
+ */
+
+public interface IndexPermutation {
+
+    static IndexPermutation identity(int size) {
+        return new IndexPermutation() {
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public int permute(int index) {
+                return index;
+            }
+
+            @Override
+            public int invert(int index) {
+                return index;
+            }
+        };
+    }
+
+    int size();
+
+    /**
+     * @return the index the index is moved to
+     */
+    int permute(int index);
+
+    /**
+     * @return the index moved to the index
+     */
+    int invert(int index);
+
+    /**
+     * Inverts the first length indices of the array in place
+     */
+    default void invert(int[] indices, int length) {
+        for (int i = 0; i < length; i++)
+            indices[i] = invert(indices[i]);
+    }
+}
@@ -21,4 +21,9 @@ public interface PermutationStrategy {
     List<BlockLookahead> permuteLookaheadBlocks(List<BlockLookahead> blocks);
 
     List<BlockPath> permutePathBlocks(List<BlockPath> blocks);
+
+    /**
+     * @return a new permutation of the indices below the size, for shuffling blocks without holding them all
+     */
+    IndexPermutation getIndexPermutation(int size);
 }
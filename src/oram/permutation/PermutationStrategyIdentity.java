@@ -34,4 +34,9 @@ public class PermutationStrategyIdentity implements PermutationStrategy {
     public List<BlockPath> permutePathBlocks(List<BlockPath> blocks) {
         return new ArrayList<>(blocks);
     }
+
+    @Override
+    public IndexPermutation getIndexPermutation(int size) {
+        return IndexPermutation.identity(size);
+    }
 }
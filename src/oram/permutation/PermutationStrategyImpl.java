@@ -4,8 +4,8 @@ import oram.block.BlockEncrypted;
 import oram.block.BlockLookahead;
 import oram.block.BlockPath;
 import oram.block.BlockTrivial;
+import oram.random.RandomSource;
 
-import java.security.SecureRandom;
 import java.util.Collections;
 import java.util.List;
 
@@ -16,12 +16,21 @@ import java.util.List;
  */
 
 public class PermutationStrategyImpl implements PermutationStrategy {
+    private final RandomSource randomSource;
+
+    public PermutationStrategyImpl() {
+        this(RandomSource.getDefault());
+    }
+
+    public PermutationStrategyImpl(RandomSource randomSource) {
+        this.randomSource = randomSource;
+    }
+
     @Override
     public List<BlockEncrypted> permuteEncryptedBlocks(List<BlockEncrypted> blocks) {
         if (blocks == null || blocks.isEmpty()) return blocks;
 
-        SecureRandom randomness = new SecureRandom();
-        Collections.shuffle(blocks, randomness);
+        Collections.shuffle(blocks, randomSource.asRandom());
         return blocks;
     }
 
@@ -29,8 +38,7 @@ public class PermutationStrategyImpl implements PermutationStrategy {
     public List<BlockTrivial> permuteTrivialBlocks(List<BlockTrivial> blocks) {
         if (blocks == null || blocks.isEmpty()) return blocks;
 
-        SecureRandom randomness = new SecureRandom();
-        Collections.shuffle(blocks, randomness);
+        Collections.shuffle(blocks, randomSource.asRandom());
         return blocks;
     }
 
@@ -38,8 +46,7 @@ public class PermutationStrategyImpl implements PermutationStrategy {
     public List<BlockLookahead> permuteLookaheadBlocks(List<BlockLookahead> blocks) {
         if (blocks == null || blocks.isEmpty()) return blocks;
 
-        SecureRandom randomness = new SecureRandom();
-        Collections.shuffle(blocks, randomness);
+        Collections.shuffle(blocks, randomSource.asRandom());
         return blocks;
     }
 
@@ -47,8 +54,12 @@ public class PermutationStrategyImpl implements PermutationStrategy {
     public List<BlockPath> permutePathBlocks(List<BlockPath> blocks) {
         if (blocks == null || blocks.isEmpty()) return blocks;
 
-        SecureRandom randomness = new SecureRandom();
-        Collections.shuffle(blocks, randomness);
+        Collections.shuffle(blocks, randomSource.asRandom());
         return blocks;
     }
+
+    @Override
+    public IndexPermutation getIndexPermutation(int size) {
+        return new FeistelPermutation(size, randomSource);
+    }
 }
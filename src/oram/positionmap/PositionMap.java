@@ -0,0 +1,33 @@
+package oram.positionmap;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * Map from addresses to positions kept by the client, when the position map is not stored in a recursive ORAM. Keys
+ * and values are primitive integers, so lookups neither box nor allocate.
+ */
+
+public interface PositionMap {
+    int NO_POSITION = Integer.MIN_VALUE;
+
+    /**
+     * @return the position of the address, or {@link #NO_POSITION} if the address has none
+     */
+    int get(int address);
+
+    boolean containsKey(int address);
+
+    /**
+     * @param position must not be {@link #NO_POSITION}
+     */
+    void put(int address, int position);
+
+    int size();
+
+    /**
+     * @return the approximate number of bytes used by the map
+     */
+    long getMemoryUsage();
+}
@@ -0,0 +1,62 @@
+package oram.positionmap;
+
+import java.util.Arrays;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * Position map backed by an array indexed by the address, for address spaces without holes, like 0 to the size of the
+ * ORAM. Uses four bytes per address. The array grows if an address beyond it is inserted. Addresses must not be
+ * negative.
+ */
+
+public class PositionMapDense implements PositionMap {
+    private int[] positions;
+    private int size;
+
+    /**
+     * @param capacity the highest address expected plus one
+     */
+    public PositionMapDense(int capacity) {
+        positions = new int[Math.max(capacity, 1)];
+        Arrays.fill(positions, NO_POSITION);
+        size = 0;
+    }
+
+    @Override
+    public int get(int address) {
+        if (address < 0 || address >= positions.length) return NO_POSITION;
+        return positions[address];
+    }
+
+    @Override
+    public boolean containsKey(int address) {
+        return get(address) != NO_POSITION;
+    }
+
+    @Override
+    public void put(int address, int position) {
+        if (address < 0)
+            throw new IllegalArgumentException("Dense position map can not hold negative address: " + address);
+        if (address >= positions.length) {
+            int oldLength = positions.length;
+            positions = Arrays.copyOf(positions, Math.max(address + 1, oldLength * 2));
+            Arrays.fill(positions, oldLength, positions.length, NO_POSITION);
+        }
+        if (positions[address] == NO_POSITION)
+            size++;
+        positions[address] = position;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long getMemoryUsage() {
+        return 16 + (long) positions.length * Integer.BYTES;
+    }
+}
@@ -0,0 +1,101 @@
+package oram.positionmap;
+
+import java.util.Arrays;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * Position map backed by a hash table with open addressing and linear probing, for sparse address spaces. Keys and
+ * values are kept in two integer arrays, which are doubled when the table gets half full.
+ */
+
+public class PositionMapOpenAddressing implements PositionMap {
+    private static final int EMPTY = Integer.MIN_VALUE;
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    public PositionMapOpenAddressing(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 4) * 2 - 1) << 1;
+        allocate(capacity);
+    }
+
+    @Override
+    public int get(int address) {
+        if (address == EMPTY) return NO_POSITION;
+        int slot = hash(address) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == address) return values[slot];
+            slot = (slot + 1) & mask;
+        }
+        return NO_POSITION;
+    }
+
+    @Override
+    public boolean containsKey(int address) {
+        return get(address) != NO_POSITION;
+    }
+
+    @Override
+    public void put(int address, int position) {
+        if (address == EMPTY)
+            throw new IllegalArgumentException("Position map can not hold address: " + address);
+        int slot = hash(address) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == address) {
+                values[slot] = position;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = address;
+        values[slot] = position;
+        if (++size * 2 > keys.length)
+            resize();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long getMemoryUsage() {
+        return 32 + 2L * keys.length * Integer.BYTES;
+    }
+
+    private void resize() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY) continue;
+            int slot = hash(oldKeys[i]) & mask;
+            while (keys[slot] != EMPTY)
+                slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+    }
+
+    /**
+     * Spreads consecutive addresses over the table (Murmur3 finalizer)
+     */
+    private static int hash(int key) {
+        int h = key ^ (key >>> 16);
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        return h ^ (h >>> 16);
+    }
+}
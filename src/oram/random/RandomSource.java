@@ -0,0 +1,42 @@
+package oram.random;
+
+import java.util.Random;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * The randomness used by the ORAMs for leaves, swap partners, dummy data and permutations. Implementations must be
+ * cryptographically secure and safe to call from more threads.
+ */
+
+public interface RandomSource {
+
+    /**
+     * @return the source shared by the factories and {@link oram.Util#getRandomByteArray(int)} by default
+     */
+    static RandomSource getDefault() {
+        return RandomSourceCtr.DEFAULT;
+    }
+
+    /**
+     * Fills the length bytes of the array from the offset with random bytes
+     */
+    void nextBytes(byte[] bytes, int offset, int length);
+
+    default void nextBytes(byte[] bytes) {
+        nextBytes(bytes, 0, bytes.length);
+    }
+
+    /**
+     * @return a uniformly random integer from 0, inclusive, to the bound, exclusive
+     */
+    int nextInt(int bound);
+
+    /**
+     * @return a {@link Random} drawing from this source, for library calls like {@link java.util.Collections#shuffle}.
+     * It may only be used by the calling thread
+     */
+    Random asRandom();
+}
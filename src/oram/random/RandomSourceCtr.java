@@ -0,0 +1,137 @@
+package oram.random;
+
+import oram.Constants;
+
+import javax.crypto.Cipher;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * A deterministic random bit generator from AES in counter mode. Each thread gets its own generator, with a key and
+ * counter seeded once from {@link SecureRandom}, so no call takes a lock or reads from the entropy pool of the system.
+ * The key stream is generated a buffer at a time, small requests are served from the buffer and large ones are
+ * generated directly into the array of the caller.
+ */
+
+public class RandomSourceCtr implements RandomSource {
+    static final RandomSourceCtr DEFAULT = new RandomSourceCtr();
+    private static final int BUFFER_SIZE = 1024;
+    private final ThreadLocal<Generator> generators = ThreadLocal.withInitial(Generator::new);
+
+    @Override
+    public void nextBytes(byte[] bytes, int offset, int length) {
+        generators.get().nextBytes(bytes, offset, length);
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return generators.get().nextInt(bound);
+    }
+
+    @Override
+    public Random asRandom() {
+        return generators.get();
+    }
+
+    /**
+     * Extends {@link Random} so it can be handed to library calls, all methods of Random draw from the key stream
+     */
+    private static class Generator extends Random {
+        private static final long serialVersionUID = 1L;
+        private final transient Cipher cipher;
+        private final byte[] buffer;
+        private int position;
+
+        Generator() {
+            SecureRandom seed = new SecureRandom();
+            byte[] key = new byte[Constants.AES_BLOCK_SIZE];
+            byte[] counter = new byte[Constants.AES_BLOCK_SIZE];
+            seed.nextBytes(key);
+            seed.nextBytes(counter);
+            try {
+                cipher = Cipher.getInstance("AES/CTR/NoPadding");
+                cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, "AES"), new IvParameterSpec(counter));
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Unable to create the AES-CTR generator", e);
+            }
+            buffer = new byte[BUFFER_SIZE];
+            position = BUFFER_SIZE;
+        }
+
+        @Override
+        protected int next(int bits) {
+            return nextInt() >>> (32 - bits);
+        }
+
+        @Override
+        public int nextInt() {
+            if (position > BUFFER_SIZE - Integer.BYTES) refill();
+            int res = (buffer[position] & 0xFF) | (buffer[position + 1] & 0xFF) << 8 |
+                    (buffer[position + 2] & 0xFF) << 16 | buffer[position + 3] << 24;
+            position += Integer.BYTES;
+            return res;
+        }
+
+        /**
+         * Lemire's multiply and reject, usually one draw and no division
+         */
+        @Override
+        public int nextInt(int bound) {
+            if (bound <= 0) throw new IllegalArgumentException("bound must be positive");
+
+            long product = (nextInt() & 0xFFFFFFFFL) * bound;
+            if ((product & 0xFFFFFFFFL) < bound) {
+                long threshold = (0x100000000L - bound) % bound;
+                while ((product & 0xFFFFFFFFL) < threshold)
+                    product = (nextInt() & 0xFFFFFFFFL) * bound;
+            }
+            return (int) (product >>> 32);
+        }
+
+        @Override
+        public void nextBytes(byte[] bytes) {
+            nextBytes(bytes, 0, bytes.length);
+        }
+
+        void nextBytes(byte[] bytes, int offset, int length) {
+            if (length >= BUFFER_SIZE) {
+                Arrays.fill(bytes, offset, offset + length, (byte) 0);
+                generate(bytes, offset, length);
+                return;
+            }
+
+            while (length > 0) {
+                if (position == BUFFER_SIZE) refill();
+                int count = Math.min(length, BUFFER_SIZE - position);
+                System.arraycopy(buffer, position, bytes, offset, count);
+                position += count;
+                offset += count;
+                length -= count;
+            }
+        }
+
+        private void refill() {
+            Arrays.fill(buffer, (byte) 0);
+            generate(buffer, 0, BUFFER_SIZE);
+            position = 0;
+        }
+
+        //        Encrypts the zeros in place, which leaves the key stream
+        private void generate(byte[] bytes, int offset, int length) {
+            try {
+                cipher.update(bytes, offset, length, bytes, offset);
+            } catch (ShortBufferException e) {
+                throw new IllegalStateException("Unable to generate random bytes", e);
+            }
+        }
+    }
+}
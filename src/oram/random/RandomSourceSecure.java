@@ -0,0 +1,38 @@
+package oram.random;
+
+import java.security.SecureRandom;
+import java.util.Random;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * Draws from a {@link SecureRandom} per thread, for when the generator of the JDK is preferred over
+ * {@link RandomSourceCtr}.
+ */
+
+public class RandomSourceSecure implements RandomSource {
+    private final ThreadLocal<SecureRandom> randomness = ThreadLocal.withInitial(SecureRandom::new);
+
+    @Override
+    public void nextBytes(byte[] bytes, int offset, int length) {
+        if (offset == 0 && length == bytes.length) {
+            randomness.get().nextBytes(bytes);
+            return;
+        }
+        byte[] res = new byte[length];
+        randomness.get().nextBytes(res);
+        System.arraycopy(res, 0, bytes, offset, length);
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return randomness.get().nextInt(bound);
+    }
+
+    @Override
+    public Random asRandom() {
+        return randomness.get();
+    }
+}
@@ -0,0 +1,495 @@
+package oram.ring;
+
+import oram.AccessStrategy;
+import oram.Constants;
+import oram.OperationType;
+import oram.Util;
+import oram.block.BlockEncrypted;
+import oram.block.BlockPath;
+import oram.block.BlockTrivial;
+import oram.block.PositionBlock;
+import oram.blockenc.BlockEncryptionStrategyPath;
+import oram.clientcom.CommunicationStrategy;
+import oram.factory.Factory;
+import oram.path.PathTree;
+import oram.path.StashPath;
+import oram.permutation.PermutationStrategy;
+import oram.positionmap.PositionMap;
+import oram.random.RandomSource;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.crypto.SecretKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static oram.Constants.DUMMY_POSITION;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * Ring ORAM on the same tree as Path ORAM. Each bucket has a metadata slot, followed by Z slots for real blocks and S
+ * extra slots for dummy blocks, in a random order the metadata keeps track of. An access reads the metadata of the
+ * path, and then only one block per bucket, the wanted block where it is, and an unread dummy block elsewhere. Every A
+ * accesses a path is evicted, the paths are picked in reverse lexicographic order of their leaves, so evictions are
+ * spread evenly over the tree. A bucket which has been read S times is written anew, before it runs out of dummies.
+ */
+
+public class AccessStrategyRing implements AccessStrategy {
+    private static final Logger logger = LogManager.getLogger("log");
+    private final int L;
+    private final int leafCount;
+    private final int bucketSize;
+    private final int dummies;
+    private final int slots;
+    private final int evictionRate;
+    private final int offset;
+    private final SecretKey secretKey;
+    private final CommunicationStrategy communicationStrategy;
+    private final PermutationStrategy permutationStrategy;
+    private final BlockEncryptionStrategyPath blockEncStrategy;
+    private final RandomSource randomness;
+    private final byte[] dummyData;
+    private final StashPath stash;
+    private int accessCounter;
+    private int evictionCounter;
+    private int maxStashSize;
+    private int maxStashSizeBetweenAccesses;
+    private PositionMap positionMap;
+    private AccessStrategy accessStrategy;
+    private String prefixString;
+
+    /**
+     * @param size         the number of nodes in the tree
+     * @param bucketSize   the number of real blocks a bucket can hold, Z
+     * @param dummies      the number of extra dummy blocks in each bucket, S
+     * @param evictionRate the number of accesses between evictions, A
+     */
+    public AccessStrategyRing(int size, int bucketSize, int dummies, int evictionRate, byte[] key, Factory factory,
+                              AccessStrategy accessStrategy, int offset, int prefixSize) {
+        this.bucketSize = bucketSize;
+        this.dummies = dummies;
+        this.evictionRate = evictionRate;
+        this.offset = offset;
+        slots = bucketSize + dummies;
+        if (slots > BucketMetadata.getMaxSlots())
+            logger.error("The metadata of a bucket can only hold " + BucketMetadata.getMaxSlots() + " slots");
+        L = (int) Math.ceil(Math.log(size) / Math.log(2));
+        leafCount = PathTree.getLeafCount(0, L);
+        communicationStrategy = factory.getCommunicationStrategy();
+        secretKey = factory.getEncryptionStrategy().generateSecretKey(key);
+        permutationStrategy = factory.getPermutationStrategy();
+        blockEncStrategy = factory.getBlockEncryptionStrategyPath();
+        randomness = factory.getRandomSource();
+        dummyData = new byte[Constants.BLOCK_SIZE];
+        stash = new StashPath();
+        accessCounter = 0;
+        evictionCounter = 0;
+        maxStashSize = 0;
+        maxStashSizeBetweenAccesses = 0;
+
+        prefixString = Util.getEmptyStringOfLength(prefixSize);
+
+        if (accessStrategy != null)
+            this.accessStrategy = accessStrategy;
+        else
+            positionMap = factory.getPositionMap(size);
+
+        logger.info("######### Initialized Ring ORAM strategy #########");
+        logger.debug("######### Initialized Ring ORAM strategy #########");
+    }
+
+    @Override
+    public boolean setup(List<BlockTrivial> blocks) {
+        return true;
+    }
+
+    @Override
+    public byte[] access(OperationType op, int address, byte[] data, boolean recursiveLookup, boolean lookaheadSetup) {
+        if (data != null && data.length > Constants.BLOCK_SIZE) {
+            logger.error(prefixString + "Accessed with data length: " + data.length);
+        }
+
+        int addressToLookUp = address;
+        if (recursiveLookup)
+            addressToLookUp = (int) Math.ceil((double) address / Constants.POSITION_BLOCK_SIZE);
+
+//        Return a random position if the block does not have one already
+        Integer leafNodeIndex;
+        int newLeafNodeIndex = randomness.nextInt(leafCount);
+        if (positionMap == null) {
+            PositionBlock positionBlock = Util.getPositionBlock(addressToLookUp, newLeafNodeIndex, accessStrategy);
+            if (positionBlock == null)
+                return null;
+
+            leafNodeIndex = positionBlock.getPosition(addressToLookUp);
+
+            if (leafNodeIndex == null) {
+                logger.error(prefixString + "Unable to look up address: " + addressToLookUp);
+                return null;
+            } else if (leafNodeIndex == DUMMY_POSITION)
+                leafNodeIndex = randomness.nextInt(leafCount);
+        } else {
+            int position = positionMap.get(addressToLookUp);
+            if (position != PositionMap.NO_POSITION)
+                leafNodeIndex = position;
+            else
+                leafNodeIndex = randomness.nextInt(leafCount);
+
+            positionMap.put(addressToLookUp, newLeafNodeIndex);
+        }
+
+        logger.info(prefixString + "Access op: " + op.toString() + ", address: " + addressToLookUp +
+                ", leaf node: " + leafNodeIndex + " -> " + newLeafNodeIndex);
+
+        List<Integer> nodesToReshuffle = readPathToStash(leafNodeIndex, addressToLookUp);
+        if (nodesToReshuffle == null) {
+            logger.error(prefixString + "Unable to read path doing access");
+            return null;
+        }
+
+        byte[] res = retrieveDataOverwriteBlock(address, op, data, newLeafNodeIndex, recursiveLookup, addressToLookUp);
+        if (res == null) {
+            logger.error(prefixString + "Something went wrong, when getting data from the block with address: " + address);
+            return null;
+        }
+        if (Arrays.equals(res, new byte[0])) {
+            logger.error(prefixString + "Unable to retrieve data from address: " + addressToLookUp + (recursiveLookup ? ", create dummy lookup map" : ""));
+            if (recursiveLookup)
+                res = PositionBlock.getDummyBlock(address).toByteArray();
+        }
+
+        accessCounter++;
+        if (accessCounter % evictionRate == 0 && !evictPath(getNextEvictionLeaf())) {
+            logger.error(prefixString + "Unable to evict path doing access");
+            return null;
+        }
+
+        if (!nodesToReshuffle.isEmpty() && !reshuffleBuckets(nodesToReshuffle)) {
+            logger.error(prefixString + "Unable to reshuffle buckets doing access");
+            return null;
+        }
+
+        if (stash.size() > maxStashSizeBetweenAccesses) {
+            maxStashSizeBetweenAccesses = stash.size();
+            logger.info(prefixString + "Max stash size between accesses: " + maxStashSizeBetweenAccesses);
+        }
+
+        return res;
+    }
+
+    /**
+     * Reads the metadata of the path, and one block from each bucket, which is added to the stash if it is real
+     *
+     * @return the nodes on the path which have been read S times and must be reshuffled, or null if the read failed
+     */
+    private List<Integer> readPathToStash(int leafNodeIndex, int address) {
+        List<Integer> nodes = getPathNodes(leafNodeIndex);
+        List<BucketMetadata> metadata = readMetadata(nodes);
+        if (metadata == null) return null;
+
+        List<Integer> positionsToRead = new ArrayList<>(L);
+        List<Integer> nodesToReshuffle = new ArrayList<>();
+        for (int l = 0; l < L; l++) {
+            BucketMetadata bucketMetadata = metadata.get(l);
+            int slot = bucketMetadata.getSlotOf(address);
+            if (slot < 0 || Util.isDummyAddress(address))
+                slot = getRandomUnreadDummy(bucketMetadata);
+            if (slot < 0) {
+                logger.error(prefixString + "No unread dummy left in bucket: " + nodes.get(l));
+                return null;
+            }
+
+            bucketMetadata.markRead(slot);
+            positionsToRead.add(getSlotPosition(nodes.get(l), slot));
+            if (bucketMetadata.getCount() >= dummies)
+                nodesToReshuffle.add(nodes.get(l));
+        }
+
+        List<BlockEncrypted> encryptedBlocks = communicationStrategy.readArray(positionsToRead);
+        if (encryptedBlocks == null || encryptedBlocks.size() != L) {
+            logger.error(prefixString + "Did not fetch the right amount of blocks");
+            return null;
+        }
+        List<BlockPath> blocksDecrypted = blockEncStrategy.decryptBlocks(encryptedBlocks, secretKey, true);
+        if (blocksDecrypted == null) {
+            logger.error(prefixString + "Unable to decrypt path of blocks");
+            return null;
+        }
+        stash.addAll(blocksDecrypted);
+        if (stash.size() > maxStashSize) {
+            maxStashSize = stash.size();
+            logger.info(prefixString + "Max stash size: " + maxStashSize);
+        }
+
+        List<Integer> addressesToWrite = new ArrayList<>(L);
+        List<BlockEncrypted> blocksToWrite = new ArrayList<>(L);
+        if (!addMetadataToWrite(nodes, metadata, addressesToWrite, blocksToWrite)) return null;
+        if (!communicationStrategy.writeArray(addressesToWrite, blocksToWrite)) {
+            logger.error(prefixString + "Writing metadata returned unsuccessful");
+            return null;
+        }
+        return nodesToReshuffle;
+    }
+
+    /**
+     * As their might not be a block to overwrite, we keep track of whether or not any block has been overwritten
+     *
+     * @param data if recursiveLookup is true, data contains the newLeafLookupIndex for the parent ORAM
+     * @return the data the access must return at last
+     */
+    private byte[] retrieveDataOverwriteBlock(int address, OperationType op, byte[] data, int newLeafNodeIndex,
+                                              boolean recursiveLookup, int addressToLookUp) {
+        boolean hasOverwrittenBlock = false;
+        byte[] endData = new byte[0];
+        BlockPath block = stash.get(addressToLookUp);
+        if (block != null) {
+            endData = block.getData();
+            if (op.equals(OperationType.WRITE)) {
+                if (recursiveLookup) {
+                    PositionBlock positionBlock = PositionBlock.fromByteArray(endData);
+
+                    if (positionBlock == null || !positionBlock.setPosition(address, Util.byteArrayToLeInt(data)))
+                        return null;
+                    stash.put(new BlockPath(addressToLookUp, positionBlock.toByteArray(), newLeafNodeIndex));
+                } else {
+                    stash.put(new BlockPath(addressToLookUp, data, newLeafNodeIndex));
+                }
+                hasOverwrittenBlock = true;
+            } else
+                block.setIndex(newLeafNodeIndex); // Update leaf node index, even for op = READ
+        }
+
+        if (op.equals(OperationType.WRITE) && !hasOverwrittenBlock) {
+            if (recursiveLookup) {
+                PositionBlock positionBlock = PositionBlock.getDummyBlock(address);
+                positionBlock.setPosition(address, Util.byteArrayToLeInt(data));
+                stash.put(new BlockPath(addressToLookUp, positionBlock.toByteArray(), newLeafNodeIndex));
+            } else
+                stash.put(new BlockPath(addressToLookUp, data, newLeafNodeIndex));
+        }
+        if (stash.size() > maxStashSize) {
+            maxStashSize = stash.size();
+            logger.info(prefixString + "Max stash size: " + maxStashSize);
+        }
+
+        return endData;
+    }
+
+    /**
+     * Reads the unread real blocks of the path to the stash, and writes every bucket of the path anew, with as many
+     * blocks from the stash as possible
+     */
+    private boolean evictPath(int leafNode) {
+        List<Integer> nodes = getPathNodes(leafNode);
+        List<BucketMetadata> metadata = readMetadata(nodes);
+        if (metadata == null) return false;
+
+        List<BlockPath> blocksRead = readBuckets(nodes, metadata);
+        if (blocksRead == null) return false;
+        stash.addAll(blocksRead);
+        if (stash.size() > maxStashSize) {
+            maxStashSize = stash.size();
+            logger.info(prefixString + "Max stash size: " + maxStashSize);
+        }
+
+        List<List<BlockPath>> blocksForPath = stash.evictPath(leafNode, L, bucketSize);
+        List<Integer> addressesToWrite = new ArrayList<>(L * (slots + 1));
+        List<BlockEncrypted> blocksToWrite = new ArrayList<>(L * (slots + 1));
+        for (int l = L - 1; l >= 0; l--) {
+            if (!addBucketToWrite(nodes.get(l), blocksForPath.get(l), addressesToWrite, blocksToWrite))
+                return false;
+        }
+
+        if (!communicationStrategy.writeArray(addressesToWrite, blocksToWrite)) {
+            logger.error(prefixString + "Writing evicted path returned unsuccessful");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Writes each of the buckets anew with the real blocks it already holds
+     */
+    private boolean reshuffleBuckets(List<Integer> nodes) {
+        List<BucketMetadata> metadata = readMetadata(nodes);
+        if (metadata == null) return false;
+
+        List<Integer> addressesToWrite = new ArrayList<>(nodes.size() * (slots + 1));
+        List<BlockEncrypted> blocksToWrite = new ArrayList<>(nodes.size() * (slots + 1));
+        for (int i = 0; i < nodes.size(); i++) {
+            List<BlockPath> blocksRead = readBuckets(nodes.subList(i, i + 1), metadata.subList(i, i + 1));
+            if (blocksRead == null) return false;
+            if (!addBucketToWrite(nodes.get(i), blocksRead, addressesToWrite, blocksToWrite)) return false;
+        }
+
+        if (!communicationStrategy.writeArray(addressesToWrite, blocksToWrite)) {
+            logger.error(prefixString + "Writing reshuffled buckets returned unsuccessful");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Reads Z unread slots from each bucket, the real blocks first
+     *
+     * @return the real blocks read, or null if the read failed
+     */
+    private List<BlockPath> readBuckets(List<Integer> nodes, List<BucketMetadata> metadata) {
+        List<Integer> positionsToRead = new ArrayList<>(nodes.size() * bucketSize);
+        for (int i = 0; i < nodes.size(); i++) {
+            BucketMetadata bucketMetadata = metadata.get(i);
+            int slotsRead = 0;
+            for (int slot = 0; slot < slots && slotsRead < bucketSize; slot++) {
+                if (!bucketMetadata.isRead(slot) && !Util.isDummyAddress(bucketMetadata.getAddress(slot))) {
+                    positionsToRead.add(getSlotPosition(nodes.get(i), slot));
+                    slotsRead++;
+                }
+            }
+            for (int slot = 0; slot < slots && slotsRead < bucketSize; slot++) {
+                if (!bucketMetadata.isRead(slot) && Util.isDummyAddress(bucketMetadata.getAddress(slot))) {
+                    positionsToRead.add(getSlotPosition(nodes.get(i), slot));
+                    slotsRead++;
+                }
+            }
+        }
+
+        List<BlockEncrypted> encryptedBlocks = communicationStrategy.readArray(positionsToRead);
+        if (encryptedBlocks == null || encryptedBlocks.size() != positionsToRead.size()) {
+            logger.error(prefixString + "Did not fetch the right amount of blocks from the buckets");
+            return null;
+        }
+        List<BlockPath> res = blockEncStrategy.decryptBlocks(encryptedBlocks, secretKey, true);
+        if (res == null)
+            logger.error(prefixString + "Unable to decrypt the blocks of the buckets");
+        return res;
+    }
+
+    private List<BucketMetadata> readMetadata(List<Integer> nodes) {
+        List<Integer> positionsToRead = new ArrayList<>(nodes.size());
+        for (int node : nodes)
+            positionsToRead.add(getBucketPosition(node));
+
+        List<BlockEncrypted> encryptedBlocks = communicationStrategy.readArray(positionsToRead);
+        if (encryptedBlocks == null || encryptedBlocks.size() != nodes.size()) {
+            logger.error(prefixString + "Did not fetch the right amount of metadata blocks");
+            return null;
+        }
+        List<BlockPath> blocksDecrypted = blockEncStrategy.decryptBlocks(encryptedBlocks, secretKey, false);
+        if (blocksDecrypted == null || blocksDecrypted.size() != nodes.size()) {
+            logger.error(prefixString + "Unable to decrypt the metadata blocks");
+            return null;
+        }
+
+        List<BucketMetadata> res = new ArrayList<>(nodes.size());
+        for (BlockPath block : blocksDecrypted) {
+            BucketMetadata metadata = BucketMetadata.fromByteArray(block.getData(), slots);
+            if (metadata == null) return null;
+            res.add(metadata);
+        }
+        return res;
+    }
+
+    private boolean addMetadataToWrite(List<Integer> nodes, List<BucketMetadata> metadata,
+                                       List<Integer> addressesToWrite, List<BlockEncrypted> blocksToWrite) {
+        List<BlockPath> blocks = new ArrayList<>(metadata.size());
+        for (BucketMetadata bucketMetadata : metadata)
+            blocks.add(new BlockPath(Constants.DUMMY_BLOCK_ADDRESS, bucketMetadata.toByteArray(), 0));
+
+        List<BlockEncrypted> encryptedBlocks = blockEncStrategy.encryptBlocks(blocks, secretKey, false);
+        if (encryptedBlocks == null) {
+            logger.error(prefixString + "Returned null when trying to encrypt metadata");
+            return false;
+        }
+        for (int i = 0; i < nodes.size(); i++) {
+            addressesToWrite.add(getBucketPosition(nodes.get(i)));
+            blocksToWrite.add(encryptedBlocks.get(i));
+        }
+        return true;
+    }
+
+    /**
+     * Places the real blocks and S + Z - (real blocks) dummy blocks in a random order in the bucket, and adds the
+     * encrypted slots and metadata to the lists of blocks to write
+     */
+    private boolean addBucketToWrite(int node, List<BlockPath> realBlocks, List<Integer> addressesToWrite,
+                                     List<BlockEncrypted> blocksToWrite) {
+        List<BlockPath> blocks = new ArrayList<>(slots);
+        blocks.addAll(realBlocks);
+        for (int i = blocks.size(); i < slots; i++)
+            blocks.add(new BlockPath(Constants.DUMMY_BLOCK_ADDRESS, dummyData, 0));
+        blocks = permutationStrategy.permutePathBlocks(blocks);
+
+        BucketMetadata metadata = new BucketMetadata(slots);
+        for (int slot = 0; slot < slots; slot++)
+            metadata.setSlot(slot, blocks.get(slot).getAddress(), blocks.get(slot).getIndex());
+        blocks.add(new BlockPath(Constants.DUMMY_BLOCK_ADDRESS, metadata.toByteArray(), 0));
+
+        List<BlockEncrypted> encryptedBlocks = blockEncStrategy.encryptBlocks(blocks, secretKey, false);
+        if (encryptedBlocks == null) {
+            logger.error(prefixString + "Returned null when trying to encrypt bucket");
+            return false;
+        }
+        for (int slot = 0; slot < slots; slot++) {
+            addressesToWrite.add(getSlotPosition(node, slot));
+            blocksToWrite.add(encryptedBlocks.get(slot));
+        }
+        addressesToWrite.add(getBucketPosition(node));
+        blocksToWrite.add(encryptedBlocks.get(slots));
+        return true;
+    }
+
+    private int getRandomUnreadDummy(BucketMetadata metadata) {
+        int unreadDummies = metadata.getUnreadDummies();
+        if (unreadDummies == 0) return -1;
+
+        int dummyToRead = randomness.nextInt(unreadDummies);
+        for (int slot = 0; slot < slots; slot++) {
+            if (!metadata.isRead(slot) && Util.isDummyAddress(metadata.getAddress(slot)) && dummyToRead-- == 0)
+                return slot;
+        }
+        return -1;
+    }
+
+    /**
+     * @return the leaf of the next path to evict, the leaves are taken in the order of their reversed bits
+     */
+    int getNextEvictionLeaf() {
+        int res = PathTree.getReverseLexicographicLeaf(evictionCounter, L);
+        evictionCounter = (evictionCounter + 1) % leafCount;
+        return res;
+    }
+
+    private List<Integer> getPathNodes(int leafNodeIndex) {
+        List<Integer> res = new ArrayList<>(L);
+        for (int l = 0; l < L; l++)
+            res.add(PathTree.getNode(leafNodeIndex, l, L));
+        return res;
+    }
+
+    /**
+     * @return the position of the metadata of the bucket, the slots follow it
+     */
+    private int getBucketPosition(int node) {
+        return offset + node * (slots + 1);
+    }
+
+    private int getSlotPosition(int node, int slot) {
+        return getBucketPosition(node) + 1 + slot;
+    }
+
+    public int getMaxStashSize() {
+        return maxStashSize;
+    }
+
+    public int getMaxStashSizeBetweenAccesses() {
+        return maxStashSizeBetweenAccesses;
+    }
+
+    public int getStashSize() {
+        return stash.size();
+    }
+}
@@ -0,0 +1,156 @@
+package oram.ring;
+
+import oram.Constants;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * The metadata of a Ring ORAM bucket, stored encrypted in the first slot of the bucket. For each of the other slots it
+ * holds the address, 0 for a dummy, and leaf of the block, and whether the slot has been read since the bucket was
+ * last written. It also counts the reads since then. It is stored as the count followed by an address, a leaf and a
+ * read flag per slot, padded to the block size. An array of zeros is a freshly written bucket of only dummy blocks.
+ */
+
+public class BucketMetadata {
+    private static final Logger logger = LogManager.getLogger("log");
+    private static final int BYTES_PER_SLOT = 2 * Integer.BYTES + 1;
+    private final int[] addresses;
+    private final int[] leaves;
+    private final boolean[] read;
+    private int count;
+
+    /**
+     * Creates the metadata of a bucket with only dummy blocks
+     */
+    public BucketMetadata(int slots) {
+        addresses = new int[slots];
+        leaves = new int[slots];
+        read = new boolean[slots];
+        count = 0;
+    }
+
+    public static int getMaxSlots() {
+        return (Constants.BLOCK_SIZE - Integer.BYTES) / BYTES_PER_SLOT;
+    }
+
+    /**
+     * @return the metadata, or null if the array is too short for the number of slots
+     */
+    public static BucketMetadata fromByteArray(byte[] array, int slots) {
+        if (array == null || array.length < Integer.BYTES + slots * BYTES_PER_SLOT) {
+            logger.error("Unable to get bucket metadata for " + slots + " slots from byte array of length: " +
+                    (array == null ? "null" : array.length));
+            return null;
+        }
+
+        BucketMetadata res = new BucketMetadata(slots);
+        ByteBuffer buffer = ByteBuffer.wrap(array).order(ByteOrder.LITTLE_ENDIAN);
+        res.count = buffer.getInt();
+        for (int i = 0; i < slots; i++) {
+            res.addresses[i] = buffer.getInt();
+            res.leaves[i] = buffer.getInt();
+            res.read[i] = buffer.get() != 0;
+        }
+        return res;
+    }
+
+    public byte[] toByteArray() {
+        ByteBuffer buffer = ByteBuffer.allocate(Constants.BLOCK_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(count);
+        for (int i = 0; i < addresses.length; i++) {
+            buffer.putInt(addresses[i]);
+            buffer.putInt(leaves[i]);
+            buffer.put((byte) (read[i] ? 1 : 0));
+        }
+        return buffer.array();
+    }
+
+    public int getSlots() {
+        return addresses.length;
+    }
+
+    public int getAddress(int slot) {
+        return addresses[slot];
+    }
+
+    public int getLeaf(int slot) {
+        return leaves[slot];
+    }
+
+    public boolean isRead(int slot) {
+        return read[slot];
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return the unread slot holding the address, or -1 if there is none
+     */
+    public int getSlotOf(int address) {
+        for (int i = 0; i < addresses.length; i++)
+            if (!read[i] && addresses[i] == address)
+                return i;
+        return -1;
+    }
+
+    /**
+     * @return the number of unread slots holding dummy blocks
+     */
+    public int getUnreadDummies() {
+        int res = 0;
+        for (int i = 0; i < addresses.length; i++)
+            if (!read[i] && addresses[i] == Constants.DUMMY_BLOCK_ADDRESS)
+                res++;
+        return res;
+    }
+
+    public void setSlot(int slot, int address, int leaf) {
+        addresses[slot] = address;
+        leaves[slot] = leaf;
+        read[slot] = false;
+    }
+
+    /**
+     * Marks the slot as read, and counts the read
+     */
+    public void markRead(int slot) {
+        read[slot] = true;
+        count++;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BucketMetadata that = (BucketMetadata) o;
+        return count == that.count && Arrays.equals(addresses, that.addresses) && Arrays.equals(leaves, that.leaves) &&
+                Arrays.equals(read, that.read);
+    }
+
+    @Override
+    public int hashCode() {
+        int res = 31 * count + Arrays.hashCode(addresses);
+        res = 31 * res + Arrays.hashCode(leaves);
+        return 31 * res + Arrays.hashCode(read);
+    }
+
+    @Override
+    public String toString() {
+        return "BucketMetadata{" +
+                "addresses=" + Arrays.toString(addresses) +
+                ", leaves=" + Arrays.toString(leaves) +
+                ", read=" + Arrays.toString(read) +
+                ", count=" + count +
+                '}';
+    }
+}
@@ -0,0 +1,83 @@
+package oram.server;
+
+import java.util.Random;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * The link the server stand-in simulates between itself and a client. Each request costs the processing time on the
+ * server, one after the other, and its response is sent a round trip time plus a random jitter later. The request and
+ * the response also take their size divided by the bandwidth on the link, which is shared by all requests on the
+ * connection. Requests sent without waiting for earlier responses have their round trips overlap, like on a real link.
+ */
+
+public class NetworkShaping {
+    public static final NetworkShaping NONE = new NetworkShaping(0, 0, 0, 0);
+    private final long roundTripTime;
+    private final long jitter;
+    private final long bandwidth;
+    private final long processingTime;
+
+    /**
+     * @param roundTripTime  in microseconds
+     * @param jitter         the largest extra delay of a response in microseconds
+     * @param bandwidth      in bytes per second, 0 for no limit
+     * @param processingTime the time the server spends on each request in microseconds
+     */
+    public NetworkShaping(long roundTripTime, long jitter, long bandwidth, long processingTime) {
+        this.roundTripTime = roundTripTime;
+        this.jitter = jitter;
+        this.bandwidth = bandwidth;
+        this.processingTime = processingTime;
+    }
+
+    public boolean isNone() {
+        return roundTripTime <= 0 && jitter <= 0 && bandwidth <= 0 && processingTime <= 0;
+    }
+
+    public long getRoundTripTime() {
+        return roundTripTime;
+    }
+
+    public long getJitter() {
+        return jitter;
+    }
+
+    public long getBandwidth() {
+        return bandwidth;
+    }
+
+    public long getProcessingTime() {
+        return processingTime;
+    }
+
+    /**
+     * @return the round trip time plus a random jitter in nano seconds
+     */
+    long getDelay(Random random) {
+        long res = roundTripTime * 1000;
+        if (jitter > 0)
+            res += (long) (random.nextDouble() * jitter * 1000);
+        return res;
+    }
+
+    /**
+     * @return the nano seconds it takes to send the bytes over the link
+     */
+    long getTransmissionTime(long bytes) {
+        if (bandwidth <= 0) return 0;
+        return bytes * 1000000000 / bandwidth;
+    }
+
+    @Override
+    public String toString() {
+        return "NetworkShaping{" +
+                "roundTripTime=" + roundTripTime +
+                ", jitter=" + jitter +
+                ", bandwidth=" + bandwidth +
+                ", processingTime=" + processingTime +
+                '}';
+    }
+}
@@ -0,0 +1,426 @@
+package oram.server;
+
+import oram.Constants;
+import oram.Util;
+import oram.block.BlockEncrypted;
+import oram.clientcom.CommunicationStrategy;
+import oram.clientcom.FrameCodec;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p> ORAM <br>
+ * Created by Christoffer S. Jensen on 18-10-2026. <br>
+ * Master Thesis 2019 </p>
+ * <p>
+ * In-process stand-in for the storage server, so the transports can be tested and benchmarked without the real
+ * server. Blocks are kept by the given communication strategy, usually a stub. Each connection is served by its own
+ * thread, which answers the requests in the order they arrive. A connection speaks either the protocol of the original
+ * server or version 2 frames, told apart by its first four bytes. The link to the clients can be shaped with a
+ * {@link NetworkShaping}.
+ */
+
+public class ServerStandIn {
+    private final Logger logger = LogManager.getLogger("log");
+    private final CommunicationStrategy storage;
+    private final int port;
+    private ServerSocketChannel serverChannel;
+    private volatile boolean running;
+    private NetworkShaping networkShaping = NetworkShaping.NONE;
+
+    /**
+     * @param port the port to listen on, 0 picks a free one
+     */
+    public ServerStandIn(CommunicationStrategy storage, int port) {
+        this.storage = storage;
+        this.port = port;
+    }
+
+    /**
+     * Must be called before the server is started
+     */
+    public void setNetworkShaping(NetworkShaping networkShaping) {
+        this.networkShaping = networkShaping;
+    }
+
+    public boolean start() {
+        try {
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.bind(new InetSocketAddress("localhost", port));
+        } catch (IOException e) {
+            logger.error("Error happened while opening server channel: " + e);
+            logger.debug("Stacktrace", e);
+            return false;
+        }
+
+        running = true;
+        Thread acceptThread = new Thread(this::acceptConnections, "oram-server");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+        return true;
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public void stop() {
+        running = false;
+        try {
+            serverChannel.close();
+        } catch (IOException e) {
+            logger.error("Error happened while closing server channel: " + e);
+            logger.debug("Stacktrace", e);
+        }
+    }
+
+    private void acceptConnections() {
+        while (running) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                channel.socket().setTcpNoDelay(true);
+                Thread connectionThread = new Thread(() -> serveConnection(channel), "oram-server-connection");
+                connectionThread.setDaemon(true);
+                connectionThread.start();
+            } catch (IOException e) {
+                if (running) {
+                    logger.error("Error happened while accepting connection: " + e);
+                    logger.debug("Stacktrace", e);
+                }
+            }
+        }
+    }
+
+    private void serveConnection(SocketChannel channel) {
+        ResponseWriter writer = new ResponseWriter(channel, networkShaping);
+        try {
+//            The original protocol starts with the length of the operation type, a version 2 frame with the magic
+            ByteBuffer first = ByteBuffer.allocate(Integer.BYTES);
+            readFully(channel, first);
+            if (first.getInt(0) == Integer.BYTES)
+                serveLegacyConnection(channel, writer);
+            else
+                serveFrameConnection(channel, writer, first);
+        } catch (EOFException e) {
+            logger.info("Connection closed by client");
+        } catch (IOException e) {
+            logger.error("Error happened while serving connection: " + e);
+            logger.debug("Stacktrace", e);
+        } finally {
+//            The responses still waiting are sent before the channel is closed
+            writer.close();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.error("Error happened while closing connection: " + e);
+                logger.debug("Stacktrace", e);
+            }
+        }
+    }
+
+    private void serveFrameConnection(SocketChannel channel, ResponseWriter writer, ByteBuffer first)
+            throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FrameCodec.HEADER_SIZE);
+        header.put(first.array());
+        FrameCodec.Frame request = FrameCodec.readFrameRest(channel, header);
+        boolean endReceived = false;
+        while (running && !endReceived) {
+            if (request == null) {
+                logger.error("Received frame with invalid header, closing connection");
+                return;
+            }
+
+            long requestSize = FrameCodec.HEADER_SIZE + FrameCodec.getPayloadLength(header);
+            writer.process();
+            if (!writer.send(handleRequest(request), requestSize, true))
+                return;
+            endReceived = request.getOp() == FrameCodec.OP_END;
+            if (!endReceived)
+                request = FrameCodec.readFrame(channel, header);
+        }
+    }
+
+    /**
+     * Serves the protocol of the original server, where every integer and block is sent as a field with its length
+     * first. The operation type and the number of blocks start every request.
+     */
+    private void serveLegacyConnection(SocketChannel channel, ResponseWriter writer) throws IOException {
+        ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+        boolean firstField = true;
+        boolean endReceived = false;
+        while (running && !endReceived) {
+//            The length of the first operation type has already been read
+            byte[] operationType = firstField ? readFieldData(channel, Integer.BYTES) : readField(channel, length);
+            firstField = false;
+            int numberOfBlocks = Util.byteArrayToLeInt(readField(channel, length));
+            long requestSize = 4 * Integer.BYTES;
+
+            ByteBuffer response;
+            switch (Util.byteArrayToLeInt(operationType)) {
+                case 0: {
+                    List<Integer> addresses = new ArrayList<>(numberOfBlocks);
+                    for (int i = 0; i < numberOfBlocks; i++)
+                        addresses.add(Util.byteArrayToLeInt(readField(channel, length)));
+                    requestSize += 2L * Integer.BYTES * numberOfBlocks;
+                    writer.process();
+
+                    List<BlockEncrypted> blocks;
+                    synchronized (storage) {
+                        blocks = storage.readArray(addresses);
+                    }
+                    response = encodeLegacyBlocks(blocks);
+                    break;
+                }
+                case 1: {
+                    List<Integer> addresses = new ArrayList<>(numberOfBlocks);
+                    List<BlockEncrypted> blocks = new ArrayList<>(numberOfBlocks);
+                    for (int i = 0; i < numberOfBlocks; i++) {
+                        addresses.add(Util.byteArrayToLeInt(readField(channel, length)));
+                        byte[] data = readField(channel, length);
+                        blocks.add(new BlockEncrypted(Arrays.copyOf(data, Constants.ENCRYPTED_INTEGER_SIZE),
+                                Arrays.copyOfRange(data, Constants.ENCRYPTED_INTEGER_SIZE, data.length)));
+                        requestSize += 3 * Integer.BYTES + data.length;
+                    }
+                    writer.process();
+
+                    boolean written;
+                    synchronized (storage) {
+                        written = storage.writeArray(addresses, blocks);
+                    }
+                    response = encodeLegacyStatus(written);
+                    break;
+                }
+                case 2:
+                    writer.process();
+                    response = encodeLegacyStatus(true);
+                    endReceived = true;
+                    break;
+                case 3: {
+                    byte[] data = readField(channel, length);
+                    requestSize += Integer.BYTES + data.length;
+                    writer.process();
+                    response = ByteBuffer.allocate(Integer.BYTES + data.length);
+                    response.putInt(data.length).put(data).flip();
+                    break;
+                }
+                default:
+                    logger.error("Unknown operation: " + Util.byteArrayToLeInt(operationType));
+                    return;
+            }
+            if (!writer.send(response, requestSize, false))
+                return;
+        }
+    }
+
+    private static ByteBuffer encodeLegacyBlocks(List<BlockEncrypted> blocks) {
+        int size = 0;
+        for (BlockEncrypted block : blocks)
+            size += Integer.BYTES + (block == null ? 0 : block.getAddress().length + block.getData().length);
+        ByteBuffer res = ByteBuffer.allocate(size);
+        for (BlockEncrypted block : blocks) {
+            if (block == null) {
+                res.putInt(0);
+                continue;
+            }
+            res.putInt(block.getAddress().length + block.getData().length);
+            res.put(block.getAddress()).put(block.getData());
+        }
+        res.flip();
+        return res;
+    }
+
+    private static ByteBuffer encodeLegacyStatus(boolean status) {
+        ByteBuffer res = ByteBuffer.allocate(2 * Integer.BYTES);
+        res.putInt(Integer.BYTES).put(Util.leIntToByteArray(status ? 1 : 0)).flip();
+        return res;
+    }
+
+    private static byte[] readField(SocketChannel channel, ByteBuffer length) throws IOException {
+        length.clear();
+        readFully(channel, length);
+        return readFieldData(channel, length.getInt(0));
+    }
+
+    private static byte[] readFieldData(SocketChannel channel, int length) throws IOException {
+        ByteBuffer data = ByteBuffer.allocate(length);
+        readFully(channel, data);
+        return data.array();
+    }
+
+    private static void readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0)
+                throw new EOFException();
+        }
+    }
+
+    private ByteBuffer handleRequest(FrameCodec.Frame request) {
+        int requestId = request.getRequestId();
+        List<BlockEncrypted> blocks;
+        switch (request.getOp()) {
+            case FrameCodec.OP_READ:
+                synchronized (storage) {
+                    blocks = storage.readArray(request.getAddresses());
+                }
+                if (blocks == null)
+                    return FrameCodec.encodeDataFrame(requestId, FrameCodec.OP_READ, 0, new byte[0]);
+                return FrameCodec.encodeBlocksResponse(requestId, FrameCodec.OP_READ, blocks);
+            case FrameCodec.OP_WRITE:
+                boolean written;
+                synchronized (storage) {
+                    written = storage.writeArray(request.getAddresses(), request.getBlocks());
+                }
+                return FrameCodec.encodeDataFrame(requestId, FrameCodec.OP_WRITE, written ? 1 : 0, new byte[0]);
+            case FrameCodec.OP_READ_WRITE:
+                int writeCount = request.getBlocks().size();
+                List<Integer> addresses = request.getAddresses();
+                synchronized (storage) {
+                    blocks = storage.readWriteArray(addresses.subList(writeCount, addresses.size()),
+                            addresses.subList(0, writeCount), request.getBlocks());
+                }
+                if (blocks == null)
+                    return FrameCodec.encodeDataFrame(requestId, FrameCodec.OP_READ_WRITE, 0, new byte[0]);
+                return FrameCodec.encodeBlocksResponse(requestId, FrameCodec.OP_READ_WRITE, blocks);
+            case FrameCodec.OP_END:
+                return FrameCodec.encodeDataFrame(requestId, FrameCodec.OP_END, 1, new byte[0]);
+            case FrameCodec.OP_SPEED_TEST:
+                return FrameCodec.encodeDataFrame(requestId, FrameCodec.OP_SPEED_TEST, 1, request.getData());
+            default:
+                logger.error("Unknown operation: " + request.getOp());
+                return FrameCodec.encodeDataFrame(requestId, request.getOp(), 0, new byte[0]);
+        }
+    }
+
+    /**
+     * Sends the responses of a connection. Without network shaping they are written right away by the thread serving
+     * the connection, otherwise a thread of its own sends each response when the simulated link would have delivered
+     * it, keeping the order of the requests.
+     */
+    private static class ResponseWriter {
+        private static final ScheduledResponse CLOSE = new ScheduledResponse(null, 0, false);
+        private final Logger logger = LogManager.getLogger("log");
+        private final SocketChannel channel;
+        private final NetworkShaping networkShaping;
+        private final BlockingQueue<ScheduledResponse> queue;
+        private final Random random;
+        private Thread thread;
+        private long linkFreeAt;
+        private long lastSendAt;
+        private volatile boolean failed;
+
+        private ResponseWriter(SocketChannel channel, NetworkShaping networkShaping) {
+            this.channel = channel;
+            this.networkShaping = networkShaping;
+            queue = new LinkedBlockingQueue<>();
+            random = new Random();
+            if (!networkShaping.isNone()) {
+                thread = new Thread(this::sendResponses, "oram-server-writer");
+                thread.setDaemon(true);
+                thread.start();
+            }
+        }
+
+        /**
+         * Spends the processing time of a request
+         */
+        private void process() {
+            long processingTime = networkShaping.getProcessingTime() * 1000;
+            if (processingTime > 0)
+                sleepUntil(System.nanoTime() + processingTime);
+        }
+
+        /**
+         * @param pooled true if the buffer is a frame from {@link FrameCodec}, which is given back to its pool
+         * @return false if the connection has failed
+         */
+        private boolean send(ByteBuffer response, long requestSize, boolean pooled) throws IOException {
+            if (thread == null) {
+                if (pooled)
+                    FrameCodec.writeFrame(channel, response);
+                else
+                    writeFully(channel, response);
+                return true;
+            }
+
+            long now = System.nanoTime();
+            linkFreeAt = Math.max(linkFreeAt, now) +
+                    networkShaping.getTransmissionTime(requestSize + response.remaining());
+            long sendAt = Math.max(Math.max(now + networkShaping.getDelay(random), linkFreeAt), lastSendAt);
+            lastSendAt = sendAt;
+            queue.add(new ScheduledResponse(response, sendAt, pooled));
+            return !failed;
+        }
+
+        private void close() {
+            if (thread == null) return;
+            queue.add(CLOSE);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                logger.error("Interrupted while waiting for the responses to be sent");
+                logger.debug("Stacktrace", e);
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void sendResponses() {
+            try {
+                while (true) {
+                    ScheduledResponse response = queue.take();
+                    if (response == CLOSE) return;
+                    sleepUntil(response.sendAt);
+                    if (failed) continue;
+                    try {
+                        if (response.pooled)
+                            FrameCodec.writeFrame(channel, response.buffer);
+                        else
+                            writeFully(channel, response.buffer);
+                    } catch (IOException e) {
+                        logger.error("Error happened while sending response: " + e);
+                        logger.debug("Stacktrace", e);
+                        failed = true;
+                    }
+                }
+            } catch (InterruptedException e) {
+                logger.error("Response writer interrupted");
+                logger.debug("Stacktrace", e);
+            }
+        }
+
+        private static void writeFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        }
+
+        private static void sleepUntil(long time) {
+            for (long left = time - System.nanoTime(); left > 0; left = time - System.nanoTime())
+                LockSupport.parkNanos(left);
+        }
+    }
+
+    private static class ScheduledResponse {
+        private final ByteBuffer buffer;
+        private final long sendAt;
+        private final boolean pooled;
+
+        private ScheduledResponse(ByteBuffer buffer, long sendAt, boolean pooled) {
+            this.buffer = buffer;
+            this.sendAt = sendAt;
+            this.pooled = pooled;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import oram.OperationType;
 import oram.Util;
 import oram.block.BlockEncrypted;
 import oram.block.BlockTrivial;
+import oram.block.PositionBlock;
 import oram.blockenc.BlockEncryptionStrategyTrivial;
 import oram.clientcom.CommunicationStrategy;
 import oram.factory.Factory;
@@ -14,7 +15,6 @@ import org.apache.logging.log4j.Logger;
 
 import javax.crypto.SecretKey;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -61,18 +61,19 @@ public class AccessStrategyTrivial implements AccessStrategy {
         byte[] res = block.getData();
         if (op.equals(OperationType.WRITE)) {
             if (recursiveLookup) {
-                Map<Integer, Integer> map;
+                PositionBlock positionBlock;
                 if (block.getAddress() == 0)
-                    map = Util.getDummyMap(address);
+                    positionBlock = PositionBlock.getDummyBlock(address);
                 else
-                    map = Util.getMapFromByteArray(res);
+                    positionBlock = PositionBlock.fromByteArray(res);
 
-                res = Util.getByteArrayFromMap(map);
+                if (positionBlock == null)
+                    return null;
+                res = positionBlock.toByteArray();
 
-                if (map == null)
+                if (!positionBlock.setPosition(address, Util.byteArrayToLeInt(data)))
                     return null;
-                map.put(address, Util.byteArrayToLeInt(data));
-                blocks.get(addressToLookUp).setData(Util.getByteArrayFromMap(map));
+                blocks.get(addressToLookUp).setData(positionBlock.toByteArray());
                 blocks.get(addressToLookUp).setAddress(addressToLookUp);
             } else {
                 blocks.get(addressToLookUp).setData(data);
@@ -0,0 +1,173 @@
+package oram;
+
+import oram.block.BlockTrivial;
+import oram.factory.FactoryLocal;
+import oram.ofactory.ORAMFactoryPath;
+import oram.util.TestUtil;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class AsyncAccessStrategyTest {
+
+    @Test
+    public void shouldServeManyThreadsFromOneORAM() throws Exception {
+        ORAMFactoryPath oramFactory = new ORAMFactoryPath(64, 0);
+        FactoryLocal factory = new FactoryLocal(Collections.singletonList(oramFactory), 1);
+        factory.setSimulatedRoundTripTime(200);
+        AccessStrategy accessStrategy = oramFactory.getAccessStrategy(Constants.KEY_BYTES, factory, null, 0);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (AsyncAccessStrategy asyncAccessStrategy = new AsyncAccessStrategy(accessStrategy, 16)) {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                results.add(executor.submit(() -> {
+                    for (int i = 1; i <= 10; i++)
+                        asyncAccessStrategy.write(thread * 10 + i, ("Block " + (thread * 10 + i)).getBytes()).get();
+                    List<CompletableFuture<byte[]>> reads = new ArrayList<>();
+                    for (int i = 1; i <= 10; i++)
+                        reads.add(asyncAccessStrategy.read(thread * 10 + i));
+                    for (int i = 1; i <= 10; i++) {
+                        String data = new String(TestUtil.removeTrailingZeroes(reads.get(i - 1).get()));
+                        if (!data.equals("Block " + (thread * 10 + i)))
+                            return false;
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results)
+                assertThat(result.get(), is(true));
+            assertThat(asyncAccessStrategy.getRequests(), is(80L));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldCoalesceRequestsForTheSameAddress() throws Exception {
+        CountDownLatch firstAccessStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstAccess = new CountDownLatch(1);
+        MapAccessStrategy accessStrategy = new MapAccessStrategy(firstAccessStarted, releaseFirstAccess);
+
+        try (AsyncAccessStrategy asyncAccessStrategy = new AsyncAccessStrategy(accessStrategy)) {
+            CompletableFuture<byte[]> first = asyncAccessStrategy.write(1, "First".getBytes());
+            firstAccessStarted.await();
+
+//            These are queued while the first access is in flight, and are done as one batch
+            CompletableFuture<byte[]> read1 = asyncAccessStrategy.read(1);
+            CompletableFuture<byte[]> write1 = asyncAccessStrategy.write(1, "Second".getBytes());
+            CompletableFuture<byte[]> read2 = asyncAccessStrategy.read(1);
+            CompletableFuture<byte[]> read3 = asyncAccessStrategy.read(2);
+            CompletableFuture<byte[]> read4 = asyncAccessStrategy.read(2);
+            releaseFirstAccess.countDown();
+
+            assertThat(first.get().length, is(0));
+            assertThat(new String(read1.get()), is("First"));
+            assertThat(new String(write1.get()), is("First"));
+            assertThat(new String(read2.get()), is("Second"));
+            assertThat(read3.get().length, is(0));
+            assertThat(read4.get().length, is(0));
+            assertThat(new String(asyncAccessStrategy.read(1).get()), is("Second"));
+
+            assertThat(asyncAccessStrategy.getRequests(), is(7L));
+            assertThat(asyncAccessStrategy.getAccesses(), is(4L));
+        }
+    }
+
+    @Test
+    public void shouldCompleteRequestsWithNullAfterBeingClosed() throws Exception {
+        AsyncAccessStrategy asyncAccessStrategy = new AsyncAccessStrategy(new MapAccessStrategy(null, null));
+        asyncAccessStrategy.close();
+        assertThat(asyncAccessStrategy.read(1).get() == null, is(true));
+    }
+
+    @Test(timeout = 20000)
+    public void shouldCompleteEveryRequestSubmittedWhileClosing() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int run = 0; run < 50; run++) {
+                AsyncAccessStrategy asyncAccessStrategy = new AsyncAccessStrategy(new MapAccessStrategy(null, null));
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<List<CompletableFuture<byte[]>>>> submitted = new ArrayList<>();
+                for (int t = 0; t < 4; t++) {
+                    submitted.add(executor.submit(() -> {
+                        List<CompletableFuture<byte[]>> futures = new ArrayList<>();
+                        start.await();
+                        for (int i = 1; i <= 200; i++)
+                            futures.add(asyncAccessStrategy.write(i, ("Block " + i).getBytes()));
+                        return futures;
+                    }));
+                }
+                start.countDown();
+                asyncAccessStrategy.close();
+
+//                Each future completes, with the data if it was done before the close and with null otherwise
+                for (Future<List<CompletableFuture<byte[]>>> futures : submitted)
+                    for (CompletableFuture<byte[]> future : futures.get())
+                        future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(timeout = 20000)
+    public void shouldCompleteRequestsWithNullWhenABatchReturnsTooFewResults() throws Exception {
+        AccessStrategy accessStrategy = new MapAccessStrategy(null, null) {
+            @Override
+            public List<byte[]> accessBatch(List<Request> requests) {
+                return new ArrayList<>();
+            }
+        };
+        try (AsyncAccessStrategy asyncAccessStrategy = new AsyncAccessStrategy(accessStrategy)) {
+            assertThat(asyncAccessStrategy.read(1).get() == null, is(true));
+            assertThat(asyncAccessStrategy.write(2, "Block 2".getBytes()).get() == null, is(true));
+        }
+    }
+
+    private static class MapAccessStrategy implements AccessStrategy {
+        private final Map<Integer, byte[]> blocks = new HashMap<>();
+        private final CountDownLatch started;
+        private final CountDownLatch release;
+
+        private MapAccessStrategy(CountDownLatch started, CountDownLatch release) {
+            this.started = started;
+            this.release = release;
+        }
+
+        @Override
+        public boolean setup(List<BlockTrivial> blocks) {
+            return true;
+        }
+
+        @Override
+        public byte[] access(OperationType op, int address, byte[] data, boolean recursiveLookup,
+                             boolean lookaheadSetup) {
+            if (started != null && started.getCount() > 0) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    return null;
+                }
+            }
+            byte[] res = blocks.getOrDefault(address, new byte[0]);
+            if (op == OperationType.WRITE)
+                blocks.put(address, data);
+            return res;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package oram;
+
+import oram.block.BlockTrivial;
+import oram.block.PositionBlock;
+import oram.factory.FactoryLocal;
+import oram.lookahead.AccessStrategyLookahead;
+import oram.ofactory.ORAMFactory;
+import oram.ofactory.ORAMFactoryLookahead;
+import oram.ofactory.ORAMFactoryPath;
+import oram.ofactory.ORAMFactoryRing;
+import oram.ofactory.ORAMFactoryTrivial;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Sets up the recursive ORAMs the same way as {@link Main} does, with the position maps stored as position blocks
+ */
+public class RecursiveORAMTest {
+    private static final int ADDRESSES = 40;
+
+    @Test
+    public void shouldAccessPathORAMWithTrivialPositionMap() {
+        List<ORAMFactory> factories = Arrays.asList(new ORAMFactoryPath(Util.getLevelSize(0, 1), 0),
+                new ORAMFactoryTrivial(Util.getLevelSize(1, 1), (Util.getLevelSize(0, 1) - 1) * 4));
+        List<AccessStrategy> accesses = setup(factories, false);
+
+        for (int i = 1; i <= ADDRESSES; i++)
+            accesses.get(0).access(OperationType.WRITE, i, Util.leIntToByteArray(i), false, false);
+        for (int i = 1; i <= ADDRESSES; i++) {
+            byte[] res = accesses.get(0).access(OperationType.READ, i, null, false, false);
+            assertNotNull(res);
+            assertThat(Util.byteArrayToLeInt(Arrays.copyOf(res, 4)), is(i));
+        }
+    }
+
+    @Test
+    public void shouldAccessRingORAMWithPathPositionMap() {
+        int levelSize = Util.getLevelSize(0, 1);
+        List<ORAMFactory> factories = Arrays.asList(new ORAMFactoryRing(levelSize, 0),
+                new ORAMFactoryPath(Util.getLevelSize(1, 1), ORAMFactoryRing.getTotalSize(levelSize - 1)));
+        List<AccessStrategy> accesses = setup(factories, false);
+
+        for (int i = 1; i <= ADDRESSES; i++)
+            accesses.get(0).access(OperationType.WRITE, i, Util.leIntToByteArray(i), false, false);
+        for (int i = 1; i <= ADDRESSES; i++) {
+            byte[] res = accesses.get(0).access(OperationType.READ, i, null, false, false);
+            assertNotNull(res);
+            assertThat(Util.byteArrayToLeInt(Arrays.copyOf(res, 4)), is(i));
+        }
+    }
+
+    @Test
+    public void shouldAccessLookaheadORAMWithPathPositionMap() {
+        int levelSize = Util.getLevelSize(0, 1);
+        List<ORAMFactory> factories = Arrays.asList(new ORAMFactoryLookahead(levelSize, 0),
+                new ORAMFactoryPath(Util.getLevelSize(1, 1), levelSize + 2 * (int) Math.sqrt(levelSize)));
+        List<AccessStrategy> accesses = setup(factories, true);
+
+        for (int round = 0; round < 2; round++) {
+            for (int i = 1; i <= ADDRESSES; i++) {
+                byte[] res = accesses.get(0).access(OperationType.READ, i, null, false, false);
+                assertNotNull(res);
+                assertThat(Util.byteArrayToLeInt(Arrays.copyOf(res, 4)), is(i));
+            }
+        }
+    }
+
+    @Test
+    public void shouldAccessPathORAMInBatchesWithTrivialPositionMap() {
+        List<ORAMFactory> factories = Arrays.asList(new ORAMFactoryPath(Util.getLevelSize(0, 1), 0),
+                new ORAMFactoryTrivial(Util.getLevelSize(1, 1), (Util.getLevelSize(0, 1) - 1) * 4));
+        List<AccessStrategy> accesses = setup(factories, false);
+
+        List<Request> writes = new ArrayList<>();
+        for (int i = 1; i <= ADDRESSES; i++)
+            writes.add(Request.write(i, Util.leIntToByteArray(i)));
+        assertNotNull(accesses.get(0).accessBatch(writes.subList(0, ADDRESSES / 2)));
+        assertNotNull(accesses.get(0).accessBatch(writes.subList(ADDRESSES / 2, ADDRESSES)));
+
+        assertBatchRead(accesses.get(0));
+    }
+
+    @Test
+    public void shouldAccessLookaheadORAMInBatchesWithPathPositionMap() {
+        int levelSize = Util.getLevelSize(0, 1);
+        List<ORAMFactory> factories = Arrays.asList(new ORAMFactoryLookahead(levelSize, 0),
+                new ORAMFactoryPath(Util.getLevelSize(1, 1), levelSize + 2 * (int) Math.sqrt(levelSize)));
+        List<AccessStrategy> accesses = setup(factories, true);
+
+        for (int round = 0; round < 2; round++)
+            assertBatchRead(accesses.get(0));
+    }
+
+    @Test
+    public void shouldAccessLookaheadORAMWithPrefetchAndPathPositionMap() {
+        int levelSize = Util.getLevelSize(0, 1);
+        List<ORAMFactory> factories = Arrays.asList(new ORAMFactoryLookahead(levelSize, 0),
+                new ORAMFactoryPath(Util.getLevelSize(1, 1), levelSize + 2 * (int) Math.sqrt(levelSize)));
+        FactoryLocal factory = new FactoryLocal(factories, factories.size());
+        factory.setPrefetch(true);
+        List<AccessStrategy> accesses = setup(factories, factory, true);
+
+        for (int i = 1; i <= ADDRESSES; i++)
+            accesses.get(0).access(OperationType.WRITE, i, Util.leIntToByteArray(ADDRESSES + i), false, false);
+        for (int round = 0; round < 2; round++) {
+            for (int i = 1; i <= ADDRESSES; i++) {
+                byte[] res = accesses.get(0).access(OperationType.READ, i, null, false, false);
+                assertNotNull(res);
+                assertThat(Util.byteArrayToLeInt(Arrays.copyOf(res, 4)), is(ADDRESSES + i));
+            }
+        }
+
+//        A batch starts from the blocks read ahead by the last single access
+        List<Request> writes = new ArrayList<>();
+        for (int i = 1; i <= ADDRESSES; i++)
+            writes.add(Request.write(i, Util.leIntToByteArray(i)));
+        assertNotNull(accesses.get(0).accessBatch(writes));
+        assertBatchRead(accesses.get(0));
+        byte[] res = accesses.get(0).access(OperationType.READ, 1, null, false, false);
+        assertNotNull(res);
+        assertThat(Util.byteArrayToLeInt(Arrays.copyOf(res, 4)), is(1));
+
+        assertTrue(factory.getCommunicationStrategy().sendEndSignal());
+    }
+
+    private void assertBatchRead(AccessStrategy access) {
+        List<Request> reads = new ArrayList<>();
+        for (int i = 1; i <= ADDRESSES; i++)
+            reads.add(Request.read(i));
+        List<byte[]> res = access.accessBatch(reads);
+        assertNotNull(res);
+        for (int i = 1; i <= ADDRESSES; i++)
+            assertThat(Util.byteArrayToLeInt(Arrays.copyOf(res.get(i - 1), 4)), is(i));
+    }
+
+    private List<AccessStrategy> setup(List<ORAMFactory> factories, boolean lookahead) {
+        return setup(factories, new FactoryLocal(factories, factories.size()), lookahead);
+    }
+
+    private List<AccessStrategy> setup(List<ORAMFactory> factories, FactoryLocal factory, boolean lookahead) {
+        List<AccessStrategy> accesses = Util.getAccessStrategies(factories, Constants.KEY_BYTES, factory);
+
+        List<BlockTrivial> mapBlocks = new ArrayList<>();
+        for (int i = 1; i <= factories.get(0).getNumberOfBlocks(); i++)
+            mapBlocks.add(new BlockTrivial(i, PositionBlock.getDummyBlock((i - 1) * Constants.POSITION_BLOCK_SIZE + 1)
+                    .toByteArray()));
+        for (int i = accesses.size(); i > 1; i--)
+            assertTrue(accesses.get(i - 1).setup(mapBlocks));
+
+        if (lookahead) {
+            List<BlockTrivial> blocks = new ArrayList<>();
+            for (int i = 1; i <= factories.get(0).getNumberOfBlocks(); i++) {
+                byte[] data = new byte[Constants.BLOCK_SIZE];
+                System.arraycopy(Util.leIntToByteArray(i), 0, data, 0, 4);
+                blocks.add(new BlockTrivial(i, data));
+            }
+            assertTrue(((AccessStrategyLookahead) accesses.get(0)).setup(blocks));
+        }
+        return accesses;
+    }
+}
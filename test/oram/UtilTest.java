@@ -1,13 +1,11 @@
 package oram;
 
 import oram.block.BlockEncrypted;
+import oram.block.PositionBlock;
 import oram.clientcom.CommunicationStrategyStub;
 import org.junit.Ignore;
 import org.junit.Test;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.*;
@@ -191,33 +189,27 @@ public class UtilTest {
     }
 
     @Test
-    public void shouldBeAbleToCreateDummyMap() {
-        Map<Integer, Integer> map = new HashMap<>();
-        for (int i = 1; i <= 16; i++)
-            map.put(i, -42);
-
-        Map<Integer, Integer> tmp;
+    public void shouldBeAbleToCreateDummyPositionBlock() {
+        PositionBlock block = new PositionBlock(1);
+        PositionBlock tmp;
         for (int i = 1; i <= 16; i++) {
-            tmp = Util.getDummyMap(i);
-            assertThat("Map including: " + i, tmp, is(map));
+            tmp = PositionBlock.getDummyBlock(i);
+            assertThat("Block including: " + i, tmp, is(block));
         }
 
-        map = new HashMap<>();
         int newStart = 16 * 4;
-        for (int i = 1; i <= 16; i++) {
-            map.put(i + newStart, Constants.DUMMY_POSITION);
-        }
-
+        block = new PositionBlock(newStart + 1);
         for (int i = newStart + 1; i <= newStart + 16; i++) {
-            tmp = Util.getDummyMap(i);
-            assertThat("Map including: " + i, tmp, is(map));
+            tmp = PositionBlock.getDummyBlock(i);
+            assertThat("Block including: " + i, tmp, is(block));
+            assertThat("Maps " + i + " to -42", tmp.getPosition(i), is(Constants.DUMMY_POSITION));
         }
 
-        tmp = Util.getDummyMap(0);
-        assertNotNull("Map is not null", tmp);
+        tmp = PositionBlock.getDummyBlock(0);
+        assertNotNull("Block is not null", tmp);
         for (int i = -16; i < 0; i++) {
-            assertTrue("Maps contains: " + i, tmp.containsKey(i));
-            assertThat("Maps " + i + " to -42", tmp.get(i), is(Constants.DUMMY_POSITION));
+            assertTrue("Block contains: " + i, tmp.contains(i));
+            assertThat("Maps " + i + " to -42", tmp.getPosition(i), is(Constants.DUMMY_POSITION));
         }
     }
 
@@ -251,12 +243,17 @@ public class UtilTest {
     }
 
     @Test
-    public void shouldBeAbleToConvertBetweenByteArraysAndMaps() {
-        Map<Integer, Integer> map = new HashMap<>();
-        map.put(1, 2);
-        map.put(0, 0);
-        map.put(-42, 321432432);
-        byte[] bytes = Util.getByteArrayFromMap(map);
-        assertThat(Util.getMapFromByteArray(bytes), is(map));
+    public void shouldBeAbleToConvertBetweenByteArraysAndPositionBlocks() {
+        PositionBlock block = PositionBlock.getDummyBlock(20);
+        block.setPosition(17, 2);
+        block.setPosition(20, 0);
+        block.setPosition(32, 321432432);
+        byte[] bytes = block.toByteArray();
+        assertThat(bytes.length, is(4 + 16 * 4));
+        assertThat(PositionBlock.fromByteArray(bytes), is(block));
+        assertThat(PositionBlock.fromByteArray(bytes).getPosition(32), is(321432432));
+        assertNull(PositionBlock.fromByteArray(bytes).getPosition(33));
+        assertNull(PositionBlock.fromByteArray(new byte[3]));
+        assertFalse(block.setPosition(16, 1));
     }
 }
@@ -0,0 +1,114 @@
+package oram.blockenc;
+
+import oram.Constants;
+import oram.OperationType;
+import oram.Util;
+import oram.block.BlockEncrypted;
+import oram.block.BlockLookahead;
+import oram.block.BlockPath;
+import oram.encryption.EncryptionStrategy;
+import oram.encryption.EncryptionStrategyImpl;
+import oram.factory.FactoryLocal;
+import oram.ofactory.ORAMFactoryPath;
+import oram.path.AccessStrategyPath;
+import oram.permutation.PermutationStrategyIdentity;
+import org.junit.Test;
+
+import javax.crypto.SecretKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertNull;
+
+public class BlockCryptoPoolTest {
+    private final EncryptionStrategy encryptionStrategy = new EncryptionStrategyImpl();
+    private final SecretKey secretKey = encryptionStrategy.generateSecretKey("Some key".getBytes());
+
+    @Test
+    public void shouldKeepTheOrderOfTheResults() {
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 1000; i++)
+            items.add(i);
+
+        for (BlockCryptoPool pool : Arrays.asList(BlockCryptoPool.SEQUENTIAL, BlockCryptoPool.forkJoin(4),
+                BlockCryptoPool.fixed(3))) {
+            List<Integer> res = pool.map(items, i -> i * 2);
+            for (int i = 0; i < items.size(); i++)
+                assertThat(res.get(i), is(i * 2));
+            assertThat(pool.map(Collections.<Integer>emptyList(), i -> i).size(), is(0));
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldReturnNullIfAWorkerFails() {
+        BlockCryptoPool pool = BlockCryptoPool.fixed(2);
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 100; i++)
+            items.add(i);
+
+        assertNull(pool.map(items, i -> {
+            if (i == 99) throw new IllegalStateException("Failed on purpose");
+            return i;
+        }));
+        pool.shutdown();
+    }
+
+    @Test
+    public void shouldEncryptAndDecryptBlocksInParallel() {
+        BlockCryptoPool pool = BlockCryptoPool.forkJoin(4);
+        BlockEncryptionStrategyPath path =
+                new BlockEncryptionStrategyPathSingle(encryptionStrategy, new PermutationStrategyIdentity());
+        BlockEncryptionStrategyLookahead lookahead = new BlockEncryptionStrategyLookahead(encryptionStrategy);
+        path.setBlockCryptoPool(pool);
+        lookahead.setBlockCryptoPool(pool);
+
+        List<BlockPath> pathBlocks = new ArrayList<>();
+        List<BlockLookahead> lookaheadBlocks = new ArrayList<>();
+        for (int i = 0; i < 80; i++) {
+            pathBlocks.add(new BlockPath(i % 5 == 0 ? 0 : i, Util.getRandomByteArray(Constants.BLOCK_SIZE), i));
+            BlockLookahead block = new BlockLookahead(i, Util.getRandomByteArray(Constants.BLOCK_SIZE));
+            block.setRowIndex(i % 7);
+            block.setColIndex(i / 7);
+            lookaheadBlocks.add(i == 3 ? null : block);
+        }
+
+        List<BlockPath> decryptedPath = path.decryptBlocks(path.encryptBlocks(pathBlocks, secretKey), secretKey, true);
+        assertThat(decryptedPath.size(), is(64));
+        for (BlockPath block : decryptedPath)
+            assertThat(block.getData(), is(pathBlocks.get(block.getIndex()).getData()));
+
+        List<BlockEncrypted> encryptedLookahead = lookahead.encryptBlocks(lookaheadBlocks, secretKey);
+        assertNull(encryptedLookahead.get(3));
+        encryptedLookahead.remove(3);
+        List<BlockLookahead> decryptedLookahead = lookahead.decryptBlocks(encryptedLookahead, secretKey);
+        for (int i = 0; i < decryptedLookahead.size(); i++) {
+            int index = i < 3 ? i : i + 1;
+            assertThat(decryptedLookahead.get(i).getAddress(), is(index));
+            assertThat(decryptedLookahead.get(i).getColIndex(), is(index / 7));
+            assertThat(decryptedLookahead.get(i).getData(), is(lookaheadBlocks.get(index).getData()));
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void shouldRunPathORAMWithParallelBlockCrypto() {
+        BlockCryptoPool pool = BlockCryptoPool.fixed(4);
+        FactoryLocal factory = new FactoryLocal(Collections.singletonList(new ORAMFactoryPath(64, 0)), 1);
+        factory.setBlockCryptoPool(pool);
+        AccessStrategyPath accessStrategy = new AccessStrategyPath(63, Constants.DEFAULT_BUCKET_SIZE,
+                Constants.KEY_BYTES, factory, null, 0, 0);
+
+        for (int i = 1; i <= 40; i++)
+            accessStrategy.access(OperationType.WRITE, i, Util.leIntToByteArray(i), false, false);
+        for (int i = 1; i <= 40; i++) {
+            byte[] res = accessStrategy.access(OperationType.READ, i, null, false, false);
+            assertThat(Util.byteArrayToLeInt(Arrays.copyOf(res, 4)), is(i));
+        }
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,173 @@
+package oram.blockenc;
+
+import oram.Constants;
+import oram.OperationType;
+import oram.Util;
+import oram.block.BlockEncrypted;
+import oram.block.BlockLookahead;
+import oram.block.BlockPath;
+import oram.block.BlockTrivial;
+import oram.encryption.EncryptionStrategy;
+import oram.encryption.EncryptionStrategyGcm;
+import oram.encryption.EncryptionStrategyImpl;
+import oram.factory.BlockCodecType;
+import oram.factory.EncryptionType;
+import oram.factory.FactoryLocal;
+import oram.lookahead.AccessStrategyLookahead;
+import oram.ofactory.ORAMFactoryLookahead;
+import oram.ofactory.ORAMFactoryPath;
+import oram.path.AccessStrategyPath;
+import oram.permutation.PermutationStrategyIdentity;
+import org.junit.Test;
+
+import javax.crypto.SecretKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BlockEncryptionStrategySingleTest {
+    private final EncryptionStrategy encryptionStrategy = new EncryptionStrategyImpl();
+    private final SecretKey secretKey = encryptionStrategy.generateSecretKey("Some key".getBytes());
+
+    @Test
+    public void shouldEncryptPathBlocksAsOneSmallerCipherText() {
+        BlockEncryptionStrategyPath legacy =
+                new BlockEncryptionStrategyPath(encryptionStrategy, new PermutationStrategyIdentity());
+        BlockEncryptionStrategyPath single =
+                new BlockEncryptionStrategyPathSingle(encryptionStrategy, new PermutationStrategyIdentity());
+        List<BlockPath> blocks = Arrays.asList(new BlockPath(4, Util.getRandomByteArray(Constants.BLOCK_SIZE), 7),
+                new BlockPath(0, new byte[Constants.BLOCK_SIZE], 2));
+
+        List<BlockEncrypted> encrypted = single.encryptBlocks(blocks, secretKey);
+        BlockEncrypted legacyEncrypted = legacy.encryptBlocks(blocks, secretKey).get(0);
+        assertThat(encrypted.get(0).getAddress().length, is(Constants.ENCRYPTED_INTEGER_SIZE));
+        assertTrue(encrypted.get(0).getData().length < legacyEncrypted.getData().length);
+
+        List<BlockPath> decrypted = single.decryptBlocks(encrypted, secretKey, true);
+        assertThat(decrypted.size(), is(1));
+        assertThat(decrypted.get(0).getAddress(), is(4));
+        assertThat(decrypted.get(0).getIndex(), is(7));
+        assertThat(decrypted.get(0).getData(), is(blocks.get(0).getData()));
+
+        List<BlockPath> fromLegacy = single.decryptBlocks(Collections.singletonList(legacyEncrypted), secretKey, true);
+        assertThat(fromLegacy.get(0).getIndex(), is(7));
+        assertThat(fromLegacy.get(0).getData(), is(blocks.get(0).getData()));
+    }
+
+    @Test
+    public void shouldFailPathBlocksAlteredByTheServer() {
+        EncryptionStrategy gcm = new EncryptionStrategyGcm();
+        SecretKey gcmKey = gcm.generateSecretKey("Some key".getBytes());
+        List<BlockPath> blocks = Arrays.asList(new BlockPath(4, Util.getRandomByteArray(Constants.BLOCK_SIZE), 7),
+                new BlockPath(5, Util.getRandomByteArray(Constants.BLOCK_SIZE), 3));
+
+        for (BlockEncryptionStrategyPath blockEncStrategy : Arrays.asList(
+                new BlockEncryptionStrategyPathSingle(gcm, new PermutationStrategyIdentity()),
+                new BlockEncryptionStrategyPath(gcm, new PermutationStrategyIdentity()))) {
+            assertThat(blockEncStrategy.decryptBlocks(blockEncStrategy.encryptBlocks(blocks, gcmKey), gcmKey, true)
+                    .size(), is(2));
+
+//            A bit flipped in the address field and in the data field, and a block cut short
+            for (int alteration = 0; alteration < 3; alteration++) {
+                List<BlockEncrypted> encrypted = blockEncStrategy.encryptBlocks(blocks, gcmKey);
+                BlockEncrypted block = encrypted.get(0);
+                if (alteration == 0)
+                    block.getAddress()[20] ^= 1;
+                else if (alteration == 1)
+                    block.getData()[block.getData().length / 2] ^= 1;
+                else
+                    block.setData(Arrays.copyOf(block.getData(), 8));
+                assertNull(blockEncStrategy.decryptBlocks(encrypted, gcmKey, true));
+            }
+        }
+    }
+
+    @Test
+    public void shouldEncryptLookaheadBlocksAsOneCipherText() {
+        BlockEncryptionStrategyLookahead single = new BlockEncryptionStrategyLookaheadSingle(encryptionStrategy);
+        BlockLookahead block = new BlockLookahead(9, Util.getRandomByteArray(Constants.BLOCK_SIZE));
+        block.setRowIndex(3);
+        block.setColIndex(5);
+
+        BlockLookahead decrypted = single.decryptBlock(single.encryptBlock(block, secretKey), secretKey);
+        assertThat(decrypted.getAddress(), is(9));
+        assertThat(decrypted.getRowIndex(), is(3));
+        assertThat(decrypted.getColIndex(), is(5));
+        assertThat(decrypted.getData(), is(block.getData()));
+
+        BlockLookahead fromLegacy = single.decryptBlock(
+                new BlockEncryptionStrategyLookahead(encryptionStrategy).encryptBlock(block, secretKey), secretKey);
+        assertThat(fromLegacy.getAddress(), is(9));
+        assertThat(fromLegacy.getColIndex(), is(5));
+    }
+
+    @Test
+    public void shouldRunLookaheadORAMOnServerInitializedWithLegacyBlocks() {
+        FactoryLocal factory = new FactoryLocal(Collections.singletonList(new ORAMFactoryLookahead(16, 0)), 1);
+        AccessStrategyLookahead accessStrategy =
+                new AccessStrategyLookahead(16, 4, Constants.KEY_BYTES, factory, 0, null, 0);
+        List<BlockTrivial> blocks = new ArrayList<>();
+        for (int i = 1; i <= 10; i++)
+            blocks.add(new BlockTrivial(i, Util.getRandomByteArray(Constants.BLOCK_SIZE)));
+        assertTrue(accessStrategy.setup(blocks));
+
+        for (int round = 0; round < 3; round++) {
+            for (BlockTrivial block : blocks) {
+                byte[] res = accessStrategy.access(OperationType.READ, block.getAddress(), null, false, false);
+                assertThat(res, is(block.getData()));
+            }
+        }
+    }
+
+    @Test
+    public void shouldRunPathORAMOnServerInitializedWithLegacyBlocks() {
+        FactoryLocal factory = new FactoryLocal(Collections.singletonList(new ORAMFactoryPath(16, 0)), 1);
+        AccessStrategyPath accessStrategy = new AccessStrategyPath(15, Constants.DEFAULT_BUCKET_SIZE,
+                Constants.KEY_BYTES, factory, null, 0, 0);
+
+        for (int i = 1; i <= 10; i++)
+            accessStrategy.access(OperationType.WRITE, i, Util.leIntToByteArray(i), false, false);
+        for (int i = 1; i <= 10; i++) {
+            byte[] res = accessStrategy.access(OperationType.READ, i, null, false, false);
+            assertThat(Util.byteArrayToLeInt(Arrays.copyOf(res, 4)), is(i));
+        }
+    }
+
+    @Test
+    public void shouldRunORAMsWithCtrAndGcm() {
+        for (EncryptionType encryptionType : Arrays.asList(EncryptionType.CTR, EncryptionType.GCM)) {
+            for (BlockCodecType blockCodecType : BlockCodecType.values()) {
+                FactoryLocal factory = new FactoryLocal(Collections.singletonList(new ORAMFactoryPath(16, 0)), 1);
+                factory.setEncryptionType(encryptionType);
+                factory.setBlockCodecType(blockCodecType);
+                AccessStrategyPath accessStrategy = new AccessStrategyPath(15, Constants.DEFAULT_BUCKET_SIZE,
+                        Constants.KEY_BYTES, factory, null, 0, 0);
+
+                for (int i = 1; i <= 10; i++)
+                    accessStrategy.access(OperationType.WRITE, i, Util.leIntToByteArray(i), false, false);
+                for (int i = 1; i <= 10; i++) {
+                    byte[] res = accessStrategy.access(OperationType.READ, i, null, false, false);
+                    assertThat(Util.byteArrayToLeInt(Arrays.copyOf(res, 4)), is(i));
+                }
+            }
+
+            FactoryLocal factory = new FactoryLocal(Collections.singletonList(new ORAMFactoryLookahead(16, 0)), 1);
+            factory.setEncryptionType(encryptionType);
+            AccessStrategyLookahead accessStrategy =
+                    new AccessStrategyLookahead(16, 4, Constants.KEY_BYTES, factory, 0, null, 0);
+            List<BlockTrivial> blocks = new ArrayList<>();
+            for (int i = 1; i <= 10; i++)
+                blocks.add(new BlockTrivial(i, Util.getRandomByteArray(Constants.BLOCK_SIZE)));
+            assertTrue(accessStrategy.setup(blocks));
+            for (BlockTrivial block : blocks)
+                assertThat(accessStrategy.access(OperationType.READ, block.getAddress(), null, false, false),
+                        is(block.getData()));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package oram.clientcom;
+
+import oram.OperationType;
+import oram.block.BlockEncrypted;
+import oram.path.AccessStrategyPath;
+import oram.server.ServerStandIn;
+import oram.util.FactoryStub;
+import oram.util.TestUtil;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class CommunicationStrategyDeferredTest {
+    private static final int BUCKET_SIZE = 4;
+
+    @Test
+    public void shouldSendWritesWithTheNextRead() {
+        CommunicationStrategyStub stub = new CommunicationStrategyStub(4, BUCKET_SIZE);
+        CommunicationStrategyDeferred communicationStrategy = new CommunicationStrategyDeferred(stub);
+        BlockEncrypted block1 = new BlockEncrypted(new byte[]{1}, new byte[]{2});
+        BlockEncrypted block2 = new BlockEncrypted(new byte[]{3}, new byte[]{4});
+
+        assertThat(communicationStrategy.writeArray(Arrays.asList(1, 2), Arrays.asList(block1, block1)), is(true));
+        assertThat(communicationStrategy.write(2, block2), is(true));
+        assertThat(stub.read(1), is(nullValue()));
+
+        assertThat(communicationStrategy.readArray(Arrays.asList(1, 2)), is(Arrays.asList(block1, block2)));
+        assertThat(stub.read(2), is(block2));
+
+        assertThat(communicationStrategy.write(3, block1), is(true));
+        assertThat(communicationStrategy.sendEndSignal(), is(true));
+        assertThat(stub.read(3), is(block1));
+    }
+
+    @Test
+    public void shouldCombineWritesWithReadsOverTheConnection() {
+        CommunicationStrategyStub stub = new CommunicationStrategyStub(4, BUCKET_SIZE);
+        ServerStandIn server = new ServerStandIn(stub, 0);
+        assertThat(server.start(), is(true));
+        CommunicationStrategyNio nio = new CommunicationStrategyNio(server.getPort());
+        assertThat(nio.start("localhost"), is(true));
+
+        BlockEncrypted block = new BlockEncrypted(new byte[]{1}, new byte[]{2});
+        assertThat(nio.readWriteArray(Arrays.asList(0, 5), Collections.singletonList(5),
+                Collections.singletonList(block)), is(Arrays.asList(null, block)));
+        assertThat(stub.read(5), is(block));
+        assertThat(nio.sendEndSignal(), is(true));
+        server.stop();
+    }
+
+    @Test
+    public void shouldRunPathORAMWithDeferredWrites() {
+        CommunicationStrategyStub stub = new CommunicationStrategyStub(15, BUCKET_SIZE);
+        ServerStandIn server = new ServerStandIn(stub, 0);
+        assertThat(server.start(), is(true));
+        CommunicationStrategyImpl impl = new CommunicationStrategyImpl(server.getPort(), true);
+        assertThat(impl.start("localhost"), is(true));
+
+        byte[] key = "Some key 0".getBytes();
+        FactoryStub factoryStub = new FactoryStub(new CommunicationStrategyDeferred(impl));
+        AccessStrategyPath accessStrategy = new AccessStrategyPath(15, BUCKET_SIZE, key, factoryStub, null, 0, 0);
+        accessStrategy.setup();
+
+        for (int i = 1; i <= 8; i++)
+            accessStrategy.access(OperationType.WRITE, i, ("Test " + i).getBytes(), false, false);
+
+        for (int i = 1; i <= 8; i++) {
+            byte[] endObject = accessStrategy.access(OperationType.READ, i, null, false, false);
+            assertThat(new String(TestUtil.removeTrailingZeroes(endObject)), is("Test " + i));
+        }
+        assertThat(factoryStub.getCommunicationStrategy().sendEndSignal(), is(true));
+        server.stop();
+    }
+}
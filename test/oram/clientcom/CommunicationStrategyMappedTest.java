@@ -0,0 +1,120 @@
+package oram.clientcom;
+
+import oram.Constants;
+import oram.OperationType;
+import oram.block.BlockEncrypted;
+import oram.factory.FactoryLocal;
+import oram.ofactory.ORAMFactory;
+import oram.ofactory.ORAMFactoryPath;
+import oram.path.AccessStrategyPath;
+import oram.util.FactoryStub;
+import oram.util.TestUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class CommunicationStrategyMappedTest {
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("oram", ".blocks");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void shouldReadWhatWasWrittenAcrossSegments() {
+        CommunicationStrategyMapped communicationStrategy = CommunicationStrategyMapped.create(file, 10, 64, 3);
+        assertThat(communicationStrategy, is(notNullValue()));
+        assertThat(communicationStrategy.getNumberOfSegments(), is(4));
+        assertThat(file.length(), is(640L));
+
+        BlockEncrypted block1 = new BlockEncrypted(new byte[]{1, 2}, new byte[]{3, 4, 5});
+        BlockEncrypted block2 = new BlockEncrypted(new byte[32], new byte[20]);
+        assertThat(communicationStrategy.read(2), is(nullValue()));
+        assertThat(communicationStrategy.writeArray(Arrays.asList(2, 3, 9), Arrays.asList(block1, block2, block1)),
+                is(true));
+        assertThat(communicationStrategy.readArray(Arrays.asList(9, 0, 3, 2)),
+                is(Arrays.asList(block1, null, block2, block1)));
+
+        assertThat(communicationStrategy.readWriteArray(Collections.singletonList(3), Collections.singletonList(3),
+                Collections.singletonList(block1)), is(Collections.singletonList(block1)));
+        assertThat(communicationStrategy.write(9, null), is(true));
+        assertThat(communicationStrategy.read(9), is(nullValue()));
+        communicationStrategy.close();
+    }
+
+    @Test
+    public void shouldKeepTheBlocksInTheFile() {
+        BlockEncrypted block = new BlockEncrypted(new byte[]{1}, new byte[]{2});
+        CommunicationStrategyMapped communicationStrategy = CommunicationStrategyMapped.create(file, 4);
+        assertThat(communicationStrategy.write(1, block), is(true));
+        communicationStrategy.force();
+        communicationStrategy.close();
+
+        communicationStrategy = CommunicationStrategyMapped.create(file, 4);
+        assertThat(communicationStrategy.read(1), is(block));
+        communicationStrategy.close();
+    }
+
+    @Test
+    public void shouldRefuseBlocksOutsideTheSlots() {
+        CommunicationStrategyMapped communicationStrategy = CommunicationStrategyMapped.create(file, 2, 16);
+        assertThat(communicationStrategy.write(0, new BlockEncrypted(new byte[4], new byte[5])), is(false));
+        assertThat(communicationStrategy.write(2, new BlockEncrypted(new byte[1], new byte[1])), is(false));
+        assertThat(communicationStrategy.readArray(Arrays.asList(0, 2)), is(nullValue()));
+        assertThat(CommunicationStrategyMapped.create(file, 0, 16), is(nullValue()));
+        communicationStrategy.close();
+    }
+
+    @Test
+    public void shouldRunPathORAM() {
+        int size = 15;
+        int bucketSize = 4;
+        CommunicationStrategyMapped communicationStrategy = CommunicationStrategyMapped.create(file,
+                size * bucketSize);
+        FactoryStub factoryStub = new FactoryStub(communicationStrategy);
+        AccessStrategyPath accessStrategy = new AccessStrategyPath(size, bucketSize, "Some key 0".getBytes(),
+                factoryStub, null, 0, 0);
+        accessStrategy.setup();
+        assertReadAfterWrite(accessStrategy, 8);
+        communicationStrategy.close();
+    }
+
+    @Test
+    public void shouldBeUsedByTheLocalFactory() {
+        List<ORAMFactory> factories = Collections.singletonList(new ORAMFactoryPath(64, 0));
+        FactoryLocal factory = new FactoryLocal(factories, 1);
+        factory.setMappedFile(file);
+        factory.getCommunicationStrategy();
+        assertThat(factory.getCommunicationStrategyMapped().getSlots(), is(factories.get(0).getTotalSize()));
+
+        assertReadAfterWrite(factories.get(0).getAccessStrategy(Constants.KEY_BYTES, factory, null, 0), 20);
+        factory.getCommunicationStrategyMapped().close();
+    }
+
+    private void assertReadAfterWrite(oram.AccessStrategy accessStrategy, int blocks) {
+        for (int i = 1; i <= blocks; i++)
+            assertThat(accessStrategy.access(OperationType.WRITE, i, ("Test " + i).getBytes(), false, false),
+                    is(notNullValue()));
+        for (int i = 1; i <= blocks; i++) {
+            byte[] endObject = accessStrategy.access(OperationType.READ, i, null, false, false);
+            assertThat(new String(TestUtil.removeTrailingZeroes(endObject)), is("Test " + i));
+        }
+    }
+}
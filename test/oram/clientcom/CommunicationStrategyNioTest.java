@@ -0,0 +1,97 @@
+package oram.clientcom;
+
+import oram.OperationType;
+import oram.block.BlockEncrypted;
+import oram.path.AccessStrategyPath;
+import oram.server.ServerStandIn;
+import oram.util.FactoryStub;
+import oram.util.TestUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class CommunicationStrategyNioTest {
+    private static final int BUCKET_SIZE = 4;
+    private ServerStandIn server;
+    private CommunicationStrategyNio communicationStrategy;
+
+    @Before
+    public void setUp() {
+        server = new ServerStandIn(new CommunicationStrategyStub(15, BUCKET_SIZE), 0);
+        assertThat(server.start(), is(true));
+        communicationStrategy = new CommunicationStrategyNio(server.getPort());
+        assertThat(communicationStrategy.start("localhost"), is(true));
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void shouldReadPipelinedWrites() {
+        List<Integer> addresses = new ArrayList<>();
+        List<BlockEncrypted> blocks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            BlockEncrypted block = new BlockEncrypted(new byte[]{(byte) i}, ("Block " + i).getBytes());
+            assertThat(communicationStrategy.writeArray(Arrays.asList(i, i + 20), Arrays.asList(block, block)),
+                    is(true));
+            addresses.add(i + 20);
+            blocks.add(block);
+        }
+
+        assertThat(communicationStrategy.readArray(addresses), is(blocks));
+        assertThat(communicationStrategy.read(0), is(blocks.get(0)));
+        assertThat(communicationStrategy.read(59), is(nullValue()));
+        assertThat(communicationStrategy.sendEndSignal(), is(true));
+    }
+
+    @Test(timeout = 20000)
+    public void shouldFailRequestsSentWhileTheConnectionCloses() throws Exception {
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                while (communicationStrategy.read(0) != null) ;
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        Thread.sleep(100);
+        communicationStrategy.sendEndSignal();
+
+//        Every read sent as the selector loop stops must fail, none may wait forever
+        for (Thread thread : threads)
+            thread.join();
+    }
+
+    @Test
+    public void shouldEchoSpeedTest() {
+        assertThat(communicationStrategy.speedTest() > 0, is(true));
+        assertThat(communicationStrategy.sendEndSignal(), is(true));
+    }
+
+    @Test
+    public void shouldRunPathORAMOverPipelinedConnection() {
+        byte[] key = "Some key 0".getBytes();
+        FactoryStub factoryStub = new FactoryStub(communicationStrategy);
+        AccessStrategyPath accessStrategy = new AccessStrategyPath(15, BUCKET_SIZE, key, factoryStub, null, 0, 0);
+        accessStrategy.setup();
+
+        for (int i = 1; i <= 8; i++)
+            accessStrategy.access(OperationType.WRITE, i, ("Test " + i).getBytes(), false, false);
+
+        for (int i = 1; i <= 8; i++) {
+            byte[] endObject = accessStrategy.access(OperationType.READ, i, null, false, false);
+            assertThat(new String(TestUtil.removeTrailingZeroes(endObject)), is("Test " + i));
+        }
+        assertThat(communicationStrategy.sendEndSignal(), is(true));
+    }
+}
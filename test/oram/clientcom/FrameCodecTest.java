@@ -0,0 +1,73 @@
+package oram.clientcom;
+
+import oram.block.BlockEncrypted;
+import oram.server.ServerStandIn;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class FrameCodecTest {
+
+    @Test
+    public void shouldDecodeFixedStrideBlocks() {
+        List<Integer> addresses = Arrays.asList(3, 1, 4);
+        List<BlockEncrypted> blocks = Arrays.asList(
+                new BlockEncrypted(new byte[]{1, 2}, new byte[]{3, 4, 5}),
+                new BlockEncrypted(new byte[]{6, 7}, new byte[]{8, 9, 10}),
+                new BlockEncrypted(new byte[]{11, 12}, new byte[]{13, 14, 15}));
+
+        ByteBuffer frame = FrameCodec.encodeWriteRequest(42, addresses, blocks);
+        assertThat(frame.remaining(), is(FrameCodec.HEADER_SIZE + 3 * Integer.BYTES + 3 * 5));
+
+        FrameCodec.Frame decoded = decode(frame);
+        assertThat(decoded.getRequestId(), is(42));
+        assertThat(decoded.getOp(), is(FrameCodec.OP_WRITE));
+        assertThat(decoded.getAddresses(), is(addresses));
+        assertThat(decoded.getBlocks(), is(blocks));
+    }
+
+    @Test
+    public void shouldDecodeBlocksOfDifferentSizes() {
+        List<BlockEncrypted> blocks = Arrays.asList(
+                new BlockEncrypted(new byte[]{1}, new byte[]{2, 3}),
+                null,
+                new BlockEncrypted(new byte[]{4, 5, 6}, new byte[0]));
+
+        FrameCodec.Frame decoded = decode(FrameCodec.encodeBlocksResponse(7, FrameCodec.OP_READ, blocks));
+        assertThat(decoded.getRequestId(), is(7));
+        assertThat(decoded.getStatus(), is(1));
+        assertThat(decoded.getBlocks(), is(blocks));
+        assertThat(decoded.getBlocks().get(1), is(nullValue()));
+    }
+
+    @Test
+    public void shouldExchangeFramesWithBlockingTransport() {
+        ServerStandIn server = new ServerStandIn(new CommunicationStrategyStub(4, 4), 0);
+        assertThat(server.start(), is(true));
+        CommunicationStrategyImpl communicationStrategy = new CommunicationStrategyImpl(server.getPort(), true);
+        assertThat(communicationStrategy.start("localhost"), is(true));
+
+        BlockEncrypted block = new BlockEncrypted(new byte[32], "Block".getBytes());
+        assertThat(communicationStrategy.write(5, block), is(true));
+        assertThat(communicationStrategy.readArray(Arrays.asList(5, 6)), is(Arrays.asList(block, null)));
+        assertThat(communicationStrategy.speedTest() > 0, is(true));
+        assertThat(communicationStrategy.sendEndSignal(), is(true));
+        server.stop();
+    }
+
+    private FrameCodec.Frame decode(ByteBuffer frame) {
+        ByteBuffer header = frame.duplicate();
+        header.limit(FrameCodec.HEADER_SIZE);
+        ByteBuffer payload = frame.duplicate();
+        payload.position(FrameCodec.HEADER_SIZE);
+        FrameCodec.Frame res = FrameCodec.decode(header, payload.slice());
+        FrameCodec.release(frame);
+        return res;
+    }
+}
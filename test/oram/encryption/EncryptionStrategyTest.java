@@ -4,10 +4,13 @@ import oram.Util;
 import org.junit.Test;
 
 import javax.crypto.SecretKey;
+import java.util.Arrays;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 /**
  * <p> ORAM <br>
@@ -73,4 +76,75 @@ public class EncryptionStrategyTest {
         assertNotNull(plaintext);
         assertThat(new String(plaintext), is(message));
     }
+
+    @Test
+    public void shouldEncryptAndDecryptIntoBuffers() {
+        byte[] key = Util.getRandomByteArray(16);
+        EncryptionStrategy encryptionStrategy = new EncryptionStrategyImpl();
+        SecretKey secretKey = encryptionStrategy.generateSecretKey(key);
+
+        byte[] message = Util.getRandomByteArray(512);
+        int cipherTextLength = encryptionStrategy.getCipherTextLength(message.length);
+        byte[] ciphertext = new byte[cipherTextLength + 10];
+        assertThat(encryptionStrategy.encrypt(message, 0, message.length, ciphertext, 10, secretKey),
+                is(cipherTextLength));
+
+        byte[] plaintext = new byte[cipherTextLength];
+        assertThat(encryptionStrategy.decrypt(ciphertext, 10, cipherTextLength, plaintext, 0, secretKey),
+                is(message.length));
+        assertThat(Arrays.copyOf(plaintext, message.length), is(message));
+
+        byte[] copy = Arrays.copyOfRange(ciphertext, 10, ciphertext.length);
+        assertThat(encryptionStrategy.decrypt(copy, secretKey), is(message));
+    }
+
+    @Test
+    public void shouldEncryptAndDecryptWithCtrAndGcm() {
+        byte[] key = Util.getRandomByteArray(16);
+        for (EncryptionStrategy encryptionStrategy : Arrays.asList(new EncryptionStrategyCtr(),
+                new EncryptionStrategyGcm())) {
+            SecretKey secretKey = encryptionStrategy.generateSecretKey(key);
+
+            for (int size : new int[]{0, 1, 4, 17, 512}) {
+                byte[] message = Util.getRandomByteArray(size);
+                byte[] ciphertext = encryptionStrategy.encrypt(message, secretKey);
+                assertThat(ciphertext.length, is(encryptionStrategy.getCipherTextLength(size)));
+                assertThat(encryptionStrategy.decrypt(ciphertext, secretKey), is(message));
+            }
+
+            byte[] message = Util.getRandomByteArray(512);
+            byte[] ciphertext = new byte[encryptionStrategy.getCipherTextLength(message.length) + 3];
+            int length = encryptionStrategy.encrypt(message, 0, message.length, ciphertext, 3, secretKey);
+            byte[] plaintext = new byte[message.length];
+            assertThat(encryptionStrategy.decrypt(ciphertext, 3, length, plaintext, 0, secretKey),
+                    is(message.length));
+            assertThat(plaintext, is(message));
+        }
+    }
+
+    @Test
+    public void shouldNotReuseCtrKeyStream() {
+        EncryptionStrategy encryptionStrategy = new EncryptionStrategyCtr();
+        SecretKey secretKey = encryptionStrategy.generateSecretKey(Util.getRandomByteArray(16));
+
+//        Encrypting zeros gives the key stream, which must not overlap between the two messages
+        byte[] message = new byte[48];
+        byte[] first = encryptionStrategy.encrypt(message, secretKey);
+        byte[] second = encryptionStrategy.encrypt(message, secretKey);
+        for (int i = 16; i < first.length; i += 16) {
+            for (int j = 16; j < second.length; j += 16)
+                assertThat(Arrays.copyOfRange(second, j, j + 16), not(Arrays.copyOfRange(first, i, i + 16)));
+        }
+    }
+
+    @Test
+    public void shouldRejectAlteredGcmCipherText() {
+        EncryptionStrategy encryptionStrategy = new EncryptionStrategyGcm();
+        SecretKey secretKey = encryptionStrategy.generateSecretKey(Util.getRandomByteArray(16));
+
+        byte[] ciphertext = encryptionStrategy.encrypt(Util.getRandomByteArray(64), secretKey);
+        ciphertext[20] ^= 1;
+        assertNull(encryptionStrategy.decrypt(ciphertext, secretKey));
+        assertThat(encryptionStrategy.decrypt(ciphertext, 0, ciphertext.length, new byte[64], 0, secretKey), is(-1));
+    }
 }
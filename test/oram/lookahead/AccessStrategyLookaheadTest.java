@@ -1,6 +1,8 @@
 package oram.lookahead;
 
+import oram.AccessStrategy;
 import oram.Constants;
+import oram.OperationType;
 import oram.Util;
 import oram.block.BlockEncrypted;
 import oram.block.BlockLookahead;
@@ -9,6 +11,8 @@ import oram.blockenc.BlockEncryptionStrategyLookahead;
 import oram.clientcom.CommunicationStrategyStub;
 import oram.encryption.EncryptionStrategy;
 import oram.encryption.EncryptionStrategyImpl;
+import oram.factory.FactoryLocal;
+import oram.ofactory.ORAMFactoryLookahead;
 import oram.util.FactoryStub;
 import org.apache.commons.lang3.ArrayUtils;
 import org.junit.Before;
@@ -20,8 +24,6 @@ import java.util.*;
 import static junit.framework.TestCase.assertNotNull;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
-import static org.hamcrest.collection.IsMapContaining.hasEntry;
-import static org.hamcrest.collection.IsMapContaining.hasKey;
 import static org.junit.Assert.assertNull;
 
 /**
@@ -110,49 +112,25 @@ public class AccessStrategyLookaheadTest {
         List<BlockLookahead> blocks = Arrays.asList(block1, block2, block4, block7, block0, block3, block10, block12);
 
 //        First we try where the wanted cell was in the column we read
-        Map<Integer, Map<Integer, BlockLookahead>> map = access.getAccessStash(blocks, true);
-//        It should have three entries, where the first is a map with two entries
-        assertThat(map, aMapWithSize(3));
-        assertThat(map, hasKey(0));
-        assertThat(map, hasKey(2));
-        assertThat(map, hasKey(3));
-
-        Map<Integer, BlockLookahead> map0 = map.get(0);
-        assertThat(map0, aMapWithSize(2));
-        assertThat(map0, hasEntry(0, new BlockLookahead(1, Util.leIntToByteArray(0), 0, 0)));
-        assertThat(map0, hasEntry(3, new BlockLookahead(4, Util.leIntToByteArray(3), 3, 0)));
-
-        Map<Integer, BlockLookahead> map2 = map.get(2);
-        assertThat(map2, aMapWithSize(1));
-        assertThat(map2, hasEntry(2, new BlockLookahead(11, Util.leIntToByteArray(10), 2, 2)));
-
-        Map<Integer, BlockLookahead> map3 = map.get(3);
-        assertThat(map3, aMapWithSize(1));
-        assertThat(map3, hasEntry(0, new BlockLookahead(13, Util.leIntToByteArray(12), 0, 3)));
+        AccessStash accessStash = access.getAccessStash(blocks, true);
+        assertAccessStashOfColumnsZeroTwoAndThree(accessStash);
 
 //        Then we try where the wanted cell was not in the column we read
         blocks = Arrays.asList(block8, block1, block2, block4, block7, block0, block3, block10, block12);
 
+        accessStash = access.getAccessStash(blocks, false);
+        assertAccessStashOfColumnsZeroTwoAndThree(accessStash);
+    }
 
-        map = access.getAccessStash(blocks, false);
-//        It should have three entries, where the first is a map with two entries
-        assertThat(map, aMapWithSize(3));
-        assertThat(map, hasKey(0));
-        assertThat(map, hasKey(2));
-        assertThat(map, hasKey(3));
-
-        map0 = map.get(0);
-        assertThat(map0, aMapWithSize(2));
-        assertThat(map0, hasEntry(0, new BlockLookahead(1, Util.leIntToByteArray(0), 0, 0)));
-        assertThat(map0, hasEntry(3, new BlockLookahead(4, Util.leIntToByteArray(3), 3, 0)));
-
-        map2 = map.get(2);
-        assertThat(map2, aMapWithSize(1));
-        assertThat(map2, hasEntry(2, new BlockLookahead(11, Util.leIntToByteArray(10), 2, 2)));
-
-        map3 = map.get(3);
-        assertThat(map3, aMapWithSize(1));
-        assertThat(map3, hasEntry(0, new BlockLookahead(13, Util.leIntToByteArray(12), 0, 3)));
+    private void assertAccessStashOfColumnsZeroTwoAndThree(AccessStash accessStash) {
+//        It should have four blocks, where two are in the first column
+        assertThat(accessStash.size(), is(4));
+        assertThat(accessStash.find(0, 0), is(new BlockLookahead(1, Util.leIntToByteArray(0), 0, 0)));
+        assertThat(accessStash.find(3, 0), is(new BlockLookahead(4, Util.leIntToByteArray(3), 3, 0)));
+        assertThat(accessStash.find(2, 2), is(new BlockLookahead(11, Util.leIntToByteArray(10), 2, 2)));
+        assertThat(accessStash.find(0, 3), is(new BlockLookahead(13, Util.leIntToByteArray(12), 0, 3)));
+        assertNull(accessStash.find(1, 0));
+        assertNull(accessStash.find(0, 1));
     }
 
     @Test
@@ -197,84 +175,115 @@ public class AccessStrategyLookaheadTest {
     }
 
     @Test
-    public void shouldAddTheBlocksCorrectlyToTheStashMap() {
+    public void shouldAddTheBlocksCorrectlyToTheAccessStash() {
+        AccessStash accessStash = new AccessStash(defaultMatrixSize + 1, defaultMatrixSize);
+
 //        Adding first block
         BlockLookahead block = new BlockLookahead(17, new byte[]{32});
-        block.setRowIndex(4);
+        block.setRowIndex(3);
         block.setColIndex(3);
-        Map<Integer, Map<Integer, BlockLookahead>> value = access.addToAccessStashMap(new HashMap<>(), block);
-        assertThat("Outer map should include col 3", value, hasKey(3));
-        assertThat("Inner map should include row 4", value.get(3), hasEntry(4, block));
-        assertThat("Outer map has 1 element", value, aMapWithSize(1));
-        assertThat("Inner map 3 has 1 element", value.get(3), aMapWithSize(1));
+        assertThat(accessStash.add(block), is(true));
+        assertThat("Stash should include (3, 3)", accessStash.find(3, 3), is(block));
+        assertThat("Stash has 1 element", accessStash.size(), is(1));
 
-//        Adding block to same column (just extending the inner map)
+//        Adding block to same column
         block.setRowIndex(1);
         block.setColIndex(3);
-        value = access.addToAccessStashMap(value, block);
-        assertThat("Outer map should include col 3", value, hasKey(3));
-        assertThat("Inner map should include row 4", value.get(3), hasEntry(4, block));
-        assertThat("Inner map should include row 1", value.get(3), hasEntry(1, block));
-        assertThat("Outer map has 1 element", value, aMapWithSize(1));
-        assertThat("Inner map 3 has 2 elements", value.get(3), aMapWithSize(2));
-
-//        Adding block to a new column
-        block.setRowIndex(4);
+        assertThat(accessStash.add(block), is(true));
+        assertThat("Stash should include (3, 3)", accessStash.find(3, 3), is(block));
+        assertThat("Stash should include (1, 3)", accessStash.find(1, 3), is(block));
+        assertThat("Stash has 2 elements", accessStash.size(), is(2));
+
+//        Adding block to a new column, and again to the same place
+        block.setRowIndex(3);
         block.setColIndex(1);
-        value = access.addToAccessStashMap(value, block);
-        assertThat("Outer map should include col 3", value, hasKey(3));
-        assertThat("Outer map should include col 1", value, hasKey(1));
-        assertThat("Inner map should include row 4", value.get(3), hasEntry(4, block));
-        assertThat("Inner map should include row 1", value.get(3), hasEntry(1, block));
-        assertThat("Inner map should include row 4", value.get(1), hasEntry(4, block));
-        assertThat("Outer map has 2 element", value, aMapWithSize(2));
-        assertThat("Inner map 3 has 2 elements", value.get(3), aMapWithSize(2));
-        assertThat("Inner map 1 has 1 element", value.get(1), aMapWithSize(1));
+        assertThat(accessStash.add(block), is(true));
+        assertThat(accessStash.add(block), is(true));
+        assertThat("Stash should include (3, 1)", accessStash.find(3, 1), is(block));
+        assertThat("Stash has 3 elements", accessStash.size(), is(3));
+
+//        Dummy blocks are left out
+        assertThat(accessStash.add(new BlockLookahead(0, new byte[0], 2, 2)), is(true));
+        assertThat(accessStash.size(), is(3));
+
+//        Removing a block only removes the block at that place
+        accessStash.remove(1, 3);
+        assertNull(accessStash.find(1, 3));
+        assertThat(accessStash.find(3, 3), is(block));
+        assertThat("Stash has 2 elements", accessStash.size(), is(2));
+    }
+
+    @Test
+    public void shouldNotAddMoreBlocksThanTheCapacity() {
+        AccessStash accessStash = new AccessStash(2, defaultMatrixSize);
+        assertThat(accessStash.add(new BlockLookahead(1, null, 0, 0)), is(true));
+        assertThat(accessStash.add(new BlockLookahead(2, null, 1, 0)), is(true));
+        assertThat(accessStash.add(new BlockLookahead(3, null, 2, 0)), is(false));
+
+        accessStash.remove(0, 0);
+        assertThat(accessStash.add(new BlockLookahead(3, null, 2, 0)), is(true));
+        assertThat(accessStash.size(), is(2));
+    }
+
+    @Test
+    public void shouldMoveTheBlocksOfAColumnIntoTheColumn() {
+        AccessStash accessStash = new AccessStash(defaultMatrixSize + 1, defaultMatrixSize);
+        BlockLookahead block0 = new BlockLookahead(5, null, 3, 1);
+        BlockLookahead block1 = new BlockLookahead(1, null, 0, 1);
+        BlockLookahead block2 = new BlockLookahead(2, null, 0, 2);
+        accessStash.add(block0);
+        accessStash.add(block1);
+        accessStash.add(block2);
+
+        List<BlockLookahead> column = new ArrayList<>();
+        for (int i = 0; i < defaultMatrixSize; i++)
+            column.add(access.getLookaheadDummyBlock());
+        assertThat(accessStash.moveColumn(1, column), is(-1));
+        assertThat(column.get(0), is(block1));
+        assertThat(column.get(3), is(block0));
+        assertThat(accessStash.size(), is(1));
+        assertNull(accessStash.find(0, 1));
+
+        List<BlockLookahead> res = new ArrayList<>();
+        accessStash.addBlocksTo(res);
+        assertThat(res, is(Collections.singletonList(block2)));
+
+//        A real block in the place of a block from the stash is an error
+        column.set(0, new BlockLookahead(9, null, 0, 2));
+        assertThat(accessStash.moveColumn(2, column), is(0));
     }
 
     @Test
     public void shouldBeAbleToLookUpInAccessStash() {
-        BlockLookahead block0 = new BlockLookahead(5, null);
-        BlockLookahead block1 = new BlockLookahead(1, null);
-        BlockLookahead block2 = new BlockLookahead(2, null);
-        BlockLookahead block3 = new BlockLookahead(3, null);
-        BlockLookahead block4 = new BlockLookahead(4, null);
-
-        Map<Integer, BlockLookahead> map0 = new HashMap<>();
-        map0.put(3, block0);
-
-        Map<Integer, BlockLookahead> map1 = new HashMap<>();
-        map1.put(0, block1);
-        map1.put(1, block2);
-
-        Map<Integer, BlockLookahead> map3 = new HashMap<>();
-        map3.put(0, block3);
-        map3.put(2, block4);
-
-        Map<Integer, Map<Integer, BlockLookahead>> map = new HashMap<>();
-        map.put(0, map0);
-        map.put(1, map1);
-        map.put(3, map3);
-
-//        Should be able to look up the blocks in the map
-        assertThat(access.findBlockInAccessStash(map, new Index(3, 0)), is(block0));
-        assertThat(access.findBlockInAccessStash(map, new Index(0, 1)), is(block1));
-        assertThat(access.findBlockInAccessStash(map, new Index(1, 1)), is(block2));
-        assertThat(access.findBlockInAccessStash(map, new Index(0, 3)), is(block3));
-        assertThat(access.findBlockInAccessStash(map, new Index(2, 3)), is(block4));
+        BlockLookahead block0 = new BlockLookahead(5, null, 3, 0);
+        BlockLookahead block1 = new BlockLookahead(1, null, 0, 1);
+        BlockLookahead block2 = new BlockLookahead(2, null, 1, 1);
+        BlockLookahead block3 = new BlockLookahead(3, null, 0, 3);
+        BlockLookahead block4 = new BlockLookahead(4, null, 2, 3);
+
+        AccessStash accessStash = new AccessStash(defaultMatrixSize + 1, defaultMatrixSize);
+        for (BlockLookahead block : Arrays.asList(block0, block1, block2, block3, block4))
+            accessStash.add(block);
+
+//        Should be able to look up the blocks in the stash
+        assertThat(accessStash.find(3, 0), is(block0));
+        assertThat(accessStash.find(0, 1), is(block1));
+        assertThat(accessStash.find(1, 1), is(block2));
+        assertThat(accessStash.find(0, 3), is(block3));
+        assertThat(accessStash.find(2, 3), is(block4));
 
 //        All other should return null
-        assertNull(access.findBlockInAccessStash(map, new Index(0, 0)));
-        assertNull(access.findBlockInAccessStash(map, new Index(1, 0)));
-        assertNull(access.findBlockInAccessStash(map, new Index(2, 0)));
-        assertNull(access.findBlockInAccessStash(map, new Index(2, 1)));
-        assertNull(access.findBlockInAccessStash(map, new Index(3, 1)));
-        assertNull(access.findBlockInAccessStash(map, new Index(0, 2)));
-        assertNull(access.findBlockInAccessStash(map, new Index(1, 2)));
-        assertNull(access.findBlockInAccessStash(map, new Index(2, 2)));
-        assertNull(access.findBlockInAccessStash(map, new Index(3, 2)));
-        assertNull(access.findBlockInAccessStash(map, new Index(1, 3)));
-        assertNull(access.findBlockInAccessStash(map, new Index(3, 3)));
+        assertNull(accessStash.find(0, 0));
+        assertNull(accessStash.find(1, 0));
+        assertNull(accessStash.find(2, 0));
+        assertNull(accessStash.find(2, 1));
+        assertNull(accessStash.find(3, 1));
+        assertNull(accessStash.find(0, 2));
+        assertNull(accessStash.find(1, 2));
+        assertNull(accessStash.find(2, 2));
+        assertNull(accessStash.find(3, 2));
+        assertNull(accessStash.find(1, 3));
+        assertNull(accessStash.find(3, 3));
     }
 
     @Test
@@ -461,6 +470,32 @@ public class AccessStrategyLookaheadTest {
         assertThat(decryptedBlock, is(block));
     }
 
+    @Test
+    public void shouldSetUpMoreBlocksThanAChunkFromALazyList() {
+        LookaheadShape shape = new LookaheadShape(100, 100);
+        ORAMFactoryLookahead oramFactory = new ORAMFactoryLookahead(shape, 0);
+        FactoryLocal factoryLocal = new FactoryLocal(Collections.singletonList(oramFactory), 1);
+        AccessStrategy lookahead = oramFactory.getAccessStrategy(Constants.KEY_BYTES, factoryLocal, null, 0);
+        List<BlockTrivial> blocks = new AbstractList<BlockTrivial>() {
+            @Override
+            public BlockTrivial get(int index) {
+                return new BlockTrivial(index + 1, Util.leIntToByteArray(index + 1));
+            }
+
+            @Override
+            public int size() {
+                return shape.getSize() - 1;
+            }
+        };
+        assertThat(lookahead.setup(blocks), is(true));
+
+        for (int address = 1; address < shape.getSize(); address += 97) {
+            byte[] res = lookahead.access(OperationType.READ, address, null, false, false);
+            assertNotNull(res);
+            assertThat(Util.byteArrayToLeInt(res), is(address));
+        }
+    }
+
     @Test
     public void shouldBeAbleToCalculateFlatArrayIndexFromMatrixIndex() {
         assertThat(access.getFlatArrayIndex(new Index(0, 0)), is(0));
@@ -0,0 +1,57 @@
+package oram.lookahead;
+
+import oram.block.BlockLookahead;
+import oram.random.RandomSource;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class FutureSwapPartnersTest {
+    private static final int MATRIX_HEIGHT = 4;
+
+    @Test
+    public void shouldIndexPartnersByPlaceAndColumn() {
+        FutureSwapPartners partners = new FutureSwapPartners(MATRIX_HEIGHT);
+        partners.add(1, 2, 5);
+        partners.add(3, 2, 6);
+        partners.add(0, 1, 7);
+        assertThat(partners.size(), is(3));
+        assertThat(partners.contains(1, 2), is(true));
+        assertThat(partners.contains(2, 1), is(false));
+
+        List<SwapPartnerData> column = partners.removeColumn(2);
+        assertThat(column.size(), is(2));
+        assertThat(column.get(0), is(new SwapPartnerData(new Index(3, 2), 6)));
+        assertThat(column.get(1), is(new SwapPartnerData(new Index(1, 2), 5)));
+        assertThat(partners.contains(1, 2), is(false));
+        assertThat(partners.size(), is(1));
+        assertThat(partners.removeColumn(2).isEmpty(), is(true));
+
+        partners.clear();
+        assertThat(partners.contains(0, 1), is(false));
+        assertThat(partners.size(), is(0));
+    }
+
+    @Test
+    public void shouldPickFreePlacesOutsideTheSwapStash() {
+        FutureSwapPartners partners = new FutureSwapPartners(MATRIX_HEIGHT);
+        BlockLookahead[] swapStash = new BlockLookahead[MATRIX_HEIGHT];
+        for (int row = 0; row < MATRIX_HEIGHT; row++)
+            swapStash[row] = new BlockLookahead(row + 1, new byte[0], row, 0);
+        for (int i = 0; i < MATRIX_HEIGHT * (MATRIX_HEIGHT - 1); i++) {
+            int flatArrayIndex = partners.addRandom(RandomSource.getDefault(), swapStash, i);
+            assertThat(flatArrayIndex >= MATRIX_HEIGHT, is(true));
+        }
+
+        for (int row = 0; row < MATRIX_HEIGHT; row++)
+            for (int col = 0; col < MATRIX_HEIGHT; col++)
+                assertThat(partners.contains(row, col), is(col != 0));
+
+        partners.removeColumn(3);
+        int flatArrayIndex = partners.addRandom(RandomSource.getDefault(), swapStash, 0);
+        assertThat(flatArrayIndex / MATRIX_HEIGHT, is(3));
+    }
+}
@@ -0,0 +1,87 @@
+package oram.lookahead;
+
+import oram.AccessStrategy;
+import oram.Constants;
+import oram.OperationType;
+import oram.Util;
+import oram.block.BlockTrivial;
+import oram.factory.FactoryLocal;
+import oram.ofactory.ORAMFactory;
+import oram.ofactory.ORAMFactoryLookahead;
+import oram.server.NetworkShaping;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class LookaheadShapeTest {
+
+    @Test
+    public void shouldCountTheBlocksOfAShape() {
+        LookaheadShape shape = new LookaheadShape(8, 4);
+        assertThat(shape.getSize(), is(32));
+        assertThat(shape.getTotalSize(), is(40));
+        assertThat(shape.getBlocksPerAccess(), is(17));
+
+        LookaheadShape square = LookaheadShape.square(64);
+        assertThat(square.getRows(), is(8));
+        assertThat(square.getColumns(), is(8));
+        assertThat(LookaheadShape.square(20).getSize(), is(20));
+        assertThat(LookaheadShape.square(21).getSize(), is(greaterThanOrEqualTo(21)));
+    }
+
+    @Test
+    public void shouldPickTwiceAsManyRowsAsColumns() {
+        LookaheadShape shape = LookaheadShape.tune(1 << 13);
+        assertThat(shape.getRows(), is(128));
+        assertThat(shape.getColumns(), is(64));
+        assertThat(shape.getBlocksPerAccess(), is(lessThan(LookaheadShape.square(1 << 13).getBlocksPerAccess())));
+
+        NetworkShaping link = new NetworkShaping(2000, 0, 12500000, 0);
+        assertThat(LookaheadShape.tune(1 << 13, link).getColumns(), is(64));
+        assertThat(LookaheadShape.tune(1 << 13, link).getTimePerAccess(link),
+                is(lessThan(LookaheadShape.square(1 << 13).getTimePerAccess(link))));
+    }
+
+    @Test
+    public void shouldHoldSizesThatAreNoProductWithLittlePadding() {
+        for (int size : Arrays.asList(3, 7, 97, 1000, 4099)) {
+            LookaheadShape shape = LookaheadShape.tune(size);
+            assertThat(shape.getSize(), is(greaterThanOrEqualTo(size)));
+            assertThat(shape.getSize(), is(lessThan(size + shape.getRows())));
+            assertThat(shape.getRows(), is(greaterThanOrEqualTo(3)));
+        }
+    }
+
+    @Test
+    public void shouldAccessRectangularMatrices() {
+        for (LookaheadShape shape : Arrays.asList(new LookaheadShape(8, 3), new LookaheadShape(3, 8),
+                LookaheadShape.tune(50))) {
+            ORAMFactory oramFactory = new ORAMFactoryLookahead(shape, 0);
+            FactoryLocal factory = new FactoryLocal(Collections.singletonList(oramFactory), 1);
+            AccessStrategy access = oramFactory.getAccessStrategy(Constants.KEY_BYTES, factory, null, 0);
+            List<BlockTrivial> blocks = new ArrayList<>();
+            for (int i = 1; i < shape.getSize(); i++)
+                blocks.add(new BlockTrivial(i, Util.leIntToByteArray(i)));
+            assertTrue(access.setup(blocks));
+
+            for (int round = 0; round < 3; round++) {
+                for (int i = 1; i < shape.getSize(); i++) {
+                    byte[] res = access.access(OperationType.WRITE, i, Util.leIntToByteArray(i * round), false,
+                            false);
+                    assertNotNull(res);
+                    assertThat(Util.byteArrayToLeInt(res), is(round == 0 ? i : i * (round - 1)));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package oram.partition;
+
+import oram.AccessStrategy;
+import oram.Constants;
+import oram.OperationType;
+import oram.Request;
+import oram.block.BlockTrivial;
+import oram.clientcom.CommunicationStrategyCounting;
+import oram.factory.FactoryLocal;
+import oram.lookahead.LookaheadShape;
+import oram.ofactory.ORAMFactory;
+import oram.ofactory.ORAMFactoryLookahead;
+import oram.ofactory.ORAMFactoryPath;
+import oram.util.TestUtil;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertTrue;
+
+public class PartitionedAccessStrategyTest {
+    private static final int PARTITIONS = 4;
+    private static final int SIZE = 128;
+
+    @Test
+    public void shouldRejectAddressesOutOfRange() {
+        assertThat(PartitionedAccessStrategy.getBlocksPerPartition(SIZE, PARTITIONS), is(40));
+        try (PartitionedAccessStrategy accessStrategy = getAccessStrategy(new ArrayList<>())) {
+            assertThat(accessStrategy.access(OperationType.READ, SIZE + 1, null, false, false), is(nullValue()));
+            assertThat(accessStrategy.access(OperationType.READ, 0, null, false, false), is(nullValue()));
+        }
+    }
+
+    @Test
+    public void shouldAccessAllPartitionsAlikeWhichEverAddressesAreHit() {
+        List<FactoryLocal> factories = new ArrayList<>();
+        try (PartitionedAccessStrategy accessStrategy = getAccessStrategy(factories)) {
+//            The same address again and again, and then addresses which would all be in the same partition, if the
+//            addresses were striped over the partitions
+            List<List<Request>> batches = new ArrayList<>();
+            List<Request> batch = new ArrayList<>();
+            for (int i = 0; i < 16; i++)
+                batch.add(Request.write(4, ("Block " + i).getBytes()));
+            batches.add(batch);
+            batch = new ArrayList<>();
+            for (int i = 1; i <= 16; i++)
+                batch.add(Request.write(i * PARTITIONS, ("Block " + i * PARTITIONS).getBytes()));
+            batches.add(batch);
+
+            for (List<Request> requests : batches) {
+                long rounds = accessStrategy.getRounds();
+                assertThat(accessStrategy.accessBatch(requests).size(), is(16));
+//                The requests are read from random partitions, so 16 rounds are as unlikely as a die rolling the
+//                same side 16 times
+                assertThat(accessStrategy.getRounds() - rounds, is(lessThan(16L)));
+
+                int blocksReceived = getCommunicationStrategy(factories.get(0)).getBlocksReceived();
+                for (FactoryLocal factory : factories) {
+                    assertThat(getCommunicationStrategy(factory).getBlocksReceived(), is(blocksReceived));
+                    assertThat(getCommunicationStrategy(factory).getBlocksSent(), is(blocksReceived));
+                }
+            }
+            assertThat(getCommunicationStrategy(factories.get(0)).getBlocksReceived() % (2 *
+                    accessStrategy.getRounds()), is(0L));
+
+            byte[] data = accessStrategy.access(OperationType.READ, 4, null, false, false);
+            assertThat(new String(TestUtil.removeTrailingZeroes(data)), is("Block 4"));
+            for (int i = 2; i <= 16; i++) {
+                data = accessStrategy.access(OperationType.READ, i * PARTITIONS, null, false, false);
+                assertThat(new String(TestUtil.removeTrailingZeroes(data)), is("Block " + i * PARTITIONS));
+            }
+        }
+    }
+
+    @Test
+    public void shouldReachTheServerWithDummyAccessesToLookaheadPartitions() {
+        int blocksPerPartition = PartitionedAccessStrategy.getBlocksPerPartition(SIZE, PARTITIONS);
+        LookaheadShape shape = LookaheadShape.tune(blocksPerPartition + 1);
+        List<FactoryLocal> factories = new ArrayList<>();
+        List<AccessStrategy> partitions = new ArrayList<>();
+        for (int i = 0; i < PARTITIONS; i++) {
+            ORAMFactory oramFactory = new ORAMFactoryLookahead(shape, 0);
+            FactoryLocal factory = new FactoryLocal(Collections.singletonList(oramFactory), 1);
+            factories.add(factory);
+            partitions.add(oramFactory.getAccessStrategy(Constants.KEY_BYTES, factory, null, 0));
+        }
+
+        try (PartitionedAccessStrategy accessStrategy = new PartitionedAccessStrategy(partitions, SIZE,
+                factories.get(0).getRandomSource())) {
+            List<BlockTrivial> blocks = new ArrayList<>();
+            for (int i = 1; i <= SIZE; i++)
+                blocks.add(new BlockTrivial(i, ("Block " + i).getBytes()));
+            assertTrue(accessStrategy.setup(blocks));
+            for (FactoryLocal factory : factories) {
+                getCommunicationStrategy(factory).resetBlocksReceived();
+                getCommunicationStrategy(factory).resetBlockSent();
+            }
+
+            for (int i = 0; i < 8; i++) {
+                byte[] data = accessStrategy.access(OperationType.READ, 3, null, false, false);
+                assertThat(new String(TestUtil.removeTrailingZeroes(data)), is("Block 3"));
+            }
+
+//            Every access reads at least a column and the two stashes
+            long blocksPerRound = 2 * (shape.getRows() + 2 * shape.getColumns());
+            for (FactoryLocal factory : factories)
+                assertThat((long) getCommunicationStrategy(factory).getBlocksReceived(),
+                        is(greaterThanOrEqualTo(accessStrategy.getRounds() * blocksPerRound)));
+        }
+    }
+
+    @Test
+    public void shouldServeConcurrentRequests() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (PartitionedAccessStrategy accessStrategy = getAccessStrategy(new ArrayList<>())) {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                results.add(executor.submit(() -> {
+                    for (int i = 1; i <= 12; i++) {
+                        int address = thread * 12 + i;
+                        accessStrategy.access(OperationType.WRITE, address, ("Block " + address).getBytes(), false,
+                                false);
+                    }
+                    for (int i = 1; i <= 12; i++) {
+                        int address = thread * 12 + i;
+                        byte[] data = accessStrategy.access(OperationType.READ, address, null, false, false);
+                        if (!new String(TestUtil.removeTrailingZeroes(data)).equals("Block " + address))
+                            return false;
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results)
+                assertThat(result.get(), is(true));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private PartitionedAccessStrategy getAccessStrategy(List<FactoryLocal> factories) {
+        int blocksPerPartition = PartitionedAccessStrategy.getBlocksPerPartition(SIZE, PARTITIONS);
+        List<AccessStrategy> partitions = new ArrayList<>();
+        for (int i = 0; i < PARTITIONS; i++) {
+//            Path ORAM needs a power of 2 as size
+            ORAMFactoryPath oramFactory = new ORAMFactoryPath(Integer.highestOneBit(2 * blocksPerPartition - 1) << 1,
+                    0);
+            FactoryLocal factory = new FactoryLocal(Collections.singletonList(oramFactory), 1);
+            factories.add(factory);
+            partitions.add(oramFactory.getAccessStrategy(Constants.KEY_BYTES, factory, null, 0));
+        }
+        return new PartitionedAccessStrategy(partitions, SIZE, factories.get(0).getRandomSource());
+    }
+
+    private CommunicationStrategyCounting getCommunicationStrategy(FactoryLocal factory) {
+        return (CommunicationStrategyCounting) factory.getCommunicationStrategy();
+    }
+}
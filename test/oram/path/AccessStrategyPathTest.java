@@ -1,22 +1,27 @@
 package oram.path;
 
 import oram.OperationType;
+import oram.Request;
 import oram.Util;
 import oram.block.BlockEncrypted;
 import oram.block.BlockPath;
 import oram.blockenc.BlockEncryptionStrategyPath;
+import oram.clientcom.CommunicationStrategyCounting;
 import oram.clientcom.CommunicationStrategyStub;
 import oram.encryption.EncryptionStrategy;
 import oram.encryption.EncryptionStrategyImpl;
+import oram.factory.EvictionType;
 import oram.util.FactoryStub;
 import oram.util.TestUtil;
 import org.apache.commons.lang3.ArrayUtils;
 import org.junit.Test;
 
 import javax.crypto.SecretKey;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -148,6 +153,94 @@ public class AccessStrategyPathTest {
         assertThat("Value is 'Test 4'", new String(TestUtil.removeTrailingZeroes(endObject)), is("Test 4"));
     }
 
+    @Test
+    public void shouldKeepTheTopLevelsInTheTreeTopCache() {
+        byte[] key = "Some key 7".getBytes();
+        CommunicationStrategyCounting communicationStrategy =
+                new CommunicationStrategyCounting(new CommunicationStrategyStub(31, BUCKET_SIZE));
+        FactoryStub factoryStub = new FactoryStub(communicationStrategy);
+        factoryStub.setTreeTopCacheLevels(2);
+        AccessStrategyPath accessStrategy = new AccessStrategyPath(31, BUCKET_SIZE, key, factoryStub, null, 0, 0);
+        accessStrategy.setup();
+        assertThat(accessStrategy.getTreeTopCacheLevels(), is(2));
+
+        for (int i = 1; i <= 20; i++)
+            accessStrategy.access(OperationType.WRITE, i, ("Block " + i).getBytes(), false, false);
+
+        communicationStrategy.resetBlockSent();
+        accessStrategy.access(OperationType.READ, 1, null, false, false);
+        assertThat(communicationStrategy.getBlocksSent(), is(3 * BUCKET_SIZE));
+
+        assertThat(factoryStub.runEndSignalHooks(), is(true));
+        assertThat(accessStrategy.getTreeTopCacheSize(), is(0));
+
+        for (int i = 1; i <= 20; i++) {
+            byte[] endObject = accessStrategy.access(OperationType.READ, i, null, false, false);
+            assertThat(new String(TestUtil.removeTrailingZeroes(endObject)), is("Block " + i));
+        }
+    }
+
+    @Test
+    public void shouldBeAbleToReadAndWriteWithCircuitEviction() {
+        byte[] key = "Some key 8".getBytes();
+        CommunicationStrategyCounting communicationStrategy =
+                new CommunicationStrategyCounting(new CommunicationStrategyStub(63, BUCKET_SIZE));
+        FactoryStub factoryStub = new FactoryStub(communicationStrategy);
+        factoryStub.setEvictionType(EvictionType.CIRCUIT);
+        factoryStub.setTreeTopCacheLevels(1);
+        AccessStrategyPath accessStrategy = new AccessStrategyPath(63, BUCKET_SIZE, key, factoryStub, null, 0, 0);
+        accessStrategy.setup();
+
+        for (int i = 1; i <= 40; i++)
+            accessStrategy.access(OperationType.WRITE, i, ("Block " + i).getBytes(), false, false);
+
+//        One path is read and written back, and two paths are evicted, all without the cached root
+        communicationStrategy.resetBlockSent();
+        accessStrategy.access(OperationType.READ, 1, null, false, false);
+        assertThat(communicationStrategy.getBlocksSent(), is(3 * 5 * BUCKET_SIZE));
+
+        for (int i = 1; i <= 40; i++) {
+            byte[] endObject = accessStrategy.access(OperationType.READ, i, null, false, false);
+            assertThat(new String(TestUtil.removeTrailingZeroes(endObject)), is("Block " + i));
+        }
+
+//        The setup accesses every leaf once
+        Map<Integer, Integer> histogram = accessStrategy.getStashSizeHistogram();
+        assertThat(histogram.values().stream().mapToInt(Integer::intValue).sum(), is(32 + 81));
+        assertThat(Collections.max(histogram.keySet()) <= 10, is(true));
+    }
+
+    @Test
+    public void shouldReadAndWriteTheUnionOfThePathsOfABatchOnce() {
+        byte[] key = "Some key 9".getBytes();
+        CommunicationStrategyCounting communicationStrategy =
+                new CommunicationStrategyCounting(new CommunicationStrategyStub(63, BUCKET_SIZE));
+        FactoryStub factoryStub = new FactoryStub(communicationStrategy);
+        AccessStrategyPath accessStrategy = new AccessStrategyPath(63, BUCKET_SIZE, key, factoryStub, null, 0, 0);
+        accessStrategy.setup();
+
+        List<Request> writes = new ArrayList<>();
+        for (int i = 1; i <= 40; i++)
+            writes.add(Request.write(i, ("Block " + i).getBytes()));
+        communicationStrategy.resetRoundTrips();
+        communicationStrategy.resetBlockSent();
+        assertNotNull(accessStrategy.accessBatch(writes));
+        assertThat(communicationStrategy.getRoundTrips(), is(2));
+        assertThat(communicationStrategy.getBlocksSent() <= 40 * 6 * BUCKET_SIZE, is(true));
+
+        List<Request> reads = new ArrayList<>();
+        for (int i = 40; i >= 1; i--)
+            reads.add(Request.read(i));
+        List<byte[]> res = accessStrategy.accessBatch(reads);
+        for (int i = 40; i >= 1; i--)
+            assertThat(new String(TestUtil.removeTrailingZeroes(res.get(40 - i))), is("Block " + i));
+
+        for (int i = 1; i <= 40; i++) {
+            byte[] endObject = accessStrategy.access(OperationType.READ, i, null, false, false);
+            assertThat(new String(TestUtil.removeTrailingZeroes(endObject)), is("Block " + i));
+        }
+    }
+
     @Test
     public void shouldBeAbleToAlterBlocks() {
         byte[] key = "Some key 5".getBytes();
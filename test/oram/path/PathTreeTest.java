@@ -0,0 +1,64 @@
+package oram.path;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class PathTreeTest {
+    @Test
+    public void shouldFindTheNodesOnThePathOfALeaf() {
+        assertThat(PathTree.getNode(0, 3, 4), is(7));
+        assertThat(PathTree.getNode(7, 3, 4), is(14));
+        assertThat(PathTree.getNode(5, 2, 4), is(5));
+        assertThat(PathTree.getNode(5, 1, 4), is(2));
+        assertThat(PathTree.getNode(5, 0, 4), is(0));
+        assertThat(PathTree.getNode(0, 0, 1), is(0));
+
+        for (int levels = 1; levels <= 24; levels++) {
+            int leaf = (1 << (levels - 1)) - 1;
+            int node = PathTree.getFirstLeafNode(levels) + leaf;
+            for (int l = levels - 1; l >= 0; l--) {
+                assertThat(PathTree.getNode(leaf, l, levels), is(node));
+                assertThat(PathTree.getLevel(node), is(l));
+                node = PathTree.getParent(node);
+            }
+        }
+    }
+
+    @Test
+    public void shouldFindTheLeavesBelowANode() {
+        assertThat(PathTree.getFirstLeaf(0, 4), is(0));
+        assertThat(PathTree.getLeafCount(0, 4), is(8));
+        assertThat(PathTree.getFirstLeaf(2, 4), is(4));
+        assertThat(PathTree.getLeafCount(2, 4), is(4));
+        assertThat(PathTree.getFirstLeaf(4, 4), is(2));
+        assertThat(PathTree.getLeafCount(4, 4), is(2));
+        assertThat(PathTree.getFirstLeaf(13, 4), is(6));
+        assertThat(PathTree.getLeafCount(13, 4), is(1));
+
+        for (int leaf = 0; leaf < 8; leaf++) {
+            assertThat(PathTree.isOnPath(2, leaf, 4), is(leaf >= 4));
+            assertThat(PathTree.isOnPath(4, leaf, 4), is(leaf == 2 || leaf == 3));
+        }
+    }
+
+    @Test
+    public void shouldFindTheDeepestCommonLevel() {
+        assertThat(PathTree.getDeepestCommonLevel(5, 5, 4), is(3));
+        assertThat(PathTree.getDeepestCommonLevel(4, 5, 4), is(2));
+        assertThat(PathTree.getDeepestCommonLevel(6, 5, 4), is(1));
+        assertThat(PathTree.getDeepestCommonLevel(0, 7, 4), is(0));
+        assertThat(PathTree.getDeepestCommonLevel(0, 0, 1), is(0));
+    }
+
+    @Test
+    public void shouldCountTheLevelsOfATree() {
+        assertThat(PathTree.getLevels(0), is(0));
+        assertThat(PathTree.getLevels(1), is(1));
+        assertThat(PathTree.getLevels(7), is(3));
+        assertThat(PathTree.getLevels(8), is(4));
+        assertThat(PathTree.isLeafNode(2, 2), is(true));
+        assertThat(PathTree.isLeafNode(2, 3), is(false));
+    }
+}
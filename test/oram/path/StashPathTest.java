@@ -0,0 +1,70 @@
+package oram.path;
+
+import oram.block.BlockPath;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertNull;
+
+public class StashPathTest {
+    @Test
+    public void shouldLookUpAndReplaceBlocksByAddress() {
+        StashPath stash = new StashPath();
+        stash.addAll(Arrays.asList(new BlockPath(1, new byte[]{1}, 0), new BlockPath(2, new byte[]{2}, 1)));
+        stash.put(new BlockPath(1, new byte[]{3}, 2));
+
+        assertThat(stash.size(), is(2));
+        assertThat(stash.get(1).getData(), is(new byte[]{3}));
+        assertThat(stash.get(1).getIndex(), is(2));
+        assertNull(stash.get(3));
+    }
+
+    @Test
+    public void shouldEvictBlocksAsDeepAsPossible() {
+        StashPath stash = new StashPath();
+        BlockPath onLeaf = new BlockPath(1, new byte[0], 5);
+        BlockPath sibling = new BlockPath(2, new byte[0], 4);
+        BlockPath otherHalf = new BlockPath(3, new byte[0], 1);
+        BlockPath overflowing = new BlockPath(4, new byte[0], 5);
+        BlockPath sameQuarter = new BlockPath(5, new byte[0], 7);
+        stash.addAll(Arrays.asList(otherHalf, sameQuarter, onLeaf, sibling, overflowing));
+
+        List<List<BlockPath>> res = stash.evictPath(5, 4, 1);
+
+        assertThat(res.size(), is(4));
+        assertThat(res.get(3), containsInAnyOrder(onLeaf));
+        assertThat(res.get(2), containsInAnyOrder(overflowing));
+        assertThat(res.get(1), containsInAnyOrder(sibling));
+        assertThat(res.get(0), containsInAnyOrder(sameQuarter));
+        assertThat(stash.size(), is(1));
+        assertThat(stash.get(3), is(otherHalf));
+    }
+
+    @Test
+    public void shouldReuseTheBucketsBetweenEvictions() {
+        StashPath stash = new StashPath();
+        stash.addAll(Arrays.asList(new BlockPath(1, new byte[0], 0), new BlockPath(2, new byte[0], 3)));
+        assertThat(stash.evictPath(0, 3, 4).get(2).size(), is(1));
+
+        stash.put(new BlockPath(3, new byte[0], 2));
+        List<List<BlockPath>> res = stash.evictPath(2, 3, 4);
+        assertThat(res.get(2), containsInAnyOrder(new BlockPath(3, new byte[0], 2)));
+        assertThat(res.get(1), is(empty()));
+        assertThat(res.get(0), is(empty()));
+        assertThat(stash.size(), is(0));
+    }
+
+    @Test
+    public void shouldReturnEmptyBucketsForAnEmptyStash() {
+        List<List<BlockPath>> res = new StashPath().evictPath(0, 3, 4);
+        assertThat(res.size(), is(3));
+        for (List<BlockPath> bucket : res)
+            assertThat(bucket, is(empty()));
+    }
+}
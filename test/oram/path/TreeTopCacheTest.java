@@ -0,0 +1,41 @@
+package oram.path;
+
+import oram.Constants;
+import oram.block.BlockPath;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TreeTopCacheTest {
+    @Test
+    public void shouldPickTheLevelsFromTheMemoryBudget() {
+        long bytesPerNode = 4 * (Constants.BLOCK_SIZE + TreeTopCache.BLOCK_OVERHEAD);
+        assertThat(TreeTopCache.getLevelsForBudget(0, 10, 4), is(0));
+        assertThat(TreeTopCache.getLevelsForBudget(bytesPerNode - 1, 10, 4), is(0));
+        assertThat(TreeTopCache.getLevelsForBudget(bytesPerNode, 10, 4), is(1));
+        assertThat(TreeTopCache.getLevelsForBudget(7 * bytesPerNode, 10, 4), is(3));
+        assertThat(TreeTopCache.getLevelsForBudget(15 * bytesPerNode - 1, 10, 4), is(3));
+        assertThat(TreeTopCache.getLevelsForBudget(Long.MAX_VALUE / 2, 10, 4), is(10));
+    }
+
+    @Test
+    public void shouldCountTheCachedBlocks() {
+        TreeTopCache cache = new TreeTopCache(2);
+        assertThat(cache.getNumberOfNodes(), is(3));
+        assertThat(cache.contains(2), is(true));
+        assertThat(cache.contains(3), is(false));
+
+        cache.setBlocks(0, Arrays.asList(new BlockPath(1, new byte[0], 0), new BlockPath(2, new byte[0], 1)));
+        cache.setBlocks(2, Arrays.asList(new BlockPath(3, new byte[0], 3)));
+        assertThat(cache.size(), is(3));
+
+        cache.setBlocks(0, Arrays.asList(new BlockPath(1, new byte[0], 0)));
+        assertThat(cache.size(), is(2));
+        assertThat(cache.removeBlocks(2).size(), is(1));
+        assertThat(cache.removeBlocks(2).size(), is(0));
+        assertThat(cache.size(), is(1));
+    }
+}
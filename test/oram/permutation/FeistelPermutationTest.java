@@ -0,0 +1,51 @@
+package oram.permutation;
+
+import oram.random.RandomSource;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+
+public class FeistelPermutationTest {
+
+    @Test
+    public void shouldPermuteTheIndicesBelowTheSize() {
+        for (int size : Arrays.asList(1, 2, 3, 17, 1000, 4096, 5000)) {
+            FeistelPermutation permutation = new FeistelPermutation(size, RandomSource.getDefault());
+            BitSet seen = new BitSet(size);
+            for (int i = 0; i < size; i++) {
+                int permuted = permutation.permute(i);
+                assertThat(permuted, is(lessThan(size)));
+                assertThat("Index " + permuted + " is hit twice", seen.get(permuted), is(false));
+                seen.set(permuted);
+                assertThat(permutation.invert(permuted), is(i));
+            }
+        }
+    }
+
+    @Test
+    public void shouldInvertInBatchesLikeOneByOne() {
+        FeistelPermutation permutation = new FeistelPermutation(3000, RandomSource.getDefault());
+        int[] indices = new int[3000];
+        for (int i = 0; i < indices.length; i++)
+            indices[i] = i;
+        permutation.invert(indices, 2500);
+
+        for (int i = 0; i < indices.length; i++)
+            assertThat(indices[i], is(i < 2500 ? permutation.invert(i) : i));
+    }
+
+    @Test
+    public void shouldNotBeTheIdentity() {
+        FeistelPermutation permutation = new FeistelPermutation(1 << 16, RandomSource.getDefault());
+        int fixedPoints = 0;
+        for (int i = 0; i < 1 << 16; i++)
+            if (permutation.permute(i) == i)
+                fixedPoints++;
+        assertThat(fixedPoints, is(lessThan(20)));
+    }
+}
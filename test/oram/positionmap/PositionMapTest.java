@@ -0,0 +1,71 @@
+package oram.positionmap;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PositionMapTest {
+    @Test
+    public void shouldStoreAndOverwritePositions() {
+        for (PositionMap positionMap : Arrays.asList(new PositionMapDense(16), new PositionMapOpenAddressing(16))) {
+            assertFalse(positionMap.containsKey(0));
+            assertThat(positionMap.get(5), is(PositionMap.NO_POSITION));
+
+            positionMap.put(0, -42);
+            positionMap.put(5, 7);
+            positionMap.put(5, 8);
+            assertTrue(positionMap.containsKey(0));
+            assertThat(positionMap.get(0), is(-42));
+            assertThat(positionMap.get(5), is(8));
+            assertThat(positionMap.size(), is(2));
+
+//            Beyond the initial capacity
+            positionMap.put(1000, 3);
+            assertThat(positionMap.get(1000), is(3));
+            assertThat(positionMap.get(5), is(8));
+            assertThat(positionMap.size(), is(3));
+        }
+    }
+
+    @Test
+    public void shouldMatchHashMapOnRandomOperations() {
+        Random random = new Random(42);
+        Map<Integer, Integer> expected = new HashMap<>();
+        PositionMap dense = new PositionMapDense(100);
+        PositionMap openAddressing = new PositionMapOpenAddressing(100);
+        for (int i = 0; i < 100000; i++) {
+            int address = random.nextInt(5000);
+            int position = random.nextInt();
+            if (position == PositionMap.NO_POSITION) continue;
+            expected.put(address, position);
+            dense.put(address, position);
+            openAddressing.put(address * 7919, position);
+        }
+
+        assertThat(dense.size(), is(expected.size()));
+        assertThat(openAddressing.size(), is(expected.size()));
+        for (int address = 0; address < 5000; address++) {
+            int position = expected.getOrDefault(address, PositionMap.NO_POSITION);
+            assertThat(dense.get(address), is(position));
+            assertThat(openAddressing.get(address * 7919), is(position));
+        }
+    }
+
+    @Test
+    public void shouldHoldNegativeAddressesWithOpenAddressing() {
+        PositionMap positionMap = new PositionMapOpenAddressing(4);
+        for (int i = -16; i < 0; i++)
+            positionMap.put(i, i * 2);
+        for (int i = -16; i < 0; i++)
+            assertThat(positionMap.get(i), is(i * 2));
+        assertFalse(new PositionMapDense(4).containsKey(-1));
+    }
+}
@@ -0,0 +1,81 @@
+package oram.random;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+
+public class RandomSourceCtrTest {
+
+    @Test
+    public void shouldDrawBoundedIntegersUniformly() {
+        RandomSource randomSource = new RandomSourceCtr();
+        int bound = 10;
+        int draws = 100000;
+        int[] counts = new int[bound];
+        for (int i = 0; i < draws; i++) {
+            int value = randomSource.nextInt(bound);
+            assertThat(value >= 0 && value < bound, is(true));
+            counts[value]++;
+        }
+        for (int count : counts) {
+            assertThat(count, greaterThan(draws / bound * 9 / 10));
+            assertThat(count, lessThan(draws / bound * 11 / 10));
+        }
+
+        assertThat(randomSource.nextInt(1), is(0));
+        int large = Integer.MAX_VALUE - 1;
+        for (int i = 0; i < 1000; i++)
+            assertThat(randomSource.nextInt(large) < large, is(true));
+    }
+
+    @Test
+    public void shouldFillOnlyTheRangeOfTheArray() {
+        RandomSource randomSource = new RandomSourceCtr();
+        for (int length : new int[]{7, 5000}) {
+            byte[] bytes = new byte[length + 20];
+            randomSource.nextBytes(bytes, 10, length);
+            for (int i = 0; i < 10; i++) {
+                assertThat(bytes[i], is((byte) 0));
+                assertThat(bytes[bytes.length - 1 - i], is((byte) 0));
+            }
+
+            int zeroes = 0;
+            for (int i = 10; i < 10 + length; i++)
+                if (bytes[i] == 0) zeroes++;
+            assertThat(zeroes, lessThan(length / 20 + 3));
+        }
+
+        byte[] first = new byte[32];
+        byte[] second = new byte[32];
+        randomSource.nextBytes(first);
+        randomSource.nextBytes(second);
+        assertThat(Arrays.equals(first, second), is(false));
+    }
+
+    @Test
+    public void shouldGiveEachThreadItsOwnStream() throws InterruptedException, ExecutionException {
+        RandomSource randomSource = new RandomSourceCtr();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<byte[]> first = executor.submit(() -> draw(randomSource));
+        Future<byte[]> second = executor.submit(() -> draw(randomSource));
+        assertThat(Arrays.equals(first.get(), second.get()), is(false));
+        assertThat(first.get(), is(not(draw(new RandomSourceCtr()))));
+        executor.shutdown();
+    }
+
+    private byte[] draw(RandomSource randomSource) {
+        byte[] res = new byte[64];
+        randomSource.nextBytes(res);
+        return res;
+    }
+}
@@ -0,0 +1,79 @@
+package oram.ring;
+
+import oram.Constants;
+import oram.OperationType;
+import oram.Util;
+import oram.factory.FactoryLocal;
+import oram.ofactory.ORAMFactoryRing;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertNotNull;
+
+public class AccessStrategyRingTest {
+
+    @Test
+    public void shouldReadAndWriteBlocks() {
+        AccessStrategyRing accessStrategy = getAccessStrategy(64);
+        Random random = new Random(42);
+        byte[][] values = new byte[64][];
+        for (int i = 0; i < 600; i++) {
+            int address = random.nextInt(63) + 1;
+            if (values[address] == null || random.nextBoolean()) {
+                values[address] = Util.getRandomByteArray(Constants.BLOCK_SIZE);
+                accessStrategy.access(OperationType.WRITE, address, values[address], false, false);
+            } else {
+                byte[] res = accessStrategy.access(OperationType.READ, address, null, false, false);
+                assertNotNull(res);
+                assertThat(res, is(values[address]));
+            }
+        }
+        assertThat(accessStrategy.getMaxStashSizeBetweenAccesses(), lessThan(40));
+    }
+
+    @Test
+    public void shouldEvictPathsInReverseLexicographicOrder() {
+        AccessStrategyRing accessStrategy = getAccessStrategy(16);
+        assertThat(Arrays.asList(accessStrategy.getNextEvictionLeaf(), accessStrategy.getNextEvictionLeaf(),
+                accessStrategy.getNextEvictionLeaf(), accessStrategy.getNextEvictionLeaf(),
+                accessStrategy.getNextEvictionLeaf(), accessStrategy.getNextEvictionLeaf(),
+                accessStrategy.getNextEvictionLeaf(), accessStrategy.getNextEvictionLeaf(),
+                accessStrategy.getNextEvictionLeaf()), is(Arrays.asList(0, 4, 2, 6, 1, 5, 3, 7, 0)));
+    }
+
+    @Test
+    public void shouldStoreBucketMetadataInABlock() {
+        BucketMetadata metadata = new BucketMetadata(10);
+        metadata.setSlot(3, 17, 5);
+        metadata.setSlot(7, 4, 2);
+        metadata.markRead(7);
+        metadata.markRead(1);
+
+        BucketMetadata res = BucketMetadata.fromByteArray(metadata.toByteArray(), 10);
+        assertThat(res, is(metadata));
+        assertThat(res.getSlotOf(17), is(3));
+        assertThat(res.getSlotOf(4), is(-1));
+        assertThat(res.getUnreadDummies(), is(7));
+        assertThat(res.getCount(), is(2));
+
+        Set<Integer> dummies = new HashSet<>();
+        for (int i = 0; i < 10; i++)
+            if (!res.isRead(i) && res.getAddress(i) == 0) dummies.add(i);
+        assertThat(dummies.size(), is(7));
+        assertThat(BucketMetadata.fromByteArray(new byte[Constants.BLOCK_SIZE], 10), is(new BucketMetadata(10)));
+    }
+
+    private AccessStrategyRing getAccessStrategy(int size) {
+        FactoryLocal factory = new FactoryLocal(Collections.singletonList(new ORAMFactoryRing(size, 0)), 1);
+        return new AccessStrategyRing(size - 1, Constants.DEFAULT_BUCKET_SIZE, Constants.DEFAULT_RING_DUMMIES,
+                Constants.DEFAULT_RING_EVICTION_RATE, Constants.KEY_BYTES, factory, null, 0, 0);
+    }
+}
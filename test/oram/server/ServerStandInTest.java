@@ -0,0 +1,116 @@
+package oram.server;
+
+import oram.Constants;
+import oram.OperationType;
+import oram.block.BlockEncrypted;
+import oram.clientcom.CommunicationStrategy;
+import oram.clientcom.CommunicationStrategyImpl;
+import oram.clientcom.CommunicationStrategyStub;
+import oram.factory.FactoryImpl;
+import oram.ofactory.ORAMFactory;
+import oram.ofactory.ORAMFactoryPath;
+import oram.path.AccessStrategyPath;
+import oram.util.TestUtil;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ServerStandInTest {
+    private ServerStandIn server;
+
+    @After
+    public void tearDown() {
+        if (server != null)
+            server.stop();
+    }
+
+    @Test
+    public void shouldSpeakTheProtocolOfTheOriginalServer() {
+        CommunicationStrategy communicationStrategy = startServer(NetworkShaping.NONE, false);
+
+        List<Integer> addresses = new ArrayList<>();
+        List<BlockEncrypted> blocks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            addresses.add(i + 20);
+            blocks.add(getBlock(i));
+        }
+        assertThat(communicationStrategy.writeArray(addresses, blocks), is(true));
+        assertThat(communicationStrategy.write(5, getBlock(5)), is(true));
+
+        assertThat(communicationStrategy.readArray(addresses), is(blocks));
+        assertThat(communicationStrategy.read(5), is(getBlock(5)));
+        assertThat(communicationStrategy.speedTest() > 0, is(true));
+        assertThat(communicationStrategy.sendEndSignal(), is(true));
+    }
+
+    @Test
+    public void shouldDelayResponsesByTheRoundTripTime() {
+        CommunicationStrategy communicationStrategy = startServer(new NetworkShaping(20000, 0, 0, 0), true);
+
+        long startTime = System.nanoTime();
+        for (int i = 0; i < 3; i++)
+            assertThat(communicationStrategy.write(i, getBlock(i)), is(true));
+        assertThat(System.nanoTime() - startTime >= 3 * 20000000L, is(true));
+        assertThat(communicationStrategy.sendEndSignal(), is(true));
+    }
+
+    @Test
+    public void shouldDelayResponsesByTheBandwidthAndProcessingTime() {
+        CommunicationStrategy communicationStrategy = startServer(new NetworkShaping(0, 1000, 1000000, 5000), false);
+
+//        About 10 KB both ways at 1 MB/s, and the processing time of each request
+        List<Integer> addresses = new ArrayList<>();
+        List<BlockEncrypted> blocks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            addresses.add(i);
+            blocks.add(new BlockEncrypted(new byte[Constants.ENCRYPTED_INTEGER_SIZE], new byte[1000]));
+        }
+        long startTime = System.nanoTime();
+        assertThat(communicationStrategy.writeArray(addresses, blocks), is(true));
+        assertThat(communicationStrategy.readArray(addresses), is(blocks));
+        assertThat(System.nanoTime() - startTime >= 2 * 5000000L + 20000000L, is(true));
+        assertThat(communicationStrategy.sendEndSignal(), is(true));
+    }
+
+    @Test
+    public void shouldRunPathORAMAgainstAnInProcessServer() {
+        List<ORAMFactory> factories = Collections.singletonList(new ORAMFactoryPath(16, 0));
+        FactoryImpl factory = new FactoryImpl();
+        factory.setInProcessServer(factories, 1, new NetworkShaping(100, 50, 0, 10));
+        CommunicationStrategy communicationStrategy = factory.getCommunicationStrategy();
+        server = factory.getInProcessServer();
+        assertThat(communicationStrategy.start("localhost"), is(true));
+
+        AccessStrategyPath accessStrategy = new AccessStrategyPath(15, Constants.DEFAULT_BUCKET_SIZE,
+                Constants.KEY_BYTES, factory, null, 0, 0);
+        for (int i = 1; i <= 8; i++)
+            accessStrategy.access(OperationType.WRITE, i, ("Test " + i).getBytes(), false, false);
+        for (int i = 1; i <= 8; i++) {
+            byte[] endObject = accessStrategy.access(OperationType.READ, i, null, false, false);
+            assertThat(new String(TestUtil.removeTrailingZeroes(endObject)), is("Test " + i));
+        }
+        assertThat(communicationStrategy.sendEndSignal(), is(true));
+    }
+
+    private CommunicationStrategy startServer(NetworkShaping networkShaping, boolean useFrameV2) {
+        server = new ServerStandIn(new CommunicationStrategyStub(15, 4), 0);
+        server.setNetworkShaping(networkShaping);
+        assertThat(server.start(), is(true));
+        CommunicationStrategy res = new CommunicationStrategyImpl(server.getPort(), useFrameV2);
+        assertThat(res.start("localhost"), is(true));
+        return res;
+    }
+
+    private static BlockEncrypted getBlock(int i) {
+        byte[] address = new byte[Constants.ENCRYPTED_INTEGER_SIZE];
+        Arrays.fill(address, (byte) i);
+        return new BlockEncrypted(address, ("Block " + i).getBytes());
+    }
+}
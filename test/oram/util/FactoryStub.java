@@ -7,9 +7,17 @@ import oram.clientcom.CommunicationStrategy;
 import oram.clientcom.CommunicationStrategyStub;
 import oram.encryption.EncryptionStrategy;
 import oram.encryption.EncryptionStrategyImpl;
+import oram.factory.EvictionType;
 import oram.factory.Factory;
 import oram.permutation.PermutationStrategy;
 import oram.permutation.PermutationStrategyIdentity;
+import oram.positionmap.PositionMap;
+import oram.positionmap.PositionMapDense;
+import oram.random.RandomSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
 
 /**
  * <p> ORAM <br>
@@ -18,12 +26,17 @@ import oram.permutation.PermutationStrategyIdentity;
  */
 
 public class FactoryStub implements Factory {
-    private CommunicationStrategyStub communicationStrategyStub;
+    private CommunicationStrategy communicationStrategy;
     private EncryptionStrategy encryptionStrategy;
     private PermutationStrategy permutationStrategy;
+    private int treeTopCacheLevels;
+    private EvictionType evictionType = EvictionType.GREEDY;
+    private RandomSource randomSource = RandomSource.getDefault();
+    private boolean prefetch;
+    private List<BooleanSupplier> endSignalHooks = new ArrayList<>();
 
-    public FactoryStub(CommunicationStrategyStub communicationStrategyStub) {
-        this.communicationStrategyStub = communicationStrategyStub;
+    public FactoryStub(CommunicationStrategy communicationStrategy) {
+        this.communicationStrategy = communicationStrategy;
         encryptionStrategy = new EncryptionStrategyImpl(); // Used as default
         permutationStrategy = new PermutationStrategyIdentity(); // Used as default
     }
@@ -39,7 +52,7 @@ public class FactoryStub implements Factory {
 
     @Override
     public CommunicationStrategy getCommunicationStrategy() {
-        return communicationStrategyStub;
+        return communicationStrategy;
     }
 
     @Override
@@ -66,7 +79,61 @@ public class FactoryStub implements Factory {
         return new BlockEncryptionStrategyTrivial(getEncryptionStrategy());
     }
 
+    @Override
+    public PositionMap getPositionMap(int size) {
+        return new PositionMapDense(size + 1);
+    }
+
+    @Override
+    public int getTreeTopCacheLevels(int levels, int bucketSize) {
+        return Math.min(treeTopCacheLevels, levels);
+    }
+
+    public void setTreeTopCacheLevels(int treeTopCacheLevels) {
+        this.treeTopCacheLevels = treeTopCacheLevels;
+    }
+
+    @Override
+    public EvictionType getEvictionType() {
+        return evictionType;
+    }
+
+    public void setEvictionType(EvictionType evictionType) {
+        this.evictionType = evictionType;
+    }
+
+    @Override
+    public RandomSource getRandomSource() {
+        return randomSource;
+    }
+
+    public void setRandomSource(RandomSource randomSource) {
+        this.randomSource = randomSource;
+    }
+
+    @Override
+    public boolean isPrefetchEnabled() {
+        return prefetch;
+    }
+
+    public void setPrefetch(boolean prefetch) {
+        this.prefetch = prefetch;
+    }
+
+    @Override
+    public void addEndSignalHook(BooleanSupplier hook) {
+        endSignalHooks.add(hook);
+    }
+
+    public boolean runEndSignalHooks() {
+        boolean res = true;
+        for (BooleanSupplier hook : endSignalHooks)
+            res &= hook.getAsBoolean();
+        endSignalHooks = new ArrayList<>();
+        return res;
+    }
+
     public void setCommunicationStrategyStub(CommunicationStrategyStub communicationStrategyStub) {
-        this.communicationStrategyStub = communicationStrategyStub;
+        this.communicationStrategy = communicationStrategyStub;
     }
 }